@@ -12,12 +12,15 @@ import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationAccessDeniedException;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationDatabaseException;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationInternalServerErrorException;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationOptimisticLockException;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationServiceUnavailableException;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.mok.mapper.MapperBaseException;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.request.InvalidRequestHeaderException;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.utils.InvalidDataFormatException;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.utils.IllegalOperationException;
 import pl.lodz.p.it.ssbd2024.ssbd03.utils.I18n;
 
+import java.util.concurrent.RejectedExecutionException;
+
 /**
  * General exception handling component in a form of @ControllerAdvice for exceptions that are shared
  * between all components.
@@ -72,6 +75,22 @@ public class GenericExceptionResolver {
                 .body(new ExceptionDTO(applicationInternalServerErrorException));
     }
 
+    /**
+     * This method is used to transform ApplicationServiceUnavailableException, or RejectedExecutionException thrown
+     * when resources required by the operation (e.g. password hashing capacity) are exhausted. After such exception
+     * is propagated from controller it will be caught and transformed into HTTP Response.
+     *
+     * @param exception Exception that was caught in order to be transformed to HTTP Response.
+     * @return When specified exception is propagated from controller component this method will catch it and transform
+     * to HTTP Response with status code 503 SERVICE UNAVAILABLE
+     */
+    @ExceptionHandler(value = {ApplicationServiceUnavailableException.class, RejectedExecutionException.class})
+    public ResponseEntity<?> handleServiceUnavailableException(Exception exception) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new ExceptionDTO(I18n.SERVICE_UNAVAILABLE_EXCEPTION));
+    }
+
     /**
      * This method is used to transform any MapperBaseException or exception that extend it, which could be thrown when
      * trying to map not handled / invalid data. After such exception is propagated from controller
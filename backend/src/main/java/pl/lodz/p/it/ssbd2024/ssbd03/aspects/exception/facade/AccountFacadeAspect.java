@@ -11,6 +11,7 @@ import org.aspectj.lang.annotation.Pointcut;
 import org.springframework.core.annotation.Order;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Component;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationDatabaseException;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationInternalServerErrorException;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.mok.account.validation.AccountConstraintViolationException;
@@ -30,13 +31,15 @@ public class AccountFacadeAspect {
     /**
      * Pointcut definition for any method inside AccountMOKFacade.
      */
-    @Pointcut(value = "within(pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.AccountMOKFacade)")
+    @Pointcut(value = "pl.lodz.p.it.ssbd2024.ssbd03.aspects.util.CommonPointcuts.applicationMethodExecution() && " +
+            "within(pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.AccountMOKFacade)")
     private void accountMokFacadeMethodPointcut() {}
 
     /**
      * Pointcut definition for any method inside AuthenticationFacade.
      */
-    @Pointcut(value = "within(pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.AuthenticationFacade)")
+    @Pointcut(value = "pl.lodz.p.it.ssbd2024.ssbd03.aspects.util.CommonPointcuts.applicationMethodExecution() && " +
+            "within(pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.AuthenticationFacade)")
     private void authenticationFacadeMethodPointcut() {}
 
     /**
@@ -52,7 +55,7 @@ public class AccountFacadeAspect {
      * into other, checked exception and propagate further, or rethrow them in order to process them in the next aspect.
      */
     @Around(value = "accountMokFacadeMethodPointcut() || authenticationFacadeMethodPointcut()")
-    private Object handleAccountRelatedMethodsExceptions(ProceedingJoinPoint proceedingJoinPoint) throws Exception {
+    public Object handleAccountRelatedMethodsExceptions(ProceedingJoinPoint proceedingJoinPoint) throws Exception {
         try {
             return proceedingJoinPoint.proceed();
         } catch (OptimisticLockException | AccessDeniedException exception) {
@@ -74,6 +77,8 @@ public class AccountFacadeAspect {
                 violations.add(constraintViolation.getMessage());
             }
             throw new AccountConstraintViolationException(violations);
+        } catch (ApplicationBaseException applicationBaseException) {
+            throw applicationBaseException;
         } catch (Throwable throwable) {
             throw new ApplicationInternalServerErrorException();
         }
@@ -22,7 +22,8 @@ public class GenericFacadeAspect {
      * Pointcut definition for every method that is inside a class with @Repository annotation (from org.springframework.stereotype)
      * effectively executing corresponding advice method for every method called from any facade component.
      */
-    @Pointcut(value = "@within(org.springframework.stereotype.Repository)")
+    @Pointcut(value = "pl.lodz.p.it.ssbd2024.ssbd03.aspects.util.CommonPointcuts.applicationMethodExecution() && " +
+            "@within(org.springframework.stereotype.Repository)")
     private void facadeMethodPointcut() {}
 
     /**
@@ -39,7 +40,7 @@ public class GenericFacadeAspect {
      * main result of this method is returned exception.
      */
     @Around(value = "facadeMethodPointcut()")
-    private Object handleFacadeMethodExceptions(ProceedingJoinPoint proceedingJoinPoint) throws Exception {
+    public Object handleFacadeMethodExceptions(ProceedingJoinPoint proceedingJoinPoint) throws Exception {
         try {
             return proceedingJoinPoint.proceed();
         } catch (OptimisticLockException optimisticLockException) {
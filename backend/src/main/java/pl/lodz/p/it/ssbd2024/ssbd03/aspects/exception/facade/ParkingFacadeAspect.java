@@ -34,7 +34,8 @@ public class ParkingFacadeAspect {
     /**
      * Pointcut definition for any method inside ParkingFacade.
      */
-    @Pointcut(value = "within(pl.lodz.p.it.ssbd2024.ssbd03.mop.facades.ParkingFacade)")
+    @Pointcut(value = "pl.lodz.p.it.ssbd2024.ssbd03.aspects.util.CommonPointcuts.applicationMethodExecution() && " +
+            "within(pl.lodz.p.it.ssbd2024.ssbd03.mop.facades.ParkingFacade)")
     private void parkingFacadeMethodPointcut() {
     }
 
@@ -51,7 +52,7 @@ public class ParkingFacadeAspect {
      *                   main result of this method is returned exception.
      */
     @Around(value = "parkingFacadeMethodPointcut()")
-    private Object handleParkingRelatedMethodsExceptions(ProceedingJoinPoint proceedingJoinPoint) throws Exception {
+    public Object handleParkingRelatedMethodsExceptions(ProceedingJoinPoint proceedingJoinPoint) throws Exception {
         try {
             return proceedingJoinPoint.proceed();
         } catch (OptimisticLockException | AccessDeniedException exception) {
@@ -77,6 +78,8 @@ public class ParkingFacadeAspect {
                 violations.add(constraintViolation.getMessage());
             }
             throw new ParkingConstraintViolationException(violations);
+        } catch (ApplicationBaseException applicationBaseException) {
+            throw applicationBaseException;
         } catch (Throwable throwable) {
             throw new ApplicationBaseException();
         }
@@ -10,9 +10,11 @@ import org.postgresql.util.PSQLException;
 import org.springframework.core.annotation.Order;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Component;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationDatabaseException;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationInternalServerErrorException;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.mok.token.conflict.TokenValueAlreadyTakenException;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.consts.DatabaseConsts;
 
 @Aspect
 @Order(10)
@@ -22,7 +24,8 @@ public class TokenFacadeAspect {
     /**
      * Pointcut definition for any method within TokenFacade.
      */
-    @Pointcut(value = "within(pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.TokenFacade)")
+    @Pointcut(value = "pl.lodz.p.it.ssbd2024.ssbd03.aspects.util.CommonPointcuts.applicationMethodExecution() && " +
+            "within(pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.TokenFacade)")
     private void tokenFacadeMethodPointcut() {}
 
     /**
@@ -36,7 +39,7 @@ public class TokenFacadeAspect {
      * into other, checked exception and propagate further, or rethrow them in order to process them in the next aspect.
      */
     @Around(value = "tokenFacadeMethodPointcut()")
-    private Object handleTokenFacadeMethodExceptions(ProceedingJoinPoint proceedingJoinPoint) throws Exception {
+    public Object handleTokenFacadeMethodExceptions(ProceedingJoinPoint proceedingJoinPoint) throws Exception {
         try {
             return proceedingJoinPoint.proceed();
         } catch (OptimisticLockException | AccessDeniedException exception) {
@@ -44,12 +47,14 @@ public class TokenFacadeAspect {
         } catch (PersistenceException | PSQLException exception) {
             Throwable exceptionCopy = exception;
             do {
-                if (exceptionCopy.getMessage().contains("token_token_value_key")) {
+                if (exceptionCopy.getMessage().contains(DatabaseConsts.TOKEN_TOKEN_DIGEST_KEY)) {
                     throw new TokenValueAlreadyTakenException();
                 }
                 exceptionCopy = exceptionCopy.getCause();
             } while (exceptionCopy != null);
             throw new ApplicationDatabaseException(exception);
+        } catch (ApplicationBaseException applicationBaseException) {
+            throw applicationBaseException;
         } catch (Throwable throwable) {
             throw new ApplicationInternalServerErrorException();
         }
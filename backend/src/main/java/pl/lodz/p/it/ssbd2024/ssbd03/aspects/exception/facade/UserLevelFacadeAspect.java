@@ -8,6 +8,7 @@ import org.aspectj.lang.annotation.Pointcut;
 import org.springframework.core.annotation.Order;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Component;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationInternalServerErrorException;
 
 @Aspect
@@ -18,7 +19,8 @@ public class UserLevelFacadeAspect {
     /**
      * Pointcut definition for any method within UserLevelFacade.
      */
-    @Pointcut(value = "within(pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.UserLevelFacade)")
+    @Pointcut(value = "pl.lodz.p.it.ssbd2024.ssbd03.aspects.util.CommonPointcuts.applicationMethodExecution() && " +
+            "within(pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.UserLevelFacade)")
     private void userLevelFacadeMethodPointcut() {}
 
     /**
@@ -32,11 +34,13 @@ public class UserLevelFacadeAspect {
      * into other, checked exception and propagate further, or rethrow them in order to process them in the next aspect.
      */
     @Around(value = "userLevelFacadeMethodPointcut()")
-    private Object handleUserLevelFacadeMethodExceptions(ProceedingJoinPoint proceedingJoinPoint) throws Exception {
+    public Object handleUserLevelFacadeMethodExceptions(ProceedingJoinPoint proceedingJoinPoint) throws Exception {
         try {
             return proceedingJoinPoint.proceed();
         } catch (OptimisticLockException | AccessDeniedException exception) {
             throw exception;
+        } catch (ApplicationBaseException applicationBaseException) {
+            throw applicationBaseException;
         } catch (Throwable throwable) {
             throw new ApplicationInternalServerErrorException();
         }
@@ -10,8 +10,11 @@ import org.springframework.stereotype.Component;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationAccessDeniedException;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationInternalServerErrorException;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationServiceUnavailableException;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.mok.token.TokenNotValidException;
 
+import java.util.concurrent.RejectedExecutionException;
+
 @Aspect
 @Order(15)
 @Component
@@ -20,7 +23,8 @@ public class GenericServiceAspect {
     /**
      * Pointcut for any method definition inside classes annotated with annotation @Service from (org.springframework.stereotype)
      */
-    @Pointcut(value = "@within(org.springframework.stereotype.Service)")
+    @Pointcut(value = "pl.lodz.p.it.ssbd2024.ssbd03.aspects.util.CommonPointcuts.applicationMethodExecution() && " +
+            "@within(org.springframework.stereotype.Service)")
     private void serviceMethodPointcut() {}
 
     /**
@@ -34,13 +38,15 @@ public class GenericServiceAspect {
      * into other, checked exception and propagate further, or rethrow them in order to process them in the next aspect.
      */
     @Around(value = "serviceMethodPointcut()")
-    private Object handleServiceMethodExceptions(ProceedingJoinPoint proceedingJoinPoint) throws Throwable {
+    public Object handleServiceMethodExceptions(ProceedingJoinPoint proceedingJoinPoint) throws Throwable {
         try {
             return proceedingJoinPoint.proceed();
         } catch (IllegalArgumentException exception) {
             throw new TokenNotValidException();
         } catch (AccessDeniedException accessDeniedException) {
             throw new ApplicationAccessDeniedException();
+        } catch (RejectedExecutionException rejectedExecutionException) {
+            throw new ApplicationServiceUnavailableException(rejectedExecutionException);
         } catch (ApplicationBaseException applicationBaseException) {
             throw applicationBaseException;
         } catch (Throwable throwable) {
@@ -0,0 +1,100 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging;
+
+import org.springframework.http.ResponseEntity;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.AbstractEntity;
+
+import java.lang.reflect.Array;
+import java.time.temporal.Temporal;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Utility class rendering arguments and results of intercepted methods, so that only identifiers and types are
+ * written to the logs. Values like strings (which may contain passwords, tokens or personal data), DTOs and entities
+ * are never rendered with their toString() methods, which also avoids initializing lazy associations of the entities.
+ */
+public final class LoggedValueRenderer {
+
+    private LoggedValueRenderer() {}
+
+    /**
+     * Renders a single value:
+     * <ul>
+     *     <li>Entities are rendered as their type and identifier, e.g. <code>Account[id=...]</code>.</li>
+     *     <li>Identifiers, numbers, booleans, enum constants and dates are rendered as their values.</li>
+     *     <li>Strings, collections, maps and arrays are rendered as their type and length.</li>
+     *     <li>Optionals and response entities are rendered with their content rendered the same way.</li>
+     *     <li>Any other object is rendered as its type only.</li>
+     * </ul>
+     *
+     * @param value Value to be rendered.
+     *
+     * @return Rendered value.
+     */
+    public static String render(Object value) {
+        StringBuilder builder = new StringBuilder(32);
+        appendValue(builder, value);
+        return builder.toString();
+    }
+
+    /**
+     * Appends rendered values (e.g. arguments of a method) to the builder, separated by commas.
+     *
+     * @param builder Builder that the rendered values are appended to.
+     * @param values  Values to be rendered.
+     */
+    public static void appendValues(StringBuilder builder, Object[] values) {
+        builder.append('[');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) builder.append(", ");
+            appendValue(builder, values[i]);
+        }
+        builder.append(']');
+    }
+
+    /**
+     * Appends a single rendered value to the builder.
+     *
+     * @param builder Builder that the rendered value is appended to.
+     * @param value   Value to be rendered.
+     *
+     * @see #render(Object)
+     */
+    public static void appendValue(StringBuilder builder, Object value) {
+        switch (value) {
+            case null -> builder.append("null");
+            case AbstractEntity entity -> builder.append(entity.getClass().getSimpleName()).append("[id=").append(entity.getId()).append(']');
+            case UUID uuid -> builder.append(uuid);
+            case Number number -> builder.append(number);
+            case Boolean bool -> builder.append(bool);
+            case Enum<?> constant -> builder.append(constant.getDeclaringClass().getSimpleName()).append('.').append(constant.name());
+            case Temporal temporal -> builder.append(temporal);
+            case CharSequence sequence -> builder.append(value.getClass().getSimpleName()).append("(length=").append(sequence.length()).append(')');
+            case Collection<?> collection -> builder.append(value.getClass().getSimpleName()).append("(size=").append(collection.size()).append(')');
+            case Map<?, ?> map -> builder.append(value.getClass().getSimpleName()).append("(size=").append(map.size()).append(')');
+            case Optional<?> optional -> {
+                if (optional.isEmpty()) {
+                    builder.append("Optional.empty");
+                } else {
+                    builder.append("Optional[");
+                    appendValue(builder, optional.get());
+                    builder.append(']');
+                }
+            }
+            case ResponseEntity<?> response -> {
+                builder.append("ResponseEntity[status=").append(response.getStatusCode().value()).append(", body=");
+                appendValue(builder, response.getBody());
+                builder.append(']');
+            }
+            default -> {
+                if (value.getClass().isArray()) {
+                    builder.append(value.getClass().getSimpleName()).append("(length=").append(Array.getLength(value)).append(')');
+                } else {
+                    builder.append(value.getClass().getSimpleName());
+                }
+            }
+        }
+    }
+}
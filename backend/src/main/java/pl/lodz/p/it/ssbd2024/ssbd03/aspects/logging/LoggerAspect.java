@@ -1,10 +1,12 @@
 package pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging;
 
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.annotation.Order;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
@@ -12,8 +14,8 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Roles;
 
-import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Aspect
@@ -21,13 +23,50 @@ import java.util.List;
 @Component
 public class LoggerAspect {
 
+    /**
+     * Indicates whether messages are written as single line key=value pairs, easily parsed by log processors.
+     */
+    @Value("${logging.aspect.structured}")
+    private boolean structured;
+
+    /**
+     * Fraction of calls logged for classes not matching any configured package.
+     */
+    @Value("${logging.aspect.sampling.default}")
+    private double defaultSamplingRate;
+
+    /**
+     * Comma separated list of package prefixes with fractions of logged calls.
+     */
+    @Value("${logging.aspect.sampling.packages:}")
+    private String packageSamplingRates;
+
+    /**
+     * Decides which calls of intercepted methods are logged. Every call is logged until the aspect is configured.
+     * <p>
+     * Dependencies of the aspect are injected into fields, since the aspect woven at compile time is instantiated
+     * by AspectJ with the no-argument constructor, and only configured by Spring afterwards.
+     *
+     * @see pl.lodz.p.it.ssbd2024.ssbd03.aspects.util.WovenAspectBeanFactoryPostProcessor
+     */
+    private volatile PackageLogSampler sampler = new PackageLogSampler(1.0, "");
+
+    /**
+     * Creates the sampler from the configured sampling rates.
+     */
+    @PostConstruct
+    public void init() {
+        this.sampler = new PackageLogSampler(defaultSamplingRate, packageSamplingRates);
+    }
+
     /**
      * Pointcut for all methods and classes annotated with @LoggerInterceptor annotation.
      * Used to enable logging for certain methods and entire classes.
      * @see LoggerInterceptor
      */
-    @Pointcut(value = "@annotation(pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerInterceptor) || " +
-            "@within(pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerInterceptor)")
+    @Pointcut(value = "pl.lodz.p.it.ssbd2024.ssbd03.aspects.util.CommonPointcuts.applicationMethodExecution() && " +
+            "(@annotation(pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerInterceptor) || " +
+            "@within(pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerInterceptor))")
     private void loggingInterceptorPointcut() {}
 
     /**
@@ -37,11 +76,16 @@ public class LoggerAspect {
      *     <li>Name of the class, which the method is called from</li>
      *     <li>Identity of the user calling given method</li>
      *     <li>User levels of the authenticated user, or GUEST otherwise.</li>
-     *     <li>List of parameters of the given method</li>
+     *     <li>Identifiers and types of parameters of the given method</li>
+     *     <li>Duration of the method execution</li>
      * </ul>
      *
-     * Optionally, this method is used to log value returned by the intercepted method (if not exceptions are thrown)
-     * or specify which exception was thrown and why.
+     * Optionally, this method is used to log identifier or type of value returned by the intercepted method
+     * (if not exceptions are thrown) or specify which exception was thrown and why.
+     * <p>
+     * Messages are built only when they are going to be written: successful calls are logged when the INFO level
+     * is enabled and the call is sampled for the package of the class, while thrown exceptions are always logged
+     * when the ERROR level is enabled.
      *
      * @param point Join point used to execute method that was being intercepted by this aspect.
      *
@@ -52,65 +96,106 @@ public class LoggerAspect {
      * next aspect (depending on the type of the component) that will handle this exception.
      */
     @Around(value = "loggingInterceptorPointcut()")
-    private Object methodLoggerAdvice(ProceedingJoinPoint point) throws Throwable {
-        StringBuilder stringBuilder = new StringBuilder("Method: ");
+    public Object methodLoggerAdvice(ProceedingJoinPoint point) throws Throwable {
+        boolean logCall = log.isInfoEnabled() && sampler.isSampled(point.getTarget().getClass());
+        if (!logCall && !log.isErrorEnabled()) return point.proceed();
+
+        long startTime = System.nanoTime();
         Object result;
         try {
-            try {
-                String callerIdentity = "Anonymous";
-                List<String> callerRoleList = List.of(Roles.ANONYMOUS.name());
-
-                if (SecurityContextHolder.getContext().getAuthentication() != null) {
-                    Authentication authenticationObj = SecurityContextHolder.getContext().getAuthentication();
-                    callerIdentity = authenticationObj.getName();
-                    callerRoleList = authenticationObj.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
-                }
-
-                stringBuilder.append(point.getSignature().getName())
-                        .append(" | Class: ")
-                        .append(point.getTarget().getClass().getSimpleName())
-                        .append('\n')
-                        .append("Invoked by user authenticated as: ")
-                        .append(callerIdentity)
-                        .append(" | List of users levels: ")
-                        .append(callerRoleList)
-                        .append('\n');
-
-                stringBuilder.append("List of parameters: ")
-                        .append("[ ");
-                for (Object parameter : point.getArgs()) {
-                    stringBuilder.append(parameter).append(": ").append(parameter != null ? parameter.getClass().getSimpleName() : "null");
-                    if (Arrays.stream(point.getArgs()).toList().getLast() != parameter) stringBuilder.append(", ");
-                }
-                stringBuilder.append(" ]").append('\n');
-            } catch (Exception exception) {
-                log.error("Exception: {} occurred while processing logger aspect message, since:  ", exception.getClass().getSimpleName(), exception.getCause());
-                throw exception;
-            }
-
             result = point.proceed();
         } catch (Throwable throwable) {
-            stringBuilder.append("Exception: ")
-                    .append(throwable.getClass().getSimpleName())
-                    .append(" was thrown during method execution, since: ")
-                    .append(throwable.getMessage())
-                    .append(". Cause: ")
-                    .append(throwable.getCause());
-            log.error(stringBuilder.toString());
+            if (log.isErrorEnabled()) log.error(this.buildMessage(point, null, throwable, startTime));
             throw throwable;
         }
 
-        if (result != null) {
-            stringBuilder.append(" Method returned value: ")
-                    .append(result)
-                    .append(" of type: ")
-                    .append(result.getClass().getSimpleName());
-        } else {
-            stringBuilder.append(" Method did not return any value.");
-        }
-
-        log.info(stringBuilder.toString());
+        if (logCall) log.info(this.buildMessage(point, result, null, startTime));
 
         return result;
     }
+
+    /**
+     * Builds the message describing the call of the intercepted method. Exceptions thrown while building the message
+     * are logged and never propagated to the caller of the intercepted method.
+     *
+     * @param point     Join point of the intercepted method.
+     * @param result    Value returned by the intercepted method.
+     * @param throwable Exception thrown by the intercepted method, or null if the method returned normally.
+     * @param startTime Time of the start of the method execution, from System.nanoTime().
+     *
+     * @return Message to be logged.
+     */
+    private String buildMessage(ProceedingJoinPoint point, Object result, Throwable throwable, long startTime) {
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        try {
+            String callerIdentity = "Anonymous";
+            List<String> callerRoleList = List.of(Roles.ANONYMOUS.name());
+
+            Authentication authenticationObj = SecurityContextHolder.getContext().getAuthentication();
+            if (authenticationObj != null) {
+                callerIdentity = authenticationObj.getName();
+                callerRoleList = authenticationObj.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
+            }
+
+            String methodName = point.getSignature().getName();
+            String className = point.getTarget().getClass().getSimpleName();
+            StringBuilder stringBuilder = new StringBuilder(256);
+            if (structured) {
+                stringBuilder.append("class=").append(className)
+                        .append(" method=").append(methodName)
+                        .append(" user=").append(callerIdentity)
+                        .append(" roles=").append(String.join(",", callerRoleList))
+                        .append(" args=");
+                LoggedValueRenderer.appendValues(stringBuilder, point.getArgs());
+                stringBuilder.append(" duration_ms=").append(durationMillis);
+                if (throwable != null) {
+                    stringBuilder.append(" outcome=error exception=").append(throwable.getClass().getSimpleName())
+                            .append(" message=\"").append(escape(throwable.getMessage())).append('"');
+                } else {
+                    stringBuilder.append(" outcome=ok result=");
+                    LoggedValueRenderer.appendValue(stringBuilder, result);
+                }
+                return stringBuilder.toString();
+            }
+
+            stringBuilder.append("Method: ")
+                    .append(methodName)
+                    .append(" | Class: ")
+                    .append(className)
+                    .append('\n')
+                    .append("Invoked by user authenticated as: ")
+                    .append(callerIdentity)
+                    .append(" | List of users levels: ")
+                    .append(callerRoleList)
+                    .append('\n')
+                    .append("List of parameters: ");
+            LoggedValueRenderer.appendValues(stringBuilder, point.getArgs());
+            stringBuilder.append('\n');
+
+            if (throwable != null) {
+                stringBuilder.append("Exception: ")
+                        .append(throwable.getClass().getSimpleName())
+                        .append(" was thrown during method execution, since: ")
+                        .append(throwable.getMessage())
+                        .append(". Cause: ")
+                        .append(throwable.getCause());
+            } else if (result != null) {
+                stringBuilder.append(" Method returned value: ");
+                LoggedValueRenderer.appendValue(stringBuilder, result);
+            } else {
+                stringBuilder.append(" Method did not return any value.");
+            }
+            stringBuilder.append(" | Duration: ").append(durationMillis).append(" ms");
+            return stringBuilder.toString();
+        } catch (RuntimeException exception) {
+            log.warn("Exception: {} occurred while processing logger aspect message, since: {}",
+                    exception.getClass().getSimpleName(), exception.getMessage());
+            return "Method: " + point.getSignature().toShortString() + (throwable != null ? " threw: " + throwable : "");
+        }
+    }
+
+    private static String escape(String value) {
+        if (value == null) return "";
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace('\n', ' ').replace('\r', ' ');
+    }
 }
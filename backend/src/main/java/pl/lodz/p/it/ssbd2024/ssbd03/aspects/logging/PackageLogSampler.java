@@ -0,0 +1,92 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides whether a call of a method of the given class should be logged, based on sampling rates configured for
+ * packages. The rate of the longest matching package prefix is used, or the default rate, when no prefix matches.
+ * Rates are resolved once per class and cached afterwards.
+ */
+public class PackageLogSampler {
+
+    private final double defaultRate;
+
+    private final Map<String, Double> packageRates;
+
+    private final Map<Class<?>, Double> resolvedRates = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs the sampler.
+     *
+     * @param defaultRate  Sampling rate used for classes not matching any package, between 0 and 1.
+     * @param packageRates Comma separated list of package prefixes with sampling rates, e.g.
+     *                     <code>pl.lodz.p.it.ssbd2024.ssbd03.mok.facades=0.1,pl.lodz.p.it.ssbd2024.ssbd03.mop=0.5</code>.
+     *                     May be empty.
+     *
+     * @throws IllegalArgumentException When any of the entries is malformed or any rate is out of range.
+     */
+    public PackageLogSampler(double defaultRate, String packageRates) {
+        this.defaultRate = validateRate(defaultRate);
+        this.packageRates = parse(packageRates);
+    }
+
+    /**
+     * @param targetClass Class of the intercepted method.
+     *
+     * @return True if the call should be logged, false otherwise.
+     */
+    public boolean isSampled(Class<?> targetClass) {
+        double rate = this.getRate(targetClass);
+        if (rate >= 1.0) return true;
+        if (rate <= 0.0) return false;
+        return ThreadLocalRandom.current().nextDouble() < rate;
+    }
+
+    /**
+     * @param targetClass Class of the intercepted method.
+     *
+     * @return Sampling rate used for the given class.
+     */
+    public double getRate(Class<?> targetClass) {
+        return resolvedRates.computeIfAbsent(targetClass, this::resolveRate);
+    }
+
+    private double resolveRate(Class<?> targetClass) {
+        String className = targetClass.getName();
+        return packageRates.entrySet().stream()
+                .filter(entry -> className.equals(entry.getKey()) || className.startsWith(entry.getKey() + "."))
+                .max(Comparator.comparingInt(entry -> entry.getKey().length()))
+                .map(Map.Entry::getValue)
+                .orElse(defaultRate);
+    }
+
+    private static Map<String, Double> parse(String packageRates) {
+        Map<String, Double> rates = new LinkedHashMap<>();
+        if (packageRates == null || packageRates.isBlank()) return rates;
+        for (String entry : packageRates.split(",")) {
+            if (entry.isBlank()) continue;
+            int separator = entry.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Sampling rate entry: %s must have form package=rate.".formatted(entry.trim()));
+            }
+            String packageName = entry.substring(0, separator).trim();
+            try {
+                rates.put(packageName, validateRate(Double.parseDouble(entry.substring(separator + 1).trim())));
+            } catch (NumberFormatException exception) {
+                throw new IllegalArgumentException("Sampling rate of package: %s is not a number.".formatted(packageName), exception);
+            }
+        }
+        return rates;
+    }
+
+    private static double validateRate(double rate) {
+        if (Double.isNaN(rate) || rate < 0.0 || rate > 1.0) {
+            throw new IllegalArgumentException("Sampling rate: %s must be between 0 and 1.".formatted(rate));
+        }
+        return rate;
+    }
+}
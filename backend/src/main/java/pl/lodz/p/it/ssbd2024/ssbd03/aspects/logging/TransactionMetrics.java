@@ -0,0 +1,187 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging;
+
+import jakarta.transaction.Status;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Component collecting statistics of the transactions tracked by TxAspect. Durations of the transactions are recorded
+ * in a histogram for each outcome, and the maximum nesting depth of the tracked methods in a separate histogram.
+ * Additionally, the most recent transactions that were rolled back or lasted longer than the configured threshold
+ * are kept, together with the method that started them, so they can be found without searching the logs.
+ *
+ * @see TxAspect
+ * @see TransactionSynchronization
+ */
+@Component
+public class TransactionMetrics {
+
+    /**
+     * Upper bounds (inclusive) of the buckets of the duration histograms, in milliseconds. The last bucket
+     * has no upper bound.
+     */
+    private static final long[] DURATION_BUCKETS_MILLIS = {1, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+    /**
+     * Number of buckets of the nesting depth histogram. The last bucket contains all deeper transactions.
+     */
+    private static final int MAX_TRACKED_DEPTH = 8;
+
+    /**
+     * Outcome of the completed transaction.
+     */
+    public enum Outcome {
+        COMMITTED,
+        ROLLED_BACK,
+        UNKNOWN;
+
+        /**
+         * @param status Status of the completed transaction, as one of the constants from jakarta.transaction.Status.
+         *
+         * @return Outcome corresponding to the given status.
+         */
+        public static Outcome fromStatus(int status) {
+            return switch (status) {
+                case Status.STATUS_COMMITTED -> COMMITTED;
+                case Status.STATUS_ROLLEDBACK -> ROLLED_BACK;
+                default -> UNKNOWN;
+            };
+        }
+    }
+
+    /**
+     * Information about the completed transaction, kept when it was rolled back or was slow.
+     *
+     * @param transactionKey Identifier of the transaction.
+     * @param rootMethod     Method that was called first in the transaction, e.g. <code>AccountService.getAccount</code>.
+     * @param outcome        Outcome of the transaction.
+     * @param durationMillis Duration of the transaction, measured from the first call of the tracked method.
+     * @param maxDepth       Maximum nesting depth of the tracked methods in the transaction.
+     */
+    public record CompletedTransaction(String transactionKey, String rootMethod, Outcome outcome, long durationMillis, int maxDepth) {}
+
+    private final long slowThresholdMillis;
+
+    private final int recentCapacity;
+
+    private final Map<Outcome, AtomicLongArray> durationHistograms = new EnumMap<>(Outcome.class);
+
+    private final Map<Outcome, LongAdder> totalDurationMillis = new EnumMap<>(Outcome.class);
+
+    private final AtomicLongArray depthHistogram = new AtomicLongArray(MAX_TRACKED_DEPTH);
+
+    private final Deque<CompletedTransaction> recentNotable = new ArrayDeque<>();
+
+    /**
+     * Autowired constructor for the component.
+     *
+     * @param slowThresholdMillis Duration, after which the transaction is considered slow.
+     * @param recentCapacity      Number of the most recent rolled back or slow transactions that are kept.
+     */
+    @Autowired
+    public TransactionMetrics(@Value("${tx.metrics.slow.threshold.millis}") long slowThresholdMillis,
+                              @Value("${tx.metrics.recent.capacity}") int recentCapacity) {
+        this.slowThresholdMillis = slowThresholdMillis;
+        this.recentCapacity = recentCapacity;
+        for (Outcome outcome : Outcome.values()) {
+            durationHistograms.put(outcome, new AtomicLongArray(DURATION_BUCKETS_MILLIS.length + 1));
+            totalDurationMillis.put(outcome, new LongAdder());
+        }
+    }
+
+    /**
+     * Records the completed transaction.
+     *
+     * @param transactionKey Identifier of the transaction.
+     * @param rootMethod     Method that was called first in the transaction.
+     * @param outcome        Outcome of the transaction.
+     * @param durationMillis Duration of the transaction.
+     * @param maxDepth       Maximum nesting depth of the tracked methods in the transaction.
+     */
+    public void record(String transactionKey, String rootMethod, Outcome outcome, long durationMillis, int maxDepth) {
+        durationHistograms.get(outcome).incrementAndGet(bucketOf(durationMillis));
+        totalDurationMillis.get(outcome).add(durationMillis);
+        depthHistogram.incrementAndGet(Math.min(Math.max(maxDepth, 1), MAX_TRACKED_DEPTH) - 1);
+
+        if (outcome != Outcome.COMMITTED || durationMillis >= slowThresholdMillis) {
+            synchronized (recentNotable) {
+                recentNotable.addLast(new CompletedTransaction(transactionKey, rootMethod, outcome, durationMillis, maxDepth));
+                if (recentNotable.size() > recentCapacity) recentNotable.removeFirst();
+            }
+        }
+    }
+
+    /**
+     * @return Upper bounds (inclusive) of the buckets of the duration histograms, in milliseconds. The histograms
+     * have one more bucket, without an upper bound.
+     */
+    public static long[] getDurationBucketsMillis() {
+        return DURATION_BUCKETS_MILLIS.clone();
+    }
+
+    /**
+     * @param outcome Outcome of the transactions.
+     *
+     * @return Number of transactions with the given outcome in each duration bucket.
+     */
+    public long[] getDurationHistogram(Outcome outcome) {
+        AtomicLongArray histogram = durationHistograms.get(outcome);
+        long[] counts = new long[histogram.length()];
+        for (int i = 0; i < counts.length; i++) counts[i] = histogram.get(i);
+        return counts;
+    }
+
+    /**
+     * @param outcome Outcome of the transactions.
+     *
+     * @return Number of completed transactions with the given outcome.
+     */
+    public long getCount(Outcome outcome) {
+        return Arrays.stream(this.getDurationHistogram(outcome)).sum();
+    }
+
+    /**
+     * @param outcome Outcome of the transactions.
+     *
+     * @return Total duration of completed transactions with the given outcome, in milliseconds.
+     */
+    public long getTotalDurationMillis(Outcome outcome) {
+        return totalDurationMillis.get(outcome).sum();
+    }
+
+    /**
+     * @return Number of transactions for each maximum nesting depth, starting from 1. The last element contains
+     * the transactions with depth equal to or greater than its index.
+     */
+    public long[] getDepthHistogram() {
+        long[] counts = new long[depthHistogram.length()];
+        for (int i = 0; i < counts.length; i++) counts[i] = depthHistogram.get(i);
+        return counts;
+    }
+
+    /**
+     * @return The most recent transactions that were rolled back or were slow, starting from the oldest one.
+     */
+    public List<CompletedTransaction> getRecentNotableTransactions() {
+        synchronized (recentNotable) {
+            return List.copyOf(recentNotable);
+        }
+    }
+
+    private static int bucketOf(long durationMillis) {
+        for (int i = 0; i < DURATION_BUCKETS_MILLIS.length; i++) {
+            if (durationMillis <= DURATION_BUCKETS_MILLIS[i]) return i;
+        }
+        return DURATION_BUCKETS_MILLIS.length;
+    }
+}
@@ -1,8 +1,14 @@
 package pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging;
 
 import jakarta.transaction.Synchronization;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.tracing.Span;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.tracing.Tracer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
 @Getter
@@ -32,35 +38,107 @@ public class TransactionSynchronization implements Synchronization {
      */
     private final String transactionKey;
 
+    /**
+     * Method that was called first in the transaction, e.g. <code>AccountService.getAccount</code>.
+     */
+    private final String rootMethod;
+
+    /**
+     * Time of the first call of the tracked method in the transaction, from System.nanoTime().
+     */
+    private final long startTime;
+
+    /**
+     * Component that the completed transaction is recorded in.
+     */
+    private final TransactionMetrics transactionMetrics;
+
+    /**
+     * Number of tracked methods currently executed in the transaction.
+     */
+    private final AtomicInteger depth = new AtomicInteger();
+
+    /**
+     * Maximum number of tracked methods executed at the same time in the transaction.
+     */
+    private final AtomicInteger maxDepth = new AtomicInteger();
+
+    /**
+     * Span of the completion (two-phase commit or rollback) of the transaction, if it is completed within a trace.
+     */
+    @Getter(AccessLevel.NONE)
+    private volatile Span completionSpan;
+
     /**
      * Constructor, used by txAspect, in order to create a Synchronization object
      * for the transaction to be executed synchronously.
      *
-     * @param transactionKey Identifier of the current transaction.
+     * @param transactionKey     Identifier of the current transaction.
+     * @param rootMethod         Method that was called first in the transaction.
+     * @param transactionMetrics Component that the completed transaction is recorded in.
      *
      * @see TxAspect
      */
-    public TransactionSynchronization(String transactionKey) {
+    public TransactionSynchronization(String transactionKey, String rootMethod, TransactionMetrics transactionMetrics) {
         this.transactionKey = transactionKey;
+        this.rootMethod = rootMethod;
+        this.transactionMetrics = transactionMetrics;
+        this.startTime = System.nanoTime();
+    }
+
+    /**
+     * Marks the start of the execution of the tracked method in the transaction.
+     *
+     * @return Nesting depth of the method, starting from 1.
+     */
+    public int enter() {
+        int current = depth.incrementAndGet();
+        maxDepth.accumulateAndGet(current, Math::max);
+        return current;
+    }
+
+    /**
+     * Marks the end of the execution of the tracked method in the transaction.
+     */
+    public void exit() {
+        depth.decrementAndGet();
     }
 
     /**
      * The beforeCompletion method is called by the transaction manager prior to the start of the two-phase
      * transaction commit process. This call is executed with the transaction context of the transaction
-     * that is being committed.
+     * that is being committed. Starts the span of the completion, which is ended after the transaction is completed.
      */
     @Override
-    public void beforeCompletion() {}
+    public void beforeCompletion() {
+        Span span = Tracer.startDetachedSpan("transaction.commit");
+        if (span != null) {
+            span.setAttribute("transaction.key", transactionKey);
+            span.setAttribute("transaction.root.method", rootMethod);
+        }
+        completionSpan = span;
+    }
 
     /**
      * This method is called by the transaction manager after the transaction is committed or rolled back.
-     * Used for logging result of the transaction.
+     * Used for logging result of the transaction and recording its duration, outcome and nesting depth.
      *
      * @param i The status of the transaction completion.
      */
     @Override
     public void afterCompletion(int i) {
-        log.info("Transaction: " + transactionKey + " completed with status:" + TransactionStatus.values()[i]);
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        Span span = completionSpan;
+        if (span != null) {
+            TransactionMetrics.Outcome outcome = TransactionMetrics.Outcome.fromStatus(i);
+            span.setAttribute("transaction.outcome", outcome.name().toLowerCase());
+            if (outcome != TransactionMetrics.Outcome.COMMITTED) span.setError("Transaction " + outcome.name().toLowerCase());
+            span.end();
+        }
         TxAspect.getTransactionIds().remove(transactionKey);
+        transactionMetrics.record(transactionKey, rootMethod, TransactionMetrics.Outcome.fromStatus(i), durationMillis, maxDepth.get());
+        log.info("Transaction: {} started by: {} completed with status: {} after {} ms, max depth: {}.",
+                transactionKey, rootMethod, i >= 0 && i < TransactionStatus.values().length ? TransactionStatus.values()[i] : i,
+                durationMillis, maxDepth.get());
     }
 }
@@ -1,19 +1,18 @@
 package pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging;
 
-import jakarta.transaction.Synchronization;
-import jakarta.transaction.Transaction;
+import jakarta.transaction.TransactionSynchronizationRegistry;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
-import java.lang.reflect.Method;
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 @Aspect
@@ -23,18 +22,46 @@ public class TxAspect {
     /**
      * This set contains all transaction identifiers that currently exist in the application. Method executed around
      * txPointcut() add an identifier (if it is not already in the set) and that identifier is removed by afterCompletionMethod()
-     * of TransactionSynchronization.
+     * of TransactionSynchronization, possibly on another thread, hence the set is concurrent.
      */
     @Getter
-    private static final Set<String> transactionIds = new HashSet<>();
+    private static final Set<String> transactionIds = ConcurrentHashMap.newKeySet();
+
+    private TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+
+    private TransactionMetrics transactionMetrics;
+
+    /**
+     * Sets the registry of the JTA transaction manager. Dependencies are injected with setters, since the aspect
+     * woven at compile time is instantiated by AspectJ, and only configured by Spring afterwards. Transactions
+     * are not tracked until the aspect is configured.
+     *
+     * @param transactionSynchronizationRegistry Registry used to identify the current transaction and to register
+     *                                           its synchronization.
+     *
+     * @see pl.lodz.p.it.ssbd2024.ssbd03.aspects.util.WovenAspectBeanFactoryPostProcessor
+     */
+    @Autowired
+    public void setTransactionSynchronizationRegistry(TransactionSynchronizationRegistry transactionSynchronizationRegistry) {
+        this.transactionSynchronizationRegistry = transactionSynchronizationRegistry;
+    }
+
+    /**
+     * @param transactionMetrics Component recording durations, outcomes and nesting depths of the transactions.
+     */
+    @Autowired
+    public void setTransactionMetrics(TransactionMetrics transactionMetrics) {
+        this.transactionMetrics = transactionMetrics;
+    }
 
     /**
      * Pointcut definition for every method or class with @TxTracked annotation (from pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging)
      * effectively executing corresponding advice method for every call of any method annotated with this annotation, thus
      * logging also transaction state.
      */
-    @Pointcut(value = "@annotation(pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.TxTracked) || " +
-            "@within(pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.TxTracked)")
+    @Pointcut(value = "pl.lodz.p.it.ssbd2024.ssbd03.aspects.util.CommonPointcuts.applicationMethodExecution() && " +
+            "(@annotation(pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.TxTracked) || " +
+            "@within(pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.TxTracked))")
     private void txPointcut() {}
 
     /**
@@ -44,8 +71,9 @@ public class TxAspect {
      *    <li>Name of the executed method.</li>
      *    <li>Class, where the executed method is located.</li>
      *    <li>Identifier of the transaction.</li>
+     *    <li>Nesting depth of the method in the transaction.</li>
      *    <li>Username of the user, who is currently logged into the application.</li>
-     *    <li>Value returned by the executed method.</li>
+     *    <li>Identifier or type of the value returned by the executed method.</li>
      * </ul>
      *
      * Optionally, this method is able to log error related information like:
@@ -53,6 +81,10 @@ public class TxAspect {
      *    <li>Exception throw during aspect execution.</li>
      * <ul/>
      *
+     * Synchronization of the transaction is registered on the first call of the tracked method in the transaction,
+     * and records the duration, outcome and nesting depth of the transaction in TransactionMetrics, when the
+     * transaction completes.
+     *
      * @param proceedingJoinPoint Join point used to execute method that was being intercepted by this aspect.
      *
      * @return Result of the executed method is returned, as this method is executed around certain method
@@ -60,48 +92,65 @@ public class TxAspect {
      */
 
     @Around(value = "txPointcut()")
-    private Object aroundTxPointcut(ProceedingJoinPoint proceedingJoinPoint) throws Throwable {
+    public Object aroundTxPointcut(ProceedingJoinPoint proceedingJoinPoint) throws Throwable {
+        TransactionSynchronization synchronization = null;
         String transactionKey = null;
-        StringBuilder message = new StringBuilder("Method call: ");
-        message.append(proceedingJoinPoint.getSignature().getName());
-        message.append(" | Class: ").append(proceedingJoinPoint.getTarget().getClass().getSimpleName());
-        Object result;
+        int depth = 0;
         try {
-            ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
-            Class<?> transactionSynchronizationRegistry = contextClassLoader.loadClass("com.atomikos.icatch.jta.TransactionSynchronizationRegistryImp");
-
-            Method getTransactionKey = transactionSynchronizationRegistry.getMethod("getTransactionKey", (Class<?>[]) null);
-            Transaction transaction = (Transaction) getTransactionKey.invoke(transactionSynchronizationRegistry.getDeclaredConstructor().newInstance());
-
-            if (transaction != null) transactionKey = transaction.toString();
-
-            if (transactionKey != null && !transactionIds.contains(transactionKey)) {
-                Method registerSynchronization = transactionSynchronizationRegistry.getMethod("registerInterposedSynchronization", Synchronization.class);
-                registerSynchronization.invoke(transactionSynchronizationRegistry.getDeclaredConstructor().newInstance(), new TransactionSynchronization(transactionKey));
-                transactionIds.add(transactionKey);
+            Object transaction = transactionSynchronizationRegistry != null ? transactionSynchronizationRegistry.getTransactionKey() : null;
+            if (transaction != null) {
+                transactionKey = transaction.toString();
+                synchronization = (TransactionSynchronization) transactionSynchronizationRegistry.getResource(TransactionSynchronization.class);
+                if (synchronization == null && transactionIds.add(transactionKey)) {
+                    synchronization = new TransactionSynchronization(transactionKey, methodName(proceedingJoinPoint), transactionMetrics);
+                    transactionSynchronizationRegistry.registerInterposedSynchronization(synchronization);
+                    transactionSynchronizationRegistry.putResource(TransactionSynchronization.class, synchronization);
+                }
+                if (synchronization != null) depth = synchronization.enter();
             }
+        } catch (RuntimeException exception) {
+            log.error(" | Unexpected exception: {} within aspect occurred due to: ", exception.getClass().getSimpleName(), exception.getCause());
+            throw exception;
+        }
 
-            try {
-                if (transactionKey == null) message.append(" | This method is not called in the transactional context.");
-                else message.append(" | Transaction key: ").append(transactionKey);
-                message.append(" | User: ").append(null != SecurityContextHolder.getContext().getAuthentication() ? SecurityContextHolder.getContext().getAuthentication().getName() : "ANONYMOUS");
-            } catch (Exception exception) {
-                log.error(" | Unexpected exception: {} within aspect occurred due to: ", exception.getClass().getSimpleName(), exception.getCause());
-                throw exception;
-            }
+        Object result;
+        try {
             result = proceedingJoinPoint.proceed();
         } catch (Throwable throwable) {
-            message.append(" | Thrown exception: ").append(throwable);
-            log.error(message.toString(), throwable);
+            if (log.isErrorEnabled()) {
+                log.error(this.buildMessage(proceedingJoinPoint, transactionKey, depth).append(" | Thrown exception: ").append(throwable).toString(), throwable);
+            }
             throw throwable;
+        } finally {
+            if (synchronization != null) synchronization.exit();
         }
 
-        message.append(" | Returned ");
-        if (result != null) message.append(": ").append(result).append(".");
-        else message.append("no value.");
-
-        log.info(message.toString());
+        if (log.isInfoEnabled()) {
+            StringBuilder message = this.buildMessage(proceedingJoinPoint, transactionKey, depth).append(" | Returned ");
+            if (result != null) {
+                message.append(": ");
+                LoggedValueRenderer.appendValue(message, result);
+                message.append(".");
+            } else {
+                message.append("no value.");
+            }
+            log.info(message.toString());
+        }
 
         return result;
     }
+
+    private StringBuilder buildMessage(ProceedingJoinPoint proceedingJoinPoint, String transactionKey, int depth) {
+        StringBuilder message = new StringBuilder("Method call: ");
+        message.append(proceedingJoinPoint.getSignature().getName());
+        message.append(" | Class: ").append(proceedingJoinPoint.getTarget().getClass().getSimpleName());
+        if (transactionKey == null) message.append(" | This method is not called in the transactional context.");
+        else message.append(" | Transaction key: ").append(transactionKey).append(" | Depth: ").append(depth);
+        message.append(" | User: ").append(null != SecurityContextHolder.getContext().getAuthentication() ? SecurityContextHolder.getContext().getAuthentication().getName() : "ANONYMOUS");
+        return message;
+    }
+
+    private static String methodName(ProceedingJoinPoint proceedingJoinPoint) {
+        return proceedingJoinPoint.getTarget().getClass().getSimpleName() + "." + proceedingJoinPoint.getSignature().getName();
+    }
 }
@@ -0,0 +1,287 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.aspects.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Aspect recording metrics of the application layers in the metrics registry:
+ * <ul>
+ *     <li>Latency histograms of the endpoints (<code>http.server.requests</code>), tagged with the controller,
+ *     its method and the response status, or the exception thrown.</li>
+ *     <li>Latency histograms of the facade methods (<code>facade.calls</code>), which are the units
+ *     of the database queries.</li>
+ *     <li>Durations and last completion times of the scheduled jobs (<code>scheduler.jobs</code>).</li>
+ *     <li>Reservations created and rejected, the latter tagged with the reason (<code>reservations.created</code>,
+ *     <code>reservations.rejected</code>). Reservations created in a transaction are counted once it is committed.</li>
+ * </ul>
+ * It is the outermost aspect, so that the measured time includes the other aspects.
+ */
+@Aspect
+@Order(1)
+@Component
+public class MetricsAspect {
+
+    private static final Duration MINIMUM_EXPECTED_LATENCY = Duration.ofMillis(1);
+    private static final Duration MAXIMUM_EXPECTED_LATENCY = Duration.ofSeconds(30);
+    private static final String NONE = "none";
+
+    private MeterRegistry meterRegistry;
+
+    private TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+
+    private final Map<String, AtomicLong> jobLastCompletionMillis = new ConcurrentHashMap<>();
+
+    /**
+     * Sets the registry, which the metrics are recorded in. Metrics are not recorded until the aspect is configured.
+     *
+     * @param meterRegistry Metrics registry of the application.
+     *
+     * @see pl.lodz.p.it.ssbd2024.ssbd03.aspects.util.WovenAspectBeanFactoryPostProcessor
+     */
+    @Autowired
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Sets the registry of the JTA transaction manager, used to count created reservations only when the transaction
+     * creating them is committed. Until it is configured, they are counted when the service method returns.
+     *
+     * @param transactionSynchronizationRegistry Registry used to check the status of the current transaction
+     *                                           and to register its synchronization.
+     */
+    @Autowired
+    public void setTransactionSynchronizationRegistry(TransactionSynchronizationRegistry transactionSynchronizationRegistry) {
+        this.transactionSynchronizationRegistry = transactionSynchronizationRegistry;
+    }
+
+    /**
+     * Pointcut definition for any method of the REST controllers.
+     */
+    @Pointcut(value = "pl.lodz.p.it.ssbd2024.ssbd03.aspects.util.CommonPointcuts.applicationMethodExecution() && " +
+            "@within(org.springframework.web.bind.annotation.RestController)")
+    private void controllerMethodPointcut() {}
+
+    /**
+     * Pointcut definition for any method of the facade components.
+     */
+    @Pointcut(value = "pl.lodz.p.it.ssbd2024.ssbd03.aspects.util.CommonPointcuts.applicationMethodExecution() && " +
+            "@within(org.springframework.stereotype.Repository)")
+    private void facadeMethodPointcut() {}
+
+    /**
+     * Pointcut definition for any scheduled method.
+     */
+    @Pointcut(value = "pl.lodz.p.it.ssbd2024.ssbd03.aspects.util.CommonPointcuts.applicationMethodExecution() && " +
+            "@annotation(org.springframework.scheduling.annotation.Scheduled)")
+    private void scheduledMethodPointcut() {}
+
+    /**
+     * Pointcut definition for the service methods creating reservations: making a reservation in advance,
+     * and entering the parking without one.
+     */
+    @Pointcut(value = "pl.lodz.p.it.ssbd2024.ssbd03.aspects.util.CommonPointcuts.applicationMethodExecution() && " +
+            "(execution(* pl.lodz.p.it.ssbd2024.ssbd03.mop.services.implementations.ReservationService.makeReservation(..)) || " +
+            "execution(* pl.lodz.p.it.ssbd2024.ssbd03.mop.services.implementations.ParkingService.enterParkingWithoutReservation(..)))")
+    private void reservationCreatingMethodPointcut() {}
+
+    /**
+     * Records the latency of the endpoint, tagged with the response status, or the exception thrown by the controller
+     * (which is translated into the response by exception resolvers).
+     *
+     * @param point Join point used to execute the intercepted controller method.
+     *
+     * @return Result of the intercepted method.
+     *
+     * @throws Throwable Exception thrown by the intercepted method, which is rethrown after it is recorded.
+     */
+    @Around(value = "controllerMethodPointcut()")
+    public Object measureEndpoint(ProceedingJoinPoint point) throws Throwable {
+        if (meterRegistry == null) return point.proceed();
+        long startTime = System.nanoTime();
+        String status = NONE;
+        String exception = NONE;
+        try {
+            Object result = point.proceed();
+            if (result instanceof ResponseEntity<?> response) status = String.valueOf(response.getStatusCode().value());
+            return result;
+        } catch (Throwable throwable) {
+            exception = throwable.getClass().getSimpleName();
+            throw throwable;
+        } finally {
+            Timer.builder("http.server.requests")
+                    .description("Latency of the endpoints, measured in the controllers")
+                    .tag("controller", point.getSignature().getDeclaringType().getSimpleName())
+                    .tag("method", point.getSignature().getName())
+                    .tag("status", status)
+                    .tag("exception", exception)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(MINIMUM_EXPECTED_LATENCY)
+                    .maximumExpectedValue(MAXIMUM_EXPECTED_LATENCY)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Records the latency of the facade method, tagged with the exception thrown, if any.
+     *
+     * @param point Join point used to execute the intercepted facade method.
+     *
+     * @return Result of the intercepted method.
+     *
+     * @throws Throwable Exception thrown by the intercepted method, which is rethrown after it is recorded.
+     */
+    @Around(value = "facadeMethodPointcut()")
+    public Object measureFacadeCall(ProceedingJoinPoint point) throws Throwable {
+        if (meterRegistry == null) return point.proceed();
+        long startTime = System.nanoTime();
+        String exception = NONE;
+        try {
+            return point.proceed();
+        } catch (Throwable throwable) {
+            exception = throwable.getClass().getSimpleName();
+            throw throwable;
+        } finally {
+            Timer.builder("facade.calls")
+                    .description("Latency of the facade methods")
+                    .tag("facade", point.getSignature().getDeclaringType().getSimpleName())
+                    .tag("method", point.getSignature().getName())
+                    .tag("exception", exception)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(MINIMUM_EXPECTED_LATENCY)
+                    .maximumExpectedValue(MAXIMUM_EXPECTED_LATENCY)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Records the duration of the scheduled job, and the time of its last successful completion.
+     *
+     * @param point Join point used to execute the intercepted scheduled method.
+     *
+     * @return Result of the intercepted method.
+     *
+     * @throws Throwable Exception thrown by the intercepted method, which is rethrown after it is recorded.
+     */
+    @Around(value = "scheduledMethodPointcut()")
+    public Object measureScheduledJob(ProceedingJoinPoint point) throws Throwable {
+        if (meterRegistry == null) return point.proceed();
+        String job = point.getSignature().getDeclaringType().getSimpleName() + "." + point.getSignature().getName();
+        long startTime = System.nanoTime();
+        String exception = NONE;
+        try {
+            Object result = point.proceed();
+            this.getLastCompletion(job).set(System.currentTimeMillis());
+            return result;
+        } catch (Throwable throwable) {
+            exception = throwable.getClass().getSimpleName();
+            throw throwable;
+        } finally {
+            Timer.builder("scheduler.jobs")
+                    .description("Duration of the scheduled jobs")
+                    .tag("job", job)
+                    .tag("exception", exception)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Counts the created reservations, and the rejected ones, tagged with the exception that caused the rejection
+     * (e.g. ReservationNoAvailablePlaceException). Service methods are executed in the transaction of the caller,
+     * so the created reservation is counted after that transaction is committed, and not at all if it is rolled back.
+     *
+     * @param point Join point used to execute the intercepted service method.
+     *
+     * @return Result of the intercepted method.
+     *
+     * @throws Throwable Exception thrown by the intercepted method, which is rethrown after it is recorded.
+     */
+    @Around(value = "reservationCreatingMethodPointcut()")
+    public Object countReservations(ProceedingJoinPoint point) throws Throwable {
+        if (meterRegistry == null) return point.proceed();
+        String operation = point.getSignature().getName();
+        try {
+            Object result = point.proceed();
+            Counter created = Counter.builder("reservations.created")
+                    .description("Number of created reservations")
+                    .tag("operation", operation)
+                    .register(meterRegistry);
+            int status = transactionSynchronizationRegistry != null ?
+                    transactionSynchronizationRegistry.getTransactionStatus() : Status.STATUS_NO_TRANSACTION;
+            if (status == Status.STATUS_NO_TRANSACTION) {
+                created.increment();
+            } else if (status == Status.STATUS_ACTIVE) {
+                transactionSynchronizationRegistry.registerInterposedSynchronization(new CommitCounter(created));
+            }
+            return result;
+        } catch (ApplicationBaseException exception) {
+            Counter.builder("reservations.rejected")
+                    .description("Number of rejected reservations")
+                    .tag("operation", operation)
+                    .tag("reason", exception.getClass().getSimpleName())
+                    .register(meterRegistry)
+                    .increment();
+            throw exception;
+        }
+    }
+
+    /**
+     * @return Time of the last successful completion of each scheduled job, which was completed at least once,
+     * by the name of the job (e.g. <code>ScheduleService.removeExpiredTokens</code>).
+     */
+    public Map<String, Instant> getJobLastCompletionTimes() {
+        return jobLastCompletionMillis.entrySet().stream()
+                .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, entry -> Instant.ofEpochMilli(entry.getValue().get())));
+    }
+
+    /**
+     * Synchronization incrementing the counter, when the transaction is committed.
+     */
+    private record CommitCounter(Counter counter) implements Synchronization {
+
+        @Override
+        public void beforeCompletion() {}
+
+        @Override
+        public void afterCompletion(int status) {
+            if (status == Status.STATUS_COMMITTED) counter.increment();
+        }
+    }
+
+    private AtomicLong getLastCompletion(String job) {
+        return jobLastCompletionMillis.computeIfAbsent(job, key -> {
+            AtomicLong lastCompletion = new AtomicLong();
+            Gauge.builder("scheduler.jobs.last.completion", lastCompletion, value -> value.get() / 1000.0)
+                    .description("Time of the last successful completion of the scheduled job, as seconds since the epoch")
+                    .baseUnit("seconds")
+                    .tag("job", key)
+                    .register(meterRegistry);
+            return lastCompletion;
+        });
+    }
+}
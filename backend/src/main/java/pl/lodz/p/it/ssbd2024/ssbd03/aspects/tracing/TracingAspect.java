@@ -0,0 +1,107 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.aspects.tracing;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.tracing.Span;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.tracing.Tracer;
+
+/**
+ * Aspect recording spans of the methods of the controllers, services and facades, called within a trace
+ * (e.g. while handling the HTTP request). The span of each layer includes the time spent in the aspects of that
+ * layer (exception translation, logging, transaction tracking) and in the transaction interceptor, so the time
+ * of the method itself is its duration less the durations of its child spans, while the JTA commit is recorded
+ * as a separate span (<code>transaction.commit</code>).
+ * <p>
+ * It is placed right after MetricsAspect, so that the spans include the other aspects.
+ */
+@Aspect
+@Order(2)
+@Component
+public class TracingAspect {
+
+    /**
+     * Pointcut definition for any method of the REST controllers.
+     */
+    @Pointcut(value = "pl.lodz.p.it.ssbd2024.ssbd03.aspects.util.CommonPointcuts.applicationMethodExecution() && " +
+            "@within(org.springframework.web.bind.annotation.RestController)")
+    private void controllerMethodPointcut() {}
+
+    /**
+     * Pointcut definition for any method of the services.
+     */
+    @Pointcut(value = "pl.lodz.p.it.ssbd2024.ssbd03.aspects.util.CommonPointcuts.applicationMethodExecution() && " +
+            "@within(org.springframework.stereotype.Service)")
+    private void serviceMethodPointcut() {}
+
+    /**
+     * Pointcut definition for any method of the facade components.
+     */
+    @Pointcut(value = "pl.lodz.p.it.ssbd2024.ssbd03.aspects.util.CommonPointcuts.applicationMethodExecution() && " +
+            "@within(org.springframework.stereotype.Repository)")
+    private void facadeMethodPointcut() {}
+
+    /**
+     * Records the span of the controller method.
+     *
+     * @param point Join point used to execute the intercepted method.
+     *
+     * @return Result of the intercepted method.
+     *
+     * @throws Throwable Exception thrown by the intercepted method, which is rethrown after it is recorded.
+     */
+    @Around(value = "controllerMethodPointcut()")
+    public Object traceController(ProceedingJoinPoint point) throws Throwable {
+        return trace(point, "controller");
+    }
+
+    /**
+     * Records the span of the service method.
+     *
+     * @param point Join point used to execute the intercepted method.
+     *
+     * @return Result of the intercepted method.
+     *
+     * @throws Throwable Exception thrown by the intercepted method, which is rethrown after it is recorded.
+     */
+    @Around(value = "serviceMethodPointcut()")
+    public Object traceService(ProceedingJoinPoint point) throws Throwable {
+        return trace(point, "service");
+    }
+
+    /**
+     * Records the span of the facade method.
+     *
+     * @param point Join point used to execute the intercepted method.
+     *
+     * @return Result of the intercepted method.
+     *
+     * @throws Throwable Exception thrown by the intercepted method, which is rethrown after it is recorded.
+     */
+    @Around(value = "facadeMethodPointcut()")
+    public Object traceFacade(ProceedingJoinPoint point) throws Throwable {
+        return trace(point, "facade");
+    }
+
+    private static Object trace(ProceedingJoinPoint point, String layer) throws Throwable {
+        // Spans are recorded only within a trace, so that e.g. periodic polling does not start new traces.
+        if (!Tracer.isEnabled() || Tracer.currentSpan() == null) return point.proceed();
+
+        String type = point.getSignature().getDeclaringType().getSimpleName();
+        Span span = Tracer.startSpan(type + "." + point.getSignature().getName(), Span.Kind.INTERNAL);
+        span.setAttribute("code.namespace", point.getSignature().getDeclaringTypeName());
+        span.setAttribute("code.function", point.getSignature().getName());
+        span.setAttribute("app.layer", layer);
+        try {
+            return point.proceed();
+        } catch (Throwable throwable) {
+            span.recordException(throwable);
+            throw throwable;
+        } finally {
+            span.end();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.aspects.util;
+
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.DeclarePrecedence;
+
+/**
+ * Precedence of the aspects woven at compile time (aspectj-ctw Maven profile), from the outermost one. It mirrors
+ * the @Order annotations of the aspects, which are taken into account only by Spring AOP.
+ * <p>
+ * Woven advice always runs inside the Spring proxies of the advised bean, so the aspects which have to be applied
+ * outside of the security interceptor and the transaction (<code>RunAsImpl</code>, exception translating aspects)
+ * are not woven, see aspectj-ctw-aop.xml.
+ * <p>
+ * This class is not a bean, so it is ignored by Spring AOP.
+ */
+@Aspect
+@DeclarePrecedence("pl.lodz.p.it.ssbd2024.ssbd03.aspects.metrics.MetricsAspect, " +
+        "pl.lodz.p.it.ssbd2024.ssbd03.aspects.tracing.TracingAspect, " +
+        "pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerAspect, " +
+        "pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.TxAspect")
+public class AspectPrecedence {}
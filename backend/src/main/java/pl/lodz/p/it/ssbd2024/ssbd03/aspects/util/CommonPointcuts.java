@@ -0,0 +1,24 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.aspects.util;
+
+import org.aspectj.lang.annotation.Pointcut;
+
+/**
+ * Named pointcuts shared by the aspects of the application.
+ */
+public final class CommonPointcuts {
+
+    private CommonPointcuts() {}
+
+    /**
+     * Pointcut for the execution of any non-private, non-static method, outside entities and DTOs.
+     * <p>
+     * Spring AOP proxies intercept only such executions on beans, so this pointcut does not change which calls are
+     * advised by Spring AOP. When the aspects are woven at compile time (aspectj-ctw Maven profile), it restricts
+     * the aspects to the same join points, instead of every join point (field access, constructor, method call,
+     * lambda body) matched by the type annotations alone.
+     */
+    @Pointcut(value = "execution(!private !static * *(..)) && " +
+            "!within(pl.lodz.p.it.ssbd2024.ssbd03.entities..*) && " +
+            "!within(pl.lodz.p.it.ssbd2024.ssbd03.commons.dto..*)")
+    public static void applicationMethodExecution() {}
+}
@@ -0,0 +1,62 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.aspects.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Post processor making Spring use the instances of the aspects woven at compile time (aspectj-ctw Maven profile).
+ * <p>
+ * Woven advice always calls the aspect instance created by AspectJ and returned by the static <code>aspectOf()</code>
+ * method of the aspect. For each aspect bean compiled by ajc, this post processor replaces the constructor of the bean
+ * with that method, so Spring injects dependencies and configuration into the very instance used by the woven advice.
+ * Aspects compiled by ajc are skipped by Spring AOP, so they are not applied twice. Aspects excluded from weaving
+ * (see aspectj-ctw-aop.xml) remain regular Spring AOP aspects.
+ * <p>
+ * When the aspects are not woven (default build), no bean definition is changed, and the aspects are applied
+ * through Spring AOP proxies.
+ */
+@Slf4j
+@Component
+public class WovenAspectBeanFactoryPostProcessor implements BeanFactoryPostProcessor {
+
+    private static final String ASPECT_OF_METHOD = "aspectOf";
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition beanDefinition = beanFactory.getBeanDefinition(beanName);
+            String beanClassName = beanDefinition.getBeanClassName();
+            if (beanClassName == null || beanDefinition.getFactoryMethodName() != null
+                    || !(beanDefinition instanceof AbstractBeanDefinition abstractBeanDefinition)) continue;
+
+            Class<?> beanClass = ClassUtils.resolveClassName(beanClassName, beanFactory.getBeanClassLoader());
+            if (isWovenAspect(beanClass)) {
+                abstractBeanDefinition.setBeanClass(beanClass);
+                abstractBeanDefinition.setFactoryMethodName(ASPECT_OF_METHOD);
+                log.info("Aspect: {} is woven at compile time, bean: {} uses its AspectJ instance.", beanClass.getSimpleName(), beanName);
+            }
+        }
+    }
+
+    /**
+     * @param beanClass Class of the bean.
+     *
+     * @return True if the class is an aspect compiled by ajc, false otherwise.
+     */
+    public static boolean isWovenAspect(Class<?> beanClass) {
+        if (!beanClass.isAnnotationPresent(Aspect.class)) return false;
+        Method aspectOf = ReflectionUtils.findMethod(beanClass, ASPECT_OF_METHOD);
+        return aspectOf != null && Modifier.isStatic(aspectOf.getModifiers()) && aspectOf.getDeclaringClass() == beanClass;
+    }
+}
@@ -0,0 +1,24 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.config;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
+
+/**
+ * Configuration of the application exceptions. Stackless expected outcomes are enabled in prod and test
+ * environments, and disabled in dev, where stack traces are useful for debugging.
+ *
+ * @see ApplicationBaseException
+ */
+@Configuration
+public class ExceptionConfig {
+
+    @Value("${exceptions.stackless.expected.outcomes}")
+    private boolean stacklessExpectedOutcomes;
+
+    @PostConstruct
+    public void init() {
+        ApplicationBaseException.setStacklessExpectedOutcomes(stacklessExpectedOutcomes);
+    }
+}
@@ -1,8 +1,10 @@
 package pl.lodz.p.it.ssbd2024.ssbd03.config.dbconfig;
 
+import com.atomikos.icatch.jta.TransactionSynchronizationRegistryImp;
 import com.atomikos.icatch.jta.UserTransactionImp;
 import com.atomikos.icatch.jta.UserTransactionManager;
 import jakarta.transaction.TransactionManager;
+import jakarta.transaction.TransactionSynchronizationRegistry;
 import jakarta.transaction.UserTransaction;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -43,6 +45,11 @@ public class AtomikosJtaConfiguration {
         return userTransactionManager;
     }
 
+    @Bean
+    public TransactionSynchronizationRegistry transactionSynchronizationRegistry() {
+        return new TransactionSynchronizationRegistryImp();
+    }
+
     @Bean(name = DatabaseConfigConstants.TXM)
     @DependsOn({"atomikosUserTransaction", "atomikosTransactionManager"})
     public PlatformTransactionManager transactionManager() throws Throwable {
@@ -0,0 +1,146 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.config.dbconfig.statistics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Filter collecting statistics of the database work of each HTTP request (opt-in, with
+ * <code>query.statistics.enabled</code> property). Requests exceeding the statement threshold, or repeating
+ * the same statement shape more times than the repetition threshold (N+1 problem), are logged with their most
+ * repeated statements, and the most recent of them are kept. Optionally, the statistics are returned in response
+ * headers, which requires buffering of the response body, so it is meant for dev and test environments only.
+ * <p>
+ * The filter is registered before the security filter chain, so that the queries of the JWT authentication are
+ * included.
+ *
+ * @see RequestQueryStatistics
+ */
+@Slf4j
+@Component
+public class QueryStatisticsFilter extends OncePerRequestFilter {
+
+    public static final String QUERY_COUNT_HEADER = "X-Query-Count";
+    public static final String ENTITY_LOAD_COUNT_HEADER = "X-Entity-Load-Count";
+    public static final String COLLECTION_FETCH_COUNT_HEADER = "X-Collection-Fetch-Count";
+
+    /**
+     * Offending request, kept to be inspected without searching the logs.
+     *
+     * @param method            HTTP method of the request.
+     * @param path              Path of the request.
+     * @param statements        Number of prepared statements.
+     * @param entityLoads       Number of loaded entities.
+     * @param collectionFetches Number of fetched lazy collections.
+     * @param repeated          Statement shapes repeated at least the repetition threshold times, with their counts.
+     */
+    public record OffendingRequest(String method, String path, int statements, int entityLoads, int collectionFetches,
+                                   Map<String, Integer> repeated) {}
+
+    private final boolean enabled;
+    private final boolean headersEnabled;
+    private final int statementThreshold;
+    private final int repetitionThreshold;
+    private final int recentCapacity;
+    private final DistributionSummary statementsSummary;
+
+    private final Deque<OffendingRequest> recentOffending = new ArrayDeque<>();
+
+    /**
+     * Autowired constructor for the filter.
+     *
+     * @param enabled             True if the statistics are collected, false otherwise.
+     * @param headersEnabled      True if the statistics are returned in response headers, false otherwise.
+     * @param statementThreshold  Number of statements, above which the request is reported.
+     * @param repetitionThreshold Number of executions of the same statement shape, from which the request is reported.
+     * @param recentCapacity      Number of the most recent offending requests that are kept.
+     * @param meterRegistry       Metrics registry, where the distribution of statements per request is recorded.
+     */
+    @Autowired
+    public QueryStatisticsFilter(@Value("${query.statistics.enabled}") boolean enabled,
+                                 @Value("${query.statistics.headers.enabled}") boolean headersEnabled,
+                                 @Value("${query.statistics.statement.threshold}") int statementThreshold,
+                                 @Value("${query.statistics.repetition.threshold}") int repetitionThreshold,
+                                 @Value("${query.statistics.recent.capacity}") int recentCapacity,
+                                 MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.headersEnabled = headersEnabled;
+        this.statementThreshold = statementThreshold;
+        this.repetitionThreshold = repetitionThreshold;
+        this.recentCapacity = recentCapacity;
+        this.statementsSummary = DistributionSummary.builder("hibernate.request.statements")
+                .description("Number of SQL statements prepared while handling a single HTTP request")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1.0)
+                .maximumExpectedValue(1000.0)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws IOException, ServletException {
+        RequestQueryStatistics statistics = RequestQueryStatistics.start();
+        ContentCachingResponseWrapper responseWrapper = headersEnabled ? new ContentCachingResponseWrapper(response) : null;
+        try {
+            filterChain.doFilter(request, responseWrapper != null ? responseWrapper : response);
+        } finally {
+            RequestQueryStatistics.stop();
+            this.report(request, statistics);
+            if (responseWrapper != null) {
+                responseWrapper.setHeader(QUERY_COUNT_HEADER, String.valueOf(statistics.getStatements()));
+                responseWrapper.setHeader(ENTITY_LOAD_COUNT_HEADER, String.valueOf(statistics.getEntityLoads()));
+                responseWrapper.setHeader(COLLECTION_FETCH_COUNT_HEADER, String.valueOf(statistics.getCollectionFetches()));
+                responseWrapper.copyBodyToResponse();
+            }
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled;
+    }
+
+    /**
+     * @return The most recent requests, which exceeded the statement or repetition threshold, starting from the oldest one.
+     */
+    public List<OffendingRequest> getRecentOffendingRequests() {
+        synchronized (recentOffending) {
+            return List.copyOf(recentOffending);
+        }
+    }
+
+    private void report(HttpServletRequest request, RequestQueryStatistics statistics) {
+        statementsSummary.record(statistics.getStatements());
+        Map<String, Integer> repeated = statistics.getRepeatedStatements(repetitionThreshold);
+        if (statistics.getStatements() <= statementThreshold && repeated.isEmpty()) return;
+
+        OffendingRequest offending = new OffendingRequest(request.getMethod(), request.getRequestURI(),
+                statistics.getStatements(), statistics.getEntityLoads(), statistics.getCollectionFetches(), repeated);
+        synchronized (recentOffending) {
+            recentOffending.addLast(offending);
+            if (recentOffending.size() > recentCapacity) recentOffending.removeFirst();
+        }
+        if (log.isWarnEnabled()) {
+            log.warn("Request: {} {} prepared {} statements, loaded {} entities and fetched {} collections. Repeated statements: {}",
+                    offending.method(), offending.path(), offending.statements(), offending.entityLoads(),
+                    offending.collectionFetches(), repeated);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.config.dbconfig.statistics;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Hibernate integrator registering event listeners, which record loaded entities and fetched collections
+ * in the statistics of the current request. Together with the statement inspector and the session event listener,
+ * it is registered on the entity manager factories of all persistence units with {@link #addHibernateProperties}.
+ */
+public class QueryStatisticsIntegrator implements Integrator {
+
+    /**
+     * Adds the properties registering the statistics hooks to the JPA properties of the persistence unit.
+     *
+     * @param properties JPA properties of the persistence unit.
+     */
+    public static void addHibernateProperties(Properties properties) {
+        properties.put("hibernate.session_factory.statement_inspector", QueryStatisticsStatementInspector.class.getName());
+        properties.put("hibernate.session.events.auto", QueryStatisticsSessionEventListener.class.getName());
+        properties.put("hibernate.integrator_provider", Provider.class.getName());
+    }
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        EventListenerRegistry eventListenerRegistry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        eventListenerRegistry.appendListeners(EventType.POST_LOAD, (PostLoadEventListener) event -> {
+            RequestQueryStatistics statistics = RequestQueryStatistics.current();
+            if (statistics != null) statistics.entityLoaded();
+        });
+        eventListenerRegistry.prependListeners(EventType.INIT_COLLECTION, (InitializeCollectionEventListener) event -> {
+            RequestQueryStatistics statistics = RequestQueryStatistics.current();
+            if (statistics != null && !event.getCollection().wasInitialized()) statistics.collectionFetched();
+        });
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {}
+
+    /**
+     * Provider of the integrator, instantiated by Hibernate from the <code>hibernate.integrator_provider</code>
+     * property.
+     */
+    public static class Provider implements IntegratorProvider {
+
+        @Override
+        public List<Integrator> getIntegrators() {
+            return List.of(new QueryStatisticsIntegrator());
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.config.dbconfig.statistics;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Session event listener recording durations of the flushes in the statistics of the current request. Hibernate
+ * creates a separate instance of the listener for each session.
+ */
+public class QueryStatisticsSessionEventListener implements SessionEventListener {
+
+    private long flushStartTime;
+
+    @Override
+    public void flushStart() {
+        flushStartTime = System.nanoTime();
+    }
+
+    @Override
+    public void flushEnd(int numberOfEntities, int numberOfCollections) {
+        RequestQueryStatistics statistics = RequestQueryStatistics.current();
+        if (statistics != null) statistics.flushed(System.nanoTime() - flushStartTime);
+    }
+}
@@ -0,0 +1,17 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.config.dbconfig.statistics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Statement inspector recording SQL statements prepared by Hibernate in the statistics of the current request.
+ * Statements are not modified.
+ */
+public class QueryStatisticsStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        RequestQueryStatistics statistics = RequestQueryStatistics.current();
+        if (statistics != null) statistics.statementPrepared(sql);
+        return sql;
+    }
+}
@@ -0,0 +1,146 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.config.dbconfig.statistics;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Statistics of the database work performed while handling a single HTTP request, in all persistence units:
+ * prepared SQL statements, loaded entities, fetched collections and flushes. Statements are also counted by their
+ * shape (SQL with parameter lists collapsed), so that the same statement repeated for each element of a collection
+ * (N+1 problem) can be detected.
+ * <p>
+ * Statistics are bound to the thread handling the request, between {@link #start()} and {@link #stop()}. Hibernate
+ * hooks record the work only when statistics are bound to the current thread, so the work performed outside
+ * of HTTP requests (e.g. by the schedulers) is not recorded.
+ *
+ * @see QueryStatisticsFilter
+ * @see QueryStatisticsIntegrator
+ */
+public class RequestQueryStatistics {
+
+    private static final ThreadLocal<RequestQueryStatistics> CURRENT = new ThreadLocal<>();
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\?(\\s*,\\s*\\?)+");
+
+    private int statements;
+    private int entityLoads;
+    private int collectionFetches;
+    private int flushes;
+    private long flushNanos;
+
+    private final Map<String, Integer> statementShapes = new HashMap<>();
+
+    /**
+     * Binds new statistics to the current thread.
+     *
+     * @return Statistics bound to the current thread.
+     */
+    public static RequestQueryStatistics start() {
+        RequestQueryStatistics statistics = new RequestQueryStatistics();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    /**
+     * @return Statistics bound to the current thread, or null if they are not collected for the current thread.
+     */
+    public static RequestQueryStatistics current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Unbinds the statistics from the current thread.
+     */
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @param sql SQL of the prepared statement.
+     *
+     * @return Shape of the statement: SQL with whitespaces normalized and parameter lists (e.g. of IN clauses)
+     * collapsed, so that the statements differing only in the number of parameters have the same shape.
+     */
+    public static String shapeOf(String sql) {
+        String normalized = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        return PARAMETER_LIST.matcher(normalized).replaceAll("?...");
+    }
+
+    void statementPrepared(String sql) {
+        statements++;
+        statementShapes.merge(shapeOf(sql), 1, Integer::sum);
+    }
+
+    void entityLoaded() {
+        entityLoads++;
+    }
+
+    void collectionFetched() {
+        collectionFetches++;
+    }
+
+    void flushed(long durationNanos) {
+        flushes++;
+        flushNanos += durationNanos;
+    }
+
+    /**
+     * @return Number of SQL statements prepared while handling the request.
+     */
+    public int getStatements() {
+        return statements;
+    }
+
+    /**
+     * @return Number of entities loaded from the database (rows fetched as entities) while handling the request.
+     */
+    public int getEntityLoads() {
+        return entityLoads;
+    }
+
+    /**
+     * @return Number of lazy collections fetched while handling the request.
+     */
+    public int getCollectionFetches() {
+        return collectionFetches;
+    }
+
+    /**
+     * @return Number of flushes of the persistence contexts.
+     */
+    public int getFlushes() {
+        return flushes;
+    }
+
+    /**
+     * @return Total duration of the flushes of the persistence contexts, in nanoseconds.
+     */
+    public long getFlushNanos() {
+        return flushNanos;
+    }
+
+    /**
+     * @return Number of statements of each shape, in descending order.
+     */
+    public Map<String, Integer> getStatementShapes() {
+        return this.getRepeatedStatements(1);
+    }
+
+    /**
+     * @param threshold Minimal number of executions of the statement shape.
+     *
+     * @return Statement shapes executed at least the given number of times, with their counts, in descending order.
+     */
+    public Map<String, Integer> getRepeatedStatements(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        statementShapes.entrySet().stream()
+                .filter(entry -> entry.getValue() >= threshold)
+                .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()))
+                .forEach(entry -> repeated.put(entry.getKey(), entry.getValue()));
+        return repeated;
+    }
+}
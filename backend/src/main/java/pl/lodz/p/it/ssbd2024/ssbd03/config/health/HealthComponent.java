@@ -0,0 +1,13 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.config.health;
+
+import java.util.Map;
+
+/**
+ * Result of the check of a single component.
+ *
+ * @param name    Name of the component, e.g. <code>datasource.MOK_ATOMIKOS_CP</code>.
+ * @param status  Status of the component.
+ * @param reason  Description of the problem, or null if the component is up.
+ * @param details Measured values, e.g. pool usage or connection latency.
+ */
+public record HealthComponent(String name, HealthStatus status, String reason, Map<String, Object> details) {}
@@ -0,0 +1,67 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.config.health;
+
+import jakarta.annotation.security.RolesAllowed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Authorities;
+
+/**
+ * Controller exposing the health of the application to the load balancer and the monitoring. It is not annotated
+ * with @LoggerInterceptor, so that periodic probing does not fill the logs.
+ * <ul>
+ *     <li><code>/health</code> - result of the last health check with the details of the components, available
+ *     only to administrators.</li>
+ *     <li><code>/health/live</code> - liveness probe, always returns 200 OK with UP status.</li>
+ *     <li><code>/health/ready</code> - readiness probe, returns 503 Service Unavailable with DOWN status, when any
+ *     component is down or saturated.</li>
+ * </ul>
+ * Probes are available without authentication, so they contain only the overall status.
+ */
+@RestController
+@RequestMapping("/health")
+public class HealthController {
+
+    private final HealthMonitor healthMonitor;
+
+    /**
+     * Autowired constructor for the controller.
+     *
+     * @param healthMonitor Component checking the health of the application.
+     */
+    @Autowired
+    public HealthController(HealthMonitor healthMonitor) {
+        this.healthMonitor = healthMonitor;
+    }
+
+    /**
+     * @return Result of the last health check, with 200 OK status.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    @RolesAllowed({Authorities.GET_MONITORING_DATA})
+    public ResponseEntity<HealthReport> health() {
+        return ResponseEntity.ok(healthMonitor.getReport());
+    }
+
+    /**
+     * @return UP status, with 200 OK status.
+     */
+    @GetMapping(value = "/live", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<HealthProbe> liveness() {
+        return ResponseEntity.ok(HealthProbe.UP);
+    }
+
+    /**
+     * @return Readiness of the application, with 200 OK status if it is ready to handle requests,
+     * 503 Service Unavailable otherwise.
+     */
+    @GetMapping(value = "/ready", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<HealthProbe> readiness() {
+        HealthProbe probe = HealthProbe.of(healthMonitor.getReport());
+        return ResponseEntity.status(probe.status() == HealthStatus.UP ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE).body(probe);
+    }
+}
@@ -0,0 +1,322 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.config.health;
+
+import com.atomikos.jdbc.AtomikosDataSourceBean;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.metrics.MetricsAspect;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.async.BoundedVirtualThreadTaskExecutor;
+
+import javax.sql.XAConnection;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Component periodically checking the health of the application:
+ * <ul>
+ *     <li>Atomikos data sources: usage of the connection pool, and latency of opening a connection and executing
+ *     the test query.</li>
+ *     <li>Reachability of the SMTP server configured in MailConfig.</li>
+ *     <li>Backlog of the asynchronous task executor.</li>
+ *     <li>Lag of the scheduled jobs - time since their last completion.</li>
+ *     <li>Heap usage after the last garbage collection, and the share of time spent in garbage collection.</li>
+ * </ul>
+ * Saturated connection pools, executor queue or heap, and unavailable databases make the application not ready,
+ * so that the load balancer stops sending new requests before they start timing out. Slow connections,
+ * unreachable SMTP server (messages wait in the outbox) and delayed jobs only degrade the status.
+ * <p>
+ * Checks are run on a dedicated thread, and the probes read the result of the last check, so that a hanging
+ * database does not block the probes. When the last check is older than three check intervals, the application
+ * is reported as not ready.
+ *
+ * @see HealthController
+ */
+@Slf4j
+@Component
+public class HealthMonitor {
+
+    private final List<AtomikosDataSourceBean> dataSources;
+    private final JavaMailSenderImpl mailSender;
+    private final BoundedVirtualThreadTaskExecutor asyncTaskExecutor;
+    private final MetricsAspect metricsAspect;
+
+    private final long checkIntervalMillis;
+    private final double poolUsageThreshold;
+    private final long connectionLatencyWarningMillis;
+    private final int connectionTimeoutSeconds;
+    private final int smtpTimeoutMillis;
+    private final double executorQueueUsageThreshold;
+    private final Duration maxSchedulerLag;
+    private final double heapUsageThreshold;
+    private final double gcTimeRatioThreshold;
+
+    private final Clock clock = Clock.systemUTC();
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "HealthMonitor-1");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile HealthReport lastReport;
+
+    private long lastGcTimeMillis = -1;
+    private long lastGcCheckNanos;
+
+    /**
+     * Autowired constructor for the component.
+     *
+     * @param dataSources                    Atomikos data sources of all persistence units.
+     * @param mailSender                     Sender of the e-mail messages, configured with the SMTP server.
+     * @param asyncTaskExecutor              Executor running methods annotated with @Async.
+     * @param metricsAspect                  Aspect recording the last completion times of the scheduled jobs.
+     * @param checkIntervalMillis            Time between the checks.
+     * @param poolUsageThreshold             Share of the borrowed connections of the pool, from which the pool is saturated.
+     * @param connectionLatencyWarningMillis Latency of the test connection, from which the data source is degraded.
+     * @param connectionTimeoutSeconds       Timeout of the test query.
+     * @param smtpTimeoutMillis              Timeout of connecting to the SMTP server.
+     * @param executorQueueUsageThreshold    Share of the queue capacity of the executor, from which it is saturated.
+     * @param maxSchedulerLagMinutes         Time since the last completion of the scheduled job, from which it is delayed.
+     * @param heapUsageThreshold             Share of the maximum heap used after garbage collection, from which the heap is saturated.
+     * @param gcTimeRatioThreshold           Share of the time spent in garbage collection, from which the heap is saturated.
+     */
+    @Autowired
+    public HealthMonitor(List<AtomikosDataSourceBean> dataSources,
+                         JavaMailSenderImpl mailSender,
+                         BoundedVirtualThreadTaskExecutor asyncTaskExecutor,
+                         MetricsAspect metricsAspect,
+                         @Value("${health.check.interval.millis}") long checkIntervalMillis,
+                         @Value("${health.datasource.pool.usage.threshold}") double poolUsageThreshold,
+                         @Value("${health.datasource.latency.warning.millis}") long connectionLatencyWarningMillis,
+                         @Value("${health.datasource.timeout.seconds}") int connectionTimeoutSeconds,
+                         @Value("${health.smtp.timeout.millis}") int smtpTimeoutMillis,
+                         @Value("${health.executor.queue.usage.threshold}") double executorQueueUsageThreshold,
+                         @Value("${health.scheduler.max.lag.minutes}") long maxSchedulerLagMinutes,
+                         @Value("${health.jvm.heap.usage.threshold}") double heapUsageThreshold,
+                         @Value("${health.jvm.gc.time.ratio.threshold}") double gcTimeRatioThreshold) {
+        this.dataSources = dataSources;
+        this.mailSender = mailSender;
+        this.asyncTaskExecutor = asyncTaskExecutor;
+        this.metricsAspect = metricsAspect;
+        this.checkIntervalMillis = checkIntervalMillis;
+        this.poolUsageThreshold = poolUsageThreshold;
+        this.connectionLatencyWarningMillis = connectionLatencyWarningMillis;
+        this.connectionTimeoutSeconds = connectionTimeoutSeconds;
+        this.smtpTimeoutMillis = smtpTimeoutMillis;
+        this.executorQueueUsageThreshold = executorQueueUsageThreshold;
+        this.maxSchedulerLag = Duration.ofMinutes(maxSchedulerLagMinutes);
+        this.heapUsageThreshold = heapUsageThreshold;
+        this.gcTimeRatioThreshold = gcTimeRatioThreshold;
+    }
+
+    /**
+     * Starts periodic checks.
+     */
+    @PostConstruct
+    public void start() {
+        executor.scheduleWithFixedDelay(this::checkSafely, 0, checkIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the checks, when the application context is closed.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return Result of the last check, or a not ready report, if there was no check yet, or the last one is outdated.
+     */
+    public HealthReport getReport() {
+        HealthReport report = lastReport;
+        Instant now = clock.instant();
+        if (report == null) {
+            return HealthReport.of(now, List.of(new HealthComponent("monitor", HealthStatus.DOWN, "Health has not been checked yet.", Map.of())));
+        }
+        Duration age = Duration.between(report.checkedAt(), now);
+        if (age.toMillis() > 3 * checkIntervalMillis) {
+            List<HealthComponent> components = new ArrayList<>(report.components());
+            components.add(new HealthComponent("monitor", HealthStatus.DOWN, "Last health check is outdated.",
+                    Map.of("ageSeconds", age.toSeconds())));
+            return HealthReport.of(report.checkedAt(), components);
+        }
+        return report;
+    }
+
+    /**
+     * Checks all components, and keeps the result as the last report.
+     *
+     * @return Result of the check.
+     */
+    public synchronized HealthReport check() {
+        List<HealthComponent> components = new ArrayList<>();
+        dataSources.forEach(dataSource -> components.add(this.checkDataSource(dataSource)));
+        components.add(this.checkSmtp());
+        components.add(this.checkAsyncTaskExecutor());
+        components.add(this.checkScheduler());
+        components.add(this.checkJvm());
+        HealthReport report = HealthReport.of(clock.instant(), components);
+
+        HealthReport previous = lastReport;
+        if (previous != null && previous.ready() != report.ready()) {
+            log.warn("Application became {}. Components: {}.", report.ready() ? "ready" : "not ready",
+                    components.stream().filter(component -> component.status() != HealthStatus.UP).toList());
+        }
+        lastReport = report;
+        return report;
+    }
+
+    private void checkSafely() {
+        try {
+            this.check();
+        } catch (RuntimeException exception) {
+            log.error("Exception: {} occurred while checking health of the application. Cause: {}.",
+                    exception.getClass().getSimpleName(), exception.getMessage());
+        }
+    }
+
+    private HealthComponent checkDataSource(AtomikosDataSourceBean dataSource) {
+        String name = "datasource." + dataSource.getUniqueResourceName();
+        Map<String, Object> details = new LinkedHashMap<>();
+        int total = dataSource.poolTotalSize();
+        int available = dataSource.poolAvailableSize();
+        int max = dataSource.getMaxPoolSize();
+        double usage = max > 0 ? (double) (total - available) / max : 0;
+        details.put("active", total - available);
+        details.put("total", total);
+        details.put("max", max);
+        details.put("usage", usage);
+
+        // Test connection is opened directly, bypassing the pool, so that the check neither waits for nor takes
+        // a connection of the saturated pool, and does not require a JTA transaction.
+        long startTime = System.nanoTime();
+        try {
+            XAConnection xaConnection = dataSource.getXaDataSource().getXAConnection();
+            try (Connection connection = xaConnection.getConnection(); Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(connectionTimeoutSeconds);
+                statement.execute(dataSource.getTestQuery() != null ? dataSource.getTestQuery() : "SELECT 1");
+            } finally {
+                xaConnection.close();
+            }
+        } catch (SQLException | RuntimeException exception) {
+            return new HealthComponent(name, HealthStatus.DOWN,
+                    "Database is unavailable: " + exception.getClass().getSimpleName(), details);
+        }
+        long latencyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        details.put("latencyMillis", latencyMillis);
+
+        if (usage >= poolUsageThreshold) return new HealthComponent(name, HealthStatus.DOWN, "Connection pool is saturated.", details);
+        if (latencyMillis >= connectionLatencyWarningMillis) return new HealthComponent(name, HealthStatus.DEGRADED, "Database responds slowly.", details);
+        return new HealthComponent(name, HealthStatus.UP, null, details);
+    }
+
+    private HealthComponent checkSmtp() {
+        String host = mailSender.getJavaMailProperties().getProperty("mail.smtp.host", mailSender.getHost());
+        Object configuredPort = mailSender.getJavaMailProperties().get("mail.smtp.port");
+        int port = configuredPort != null ? Integer.parseInt(configuredPort.toString()) : mailSender.getPort();
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("host", host);
+        details.put("port", port);
+        if (host == null || port <= 0) return new HealthComponent("smtp", HealthStatus.DEGRADED, "SMTP server is not configured.", details);
+
+        long startTime = System.nanoTime();
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(host, port), smtpTimeoutMillis);
+        } catch (IOException exception) {
+            // Messages wait in the outbox until the server is reachable again, so the application stays ready.
+            return new HealthComponent("smtp", HealthStatus.DEGRADED,
+                    "SMTP server is unreachable: " + exception.getClass().getSimpleName(), details);
+        }
+        details.put("latencyMillis", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+        return new HealthComponent("smtp", HealthStatus.UP, null, details);
+    }
+
+    private HealthComponent checkAsyncTaskExecutor() {
+        int queued = asyncTaskExecutor.getQueuedTasks();
+        int capacity = asyncTaskExecutor.getQueueCapacity();
+        double usage = capacity > 0 ? (double) queued / capacity : 0;
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("queued", queued);
+        details.put("active", asyncTaskExecutor.getActiveTasks());
+        details.put("queueCapacity", capacity);
+        details.put("usage", usage);
+        if (capacity > 0 && usage >= executorQueueUsageThreshold) {
+            return new HealthComponent("executor.async", HealthStatus.DOWN, "Queue of asynchronous tasks is saturated.", details);
+        }
+        return new HealthComponent("executor.async", HealthStatus.UP, null, details);
+    }
+
+    private HealthComponent checkScheduler() {
+        Instant now = clock.instant();
+        Map<String, Object> details = new LinkedHashMap<>();
+        List<String> delayed = new ArrayList<>();
+        metricsAspect.getJobLastCompletionTimes().entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> {
+                    Duration lag = Duration.between(entry.getValue(), now);
+                    details.put(entry.getKey() + ".lagSeconds", lag.toSeconds());
+                    if (lag.compareTo(maxSchedulerLag) > 0) delayed.add(entry.getKey());
+                });
+        if (!delayed.isEmpty()) {
+            return new HealthComponent("scheduler", HealthStatus.DEGRADED, "Scheduled jobs are delayed: " + String.join(", ", delayed) + ".", details);
+        }
+        return new HealthComponent("scheduler", HealthStatus.UP, null, details);
+    }
+
+    private HealthComponent checkJvm() {
+        long used = 0;
+        long max = Runtime.getRuntime().maxMemory();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() != MemoryType.HEAP) continue;
+            // Usage after the last collection shows the live data, unlike the current usage growing until the next collection.
+            MemoryUsage usage = pool.getCollectionUsage() != null ? pool.getCollectionUsage() : pool.getUsage();
+            used += usage.getUsed();
+        }
+        double heapUsage = max > 0 ? (double) used / max : 0;
+
+        long gcTimeMillis = ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime)
+                .filter(time -> time > 0)
+                .sum();
+        long nowNanos = System.nanoTime();
+        double gcTimeRatio = 0;
+        if (lastGcTimeMillis >= 0 && nowNanos > lastGcCheckNanos) {
+            gcTimeRatio = (double) TimeUnit.MILLISECONDS.toNanos(gcTimeMillis - lastGcTimeMillis) / (nowNanos - lastGcCheckNanos);
+        }
+        lastGcTimeMillis = gcTimeMillis;
+        lastGcCheckNanos = nowNanos;
+
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("heapUsedAfterGcBytes", used);
+        details.put("heapMaxBytes", max);
+        details.put("heapUsage", heapUsage);
+        details.put("gcTimeRatio", gcTimeRatio);
+        if (heapUsage >= heapUsageThreshold) return new HealthComponent("jvm", HealthStatus.DOWN, "Heap is saturated.", details);
+        if (gcTimeRatio >= gcTimeRatioThreshold) return new HealthComponent("jvm", HealthStatus.DOWN, "Garbage collection takes too much time.", details);
+        return new HealthComponent("jvm", HealthStatus.UP, null, details);
+    }
+}
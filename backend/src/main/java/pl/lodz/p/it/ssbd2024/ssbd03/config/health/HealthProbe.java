@@ -0,0 +1,25 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.config.health;
+
+/**
+ * Result of the health check exposed to the load balancer without authentication. It contains only the overall
+ * status, so that no details of the components (e.g. addresses, pool sizes, memory usage) are revealed.
+ *
+ * @param status {@link HealthStatus#UP} if the application is ready to handle requests (including degraded
+ *               components), {@link HealthStatus#DOWN} otherwise.
+ */
+public record HealthProbe(HealthStatus status) {
+
+    /**
+     * Probe of a running application.
+     */
+    public static final HealthProbe UP = new HealthProbe(HealthStatus.UP);
+
+    /**
+     * @param report Result of the last health check.
+     *
+     * @return Probe with the readiness of the application.
+     */
+    public static HealthProbe of(HealthReport report) {
+        return report.ready() ? UP : new HealthProbe(HealthStatus.DOWN);
+    }
+}
@@ -0,0 +1,34 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.config.health;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Result of the last health check of the application.
+ *
+ * @param status     The worst status of the components.
+ * @param ready      True if no component is down, so the application is ready to handle requests, false otherwise.
+ * @param checkedAt  Time of the check, serialized in ISO-8601 format.
+ * @param components Results of the checks of the components.
+ */
+public record HealthReport(HealthStatus status,
+                           boolean ready,
+                           @JsonSerialize(using = ToStringSerializer.class) Instant checkedAt,
+                           List<HealthComponent> components) {
+
+    /**
+     * @param checkedAt  Time of the check.
+     * @param components Results of the checks of the components.
+     *
+     * @return Report with the status and readiness derived from the components.
+     */
+    public static HealthReport of(Instant checkedAt, List<HealthComponent> components) {
+        HealthStatus status = components.stream()
+                .map(HealthComponent::status)
+                .reduce(HealthStatus.UP, HealthStatus::worst);
+        return new HealthReport(status, status != HealthStatus.DOWN, checkedAt, List.copyOf(components));
+    }
+}
@@ -0,0 +1,32 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.config.health;
+
+/**
+ * Status of the application, or of a single component checked by {@link HealthMonitor}.
+ */
+public enum HealthStatus {
+
+    /**
+     * Component works as expected.
+     */
+    UP,
+
+    /**
+     * Component works, but needs attention (e.g. slow connections, unreachable SMTP server, delayed jobs).
+     * The application is still ready to handle requests.
+     */
+    DEGRADED,
+
+    /**
+     * Component is unavailable or saturated, so the application is not ready to handle more requests.
+     */
+    DOWN;
+
+    /**
+     * @param other Status of another component.
+     *
+     * @return The worse of the two statuses.
+     */
+    public HealthStatus worst(HealthStatus other) {
+        return this.compareTo(other) >= 0 ? this : other;
+    }
+}
@@ -0,0 +1,140 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.config.metrics;
+
+import com.atomikos.jdbc.AtomikosDataSourceBean;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.TransactionMetrics;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.async.BoundedVirtualThreadTaskExecutor;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.mail.CircuitBreaker;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.mail.MailOutboxDispatcher;
+
+import java.util.List;
+
+/**
+ * Component binding metrics of the infrastructure components to the metrics registry: usage of Atomikos connection
+ * pools, queue of the asynchronous task executor, delivery of e-mail messages from the outbox and outcomes
+ * of the tracked transactions. All of them are read from the counters kept by the components themselves, when
+ * the registry is scraped. Binding takes place after all singletons are created, so that the registry does not
+ * depend on these components.
+ */
+@Component
+public class ApplicationMetricsBinder implements SmartInitializingSingleton {
+
+    private final MeterRegistry meterRegistry;
+    private final List<AtomikosDataSourceBean> dataSources;
+    private final BoundedVirtualThreadTaskExecutor asyncTaskExecutor;
+    private final MailOutboxDispatcher mailOutboxDispatcher;
+    private final TransactionMetrics transactionMetrics;
+
+    /**
+     * Autowired constructor for the component.
+     *
+     * @param meterRegistry        Registry, which the metrics are bound to.
+     * @param dataSources          Atomikos data sources of all persistence units.
+     * @param asyncTaskExecutor    Executor running methods annotated with @Async.
+     * @param mailOutboxDispatcher Component delivering e-mail messages from the mail outbox, which is not created
+     *                             in the test profile.
+     * @param transactionMetrics   Statistics of the transactions tracked by TxAspect.
+     */
+    @Autowired
+    public ApplicationMetricsBinder(MeterRegistry meterRegistry,
+                                    List<AtomikosDataSourceBean> dataSources,
+                                    BoundedVirtualThreadTaskExecutor asyncTaskExecutor,
+                                    ObjectProvider<MailOutboxDispatcher> mailOutboxDispatcher,
+                                    TransactionMetrics transactionMetrics) {
+        this.meterRegistry = meterRegistry;
+        this.dataSources = dataSources;
+        this.asyncTaskExecutor = asyncTaskExecutor;
+        this.mailOutboxDispatcher = mailOutboxDispatcher.getIfAvailable();
+        this.transactionMetrics = transactionMetrics;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        dataSources.forEach(this::bindConnectionPool);
+        this.bindAsyncTaskExecutor();
+        if (mailOutboxDispatcher != null) this.bindMailOutbox();
+        this.bindTransactions();
+    }
+
+    private void bindConnectionPool(AtomikosDataSourceBean dataSource) {
+        String pool = dataSource.getUniqueResourceName();
+        Gauge.builder("atomikos.pool.connections.total", dataSource, AtomikosDataSourceBean::poolTotalSize)
+                .description("Number of connections in the pool")
+                .tag("pool", pool)
+                .register(meterRegistry);
+        Gauge.builder("atomikos.pool.connections.available", dataSource, AtomikosDataSourceBean::poolAvailableSize)
+                .description("Number of idle connections in the pool")
+                .tag("pool", pool)
+                .register(meterRegistry);
+        Gauge.builder("atomikos.pool.connections.active", dataSource, source -> source.poolTotalSize() - source.poolAvailableSize())
+                .description("Number of connections borrowed from the pool")
+                .tag("pool", pool)
+                .register(meterRegistry);
+        Gauge.builder("atomikos.pool.connections.max", dataSource, AtomikosDataSourceBean::getMaxPoolSize)
+                .description("Maximum size of the pool")
+                .tag("pool", pool)
+                .register(meterRegistry);
+    }
+
+    private void bindAsyncTaskExecutor() {
+        Gauge.builder("executor.async.queued", asyncTaskExecutor, BoundedVirtualThreadTaskExecutor::getQueuedTasks)
+                .description("Number of tasks waiting for execution")
+                .register(meterRegistry);
+        Gauge.builder("executor.async.active", asyncTaskExecutor, BoundedVirtualThreadTaskExecutor::getActiveTasks)
+                .description("Number of tasks being executed")
+                .register(meterRegistry);
+        Gauge.builder("executor.async.queue.capacity", asyncTaskExecutor, BoundedVirtualThreadTaskExecutor::getQueueCapacity)
+                .description("Maximum number of tasks waiting for execution")
+                .register(meterRegistry);
+        FunctionCounter.builder("executor.async.completed", asyncTaskExecutor, BoundedVirtualThreadTaskExecutor::getCompletedTasks)
+                .register(meterRegistry);
+        FunctionCounter.builder("executor.async.failed", asyncTaskExecutor, BoundedVirtualThreadTaskExecutor::getFailedTasks)
+                .register(meterRegistry);
+        FunctionCounter.builder("executor.async.rejected", asyncTaskExecutor, BoundedVirtualThreadTaskExecutor::getRejectedTasks)
+                .register(meterRegistry);
+        FunctionCounter.builder("executor.async.queue.time", asyncTaskExecutor,
+                        executor -> executor.getTotalQueueTimeNanos() / 1_000_000_000.0)
+                .description("Total time spent by the tasks in the queue")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    private void bindMailOutbox() {
+        FunctionCounter.builder("mail.messages.delivered", mailOutboxDispatcher, MailOutboxDispatcher::getDeliveredMessages)
+                .description("Number of e-mail messages delivered to the SMTP server")
+                .register(meterRegistry);
+        FunctionCounter.builder("mail.messages.retried", mailOutboxDispatcher, MailOutboxDispatcher::getRetriedMessages)
+                .description("Number of failed deliveries scheduled for a retry")
+                .register(meterRegistry);
+        FunctionCounter.builder("mail.messages.failed", mailOutboxDispatcher, MailOutboxDispatcher::getFailedMessages)
+                .description("Number of e-mail messages abandoned after the last retry")
+                .register(meterRegistry);
+        FunctionCounter.builder("mail.messages.coalesced", mailOutboxDispatcher, MailOutboxDispatcher::getCoalescedMessages)
+                .description("Number of notifications delivered as a part of a digest")
+                .register(meterRegistry);
+        Gauge.builder("mail.circuit.open", mailOutboxDispatcher, dispatcher -> dispatcher.getCircuitState() == CircuitBreaker.State.OPEN ? 1 : 0)
+                .description("1 if deliveries are suspended by the circuit breaker, 0 otherwise")
+                .register(meterRegistry);
+    }
+
+    private void bindTransactions() {
+        for (TransactionMetrics.Outcome outcome : TransactionMetrics.Outcome.values()) {
+            String tag = outcome.name().toLowerCase();
+            FunctionCounter.builder("transactions.completed", transactionMetrics, metrics -> metrics.getCount(outcome))
+                    .description("Number of completed transactions tracked by TxAspect")
+                    .tag("outcome", tag)
+                    .register(meterRegistry);
+            FunctionCounter.builder("transactions.duration", transactionMetrics, metrics -> metrics.getTotalDurationMillis(outcome) / 1000.0)
+                    .description("Total duration of completed transactions tracked by TxAspect")
+                    .baseUnit("seconds")
+                    .tag("outcome", tag)
+                    .register(meterRegistry);
+        }
+    }
+}
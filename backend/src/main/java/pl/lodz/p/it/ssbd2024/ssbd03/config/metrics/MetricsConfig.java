@@ -0,0 +1,42 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.config.metrics;
+
+import io.micrometer.core.instrument.binder.jvm.ClassLoaderMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmGcMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmMemoryMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmThreadMetrics;
+import io.micrometer.core.instrument.binder.system.ProcessorMetrics;
+import io.micrometer.core.instrument.binder.system.UptimeMetrics;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the metrics registry of the application. Metrics are kept in Prometheus registry, and scraped
+ * through the <code>/metrics</code> endpoint. The registry itself has no dependencies, so it can be injected anywhere,
+ * including aspects and security filters. Metrics of other components (connection pools, executors, mail outbox)
+ * are bound after all singletons are created.
+ *
+ * @see ApplicationMetricsBinder
+ * @see MetricsController
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Value("${metrics.common.tag.application}")
+    private String applicationTag;
+
+    @Bean(destroyMethod = "close")
+    public PrometheusMeterRegistry meterRegistry() {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        registry.config().commonTags("application", applicationTag);
+        new ClassLoaderMetrics().bindTo(registry);
+        new JvmMemoryMetrics().bindTo(registry);
+        new JvmGcMetrics().bindTo(registry);
+        new JvmThreadMetrics().bindTo(registry);
+        new ProcessorMetrics().bindTo(registry);
+        new UptimeMetrics().bindTo(registry);
+        return registry;
+    }
+}
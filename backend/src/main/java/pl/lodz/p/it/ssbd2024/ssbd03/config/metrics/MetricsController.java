@@ -0,0 +1,46 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.config.metrics;
+
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import jakarta.annotation.security.RolesAllowed;
+import io.prometheus.client.exporter.common.TextFormat;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Authorities;
+
+/**
+ * Controller exposing the metrics registry in Prometheus text format, to be scraped by the monitoring. Metrics reveal
+ * the endpoints, the load and the failures of the application, so the scraper authenticates with the dedicated scrape
+ * token (see {@link pl.lodz.p.it.ssbd2024.ssbd03.config.security.filters.MetricsScrapeFilter}), or with a bearer token
+ * of an administrator. It is not annotated with @LoggerInterceptor, so that periodic scraping does not fill the logs.
+ */
+@RestController
+@RequestMapping("/metrics")
+public class MetricsController {
+
+    private final PrometheusMeterRegistry meterRegistry;
+
+    /**
+     * Autowired constructor for the controller.
+     *
+     * @param meterRegistry Metrics registry of the application.
+     */
+    @Autowired
+    public MetricsController(PrometheusMeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @return Current values of all metrics, in Prometheus text format.
+     */
+    @GetMapping
+    @RolesAllowed({Authorities.GET_MONITORING_DATA})
+    public ResponseEntity<String> scrape() {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_TYPE, TextFormat.CONTENT_TYPE_004)
+                .body(meterRegistry.scrape());
+    }
+}
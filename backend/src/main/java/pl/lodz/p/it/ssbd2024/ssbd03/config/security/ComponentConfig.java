@@ -2,6 +2,7 @@ package pl.lodz.p.it.ssbd2024.ssbd03.config.security;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -10,8 +11,8 @@ import org.springframework.security.authentication.dao.DaoAuthenticationProvider
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerInterceptor;
 import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Roles;
@@ -21,7 +22,13 @@ import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.UserLevel;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.mok.account.read.AccountNotFoundException;
 import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.AuthenticationFacade;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.TokenAuthFacade;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.authcode.AuthenticationCodeStore;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.authcode.DatabaseAuthenticationCodeStore;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.authcode.InMemoryAuthenticationCodeStore;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.password.BoundedBCryptPasswordEncoder;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -30,13 +37,34 @@ import java.util.List;
 @LoggerInterceptor
 public class ComponentConfig {
 
+    @Value("${password.hashing.strength}")
+    private int hashingStrength;
+
+    @Value("${password.hashing.max.concurrency}")
+    private int hashingMaxConcurrency;
+
+    @Value("${password.hashing.max.waiting}")
+    private int hashingMaxWaiting;
+
+    @Value("${password.hashing.max.wait.millis}")
+    private long hashingMaxWait;
+
+    @Value("${authentication.code.store}")
+    private String authenticationCodeStoreType;
+
+    @Value("${authentication.code.validity.period.length.minutes}")
+    private long authenticationCodeValidityLength;
+
     private final AuthenticationFacade authenticationFacade;
+    private final TokenAuthFacade tokenAuthFacade;
     private final RolesMapper rolesMapper;
 
     @Autowired
     public ComponentConfig(AuthenticationFacade authenticationFacade,
+                           TokenAuthFacade tokenAuthFacade,
                            RolesMapper rolesMapper) {
         this.authenticationFacade = authenticationFacade;
+        this.tokenAuthFacade = tokenAuthFacade;
         this.rolesMapper = rolesMapper;
     }
 
@@ -74,12 +102,61 @@ public class ComponentConfig {
         DaoAuthenticationProvider daoAuthenticationProvider = new DaoAuthenticationProvider();
         daoAuthenticationProvider.setUserDetailsService(userDetailsService());
         daoAuthenticationProvider.setPasswordEncoder(passwordEncoder());
+        daoAuthenticationProvider.setUserDetailsPasswordService(userDetailsPasswordService());
         return daoAuthenticationProvider;
     }
 
+    /**
+     * Rehashes password of the user account after successful authentication, when its hash was computed
+     * with a work factor lower than the configured one. The entry of the password history holding the previous hash
+     * is updated as well.
+     *
+     * @return Service updating password hash of the user account.
+     */
+    @Bean
+    public UserDetailsPasswordService userDetailsPasswordService() {
+        return (user, newPassword) -> {
+            try {
+                Account account = authenticationFacade.findByLogin(user.getUsername()).orElseThrow(AccountNotFoundException::new);
+                account.replacePreviousPassword(account.getPassword(), newPassword);
+                account.setPassword(newPassword);
+                authenticationFacade.edit(account);
+                log.info("Password hash of user account with login: {} was rehashed with the current work factor.", user.getUsername());
+                return User.withUserDetails(user).password(newPassword).build();
+            } catch (ApplicationBaseException exception) {
+                log.error(exception.getMessage());
+            }
+            return user;
+        };
+    }
+
+    /**
+     * Password encoder with the configured work factor, which limits the number of hashing operations performed
+     * at the same time. The work factor has to be the same on all nodes.
+     *
+     * @return BCrypt password encoder.
+     */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BoundedBCryptPasswordEncoder(hashingStrength, hashingMaxConcurrency, hashingMaxWaiting,
+                Duration.ofMillis(hashingMaxWait));
+    }
+
+    /**
+     * Store of authentication codes used in multifactor authentication. In-memory store is used by default,
+     * and the database one (<code>authentication.code.store=database</code>) should be used when the application
+     * is deployed on multiple nodes.
+     *
+     * @return Authentication code store.
+     */
+    @Bean
+    public AuthenticationCodeStore authenticationCodeStore() {
+        Duration validityPeriod = Duration.ofMinutes(authenticationCodeValidityLength);
+        return switch (authenticationCodeStoreType) {
+            case "memory" -> new InMemoryAuthenticationCodeStore(validityPeriod);
+            case "database" -> new DatabaseAuthenticationCodeStore(tokenAuthFacade, validityPeriod);
+            default -> throw new IllegalStateException("Unsupported authentication code store: " + authenticationCodeStoreType);
+        };
     }
 
     @Bean
@@ -1,12 +1,16 @@
 package pl.lodz.p.it.ssbd2024.ssbd03.config.security;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.Advisor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -19,9 +23,12 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerInterceptor;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.authorization.AuthorityMaskAuthorizationManager;
 import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Roles;
 import pl.lodz.p.it.ssbd2024.ssbd03.config.security.filters.JWTAuthenticationFilter;
 import pl.lodz.p.it.ssbd2024.ssbd03.config.security.filters.JWTRequiredFilter;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.filters.MetricsScrapeFilter;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.filters.RateLimitFilter;
 import pl.lodz.p.it.ssbd2024.ssbd03.config.security.roles.RolesMapper;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.utils.UnsupportedRoleException;
 
@@ -33,8 +40,7 @@ import java.util.stream.Collectors;
 @LoggerInterceptor
 @EnableWebSecurity
 @EnableMethodSecurity(
-        securedEnabled = true,
-        jsr250Enabled = true
+        securedEnabled = true
 )
 public class SecurityConfig {
     @Value("${base.app.url}")
@@ -43,16 +49,22 @@ public class SecurityConfig {
     private final AuthenticationProvider authenticationProvider;
     private final JWTAuthenticationFilter jwtAuthenticationFilter;
     private final JWTRequiredFilter jwtRequiredFilter;
+    private final MetricsScrapeFilter metricsScrapeFilter;
+    private final RateLimitFilter rateLimitFilter;
     private final RolesMapper rolesMapper;
 
     @Autowired
     public SecurityConfig(AuthenticationProvider authenticationProvider,
                           JWTAuthenticationFilter jwtAuthenticationFilter,
                           JWTRequiredFilter jwtRequiredFilter,
+                          MetricsScrapeFilter metricsScrapeFilter,
+                          RateLimitFilter rateLimitFilter,
                           RolesMapper rolesMapper) {
         this.authenticationProvider = authenticationProvider;
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
         this.jwtRequiredFilter = jwtRequiredFilter;
+        this.metricsScrapeFilter = metricsScrapeFilter;
+        this.rateLimitFilter = rateLimitFilter;
         this.rolesMapper = rolesMapper;
     }
 
@@ -64,7 +76,9 @@ public class SecurityConfig {
                 .sessionManagement(sessionManagement -> sessionManagement.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authenticationProvider(authenticationProvider)
                 .addFilterBefore(jwtRequiredFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(metricsScrapeFilter, UsernamePasswordAuthenticationFilter.class)
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(rateLimitFilter, UsernamePasswordAuthenticationFilter.class)
                 .anonymous((anon) -> {
                     try {
                         anon.authorities(
@@ -85,6 +99,19 @@ public class SecurityConfig {
         return httpSecurity.build();
     }
 
+    /**
+     * Registers interceptor checking JSR-250 annotations with {@link AuthorityMaskAuthorizationManager},
+     * instead of the default one (which is disabled in {@link EnableMethodSecurity}).
+     *
+     * @param authorizationManager Authorization manager comparing precompiled authority masks.
+     * @return Advisor applied to all beans with JSR-250 annotations.
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor jsr250AuthorizationMethodInterceptor(AuthorityMaskAuthorizationManager authorizationManager) {
+        return AuthorizationManagerBeforeMethodInterceptor.jsr250(authorizationManager);
+    }
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration corsConfiguration = new CorsConfiguration();
@@ -99,6 +126,10 @@ public class SecurityConfig {
         corsConfiguration.addExposedHeader("Access-Token");
         corsConfiguration.addExposedHeader("Uid");
         corsConfiguration.addExposedHeader("ETag");
+        corsConfiguration.addExposedHeader(RateLimitFilter.RATE_LIMIT_LIMIT_HEADER);
+        corsConfiguration.addExposedHeader(RateLimitFilter.RATE_LIMIT_REMAINING_HEADER);
+        corsConfiguration.addExposedHeader(RateLimitFilter.RATE_LIMIT_RESET_HEADER);
+        corsConfiguration.addExposedHeader(HttpHeaders.RETRY_AFTER);
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", corsConfiguration);
         return source;
@@ -0,0 +1,85 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.config.security.authorization;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Authorities;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.SecurityConstants;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Component assigning consecutive integer identifiers to authorities, so that sets of authorities could be stored
+ * as {@link AuthorityMask}. All constants declared in {@link Authorities} are registered at startup, so that
+ * their identifiers are dense. Authorities used in annotations, but not declared there, are registered when
+ * the annotation is compiled. Authorities of users, which are not registered, are ignored, since no annotation
+ * refers to them.
+ */
+@Component
+public class AuthorityIndex {
+
+    private final Map<String, Integer> authorityIds = new ConcurrentHashMap<>();
+
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    /**
+     * Constructs the index, registering all authorities declared in {@link Authorities}.
+     */
+    public AuthorityIndex() {
+        for (Field field : Authorities.class.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) && field.getType() == String.class) {
+                try {
+                    register(SecurityConstants.ROLE_PREFIX + field.get(null));
+                } catch (IllegalAccessException exception) {
+                    throw new IllegalStateException("Could not read authority: " + field.getName(), exception);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns identifier of the authority, assigning new one if the authority was not registered before.
+     *
+     * @param authority Name of the authority, including the role prefix.
+     * @return Identifier of the authority.
+     */
+    public int register(String authority) {
+        return authorityIds.computeIfAbsent(authority, key -> nextId.getAndIncrement());
+    }
+
+    /**
+     * Compiles names of authorities required by an annotation into a mask.
+     *
+     * @param authorities Names of the authorities, including the role prefix.
+     * @return Mask of the given authorities.
+     */
+    public AuthorityMask compile(Collection<String> authorities) {
+        return AuthorityMask.of(authorities.stream().mapToInt(this::register).toArray());
+    }
+
+    /**
+     * Converts authorities granted to a user into a mask.
+     *
+     * @param authorities Authorities granted to the user.
+     * @return Mask of the registered authorities, from the given ones.
+     */
+    public AuthorityMask maskOf(Collection<? extends GrantedAuthority> authorities) {
+        return AuthorityMask.of(authorities.stream()
+                .map(GrantedAuthority::getAuthority)
+                .map(authorityIds::get)
+                .filter(id -> id != null)
+                .mapToInt(Integer::intValue)
+                .toArray());
+    }
+
+    /**
+     * @return Number of registered authorities.
+     */
+    public int size() {
+        return authorityIds.size();
+    }
+}
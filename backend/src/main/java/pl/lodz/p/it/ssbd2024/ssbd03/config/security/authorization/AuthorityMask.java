@@ -0,0 +1,73 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.config.security.authorization;
+
+import java.util.Arrays;
+
+/**
+ * Immutable set of authorities, represented as a bit set, in which each bit corresponds to authority
+ * identifier assigned by {@link AuthorityIndex}. Checking whether two sets have common authorities
+ * takes a single AND operation per 64 authorities.
+ */
+public final class AuthorityMask {
+
+    /**
+     * Mask without any authorities.
+     */
+    public static final AuthorityMask EMPTY = new AuthorityMask(new long[0]);
+
+    private final long[] words;
+
+    private AuthorityMask(long[] words) {
+        this.words = words;
+    }
+
+    /**
+     * Creates mask containing authorities with the given identifiers.
+     *
+     * @param authorityIds Identifiers of the authorities.
+     * @return Mask containing given authorities.
+     */
+    public static AuthorityMask of(int... authorityIds) {
+        int maxId = Arrays.stream(authorityIds).max().orElse(-1);
+        long[] words = new long[(maxId >> 6) + 1];
+        for (int authorityId : authorityIds) {
+            words[authorityId >> 6] |= 1L << authorityId;
+        }
+        return new AuthorityMask(words);
+    }
+
+    /**
+     * @param other Other set of authorities.
+     * @return True if this mask and the other one have at least one common authority, false otherwise.
+     */
+    public boolean intersects(AuthorityMask other) {
+        int length = Math.min(words.length, other.words.length);
+        for (int i = 0; i < length; i++) {
+            if ((words[i] & other.words[i]) != 0) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param other Other set of authorities.
+     * @return Mask containing authorities from both this mask and the other one.
+     */
+    public AuthorityMask or(AuthorityMask other) {
+        long[] longer = words.length >= other.words.length ? words : other.words;
+        long[] shorter = longer == words ? other.words : words;
+        long[] result = Arrays.copyOf(longer, longer.length);
+        for (int i = 0; i < shorter.length; i++) {
+            result[i] |= shorter[i];
+        }
+        return new AuthorityMask(result);
+    }
+
+    /**
+     * @return True if the mask does not contain any authority, false otherwise.
+     */
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) return false;
+        }
+        return true;
+    }
+}
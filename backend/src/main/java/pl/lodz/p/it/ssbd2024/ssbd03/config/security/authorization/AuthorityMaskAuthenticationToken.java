@@ -0,0 +1,39 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.config.security.authorization;
+
+import lombok.Getter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.io.Serial;
+import java.util.Collection;
+
+/**
+ * Authentication token of the authenticated user, which carries authorities of the user both as a collection
+ * and as precomputed {@link AuthorityMask}, used by {@link AuthorityMaskAuthorizationManager}.
+ */
+@Getter
+public class AuthorityMaskAuthenticationToken extends UsernamePasswordAuthenticationToken {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Authorities of the user, as a bit set.
+     */
+    private final transient AuthorityMask authorityMask;
+
+    /**
+     * Constructs authenticated token.
+     *
+     * @param principal     Login of the user.
+     * @param credentials   Credentials of the user.
+     * @param authorities   Authorities granted to the user.
+     * @param authorityMask Authorities granted to the user, as a bit set.
+     */
+    public AuthorityMaskAuthenticationToken(Object principal, Object credentials,
+                                            Collection<? extends GrantedAuthority> authorities,
+                                            AuthorityMask authorityMask) {
+        super(principal, credentials, authorities);
+        this.authorityMask = authorityMask;
+    }
+}
@@ -0,0 +1,128 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.config.security.authorization;
+
+import jakarta.annotation.security.DenyAll;
+import jakarta.annotation.security.PermitAll;
+import jakarta.annotation.security.RolesAllowed;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodClassKey;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.SecurityConstants;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Authorization manager for methods annotated with JSR-250 annotations (<code>@RolesAllowed</code>,
+ * <code>@PermitAll</code>, <code>@DenyAll</code>), used instead of the default Spring Security implementation.
+ * <p>
+ * Annotation of each method is resolved and compiled into {@link AuthorityMask} only once, on the first call
+ * of the method. Authorities of the user are taken as a mask from {@link AuthorityMaskAuthenticationToken},
+ * or converted into mask once per authentication object and thread for other types of authentication.
+ * Therefore, each check is a few AND operations, instead of comparing collections of strings.
+ * <p>
+ * Semantics are the same as in the default implementation: method annotation takes precedence over class
+ * annotation, and methods without any of these annotations are not checked.
+ */
+@Component
+public class AuthorityMaskAuthorizationManager implements AuthorizationManager<MethodInvocation> {
+
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+    /**
+     * Rule of a method without any JSR-250 annotation.
+     */
+    private static final CompiledRule NO_RULE = new CompiledRule(null, null);
+
+    private final AuthorityIndex authorityIndex;
+
+    private final Map<MethodClassKey, CompiledRule> rules = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<CachedMask> lastAuthenticationMask = new ThreadLocal<>();
+
+    /**
+     * Autowired constructor for the authorization manager.
+     *
+     * @param authorityIndex Component assigning identifiers to authorities.
+     */
+    @Autowired
+    public AuthorityMaskAuthorizationManager(AuthorityIndex authorityIndex) {
+        this.authorityIndex = authorityIndex;
+    }
+
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        Method method = invocation.getMethod();
+        Object target = invocation.getThis();
+        Class<?> targetClass = target != null ? AopUtils.getTargetClass(target) : method.getDeclaringClass();
+
+        CompiledRule rule = rules.computeIfAbsent(new MethodClassKey(method, targetClass), key -> compile(method, targetClass));
+        if (rule == NO_RULE) return null;
+        if (rule.decision() != null) return rule.decision();
+        return rule.requiredAuthorities().intersects(resolveMask(authentication.get())) ? GRANTED : DENIED;
+    }
+
+    /**
+     * @return Number of methods, which annotations were compiled.
+     */
+    public int getCompiledRulesCount() {
+        return rules.size();
+    }
+
+    private CompiledRule compile(Method method, Class<?> targetClass) {
+        Method specificMethod = AopUtils.getMostSpecificMethod(method, targetClass);
+        CompiledRule rule = compile(specificMethod);
+        if (rule == NO_RULE && specificMethod != method) rule = compile(method);
+        if (rule == NO_RULE) rule = compile(targetClass);
+        if (rule == NO_RULE && targetClass != method.getDeclaringClass()) rule = compile(method.getDeclaringClass());
+        return rule;
+    }
+
+    private CompiledRule compile(AnnotatedElement element) {
+        if (AnnotatedElementUtils.hasAnnotation(element, DenyAll.class)) return new CompiledRule(DENIED, null);
+        if (AnnotatedElementUtils.hasAnnotation(element, PermitAll.class)) return new CompiledRule(GRANTED, null);
+        RolesAllowed rolesAllowed = AnnotatedElementUtils.findMergedAnnotation(element, RolesAllowed.class);
+        if (rolesAllowed == null) return NO_RULE;
+        return new CompiledRule(null, authorityIndex.compile(Arrays.stream(rolesAllowed.value())
+                .map(role -> role.startsWith(SecurityConstants.ROLE_PREFIX) ? role : SecurityConstants.ROLE_PREFIX + role)
+                .toList()));
+    }
+
+    private AuthorityMask resolveMask(Authentication authentication) {
+        if (authentication == null) return AuthorityMask.EMPTY;
+        if (authentication instanceof AuthorityMaskAuthenticationToken token) return token.getAuthorityMask();
+
+        CachedMask cachedMask = lastAuthenticationMask.get();
+        if (cachedMask != null && cachedMask.authentication().get() == authentication) return cachedMask.mask();
+        AuthorityMask mask = authorityIndex.maskOf(authentication.getAuthorities());
+        lastAuthenticationMask.set(new CachedMask(new WeakReference<>(authentication), mask));
+        return mask;
+    }
+
+    /**
+     * Compiled JSR-250 annotation of a method.
+     *
+     * @param decision            Constant decision, for PermitAll and DenyAll annotations.
+     * @param requiredAuthorities Authorities, of which at least one is required, for RolesAllowed annotation.
+     */
+    private record CompiledRule(AuthorizationDecision decision, AuthorityMask requiredAuthorities) {
+    }
+
+    /**
+     * Mask of the authentication object, that was checked most recently by the thread. Authentication object
+     * is kept as a weak reference, so that it is not retained after the request.
+     */
+    private record CachedMask(WeakReference<Authentication> authentication, AuthorityMask mask) {
+    }
+}
@@ -114,4 +114,7 @@ public class Authorities {
     public static final String MANAGE_ATTRIBUTES = "MANAGE_ATTRIBUTES";
     public static final String MANAGE_OWN_ATTRIBUTES = "MANAGE_OWN_ATTRIBUTES";
     public static final String GET_PARKING_HISTORICAL_DATA = "GET_PARKING_HISTORICAL_DATA";
+    public static final String REMOVE_EXPIRED_TOKENS = "REMOVE_EXPIRED_TOKENS";
+    public static final String DISPATCH_MAIL_OUTBOX = "DISPATCH_MAIL_OUTBOX";
+    public static final String GET_MONITORING_DATA = "GET_MONITORING_DATA";
 }
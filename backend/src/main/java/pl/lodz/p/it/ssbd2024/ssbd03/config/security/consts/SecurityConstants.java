@@ -3,4 +3,5 @@ package pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts;
 public class SecurityConstants {
 
     public static final String BEARER_PREFIX = "Bearer ";
+    public static final String ROLE_PREFIX = "ROLE_";
 }
@@ -1,6 +1,8 @@
 package pl.lodz.p.it.ssbd2024.ssbd03.config.security.filters;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -21,6 +23,8 @@ import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerInterceptor;
 import pl.lodz.p.it.ssbd2024.ssbd03.commons.dto.mok.exception.ExceptionDTO;
 import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Roles;
 import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.SecurityConstants;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.authorization.AuthorityMask;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.authorization.AuthorityMaskAuthenticationToken;
 import pl.lodz.p.it.ssbd2024.ssbd03.config.security.roles.RolesMapper;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Account;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.UserLevel;
@@ -46,14 +50,28 @@ public class JWTAuthenticationFilter extends OncePerRequestFilter {
     private final JWTProvider jwtProvider;
     private final AuthenticationFacade authenticationFacade;
     private final RolesMapper rolesMapper;
+    private final Counter authenticatedCounter;
+    private final Counter rejectedCounter;
+    private final Counter databaseErrorCounter;
 
     @Autowired
     public JWTAuthenticationFilter(JWTProvider jwtProvider,
                                    AuthenticationFacade authenticationFacade,
-                                   RolesMapper rolesMapper) {
+                                   RolesMapper rolesMapper,
+                                   MeterRegistry meterRegistry) {
         this.jwtProvider = jwtProvider;
         this.authenticationFacade = authenticationFacade;
         this.rolesMapper = rolesMapper;
+        this.authenticatedCounter = authenticationCounter(meterRegistry, "authenticated");
+        this.rejectedCounter = authenticationCounter(meterRegistry, "rejected");
+        this.databaseErrorCounter = authenticationCounter(meterRegistry, "database_error");
+    }
+
+    private static Counter authenticationCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("security.jwt.authentications")
+                .description("Number of requests with a bearer token, by the result of its verification")
+                .tag("result", result)
+                .register(meterRegistry);
     }
 
     @Override
@@ -75,19 +93,20 @@ public class JWTAuthenticationFilter extends OncePerRequestFilter {
                 if (!jwtProvider.isTokenValid(jwtToken, account)) throw new TokenNotValidException();
 
                 List<SimpleGrantedAuthority> listOfAuthorities = new ArrayList<>();
+                AuthorityMask authorityMask = rolesMapper.getAuthorityMask(Roles.AUTHENTICATED);
                 for (UserLevel userLevel : account.getUserLevels()) {
-                    listOfAuthorities.addAll(
-                            rolesMapper.getAuthorities(
-                                    Roles.valueOf(userLevel.getClass().getSimpleName().toUpperCase())
-                            )
-                    );
+                    Roles role = Roles.valueOf(userLevel.getClass().getSimpleName().toUpperCase());
+                    listOfAuthorities.addAll(rolesMapper.getAuthorities(role));
+                    authorityMask = authorityMask.or(rolesMapper.getAuthorityMask(role));
                 }
                 listOfAuthorities.addAll(rolesMapper.getAuthorities(Roles.AUTHENTICATED));
 
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(account.getLogin(), account.getPassword(), listOfAuthorities);
+                UsernamePasswordAuthenticationToken authToken = new AuthorityMaskAuthenticationToken(account.getLogin(), account.getPassword(), listOfAuthorities, authorityMask);
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
+                authenticatedCounter.increment();
             } catch (ApplicationDatabaseException exception) {
+                databaseErrorCounter.increment();
                 response.setStatus(HttpStatus.BAD_REQUEST.value());
                 response.setContentType(MediaType.APPLICATION_JSON_VALUE);
                 try (OutputStream outputStream = response.getOutputStream()) {
@@ -96,6 +115,7 @@ public class JWTAuthenticationFilter extends OncePerRequestFilter {
                 response.getWriter().flush();
                 SecurityContextHolder.clearContext();
             } catch (ApplicationBaseException exception) {
+                rejectedCounter.increment();
                 response.setStatus(HttpStatus.UNAUTHORIZED.value());
                 response.setContentType(MediaType.APPLICATION_JSON_VALUE);
                 try (OutputStream outputStream = response.getOutputStream()) {
@@ -107,4 +127,10 @@ public class JWTAuthenticationFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        // Request has already been authenticated by the MetricsScrapeFilter
+        return SecurityContextHolder.getContext().getAuthentication() != null;
+    }
 }
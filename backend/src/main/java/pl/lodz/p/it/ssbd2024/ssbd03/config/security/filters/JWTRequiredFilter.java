@@ -1,11 +1,14 @@
 package pl.lodz.p.it.ssbd2024.ssbd03.config.security.filters;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
@@ -41,6 +44,7 @@ public class JWTRequiredFilter extends OncePerRequestFilter {
         put("^/configuration/security.*", null);
         put("^/swagger-ui.html.*", null);
         put("^/favicon.ico.*", null);
+        put("^/health/(live|ready)$", HttpMethod.GET.name());
 
         // Endpoints
         put("^/api/v1/auth/login-credentials", HttpMethod.POST.name());
@@ -61,12 +65,22 @@ public class JWTRequiredFilter extends OncePerRequestFilter {
         put("^/api/v1/parking/client/sectors/%s$".formatted(UUID_REGEX), HttpMethod.GET.name());
     }};
 
+    private final Counter missingTokenCounter;
+
+    @Autowired
+    public JWTRequiredFilter(MeterRegistry meterRegistry) {
+        this.missingTokenCounter = Counter.builder("security.jwt.missing")
+                .description("Number of requests rejected due to missing bearer token")
+                .register(meterRegistry);
+    }
+
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request,
                                     @NonNull HttpServletResponse response,
                                     @NonNull FilterChain filterChain) throws IOException, ServletException {
         final String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
         if (authHeader == null || authHeader.isBlank() || !authHeader.startsWith(SecurityConstants.BEARER_PREFIX)) {
+            missingTokenCounter.increment();
             ObjectMapper objectMapper = new ObjectMapper();
             response.setStatus(HttpStatus.UNAUTHORIZED.value());
             response.setContentType(MediaType.APPLICATION_JSON_VALUE);
@@ -0,0 +1,79 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.config.security.filters;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Authorities;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.SecurityConstants;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
+/**
+ * Filter authenticating the monitoring scraper of the metrics endpoint with a dedicated, long-lived bearer token,
+ * specified by <code>metrics.scrape.token</code> property, so that the scraper does not need to log in as an
+ * administrator. The token grants only the GET_MONITORING_DATA authority, and only for the metrics endpoint.
+ * When the property is empty, the filter is disabled, and the endpoint requires the token of an administrator.
+ * <p>
+ * It is not annotated with @LoggerInterceptor, so that periodic scraping does not fill the logs.
+ */
+@Component
+public class MetricsScrapeFilter extends OncePerRequestFilter {
+
+    /**
+     * Name of the principal authenticated with the scrape token.
+     */
+    public static final String SCRAPER_PRINCIPAL = "METRICS_SCRAPER";
+
+    private static final String METRICS_PATH = "/metrics";
+
+    private final byte[] scrapeToken;
+
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    /**
+     * Autowired constructor for the filter.
+     *
+     * @param scrapeToken Bearer token of the monitoring scraper, or empty string, when the scraper has no token.
+     */
+    @Autowired
+    public MetricsScrapeFilter(@Value("${metrics.scrape.token:}") String scrapeToken) {
+        this.scrapeToken = scrapeToken.strip().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws IOException, ServletException {
+        String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authHeader != null && authHeader.startsWith(SecurityConstants.BEARER_PREFIX)) {
+            byte[] token = authHeader.substring(SecurityConstants.BEARER_PREFIX.length()).strip().getBytes(StandardCharsets.UTF_8);
+            if (MessageDigest.isEqual(scrapeToken, token)) {
+                SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(SCRAPER_PRINCIPAL, null,
+                        List.of(new SimpleGrantedAuthority(SecurityConstants.ROLE_PREFIX + Authorities.GET_MONITORING_DATA))));
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return scrapeToken.length == 0 ||
+                !HttpMethod.GET.name().equals(request.getMethod()) ||
+                !METRICS_PATH.equals(urlPathHelper.getPathWithinApplication(request));
+    }
+}
@@ -0,0 +1,143 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.config.security.filters;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerInterceptor;
+import pl.lodz.p.it.ssbd2024.ssbd03.commons.dto.mok.exception.ExceptionDTO;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.I18n;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.quota.EndpointClass;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.quota.QuotaManager;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.quota.QuotaResult;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Filter enforcing API request quotas. It is placed after JWT filters, so that authenticated users are
+ * identified by their login, and anonymous users by their IP address. Each response of the API contains
+ * rate limit headers, and requests exceeding the quota are rejected with 429 Too Many Requests status.
+ * <p>
+ * The IP address is the address of the direct peer. X-Forwarded-For header is taken into account only when the peer
+ * is one of the proxies listed in <code>quota.trusted.proxies</code>, as otherwise any client could get a new quota
+ * by changing the header.
+ *
+ * @see QuotaManager
+ */
+@Slf4j
+@Component
+@LoggerInterceptor
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    public static final String RATE_LIMIT_LIMIT_HEADER = "X-RateLimit-Limit";
+    public static final String RATE_LIMIT_REMAINING_HEADER = "X-RateLimit-Remaining";
+    public static final String RATE_LIMIT_RESET_HEADER = "X-RateLimit-Reset";
+
+    private static final String FORWARDED_FOR_HEADER = "X-Forwarded-For";
+
+    private final QuotaManager quotaManager;
+    private final Set<String> trustedProxies;
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Autowired constructor for the filter.
+     *
+     * @param quotaManager   Component keeping track of the request quotas.
+     * @param trustedProxies Comma separated addresses of the reverse proxies allowed to set X-Forwarded-For header.
+     */
+    @Autowired
+    public RateLimitFilter(QuotaManager quotaManager, @Value("${quota.trusted.proxies}") String trustedProxies) {
+        this.quotaManager = quotaManager;
+        this.trustedProxies = Arrays.stream(trustedProxies.split(","))
+                .map(String::trim)
+                .filter(address -> !address.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws IOException, ServletException {
+        EndpointClass endpointClass = EndpointClass.resolve(request.getMethod(), urlPathHelper.getPathWithinApplication(request));
+        if (!quotaManager.isEnabled() || endpointClass == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        QuotaResult result = quotaManager.acquire(endpointClass, resolveClientKey(request));
+        response.setHeader(RATE_LIMIT_LIMIT_HEADER, String.valueOf(result.limit()));
+        response.setHeader(RATE_LIMIT_REMAINING_HEADER, String.valueOf(result.remaining()));
+        response.setHeader(RATE_LIMIT_RESET_HEADER, String.valueOf(result.resetSeconds()));
+
+        if (!result.allowed()) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(result.retryAfterSeconds()));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            try (OutputStream outputStream = response.getOutputStream()) {
+                outputStream.write(objectMapper.writeValueAsBytes(new ExceptionDTO(I18n.TOO_MANY_REQUESTS_EXCEPTION)));
+            }
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Resolves identity of the client, used as a key of its quota.
+     *
+     * @param request Incoming HTTP request.
+     * @return Login of the authenticated user, or IP address of the client otherwise.
+     * @see #resolveClientAddress(HttpServletRequest)
+     */
+    private String resolveClientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "login:" + authentication.getName();
+        }
+
+        return "ip:" + resolveClientAddress(request);
+    }
+
+    /**
+     * Resolves IP address of the client. When the request comes from a trusted proxy, X-Forwarded-For header is
+     * read from the right, skipping addresses of trusted proxies, since only the entries appended by them can be
+     * relied on. The first remaining address is the one that connected to the outermost trusted proxy.
+     *
+     * @param request Incoming HTTP request.
+     * @return IP address of the client.
+     */
+    private String resolveClientAddress(HttpServletRequest request) {
+        String address = request.getRemoteAddr();
+        String forwardedFor = request.getHeader(FORWARDED_FOR_HEADER);
+        if (!trustedProxies.contains(address) || forwardedFor == null) {
+            return address;
+        }
+
+        String[] forwardedAddresses = forwardedFor.split(",");
+        for (int i = forwardedAddresses.length - 1; i >= 0 && trustedProxies.contains(address); i--) {
+            String forwardedAddress = forwardedAddresses[i].trim();
+            if (!forwardedAddress.isEmpty()) {
+                address = forwardedAddress;
+            }
+        }
+        return address;
+    }
+}
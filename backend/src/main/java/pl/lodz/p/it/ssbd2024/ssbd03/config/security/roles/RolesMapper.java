@@ -1,17 +1,27 @@
 package pl.lodz.p.it.ssbd2024.ssbd03.config.security.roles;
 
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerInterceptor;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.authorization.AuthorityIndex;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.authorization.AuthorityMask;
 import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Roles;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.SecurityConstants;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.utils.UnsupportedRoleException;
 
+import java.util.EnumMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 import java.util.stream.Stream;
 
+/**
+ * Component mapping application roles into authorities, that represent use cases. Authorities of each role
+ * are computed once, after reading roles.properties, both as immutable lists and as {@link AuthorityMask}.
+ */
 @Component
 @PropertySource("classpath:properties/roles.properties")
 @LoggerInterceptor
@@ -35,24 +45,65 @@ public class RolesMapper {
     @Value("${role.system}")
     private String[] roleSystem;
 
+    private final AuthorityIndex authorityIndex;
+
+    private final Map<Roles, List<String>> authorityNames = new EnumMap<>(Roles.class);
+    private final Map<Roles, List<SimpleGrantedAuthority>> authorities = new EnumMap<>(Roles.class);
+    private final Map<Roles, AuthorityMask> authorityMasks = new EnumMap<>(Roles.class);
+
+    /**
+     * Autowired constructor for the component.
+     *
+     * @param authorityIndex Component assigning identifiers to authorities.
+     */
+    @Autowired
+    public RolesMapper(AuthorityIndex authorityIndex) {
+        this.authorityIndex = authorityIndex;
+    }
+
+    /**
+     * Computes authorities of all roles.
+     */
+    @PostConstruct
+    public void init() {
+        for (Roles role : Roles.values()) {
+            List<String> names = Stream.of(switch (role) {
+                        case ADMIN -> roleAdmin;
+                        case STAFF -> roleStaff;
+                        case CLIENT -> roleClient;
+                        case AUTHENTICATED -> roleAuthenticated;
+                        case ANONYMOUS -> roleAnonymous;
+                        case SYSTEM -> roleSystem;
+                    })
+                    .map(String::trim)
+                    .map(authority -> SecurityConstants.ROLE_PREFIX + authority)
+                    .toList();
+            authorityNames.put(role, names);
+            authorities.put(role, names.stream().map(SimpleGrantedAuthority::new).toList());
+            authorityMasks.put(role, authorityIndex.compile(names));
+        }
+    }
+
     public List<String> getAuthoritiesAsStrings(Roles role) throws UnsupportedRoleException {
-        return Stream.of(switch (role) {
-                    case Roles.ADMIN -> roleAdmin;
-                    case Roles.STAFF -> roleStaff;
-                    case Roles.CLIENT -> roleClient;
-                    case Roles.AUTHENTICATED -> roleAuthenticated;
-                    case Roles.ANONYMOUS -> roleAnonymous;
-                    case Roles.SYSTEM -> roleSystem;
-                    default -> throw new UnsupportedRoleException();
-                })
-                .map(authority -> "ROLE_" + authority)
-                .collect(Collectors.toList());
+        return getOrThrow(authorityNames, role);
     }
 
     public List<SimpleGrantedAuthority> getAuthorities(Roles role) throws UnsupportedRoleException {
-        return getAuthoritiesAsStrings(role)
-                .stream()
-                .map(SimpleGrantedAuthority::new)
-                .collect(Collectors.toList());
+        return getOrThrow(authorities, role);
+    }
+
+    /**
+     * @param role Application role.
+     * @return Authorities of the role, as a bit set.
+     * @throws UnsupportedRoleException When the role is not supported.
+     */
+    public AuthorityMask getAuthorityMask(Roles role) throws UnsupportedRoleException {
+        return getOrThrow(authorityMasks, role);
+    }
+
+    private <T> T getOrThrow(Map<Roles, T> map, Roles role) throws UnsupportedRoleException {
+        T value = role != null ? map.get(role) : null;
+        if (value == null) throw new UnsupportedRoleException();
+        return value;
     }
 }
@@ -0,0 +1,53 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.config.tracing;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.tracing.JsonLinesSpanExporter;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.tracing.Tracer;
+
+import java.nio.file.Path;
+
+/**
+ * Configuration of the tracing of the application. When enabled, traces are appended to a local JSON-lines file,
+ * and only the ones lasting at least the minimal duration are kept (all of them in dev, slow ones in prod).
+ * Tracing is disabled in test environment.
+ *
+ * @see Tracer
+ * @see TracingFilter
+ */
+@Configuration
+public class TracingConfig {
+
+    @Value("${tracing.enabled}")
+    private boolean enabled;
+
+    @Value("${tracing.export.path}")
+    private String exportPath;
+
+    @Value("${tracing.export.queue.capacity}")
+    private int queueCapacity;
+
+    @Value("${tracing.export.min.duration.millis}")
+    private long minDurationMillis;
+
+    @Value("${tracing.service.name}")
+    private String serviceName;
+
+    private JsonLinesSpanExporter exporter;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) return;
+        exporter = new JsonLinesSpanExporter(Path.of(exportPath), queueCapacity, minDurationMillis, serviceName);
+        Tracer.setExporter(exporter);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (exporter == null) return;
+        Tracer.setExporter(null);
+        exporter.close();
+    }
+}
@@ -0,0 +1,63 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.config.tracing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.dbconfig.statistics.RequestQueryStatistics;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.tracing.Span;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.tracing.TraceContext;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.tracing.Tracer;
+
+import java.io.IOException;
+
+/**
+ * Filter starting the root span of each HTTP request. Identifier of the trace is the correlation identifier
+ * of the request, returned in <code>X-Correlation-Id</code> header. When the request carries W3C
+ * <code>traceparent</code> header, the trace of the caller is continued.
+ * <p>
+ * The filter is registered before the security filter chain, so that the authentication is included in the trace,
+ * and after the query statistics filter, so that the number of SQL statements of the request is recorded in its span.
+ */
+@Component
+public class TracingFilter extends OncePerRequestFilter {
+
+    public static final String CORRELATION_ID_HEADER = "X-Correlation-Id";
+    public static final String TRACEPARENT_HEADER = "traceparent";
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws IOException, ServletException {
+        TraceContext parent = TraceContext.fromTraceparent(request.getHeader(TRACEPARENT_HEADER));
+        Span span = Tracer.startSpan(request.getMethod(), Span.Kind.SERVER, parent);
+        span.setAttribute("http.request.method", request.getMethod());
+        span.setAttribute("url.path", request.getRequestURI());
+        response.setHeader(CORRELATION_ID_HEADER, span.getTraceId());
+        try {
+            filterChain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException exception) {
+            span.recordException(exception);
+            throw exception;
+        } finally {
+            if (request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE) instanceof String route) {
+                span.setName(request.getMethod() + " " + route);
+                span.setAttribute("http.route", route);
+            }
+            span.setAttribute("http.response.status_code", response.getStatus());
+            if (response.getStatus() >= 500 && !span.isError()) span.setError("HTTP " + response.getStatus());
+            RequestQueryStatistics statistics = RequestQueryStatistics.current();
+            if (statistics != null) span.setAttribute("db.statements", statistics.getStatements());
+            span.end();
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !Tracer.isEnabled();
+    }
+}
@@ -31,7 +31,14 @@ public class SpringWebInitializer extends AbstractAnnotationConfigDispatcherServ
 
             We need to specify the springSecurityFilterChain as the initial Servlet filter. This proxy takes care of chaining filter calls as they
             are indicated in the WebSecurityConfiguration class.
+
+            The queryStatisticsFilter and tracingFilter precede the security filters, so that the queries made during authentication
+            are counted, and the authentication is traced.
         */
-        return new Filter[] { new DelegatingFilterProxy("springSecurityFilterChain") };
+        return new Filter[] {
+                new DelegatingFilterProxy("queryStatisticsFilter"),
+                new DelegatingFilterProxy("tracingFilter"),
+                new DelegatingFilterProxy("springSecurityFilterChain")
+        };
     }
 }
\ No newline at end of file
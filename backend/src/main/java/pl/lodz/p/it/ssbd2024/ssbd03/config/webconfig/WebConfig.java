@@ -1,8 +1,8 @@
 package pl.lodz.p.it.ssbd2024.ssbd03.config.webconfig;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.*;
-import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.core.task.TaskExecutor;
 import org.springframework.hateoas.config.EnableHypermediaSupport;
 import org.springframework.http.converter.ByteArrayHttpMessageConverter;
@@ -13,10 +13,11 @@ import org.springframework.http.converter.json.MappingJackson2HttpMessageConvert
 import org.springframework.http.converter.xml.MappingJackson2XmlHttpMessageConverter;
 import org.springframework.retry.annotation.EnableRetry;
 import org.springframework.scheduling.annotation.EnableAsync;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.task.DelegatingSecurityContextAsyncTaskExecutor;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.async.BoundedVirtualThreadTaskExecutor;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.tracing.Tracer;
 
 import java.util.List;
 
@@ -29,7 +30,8 @@ import java.util.List;
         "classpath:properties/urls.properties",
         "classpath:properties/consts.properties",
         "classpath:properties/retry.properties",
-        "classpath:properties/key.properties"
+        "classpath:properties/key.properties",
+        "classpath:properties/quota.properties"
 })
 @EnableAsync
 @EnableRetry
@@ -37,6 +39,18 @@ import java.util.List;
 @EnableHypermediaSupport(type = EnableHypermediaSupport.HypermediaType.HAL)
 public class WebConfig implements WebMvcConfigurer {
 
+    @Value("${async.executor.max.concurrency}")
+    private int asyncMaxConcurrency;
+
+    @Value("${async.executor.queue.capacity}")
+    private int asyncQueueCapacity;
+
+    @Value("${async.executor.rejection.policy}")
+    private BoundedVirtualThreadTaskExecutor.RejectionPolicy asyncRejectionPolicy;
+
+    @Value("${async.executor.shutdown.timeout.millis}")
+    private long asyncShutdownTimeout;
+
     @Override
     public void configureMessageConverters(List<HttpMessageConverter<?>> converters) {
         Jackson2ObjectMapperBuilder builder = new Jackson2ObjectMapperBuilder();
@@ -46,12 +60,29 @@ public class WebConfig implements WebMvcConfigurer {
         converters.add(new MappingJackson2HttpMessageConverter(new ObjectMapper()));
     }
 
+    /**
+     * Executor running asynchronous tasks on virtual threads, with bounded number of running and waiting tasks.
+     * Its counters are used for monitoring the asynchronous work. Tasks are traced as children of the span current
+     * on the submitting thread.
+     *
+     * @return Bounded virtual thread executor.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public BoundedVirtualThreadTaskExecutor asyncTaskExecutor() {
+        BoundedVirtualThreadTaskExecutor executor = new BoundedVirtualThreadTaskExecutor("Async-", asyncMaxConcurrency,
+                asyncQueueCapacity, asyncRejectionPolicy, asyncShutdownTimeout);
+        executor.setTaskDecorator(Tracer::propagate);
+        return executor;
+    }
+
+    /**
+     * Executor used for methods annotated with @Async. Security context and trace context of the submitting thread
+     * are propagated to the tasks.
+     *
+     * @return Asynchronous task executor.
+     */
     @Bean
     public TaskExecutor taskExecutor() {
-        ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
-        taskExecutor.setMaxPoolSize(1000);
-        taskExecutor.setThreadNamePrefix("Async-");
-        taskExecutor.initialize();
-        return new DelegatingSecurityContextAsyncTaskExecutor(taskExecutor);
+        return new DelegatingSecurityContextAsyncTaskExecutor(asyncTaskExecutor());
     }
 }
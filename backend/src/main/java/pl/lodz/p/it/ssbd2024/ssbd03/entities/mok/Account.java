@@ -15,7 +15,9 @@ import pl.lodz.p.it.ssbd2024.ssbd03.utils.consts.mok.AccountsConsts;
 import pl.lodz.p.it.ssbd2024.ssbd03.utils.messages.mok.AccountMessages;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -229,10 +231,9 @@ public class Account extends AbstractEntity {
     private String password;
 
     /**
-     * Set containing all past password hashes for given user account.
+     * List containing recent password hashes for given user account, ordered from the oldest to the newest one.
      */
-    @Column(name = DatabaseConsts.ACCOUNT_PAST_PASSWORD_COLUMN)
-    @ElementCollection(targetClass = String.class)
+    @ElementCollection
     @CollectionTable(
             name = DatabaseConsts.PAST_PASSWORD_TABLE,
             joinColumns = @JoinColumn(
@@ -246,8 +247,9 @@ public class Account extends AbstractEntity {
             foreignKey = @ForeignKey(name = DatabaseConsts.PAST_PASSWORD_ACCOUNT_ID_FK),
             uniqueConstraints = @UniqueConstraint(columnNames = {DatabaseConsts.PAST_PASSWORD_ACCOUNT_ID_COLUMN, DatabaseConsts.PAST_PASSWORD_COLUMN})
     )
+    @OrderBy("creationTime ASC")
     @Getter
-    private final Set<String> previousPasswords = new HashSet<>();
+    private final List<PastPassword> previousPasswords = new ArrayList<>();
 
     /**
      * Variable indicating whether the user account is suspended.
@@ -482,6 +484,55 @@ public class Account extends AbstractEntity {
         userLevels.remove(userLevel);
     }
 
+    /**
+     * Adds hash of the new password to the password history of the account.
+     *
+     * @param passwordHash Hash of the new password.
+     */
+    public void addPreviousPassword(String passwordHash) {
+        previousPasswords.add(new PastPassword(passwordHash));
+    }
+
+    /**
+     * Replaces the given hash in the password history of the account, keeping time of setting the password.
+     * Used when the same password is rehashed.
+     *
+     * @param passwordHash    Hash of the password, which is replaced.
+     * @param newPasswordHash New hash of the same password.
+     */
+    public void replacePreviousPassword(String passwordHash, String newPasswordHash) {
+        previousPasswords.replaceAll(pastPassword -> passwordHash.equals(pastPassword.getPasswordHash()) ?
+                new PastPassword(newPasswordHash, pastPassword.getCreationTime()) : pastPassword);
+    }
+
+    /**
+     * Removes the oldest hashes from the password history of the account, so that only
+     * the given number of the most recent ones is kept.
+     *
+     * @param historySize Number of the most recent password hashes to keep.
+     */
+    public void trimPreviousPasswords(int historySize) {
+        while (previousPasswords.size() > historySize) {
+            previousPasswords.stream()
+                    .min(PastPassword.CHRONOLOGICAL_ORDER)
+                    .ifPresent(previousPasswords::remove);
+        }
+    }
+
+    /**
+     * Retrieves the most recent password hashes from the password history of the account.
+     *
+     * @param historySize Maximum number of returned hashes.
+     * @return List of password hashes, ordered from the newest to the oldest one.
+     */
+    public List<String> getRecentPasswordHashes(int historySize) {
+        return previousPasswords.stream()
+                .sorted(PastPassword.CHRONOLOGICAL_ORDER.reversed())
+                .limit(historySize)
+                .map(PastPassword::getPasswordHash)
+                .toList();
+    }
+
     /**
      * Retrieves ActivityLog connected with the Account. It ensures that an ActivityLog object exists, in case it doesn't a new ActivityLog is created.
      *
@@ -0,0 +1,266 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.entities.mok;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerInterceptor;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.AbstractEntity;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.consts.DatabaseConsts;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.mail.MailDigestCategory;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity representing e-mail message waiting in the outbox for delivery. Messages are written to the outbox
+ * in the same transaction as the business change they describe, so that a message is sent only when the change
+ * was committed, and it is not lost when the application is restarted before sending it.
+ * Delivered messages are removed from the outbox, while messages which could not be delivered after the maximum
+ * number of attempts are kept with FAILED status.
+ * <p>
+ * Notifications which could be merged into a digest are written with the digest category, and they are held
+ * in the outbox for the digest window, so that notifications of the same category, sent to the same recipient
+ * in the meantime, are delivered as a single message.
+ */
+@Entity
+@Table(
+        name = DatabaseConsts.MAIL_OUTBOX_TABLE,
+        indexes = {
+                @Index(name = DatabaseConsts.MAIL_OUTBOX_STATUS_NEXT_ATTEMPT_INDEX,
+                        columnList = DatabaseConsts.MAIL_OUTBOX_STATUS_COLUMN + ", " + DatabaseConsts.MAIL_OUTBOX_NEXT_ATTEMPT_TIMESTAMP_COLUMN),
+                @Index(name = DatabaseConsts.MAIL_OUTBOX_RECIPIENT_DIGEST_CATEGORY_INDEX,
+                        columnList = DatabaseConsts.MAIL_OUTBOX_RECIPIENT_COLUMN + ", " + DatabaseConsts.MAIL_OUTBOX_DIGEST_CATEGORY_COLUMN)
+        }
+)
+@LoggerInterceptor
+@NoArgsConstructor
+@Getter
+@NamedQueries({
+        @NamedQuery(
+                name = "MailOutboxMessage.countByStatus",
+                query = """
+                        SELECT COUNT(m) FROM MailOutboxMessage m
+                        WHERE m.status = :status"""
+        ),
+        @NamedQuery(
+                name = "MailOutboxMessage.removeByIds",
+                query = """
+                        DELETE FROM MailOutboxMessage m
+                        WHERE m.id IN :ids"""
+        )
+})
+@NamedNativeQueries({
+        @NamedNativeQuery(
+                name = "MailOutboxMessage.findDueBatch",
+                query = """
+                        SELECT * FROM mail_outbox
+                        WHERE status = 'PENDING' AND next_attempt_timestamp <= :now
+                        ORDER BY next_attempt_timestamp
+                        LIMIT :batchSize
+                        FOR UPDATE SKIP LOCKED""",
+                resultClass = MailOutboxMessage.class
+        ),
+        @NamedNativeQuery(
+                name = "MailOutboxMessage.findHeldDigestItems",
+                query = """
+                        SELECT * FROM mail_outbox
+                        WHERE recipient = :recipient AND digest_category = :digestCategory
+                            AND status = 'PENDING' AND attempts = 0
+                        ORDER BY creation_timestamp
+                        LIMIT :batchSize
+                        FOR UPDATE SKIP LOCKED""",
+                resultClass = MailOutboxMessage.class
+        )
+})
+public class MailOutboxMessage extends AbstractEntity {
+
+    /**
+     * Delivery status of the message.
+     */
+    public enum MailStatus {
+        PENDING,
+        FAILED
+    }
+
+    /**
+     * E-mail address, which the message is sent to.
+     */
+    @Column(name = DatabaseConsts.MAIL_OUTBOX_RECIPIENT_COLUMN, nullable = false, length = 320)
+    private String recipient;
+
+    /**
+     * Subject of the message.
+     */
+    @Column(name = DatabaseConsts.MAIL_OUTBOX_SUBJECT_COLUMN, nullable = false, length = 512)
+    private String subject;
+
+    /**
+     * Rendered content of the message, in HTML format.
+     */
+    @Column(name = DatabaseConsts.MAIL_OUTBOX_CONTENT_COLUMN, nullable = false, columnDefinition = "TEXT")
+    private String content;
+
+    /**
+     * Delivery status of the message.
+     */
+    @Column(name = DatabaseConsts.MAIL_OUTBOX_STATUS_COLUMN, nullable = false, length = 16)
+    @Enumerated(EnumType.STRING)
+    private MailStatus status = MailStatus.PENDING;
+
+    /**
+     * Number of started delivery attempts.
+     */
+    @Column(name = DatabaseConsts.MAIL_OUTBOX_ATTEMPTS_COLUMN, nullable = false)
+    private int attempts;
+
+    /**
+     * Time, after which the next delivery attempt could be started.
+     */
+    @Column(name = DatabaseConsts.MAIL_OUTBOX_NEXT_ATTEMPT_TIMESTAMP_COLUMN, nullable = false)
+    @Temporal(value = TemporalType.TIMESTAMP)
+    private LocalDateTime nextAttemptTime;
+
+    /**
+     * Description of the error, which caused the last delivery attempt to fail.
+     */
+    @Column(name = DatabaseConsts.MAIL_OUTBOX_LAST_ERROR_COLUMN, length = 1024)
+    private String lastError;
+
+    /**
+     * Category of the notification, when it could be merged into a digest, null otherwise.
+     */
+    @Column(name = DatabaseConsts.MAIL_OUTBOX_DIGEST_CATEGORY_COLUMN, length = 64, updatable = false)
+    @Enumerated(EnumType.STRING)
+    private MailDigestCategory digestCategory;
+
+    /**
+     * Action description of the notification, listed in the digest.
+     */
+    @Column(name = DatabaseConsts.MAIL_OUTBOX_DIGEST_ITEM_COLUMN, length = 1024, updatable = false)
+    private String digestItem;
+
+    /**
+     * Language of the recipient, in which the digest is rendered.
+     */
+    @Column(name = DatabaseConsts.MAIL_OUTBOX_LANGUAGE_COLUMN, length = 16, updatable = false)
+    private String language;
+
+    /**
+     * First name of the recipient, used in the digest greeting.
+     */
+    @Column(name = DatabaseConsts.MAIL_OUTBOX_FIRST_NAME_COLUMN, length = 32, updatable = false)
+    private String firstName;
+
+    /**
+     * Last name of the recipient, used in the digest greeting.
+     */
+    @Column(name = DatabaseConsts.MAIL_OUTBOX_LAST_NAME_COLUMN, length = 32, updatable = false)
+    private String lastName;
+
+    /**
+     * Time of the creation of the entity object in the database.
+     */
+    @Column(name = DatabaseConsts.CREATION_TIMESTAMP, nullable = false, updatable = false)
+    @Temporal(value = TemporalType.TIMESTAMP)
+    private LocalDateTime creationTime;
+
+    /**
+     * Constructs new message, which could be delivered immediately.
+     *
+     * @param recipient E-mail address, which the message is sent to.
+     * @param subject   Subject of the message.
+     * @param content   Rendered content of the message, in HTML format.
+     */
+    public MailOutboxMessage(String recipient, String subject, String content) {
+        this.recipient = recipient;
+        this.subject = subject;
+        this.content = content;
+        this.nextAttemptTime = LocalDateTime.now();
+    }
+
+    /**
+     * Constructs new notification, which could be merged into a digest with other notifications of the same
+     * category, sent to the same recipient.
+     *
+     * @param recipient       E-mail address, which the message is sent to.
+     * @param subject         Subject of the message, used when it is delivered alone.
+     * @param content         Rendered content of the message, used when it is delivered alone.
+     * @param digestCategory  Category of the notification.
+     * @param digestItem      Action description of the notification, listed in the digest.
+     * @param language        Language of the recipient.
+     * @param firstName       First name of the recipient.
+     * @param lastName        Last name of the recipient.
+     * @param nextAttemptTime Time, until which the notification is held in the outbox, waiting for other
+     *                        notifications of the same category.
+     */
+    public MailOutboxMessage(String recipient, String subject, String content, MailDigestCategory digestCategory,
+                             String digestItem, String language, String firstName, String lastName,
+                             LocalDateTime nextAttemptTime) {
+        this(recipient, subject, content);
+        this.digestCategory = digestCategory;
+        this.digestItem = truncate(digestItem);
+        this.language = language;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.nextAttemptTime = nextAttemptTime;
+    }
+
+    /**
+     * Starts new delivery attempt. Until the given time, the message is not claimed by any other attempt,
+     * so that the message is retried only when the attempt was not finished, e.g. because of the application
+     * being stopped.
+     *
+     * @param leaseEndTime Time, after which the message could be claimed again.
+     */
+    public void startAttempt(LocalDateTime leaseEndTime) {
+        this.attempts++;
+        this.nextAttemptTime = leaseEndTime;
+    }
+
+    /**
+     * Records failed delivery attempt, and schedules the next one.
+     *
+     * @param error           Description of the error.
+     * @param nextAttemptTime Time of the next delivery attempt.
+     */
+    public void retryAt(String error, LocalDateTime nextAttemptTime) {
+        this.lastError = truncate(error);
+        this.nextAttemptTime = nextAttemptTime;
+    }
+
+    /**
+     * Records failed delivery attempt, after which the message will not be delivered anymore.
+     *
+     * @param error Description of the error.
+     */
+    public void fail(String error) {
+        this.lastError = truncate(error);
+        this.status = MailStatus.FAILED;
+    }
+
+    private static String truncate(String text) {
+        return text != null && text.length() > 1024 ? text.substring(0, 1024) : text;
+    }
+
+    /**
+     * Custom toString() method implementation that
+     * does not return any information relating to the business
+     * data.
+     *
+     * @return String representation of the MailOutboxMessage object.
+     */
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append(super.toString())
+                .append("status", status)
+                .append("attempts", attempts)
+                .append("digestCategory", digestCategory)
+                .toString();
+    }
+
+    @PrePersist
+    private void beforePersistingToTheDatabase() {
+        this.creationTime = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,88 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.entities.mok;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.Temporal;
+import jakarta.persistence.TemporalType;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerInterceptor;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.consts.DatabaseConsts;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+/**
+ * Single entry of the password history of an Account. Hashes without creation time (inserted before the time was
+ * recorded) are treated as the oldest ones.
+ *
+ * @see Account
+ */
+@Embeddable
+@LoggerInterceptor
+@NoArgsConstructor
+@Getter
+public class PastPassword implements Serializable {
+
+    /**
+     * Unique identifier for serialization purposes.
+     */
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Comparator ordering password history entries from the oldest to the newest one.
+     */
+    public static final Comparator<PastPassword> CHRONOLOGICAL_ORDER =
+            Comparator.comparing(PastPassword::getCreationTime, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    /**
+     * Hash of the password used in the past.
+     */
+    @Column(name = DatabaseConsts.PAST_PASSWORD_COLUMN)
+    private String passwordHash;
+
+    /**
+     * Timestamp of setting the password.
+     */
+    @Column(name = DatabaseConsts.PAST_PASSWORD_CREATION_TIME_COLUMN)
+    @Temporal(TemporalType.TIMESTAMP)
+    private LocalDateTime creationTime;
+
+    /**
+     * Constructs new password history entry, created at the current time.
+     *
+     * @param passwordHash Hash of the password.
+     */
+    public PastPassword(String passwordHash) {
+        this.passwordHash = passwordHash;
+        this.creationTime = LocalDateTime.now();
+    }
+
+    /**
+     * Constructs password history entry, created at the given time.
+     *
+     * @param passwordHash Hash of the password.
+     * @param creationTime Timestamp of setting the password.
+     */
+    public PastPassword(String passwordHash, LocalDateTime creationTime) {
+        this.passwordHash = passwordHash;
+        this.creationTime = creationTime;
+    }
+
+    /**
+     * Custom toString() method implementation that
+     * does not return any information relating to the business
+     * data.
+     *
+     * @return String representation of the past password object.
+     */
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .toString();
+    }
+}
@@ -11,6 +11,9 @@ import pl.lodz.p.it.ssbd2024.ssbd03.entities.AbstractEntity;
 import pl.lodz.p.it.ssbd2024.ssbd03.utils.consts.DatabaseConsts;
 import pl.lodz.p.it.ssbd2024.ssbd03.utils.messages.mok.TokenMessages;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 
 /**
@@ -21,7 +24,10 @@ import java.time.LocalDateTime;
 @Table(
         name = DatabaseConsts.TOKEN_TABLE,
         indexes = {
-                @Index(name = DatabaseConsts.TOKEN_ACCOUNT_ID_INDEX, columnList = DatabaseConsts.TOKEN_ACCOUNT_ID_COLUMN)
+                @Index(name = DatabaseConsts.TOKEN_ACCOUNT_ID_INDEX, columnList = DatabaseConsts.TOKEN_ACCOUNT_ID_COLUMN),
+                @Index(name = DatabaseConsts.TOKEN_TOKEN_DIGEST_KEY, columnList = DatabaseConsts.TOKEN_TOKEN_DIGEST_COLUMN, unique = true),
+                @Index(name = DatabaseConsts.TOKEN_EXPIRATION_TIMESTAMP_INDEX, columnList = DatabaseConsts.TOKEN_EXPIRATION_TIMESTAMP_COLUMN),
+                @Index(name = DatabaseConsts.TOKEN_TOKEN_TYPE_INDEX, columnList = DatabaseConsts.TOKEN_TOKEN_TYPE_COLUMN)
         }
 )
 @LoggerInterceptor
@@ -47,12 +53,10 @@ import java.time.LocalDateTime;
                         WHERE t.type = :tokenType AND t.account.id = :accountId"""
         ),
         @NamedQuery(
-                name = "Token.findByTokenValue",
+                name = "Token.findByTokenDigest",
                 query = """
                         SELECT t FROM Token t
-                        WHERE t.tokenValue = :tokenValue"""
-
-
+                        WHERE t.tokenDigest = :tokenDigest"""
         ),
         @NamedQuery(
                 name = "Token.findByTokenType",
@@ -61,7 +65,22 @@ import java.time.LocalDateTime;
                         WHERE t.type = :tokenType"""
         )
 })
+@NamedNativeQuery(
+        name = "Token.removeExpiredBatch",
+        query = """
+                DELETE FROM token
+                WHERE id IN (SELECT id FROM token
+                             WHERE expiration_timestamp < :expirationTime
+                             AND type IN ('REFRESH_TOKEN', 'RESET_PASSWORD', 'CONFIRM_EMAIL', 'MULTI_FACTOR_AUTHENTICATION_CODE')
+                             LIMIT :batchSize)"""
+)
 public class Token extends AbstractEntity {
+
+    /**
+     * Length of the token value digest, in bytes.
+     */
+    public static final int TOKEN_DIGEST_LENGTH = 32;
+
     /**
      * Used to specify the type of the Account action related to the token.
      */
@@ -78,10 +97,16 @@ public class Token extends AbstractEntity {
     /**
      * The value of the token.
      */
-    @Column(name = DatabaseConsts.TOKEN_TOKEN_VALUE_COLUMN, unique = true, nullable = false, length = 512)
-    @Getter @Setter
+    @Column(name = DatabaseConsts.TOKEN_TOKEN_VALUE_COLUMN, nullable = false, length = 512)
     private String tokenValue;
 
+    /**
+     * SHA-256 digest of the token value. Tokens are looked up by the digest, which is short and has fixed length,
+     * so that the raw token value does not have to be indexed.
+     */
+    @Column(name = DatabaseConsts.TOKEN_TOKEN_DIGEST_COLUMN, nullable = false, length = TOKEN_DIGEST_LENGTH)
+    private byte[] tokenDigest;
+
     /**
      * The account associated with this token.
      */
@@ -99,6 +124,15 @@ public class Token extends AbstractEntity {
     @Enumerated(EnumType.STRING)
     private TokenType type = TokenType.RESET_PASSWORD;
 
+    /**
+     * Time, after which the token is no longer valid, and could be removed from the database.
+     * Only refresh, password reset, e-mail change and multi-factor authentication tokens are removed automatically,
+     * and only when they have the expiration time.
+     */
+    @Column(name = DatabaseConsts.TOKEN_EXPIRATION_TIMESTAMP_COLUMN)
+    @Temporal(value = TemporalType.TIMESTAMP)
+    private LocalDateTime expirationTime;
+
     // Other fields - used for access control, and storing historical data
 
     /**
@@ -125,11 +159,48 @@ public class Token extends AbstractEntity {
      * @param type Type of the token.
      */
     public Token(String tokenValue, Account account, TokenType type) {
-        this.tokenValue = tokenValue;
+        this.setTokenValue(tokenValue);
         this.account = account;
         this.type = type;
     }
 
+    /**
+     * Constructs new token object, which expires at the given time.
+     *
+     * @param tokenValue     Value of the token to be stored in the database
+     * @param account        Account, which the token belongs to / is associated with.
+     * @param type           Type of the token.
+     * @param expirationTime Time, after which the token is no longer valid.
+     */
+    public Token(String tokenValue, Account account, TokenType type, LocalDateTime expirationTime) {
+        this(tokenValue, account, type);
+        this.expirationTime = expirationTime;
+    }
+
+    /**
+     * Sets value of the token, along with its digest.
+     *
+     * @param tokenValue New value of the token.
+     */
+    public void setTokenValue(String tokenValue) {
+        this.tokenValue = tokenValue;
+        this.tokenDigest = digest(tokenValue);
+    }
+
+    /**
+     * Computes digest of the token value, under which the token is stored in the database.
+     *
+     * @param tokenValue Value of the token.
+     * @return SHA-256 digest of the UTF-8 encoded token value.
+     */
+    public static byte[] digest(String tokenValue) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(tokenValue.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException("SHA-256 is not supported by the JVM.", exception);
+        }
+    }
+
     /**
      * Custom toString() method implementation that
      * does not return any information relating to the business
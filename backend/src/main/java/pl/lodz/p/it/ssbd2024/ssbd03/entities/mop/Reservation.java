@@ -34,8 +34,11 @@ import java.util.List;
 @Table(
         name = DatabaseConsts.RESERVATION_TABLE,
         indexes = {
-                @Index(name = DatabaseConsts.RESERVATION_CLIENT_ID_INDEX, columnList = DatabaseConsts.RESERVATION_CLIENT_ID_COLUMN),
-                @Index(name = DatabaseConsts.RESERVATION_SECTOR_ID_INDEX, columnList = DatabaseConsts.RESERVATION_SECTOR_ID_COLUMN)
+                @Index(name = DatabaseConsts.RESERVATION_CLIENT_ID_BEGIN_TIME_INDEX,
+                        columnList = DatabaseConsts.RESERVATION_CLIENT_ID_COLUMN + ", " + DatabaseConsts.RESERVATION_BEGIN_TIME_COLUMN),
+                @Index(name = DatabaseConsts.RESERVATION_SECTOR_ID_BEGIN_TIME_INDEX,
+                        columnList = DatabaseConsts.RESERVATION_SECTOR_ID_COLUMN + ", " + DatabaseConsts.RESERVATION_BEGIN_TIME_COLUMN),
+                @Index(name = DatabaseConsts.RESERVATION_BEGIN_TIME_INDEX, columnList = DatabaseConsts.RESERVATION_BEGIN_TIME_COLUMN)
         }
 )
 @LoggerInterceptor
@@ -46,7 +49,6 @@ import java.util.List;
                 name = "Reservation.findAll",
                 query = """
                         SELECT r FROM Reservation r
-                        GROUP BY r.id
                         ORDER BY r.beginTime
                         """
         ),
@@ -58,7 +60,6 @@ import java.util.List;
                         WHERE r.client.account.login = :clientLogin
                           AND r.status IN (ReservationStatus.AWAITING,
                                            ReservationStatus.IN_PROGRESS)
-                        GROUP BY r.id
                         ORDER BY r.beginTime
                        """
         ),
@@ -71,7 +72,6 @@ import java.util.List;
                                            ReservationStatus.COMPLETED_AUTOMATICALLY,
                                            ReservationStatus.CANCELLED,
                                            ReservationStatus.TERMINATED)
-                        GROUP BY r.id
                         ORDER BY r.beginTime
                        """
         ),
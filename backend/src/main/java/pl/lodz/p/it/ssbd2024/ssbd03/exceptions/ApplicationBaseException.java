@@ -1,7 +1,16 @@
 package pl.lodz.p.it.ssbd2024.ssbd03.exceptions;
 
+/**
+ * Base class of all application exceptions. Most of its subclasses represent expected business outcomes
+ * (e.g. no available place in the sector, invalid token), which are thrown as part of ordinary control flow
+ * and translated into HTTP responses. When stackless expected outcomes are enabled, such exceptions do not capture
+ * the stack trace, which is the most expensive part of creating them. Exceptions representing failures
+ * (see {@link #isExpectedOutcome()}) always capture it.
+ */
 public class ApplicationBaseException extends Exception {
 
+    private static volatile boolean stacklessExpectedOutcomes = false;
+
     public ApplicationBaseException() {}
 
     public ApplicationBaseException(String message) {
@@ -15,4 +24,36 @@ public class ApplicationBaseException extends Exception {
     public ApplicationBaseException(Throwable cause) {
         super(cause);
     }
+
+    /**
+     * @param stackless True if exceptions representing expected business outcomes should not capture the stack trace,
+     *                  false otherwise.
+     */
+    public static void setStacklessExpectedOutcomes(boolean stackless) {
+        stacklessExpectedOutcomes = stackless;
+    }
+
+    /**
+     * @return True if exceptions representing expected business outcomes do not capture the stack trace, false otherwise.
+     */
+    public static boolean isStacklessExpectedOutcomes() {
+        return stacklessExpectedOutcomes;
+    }
+
+    /**
+     * Indicates whether the exception represents an expected business outcome, rather than a failure. Overridden
+     * by the exceptions representing failures. As it is called during construction of the exception, overriding
+     * methods must not depend on the state of the exception.
+     *
+     * @return True for all subclasses by default, false for the generic application exception itself.
+     */
+    protected boolean isExpectedOutcome() {
+        return this.getClass() != ApplicationBaseException.class;
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        if (stacklessExpectedOutcomes && this.isExpectedOutcome()) return this;
+        return super.fillInStackTrace();
+    }
 }
@@ -8,4 +8,12 @@ public class ApplicationDatabaseException extends ApplicationBaseException {
     public ApplicationDatabaseException(String message, Throwable cause) {
         super(message, cause);
     }
+
+    /**
+     * @return False, as unexpected database errors always capture the stack trace.
+     */
+    @Override
+    protected boolean isExpectedOutcome() {
+        return false;
+    }
 }
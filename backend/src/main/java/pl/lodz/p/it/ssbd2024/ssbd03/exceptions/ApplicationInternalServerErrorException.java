@@ -7,4 +7,12 @@ public class ApplicationInternalServerErrorException extends ApplicationBaseExce
     public ApplicationInternalServerErrorException() {
         super(I18n.INTERNAL_SERVER_ERROR);
     }
+
+    /**
+     * @return False, as internal server errors always capture the stack trace.
+     */
+    @Override
+    protected boolean isExpectedOutcome() {
+        return false;
+    }
 }
@@ -0,0 +1,18 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.exceptions;
+
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.I18n;
+
+/**
+ * Exception thrown when the operation could not be performed, since the resources it requires (e.g. password hashing
+ * capacity) are exhausted at the moment. The operation may succeed when repeated later.
+ */
+public class ApplicationServiceUnavailableException extends ApplicationBaseException {
+
+    public ApplicationServiceUnavailableException() {
+        super(I18n.SERVICE_UNAVAILABLE_EXCEPTION);
+    }
+
+    public ApplicationServiceUnavailableException(Throwable cause) {
+        super(I18n.SERVICE_UNAVAILABLE_EXCEPTION, cause);
+    }
+}
@@ -1,7 +1,5 @@
 package pl.lodz.p.it.ssbd2024.ssbd03.mok.controllers.implementations;
 
-import io.restassured.RestAssured;
-import io.restassured.response.Response;
 import jakarta.annotation.security.RolesAllowed;
 import jakarta.persistence.RollbackException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -13,6 +11,7 @@ import org.eclipse.angus.mail.iap.ByteArray;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -43,14 +42,16 @@ import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.mok.account.status.AccountNotActi
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.mok.account.status.AccountSuspendedException;
 import pl.lodz.p.it.ssbd2024.ssbd03.mok.controllers.interfaces.AuthenticationControllerInterface;
 import pl.lodz.p.it.ssbd2024.ssbd03.mok.services.interfaces.AuthenticationServiceInterface;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.image.RandomImagePool;
 
 import javax.imageio.ImageIO;
 import java.awt.*;
 import java.io.ByteArrayOutputStream;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.Base64;
+import java.util.Optional;
 
 /**
  * Controller used for authentication in the system.
@@ -66,6 +67,9 @@ public class AuthenticationController implements AuthenticationControllerInterfa
     @Value("${account.maximum.failed.login.attempt.counter}")
     private int loginFailedAttemptMaxCount;
 
+    @Value("${image.pool.cache.max.age.seconds}")
+    private long imageCacheMaxAge;
+
     /**
      * AuthenticationServiceInterface used for authentication purposes.
      */
@@ -76,18 +80,26 @@ public class AuthenticationController implements AuthenticationControllerInterfa
      */
     private final AuthenticationManager authenticationManager;
 
+    /**
+     * RandomImagePool holding images presented on the login page.
+     */
+    private final RandomImagePool randomImagePool;
+
     /**
      * Autowired constructor for the controller.
      *
      * @param authenticationService Service used for authentication purposes.
      * @param authenticationManager Spring Security component used to create Authentication object while authenticating
      *                              user in the application.
+     * @param randomImagePool       Component holding images presented on the login page.
      */
     @Autowired
     public AuthenticationController(AuthenticationServiceInterface authenticationService,
-                                    AuthenticationManager authenticationManager) {
+                                    AuthenticationManager authenticationManager,
+                                    RandomImagePool randomImagePool) {
         this.authenticationService = authenticationService;
         this.authenticationManager = authenticationManager;
+        this.randomImagePool = randomImagePool;
     }
 
     // Login methods
@@ -212,13 +224,14 @@ public class AuthenticationController implements AuthenticationControllerInterfa
     @Override
     @RolesAllowed({Authorities.LOGIN})
     public ResponseEntity<?> getRandomImage() {
-        String apiURL = "https://random-image-pepebigotes.vercel.app/api/random-image";
-        Response response = RestAssured.given().when().get(apiURL);
-
-        byte[] byteArray = response.getBody().asByteArray();
+        Optional<String> image = randomImagePool.getRandomImage();
+        if (image.isEmpty()) {
+            return ResponseEntity.noContent().cacheControl(CacheControl.noStore()).build();
+        }
         return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofSeconds(imageCacheMaxAge)).cachePrivate())
                 .contentType(MediaType.TEXT_PLAIN)
-                .body(new String(Base64.getEncoder().encode(byteArray)));
+                .body(image.get());
     }
 
     // Other private methods
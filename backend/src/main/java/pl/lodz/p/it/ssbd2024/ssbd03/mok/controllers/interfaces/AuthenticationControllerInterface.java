@@ -107,15 +107,17 @@ public interface AuthenticationControllerInterface {
 
     /**
      * This method is used to generate a random image for authentication page in the
-     * SPA application.
+     * SPA application. The image is chosen from the pool of images cached in memory, and the response could be cached
+     * by the browser for the time specified by <code>image.pool.cache.max.age.seconds</code> property.
      *
-     * @return 200 OK HTTP Response is returned when image was fetched successfully and converted to byte array.
-     * Otherwise, 500 INTERNAL SERVER ERROR is returned, when some unknown error occurs.
+     * @return 200 OK HTTP Response is returned with the image encoded in Base64. If the image pool is empty, then
+     * 204 NO CONTENT is returned. Otherwise, 500 INTERNAL SERVER ERROR is returned, when some unknown error occurs.
      */
     @GetMapping(value = "/random-image")
-    @Operation(summary = "Random image", description = "This endpoint is used to get random image through external API.")
+    @Operation(summary = "Random image", description = "This endpoint is used to get random image from the image pool cached in memory.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Image was successfully sent as a byte array."),
+            @ApiResponse(responseCode = "200", description = "Image was successfully sent encoded in Base64."),
+            @ApiResponse(responseCode = "204", description = "There are no images in the image pool."),
             @ApiResponse(responseCode = "500", description = "Some unknown error occurred while the request was being processed."),
     })
     ResponseEntity<?> getRandomImage();
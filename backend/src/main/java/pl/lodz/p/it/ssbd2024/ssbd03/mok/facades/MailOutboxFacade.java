@@ -0,0 +1,156 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.mok.facades;
+
+import jakarta.annotation.security.PermitAll;
+import jakarta.annotation.security.RolesAllowed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerInterceptor;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.TxTracked;
+import pl.lodz.p.it.ssbd2024.ssbd03.commons.AbstractFacade;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.dbconfig.DatabaseConfigConstants;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Authorities;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.MailOutboxMessage;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.mail.MailDigestCategory;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository used to manage e-mail messages waiting in the outbox for delivery.
+ *
+ * @see MailOutboxMessage
+ */
+@Slf4j
+@Repository
+@LoggerInterceptor
+@TxTracked
+@Transactional(propagation = Propagation.MANDATORY)
+public class MailOutboxFacade extends AbstractFacade<MailOutboxMessage> {
+
+    /**
+     * Autowired entityManager used for managing entities.
+     */
+    @PersistenceContext(unitName = DatabaseConfigConstants.MOK_PU)
+    private EntityManager entityManager;
+
+    /**
+     * Constructs the facade.
+     */
+    public MailOutboxFacade() {
+        super(MailOutboxMessage.class);
+    }
+
+    /**
+     * Retrieves an entity manager.
+     *
+     * @return Entity manager associated with the facade.
+     */
+    @Override
+    protected EntityManager getEntityManager() {
+        return this.entityManager;
+    }
+
+    /**
+     * Persists a new message in the outbox, as a part of the current transaction. Messages are enqueued
+     * by all use cases notifying users by e-mail, including the ones performed by anonymous users.
+     *
+     * @param entity Message to be persisted.
+     */
+    @Override
+    @PermitAll
+    public void create(MailOutboxMessage entity) throws ApplicationBaseException {
+        super.create(entity);
+    }
+
+    /**
+     * Forces modification of the message in the database.
+     *
+     * @param entity Message to be modified.
+     */
+    @Override
+    @RolesAllowed({Authorities.DISPATCH_MAIL_OUTBOX})
+    public void edit(MailOutboxMessage entity) throws ApplicationBaseException {
+        super.edit(entity);
+    }
+
+    /**
+     * Retrieves a message by the ID.
+     *
+     * @param id ID of the message to be retrieved.
+     * @return If a message with the given ID was found returns an Optional containing the message, otherwise returns an empty Optional.
+     */
+    @Override
+    @RolesAllowed({Authorities.DISPATCH_MAIL_OUTBOX})
+    public Optional<MailOutboxMessage> find(UUID id) throws ApplicationBaseException {
+        return super.find(id);
+    }
+
+    /**
+     * Retrieves and locks messages, which are due for the delivery attempt. Messages locked by other transactions
+     * are skipped, so that several dispatchers could drain the outbox at the same time.
+     *
+     * @param now       Current time.
+     * @param batchSize Maximum number of retrieved messages.
+     * @return List of messages, starting from the longest waiting one.
+     */
+    @RolesAllowed({Authorities.DISPATCH_MAIL_OUTBOX})
+    public List<MailOutboxMessage> findDueBatch(LocalDateTime now, int batchSize) throws ApplicationBaseException {
+        return getEntityManager().createNamedQuery("MailOutboxMessage.findDueBatch", MailOutboxMessage.class)
+                .setParameter("now", now)
+                .setParameter("batchSize", batchSize)
+                .getResultList();
+    }
+
+    /**
+     * Retrieves and locks notifications of the given digest category, held in the outbox for the given recipient
+     * and not attempted to be delivered yet. Messages locked by other transactions are skipped.
+     *
+     * @param recipient      E-mail address of the recipient.
+     * @param digestCategory Category of the notifications.
+     * @param batchSize      Maximum number of retrieved messages.
+     * @return List of notifications, starting from the oldest one.
+     */
+    @RolesAllowed({Authorities.DISPATCH_MAIL_OUTBOX})
+    public List<MailOutboxMessage> findHeldDigestItems(String recipient, MailDigestCategory digestCategory, int batchSize) throws ApplicationBaseException {
+        return getEntityManager().createNamedQuery("MailOutboxMessage.findHeldDigestItems", MailOutboxMessage.class)
+                .setParameter("recipient", recipient)
+                .setParameter("digestCategory", digestCategory.name())
+                .setParameter("batchSize", batchSize)
+                .getResultList();
+    }
+
+    /**
+     * Removes messages with given identifiers from the outbox.
+     *
+     * @param ids Identifiers of the messages.
+     * @return Number of removed messages.
+     */
+    @RolesAllowed({Authorities.DISPATCH_MAIL_OUTBOX})
+    public int removeByIds(Collection<UUID> ids) throws ApplicationBaseException {
+        if (ids.isEmpty()) return 0;
+        return getEntityManager().createNamedQuery("MailOutboxMessage.removeByIds")
+                .setParameter("ids", ids)
+                .executeUpdate();
+    }
+
+    /**
+     * Counts messages with given status.
+     *
+     * @param status Status of the messages.
+     * @return Number of messages in the outbox with given status.
+     */
+    @RolesAllowed({Authorities.DISPATCH_MAIL_OUTBOX})
+    public long countByStatus(MailOutboxMessage.MailStatus status) throws ApplicationBaseException {
+        return getEntityManager().createNamedQuery("MailOutboxMessage.countByStatus", Long.class)
+                .setParameter("status", status)
+                .getSingleResult();
+    }
+}
@@ -88,7 +88,7 @@ public class TokenAuthFacade extends AbstractFacade<Token> {
     }
 
     /**
-     * Retrieves a Token based on its value.
+     * Retrieves a Token based on its value. The token is looked up by the digest of its value.
      *
      * @param tokenValue Value of the token to be found.
      * @return If found returns Optional containing the Token, otherwise returns Empty Optional.
@@ -97,8 +97,8 @@ public class TokenAuthFacade extends AbstractFacade<Token> {
     public Optional<Token> findByTokenValue(String tokenValue) throws ApplicationBaseException {
         try {
             TypedQuery<Token> query = getEntityManager()
-                    .createNamedQuery("Token.findByTokenValue", Token.class)
-                    .setParameter("tokenValue", tokenValue);
+                    .createNamedQuery("Token.findByTokenDigest", Token.class)
+                    .setParameter("tokenDigest", Token.digest(tokenValue));
             Token token = query.getSingleResult();
             entityManager.refresh(token);
             return Optional.of(token);
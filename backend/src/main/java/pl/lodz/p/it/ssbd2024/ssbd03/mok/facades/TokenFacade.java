@@ -17,6 +17,7 @@ import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Authorities;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Token;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -112,7 +113,7 @@ public class TokenFacade extends AbstractFacade<Token> {
     }
 
     /**
-     * Retrieves a Token based on its value.
+     * Retrieves a Token based on its value. The token is looked up by the digest of its value.
      *
      * @param tokenValue Value of the token to be found.
      * @return If found returns Optional containing the Token, otherwise returns Empty Optional.
@@ -124,8 +125,8 @@ public class TokenFacade extends AbstractFacade<Token> {
     public Optional<Token> findByTokenValue(String tokenValue) throws ApplicationBaseException {
         try {
             TypedQuery<Token> query = getEntityManager()
-                    .createNamedQuery("Token.findByTokenValue", Token.class)
-                    .setParameter("tokenValue", tokenValue);
+                    .createNamedQuery("Token.findByTokenDigest", Token.class)
+                    .setParameter("tokenDigest", Token.digest(tokenValue));
             Token token = query.getSingleResult();
             entityManager.refresh(token);
             return Optional.of(token);
@@ -183,4 +184,23 @@ public class TokenFacade extends AbstractFacade<Token> {
                 .setParameter("accountId", accountId)
                 .executeUpdate();
     }
+
+    /**
+     * Removes a single batch of Tokens, which expired before the given time. Only refresh, password reset, e-mail
+     * change and multi-factor authentication Tokens are removed, since Tokens of other types mark pending actions
+     * of the account (like the password change forced by the administrator). Each batch is removed
+     * in a separate transaction, so that locks on removed rows are held only for a single batch.
+     *
+     * @param expirationTime Tokens expired before this time are removed.
+     * @param batchSize      Maximum number of Tokens removed in the batch.
+     * @return Number of removed Tokens. When lower than the batch size, there are no more expired Tokens.
+     */
+    @RolesAllowed({Authorities.REMOVE_EXPIRED_TOKENS})
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int removeExpiredBatch(LocalDateTime expirationTime, int batchSize) throws ApplicationBaseException {
+        return getEntityManager().createNamedQuery("Token.removeExpiredBatch")
+                .setParameter("expirationTime", expirationTime)
+                .setParameter("batchSize", batchSize)
+                .executeUpdate();
+    }
 }
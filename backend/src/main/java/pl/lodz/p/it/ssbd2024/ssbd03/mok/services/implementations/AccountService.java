@@ -42,6 +42,7 @@ import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.attribute.AttributeNameFacade;
 import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.attribute.AttributeValueFacade;
 import pl.lodz.p.it.ssbd2024.ssbd03.mok.services.interfaces.AccountServiceInterface;
 import pl.lodz.p.it.ssbd2024.ssbd03.utils.I18n;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.password.PasswordHistoryVerifier;
 import pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.JWTProvider;
 import pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.MailProvider;
 import pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.TokenProvider;
@@ -84,6 +85,11 @@ public class AccountService implements AccountServiceInterface {
      */
     private final PasswordEncoder passwordEncoder;
 
+    /**
+     * Component used to verify and update password history of the accounts.
+     */
+    private final PasswordHistoryVerifier passwordHistoryVerifier;
+
     /**
      * TokenFacade used for operations on token entities.
      */
@@ -124,6 +130,7 @@ public class AccountService implements AccountServiceInterface {
      * @param accountFacade        Facade responsible for users accounts management.
      * @param historyDataFacade    Facade used for inserting information about account modifications to the database.
      * @param passwordEncoder      This component is used to generate hashed passwords for user accounts (not to store them in their original form).
+     * @param passwordHistoryVerifier This component is used to check whether new password was used recently, and to keep password history.
      * @param tokenFacade          This facade is responsible for manipulating tokens, used for various, user account related operations.
      * @param mailProvider         This component is used to send e-mail messages to e-mail address of users (where message depends on their actions).
      * @param jwtProvider          This component is used to generate token values for token facade.
@@ -135,6 +142,7 @@ public class AccountService implements AccountServiceInterface {
     public AccountService(AccountMOKFacade accountFacade,
                           AccountHistoryDataFacade historyDataFacade,
                           PasswordEncoder passwordEncoder,
+                          PasswordHistoryVerifier passwordHistoryVerifier,
                           TokenFacade tokenFacade,
                           MailProvider mailProvider,
                           JWTProvider jwtProvider,
@@ -145,6 +153,7 @@ public class AccountService implements AccountServiceInterface {
         this.accountFacade = accountFacade;
         this.historyDataFacade = historyDataFacade;
         this.passwordEncoder = passwordEncoder;
+        this.passwordHistoryVerifier = passwordHistoryVerifier;
         this.tokenFacade = tokenFacade;
         this.mailProvider = mailProvider;
         this.jwtProvider = jwtProvider;
@@ -162,7 +171,7 @@ public class AccountService implements AccountServiceInterface {
             throws ApplicationBaseException {
         Account newClientAccount = new Account(login, passwordEncoder.encode(password), firstName, lastName, email, phoneNumber);
         newClientAccount.setAccountLanguage(language);
-        newClientAccount.getPreviousPasswords().add(newClientAccount.getPassword());
+        newClientAccount.addPreviousPassword(newClientAccount.getPassword());
         UserLevel clientUserLevel = new Client();
         clientUserLevel.setAccount(newClientAccount);
         newClientAccount.addUserLevel(clientUserLevel);
@@ -197,7 +206,7 @@ public class AccountService implements AccountServiceInterface {
     public Account registerStaff(String login, String password, String firstName, String lastName, String email, String phoneNumber, String language) throws ApplicationBaseException {
         Account newStaffAccount = new Account(login, passwordEncoder.encode(password), firstName, lastName, email, phoneNumber);
         newStaffAccount.setAccountLanguage(language);
-        newStaffAccount.getPreviousPasswords().add(newStaffAccount.getPassword());
+        newStaffAccount.addPreviousPassword(newStaffAccount.getPassword());
         UserLevel staffUserLevel = new Staff();
         staffUserLevel.setAccount(newStaffAccount);
         newStaffAccount.addUserLevel(staffUserLevel);
@@ -231,7 +240,7 @@ public class AccountService implements AccountServiceInterface {
     public Account registerAdmin(String login, String password, String firstName, String lastName, String email, String phoneNumber, String language) throws ApplicationBaseException {
         Account newAdminAccount = new Account(login, passwordEncoder.encode(password), firstName, lastName, email, phoneNumber);
         newAdminAccount.setAccountLanguage(language);
-        newAdminAccount.getPreviousPasswords().add(newAdminAccount.getPassword());
+        newAdminAccount.addPreviousPassword(newAdminAccount.getPassword());
         UserLevel adminUserLevel = new Admin();
         adminUserLevel.setAccount(newAdminAccount);
         newAdminAccount.addUserLevel(adminUserLevel);
@@ -300,12 +309,10 @@ public class AccountService implements AccountServiceInterface {
         if (account.getBlocked()) throw new AccountBlockedException();
         else if (!account.getActive()) throw new AccountNotActivatedException();
 
-        for (String passwordHash : account.getPreviousPasswords()) {
-            if (passwordEncoder.matches(newPassword, passwordHash)) throw new PasswordPreviouslyUsedException();
-        }
+        if (passwordHistoryVerifier.isPreviouslyUsed(account, newPassword)) throw new PasswordPreviouslyUsedException();
 
         String hashedPassword = passwordEncoder.encode(newPassword);
-        account.getPreviousPasswords().add(hashedPassword);
+        passwordHistoryVerifier.addToHistory(account, hashedPassword);
         account.setPassword(hashedPassword);
 
         this.accountFacade.edit(account);
@@ -321,9 +328,6 @@ public class AccountService implements AccountServiceInterface {
     @Override
     @RolesAllowed({Authorities.CHANGE_OWN_PASSWORD})
     public void changePasswordSelf(String oldPassword, String newPassword, String login) throws ApplicationBaseException {
-
-        String newPasswordEncoded = passwordEncoder.encode(newPassword);
-
         Account account = accountFacade.findByLogin(login).orElseThrow(() -> new AccountNotFoundException(I18n.ACCOUNT_NOT_FOUND_EXCEPTION));
 
         String passwordFromDatabase = account.getPassword();
@@ -332,12 +336,12 @@ public class AccountService implements AccountServiceInterface {
             throw new IncorrectPasswordException();
         }
 
-        for (String hashedPassword : account.getPreviousPasswords()) {
-            if (passwordEncoder.matches(newPassword, hashedPassword)) {
-                throw new PasswordPreviouslyUsedException();
-            }
+        if (passwordHistoryVerifier.isPreviouslyUsed(account, newPassword)) {
+            throw new PasswordPreviouslyUsedException();
         }
 
+        String newPasswordEncoded = passwordEncoder.encode(newPassword);
+        passwordHistoryVerifier.addToHistory(account, newPasswordEncoded);
         account.setPassword(newPasswordEncoded);
 
         accountFacade.edit(account);
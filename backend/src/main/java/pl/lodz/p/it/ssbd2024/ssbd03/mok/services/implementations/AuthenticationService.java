@@ -1,13 +1,10 @@
 package pl.lodz.p.it.ssbd2024.ssbd03.mok.services.implementations;
 
-import com.eatthepath.otp.TimeBasedOneTimePasswordGenerator;
-import jakarta.annotation.PostConstruct;
 import jakarta.annotation.security.RolesAllowed;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
@@ -17,7 +14,6 @@ import pl.lodz.p.it.ssbd2024.ssbd03.commons.dto.mok.token.AccessAndRefreshTokens
 import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Authorities;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.*;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
-import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationInternalServerErrorException;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.mok.account.AccountAuthenticationException;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.mok.account.InvalidLoginAttemptException;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.mok.account.read.AccountNotFoundException;
@@ -30,19 +26,13 @@ import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.AccountHistoryDataAuthFacade;
 import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.AuthenticationFacade;
 import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.TokenAuthFacade;
 import pl.lodz.p.it.ssbd2024.ssbd03.mok.services.interfaces.AuthenticationServiceInterface;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.authcode.AuthenticationCodeStore;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.AuthenticationCodeProvider;
 import pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.JWTProvider;
 import pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.MailProvider;
 import pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.TokenProvider;
 
-import javax.crypto.KeyGenerator;
-import javax.crypto.Mac;
-import java.security.InvalidKeyException;
-import java.security.Key;
-import java.security.NoSuchAlgorithmException;
-import java.time.Duration;
-import java.time.Instant;
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
 import java.util.Optional;
 
 /**
@@ -71,9 +61,14 @@ public class AuthenticationService implements AuthenticationServiceInterface {
     private final TokenAuthFacade tokenFacade;
 
     /**
-     * Password encoder, used for generating hashes for tokens containing auth codes.
+     * Component generating authentication codes for multifactor authentication.
      */
-    private final PasswordEncoder passwordEncoder;
+    private final AuthenticationCodeProvider authenticationCodeProvider;
+
+    /**
+     * Short-lived store of authentication codes, waiting to be used in the second step of multifactor authentication.
+     */
+    private final AuthenticationCodeStore authenticationCodeStore;
 
     /**
      * MailProvider used for sending emails.
@@ -91,49 +86,36 @@ public class AuthenticationService implements AuthenticationServiceInterface {
      */
     private final JWTProvider jwtProvider;
 
-    final TimeBasedOneTimePasswordGenerator totp = new TimeBasedOneTimePasswordGenerator(Duration.of(30, ChronoUnit.SECONDS), 8);
-    private Key key;
-
     /**
      * Autowired constructor for the service.
      *
-     * @param authenticationFacade Facade used for reading users accounts information for authentication purposes.
-     * @param historyDataFacade    Facade used for inserting information about account modifications to the database.
-     * @param tokenFacade          Facade used for inserting, deleting and reading token objects from the database.
-     * @param passwordEncoder      Component, responsible for generating hashes for given authentication code, and verifying them.
-     * @param jwtProvider          Component, responsible for generating JWT tokens with given content, and for given amount of time.
-     * @param mailProvider         Component used for sending e-mail messages.
+     * @param authenticationFacade       Facade used for reading users accounts information for authentication purposes.
+     * @param historyDataFacade          Facade used for inserting information about account modifications to the database.
+     * @param tokenFacade                Facade used for inserting, deleting and reading token objects from the database.
+     * @param authenticationCodeProvider Component, responsible for generating authentication codes and their digests.
+     * @param authenticationCodeStore    Store keeping digests of authentication codes, until they are used or expire.
+     * @param jwtProvider                Component, responsible for generating JWT tokens with given content, and for given amount of time.
+     * @param mailProvider               Component used for sending e-mail messages.
      */
     @Autowired
     public AuthenticationService(AuthenticationFacade authenticationFacade,
                                  AccountHistoryDataAuthFacade historyDataFacade,
                                  TokenAuthFacade tokenFacade,
-                                 PasswordEncoder passwordEncoder,
+                                 AuthenticationCodeProvider authenticationCodeProvider,
+                                 AuthenticationCodeStore authenticationCodeStore,
                                  MailProvider mailProvider,
                                  JWTProvider jwtProvider,
                                  TokenProvider tokenProvider) {
         this.authenticationFacade = authenticationFacade;
         this.historyDataFacade = historyDataFacade;
         this.tokenFacade = tokenFacade;
-        this.passwordEncoder = passwordEncoder;
+        this.authenticationCodeProvider = authenticationCodeProvider;
+        this.authenticationCodeStore = authenticationCodeStore;
         this.mailProvider = mailProvider;
         this.jwtProvider = jwtProvider;
         this.tokenProvider = tokenProvider;
     }
 
-    @PostConstruct
-    private void generateKey() throws NoSuchAlgorithmException {
-        final KeyGenerator keyGenerator = KeyGenerator.getInstance(totp.getAlgorithm());
-
-        // Key length should match the length of the HMAC output (160 bits for SHA-1, 256 bits
-        // for SHA-256, and 512 bits for SHA-512). Note that while Mac#getMacLength() returns a
-        // length in _bytes,_ KeyGenerator#init(int) takes a key length in _bits._
-        final int macLengthInBytes = Mac.getInstance(totp.getAlgorithm()).getMacLength();
-        keyGenerator.init(macLengthInBytes * 8);
-
-        key = keyGenerator.generateKey();
-    }
-
     // Login methods
 
     @Override
@@ -148,18 +130,8 @@ public class AuthenticationService implements AuthenticationServiceInterface {
             throw new AccountBlockedByFailedLoginAttemptsException();
         }
 
-        Token token = this.tokenFacade.findByTypeAndAccount(Token.TokenType.MULTI_FACTOR_AUTHENTICATION_CODE, account.getId()).orElseThrow(TokenNotFoundException::new);
-        String hashedAuthenticationCode;
-        try {
-            hashedAuthenticationCode = this.jwtProvider.extractHashedCodeValueFromToken(token.getTokenValue());
-        } catch (TokenNotValidException exception) {
-            tokenFacade.remove(token);
-            throw exception;
-        }
-        if (!jwtProvider.isMultiFactorAuthTokenValid(token.getTokenValue()) ||
-                !passwordEncoder.matches(code, hashedAuthenticationCode))
+        if (!authenticationCodeStore.consume(account, authenticationCodeProvider.digest(account, code)))
             throw new TokenNotValidException();
-        this.tokenFacade.remove(token);
     }
 
     // Register successful & unsuccessful login attempt methods
@@ -291,24 +263,13 @@ public class AuthenticationService implements AuthenticationServiceInterface {
      */
     @RolesAllowed({Authorities.LOGIN})
     private void generateAndSendEmailMessageWithAuthenticationCode(Account account) throws ApplicationBaseException {
-        tokenFacade.removeByTypeAndAccount(Token.TokenType.MULTI_FACTOR_AUTHENTICATION_CODE, account.getId());
-
-        String authCodeValue;
-        try {
-            authCodeValue = totp.generateOneTimePasswordString(key, Instant.now());
-        } catch (InvalidKeyException e) {
-            throw new ApplicationInternalServerErrorException();
-        }
-
-        String hashedAuthCode = passwordEncoder.encode(authCodeValue);
-        Token multiFactorAuthToken = this.tokenProvider.generateMultiFactorAuthToken(account, hashedAuthCode);
+        String authCodeValue = authenticationCodeProvider.generateCode(account);
+        authenticationCodeStore.put(account, authenticationCodeProvider.digest(account, authCodeValue));
 
         mailProvider.sendTwoFactorAuthCode(account.getName(),
                 account.getLastname(),
                 authCodeValue,
                 account.getEmail(),
                 account.getAccountLanguage());
-
-        this.tokenFacade.create(multiFactorAuthToken);
     }
 }
\ No newline at end of file
@@ -0,0 +1,153 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.mok.services.implementations;
+
+import jakarta.annotation.security.RolesAllowed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerInterceptor;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.TxTracked;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.util.RunAsSystem;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Authorities;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.MailOutboxMessage;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.MailOutboxFacade;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.services.interfaces.MailOutboxServiceInterface;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.mail.MailDigestCategory;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Service managing delivery state of e-mail messages waiting in the outbox. Used by the outbox dispatcher,
+ * therefore all methods are executed by the SYSTEM actor.
+ * Configuration concerning retries is set in consts.properties.
+ */
+@Slf4j
+@Service
+@LoggerInterceptor
+@TxTracked
+@Transactional(propagation = Propagation.REQUIRES_NEW, rollbackFor = ApplicationBaseException.class)
+public class MailOutboxService implements MailOutboxServiceInterface {
+
+    private final MailOutboxFacade mailOutboxFacade;
+
+    /**
+     * Time, after which a message claimed by an unfinished delivery attempt could be claimed again.
+     */
+    @Value("${mail.outbox.lease.seconds}")
+    private long leaseSeconds;
+
+    /**
+     * Maximum number of delivery attempts of a single message.
+     */
+    @Value("${mail.outbox.max.attempts}")
+    private int maxAttempts;
+
+    /**
+     * Delay of the first retry. Each next retry is delayed twice as long as the previous one.
+     */
+    @Value("${mail.outbox.backoff.initial.seconds}")
+    private long initialBackoffSeconds;
+
+    /**
+     * Upper limit of the delay between retries.
+     */
+    @Value("${mail.outbox.backoff.max.seconds}")
+    private long maxBackoffSeconds;
+
+    /**
+     * Autowired constructor for the service.
+     *
+     * @param mailOutboxFacade Facade used for managing messages waiting in the outbox.
+     */
+    @Autowired
+    public MailOutboxService(MailOutboxFacade mailOutboxFacade) {
+        this.mailOutboxFacade = mailOutboxFacade;
+    }
+
+    @RunAsSystem
+    @Override
+    @RolesAllowed({Authorities.DISPATCH_MAIL_OUTBOX})
+    public List<MailOutboxMessage> claimDueMessages(int batchSize) throws ApplicationBaseException {
+        LocalDateTime now = LocalDateTime.now();
+        Map<UUID, MailOutboxMessage> messages = new LinkedHashMap<>();
+        Set<DigestKey> digests = new LinkedHashSet<>();
+        for (MailOutboxMessage message : mailOutboxFacade.findDueBatch(now, batchSize)) {
+            messages.put(message.getId(), message);
+            if (message.getDigestCategory() != null) {
+                digests.add(new DigestKey(message.getRecipient(), message.getDigestCategory()));
+            }
+        }
+        for (DigestKey digest : digests) {
+            for (MailOutboxMessage message : mailOutboxFacade.findHeldDigestItems(digest.recipient(), digest.category(), batchSize)) {
+                messages.putIfAbsent(message.getId(), message);
+            }
+        }
+
+        for (MailOutboxMessage message : messages.values()) {
+            message.startAttempt(now.plusSeconds(leaseSeconds));
+        }
+        return new ArrayList<>(messages.values());
+    }
+
+    @RunAsSystem
+    @Override
+    @RolesAllowed({Authorities.DISPATCH_MAIL_OUTBOX})
+    public int recordDeliveryResults(Collection<UUID> deliveredIds, Map<UUID, String> failures) throws ApplicationBaseException {
+        mailOutboxFacade.removeByIds(deliveredIds);
+
+        LocalDateTime now = LocalDateTime.now();
+        int failed = 0;
+        for (Map.Entry<UUID, String> failure : failures.entrySet()) {
+            MailOutboxMessage message = mailOutboxFacade.find(failure.getKey()).orElse(null);
+            if (message == null) continue;
+
+            if (message.getAttempts() >= maxAttempts) {
+                message.fail(failure.getValue());
+                failed++;
+                log.error("E-mail message: {} could not be delivered after {} attempts, and will not be retried. Last error: {}",
+                        message.getId(), message.getAttempts(), failure.getValue());
+            } else {
+                message.retryAt(failure.getValue(), now.plus(backoff(message.getAttempts())));
+            }
+            mailOutboxFacade.edit(message);
+        }
+        return failed;
+    }
+
+    @RunAsSystem
+    @Override
+    @RolesAllowed({Authorities.DISPATCH_MAIL_OUTBOX})
+    public long countPendingMessages() throws ApplicationBaseException {
+        return mailOutboxFacade.countByStatus(MailOutboxMessage.MailStatus.PENDING);
+    }
+
+    /**
+     * Recipient and category of the notifications merged into a single digest.
+     *
+     * @param recipient E-mail address of the recipient.
+     * @param category  Category of the notifications.
+     */
+    private record DigestKey(String recipient, MailDigestCategory category) {
+    }
+
+    /**
+     * @param attempts Number of already started delivery attempts.
+     * @return Delay of the next delivery attempt.
+     */
+    private Duration backoff(int attempts) {
+        int exponent = Math.min(Math.max(attempts - 1, 0), 30);
+        return Duration.ofSeconds(Math.min(initialBackoffSeconds << exponent, maxBackoffSeconds));
+    }
+}
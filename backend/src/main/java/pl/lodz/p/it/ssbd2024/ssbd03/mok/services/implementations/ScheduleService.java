@@ -99,6 +99,13 @@ public class ScheduleService implements ScheduleServiceInterface {
     @Value("${scheduler.max_days_without_authentication}")
     private String maxDaysWithoutAuthentication;
 
+    /**
+     * Maximum number of expired tokens removed by a single statement.
+     * Batch size is specified by <code>scheduler.expired_tokens_batch_size</code> property.
+     */
+    @Value("${scheduler.expired_tokens_batch_size}")
+    private int expiredTokensBatchSize;
+
     /**
      * Autowired constructor for the service.
      *
@@ -283,4 +290,29 @@ public class ScheduleService implements ScheduleServiceInterface {
             mailProvider.sendSuspendAccountInfoEmail(account.getName(), account.getLastname(), account.getEmail(), account.getAccountLanguage());
         }));
     }
+
+    @RunAsSystem
+    @Override
+    @Scheduled(fixedRate = 1L, timeUnit = TimeUnit.HOURS, initialDelay = -1L)
+    @RolesAllowed({Authorities.REMOVE_EXPIRED_TOKENS})
+    public void removeExpiredTokens() {
+        log.info("Method: removeExpiredTokens(), used for removing tokens past their expiration time, was invoked.");
+
+        LocalDateTime expirationTime = LocalDateTime.now();
+        long removedTokens = 0;
+        int batches = 0;
+        try {
+            int removedInBatch;
+            do {
+                removedInBatch = tokenFacade.removeExpiredBatch(expirationTime, expiredTokensBatchSize);
+                removedTokens += removedInBatch;
+                batches++;
+            } while (removedInBatch > 0 && removedInBatch >= expiredTokensBatchSize);
+        } catch (ApplicationBaseException exception) {
+            log.error("Exception: {} occurred while removing expired tokens. Cause: {}.",
+                    exception.getClass().getSimpleName(), exception.getMessage());
+        }
+
+        log.info("Removed {} expired tokens in {} batches.", removedTokens, batches);
+    }
 }
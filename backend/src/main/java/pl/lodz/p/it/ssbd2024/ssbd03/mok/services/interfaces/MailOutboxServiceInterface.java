@@ -0,0 +1,53 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.mok.services.interfaces;
+
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.MailOutboxMessage;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Interface used for managing delivery state of e-mail messages waiting in the outbox.
+ * Each method is executed in a separate transaction, so that no transaction is held open
+ * while messages are sent over SMTP.
+ */
+public interface MailOutboxServiceInterface {
+
+    /**
+     * Claims messages, which are due for the delivery attempt, by starting a new attempt for each of them.
+     * Claimed messages are not claimed again until the end of the lease, specified by
+     * <code>mail.outbox.lease.seconds</code> property.
+     * <p>
+     * For every claimed notification with a digest category, other notifications of the same category,
+     * held in the outbox for the same recipient, are claimed as well, even if their digest window has not ended yet,
+     * so that they are delivered in a single digest.
+     *
+     * @param batchSize Maximum number of claimed messages.
+     * @return List of claimed messages.
+     * @throws ApplicationBaseException General superclass for all exceptions thrown by exception handling aspects
+     *                                  on facade components.
+     */
+    List<MailOutboxMessage> claimDueMessages(int batchSize) throws ApplicationBaseException;
+
+    /**
+     * Records results of the delivery attempts. Delivered messages are removed from the outbox, while failed ones
+     * are retried with exponential backoff, until the maximum number of attempts, specified by
+     * <code>mail.outbox.max.attempts</code> property, is reached.
+     *
+     * @param deliveredIds Identifiers of the delivered messages.
+     * @param failures     Descriptions of errors, by identifiers of messages which could not be delivered.
+     * @return Number of messages, which reached the maximum number of attempts, and will not be retried.
+     * @throws ApplicationBaseException General superclass for all exceptions thrown by exception handling aspects
+     *                                  on facade components.
+     */
+    int recordDeliveryResults(Collection<UUID> deliveredIds, Map<UUID, String> failures) throws ApplicationBaseException;
+
+    /**
+     * @return Number of messages waiting for delivery.
+     * @throws ApplicationBaseException General superclass for all exceptions thrown by exception handling aspects
+     *                                  on facade components.
+     */
+    long countPendingMessages() throws ApplicationBaseException;
+}
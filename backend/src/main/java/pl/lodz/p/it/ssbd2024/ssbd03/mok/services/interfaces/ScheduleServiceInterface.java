@@ -27,4 +27,11 @@ public interface ScheduleServiceInterface {
      * Block Accounts without authentication for the last N days, where N is specified in the file consts.properties.
      */
     void suspendAccountWithoutAuthenticationForSpecifiedTime();
+
+    /**
+     * Removes refresh, password reset, e-mail change and multi-factor authentication Tokens past their expiration
+     * time, in batches of size specified by <code>scheduler.expired_tokens_batch_size</code> property, until there
+     * are no more expired Tokens.
+     */
+    void removeExpiredTokens();
 }
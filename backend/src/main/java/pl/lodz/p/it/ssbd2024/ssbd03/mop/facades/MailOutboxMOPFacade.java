@@ -0,0 +1,60 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.mop.facades;
+
+import jakarta.annotation.security.PermitAll;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerInterceptor;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.TxTracked;
+import pl.lodz.p.it.ssbd2024.ssbd03.commons.AbstractFacade;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.dbconfig.DatabaseConfigConstants;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.MailOutboxMessage;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
+
+/**
+ * Repository used to write e-mail messages to the outbox on behalf of MOP module. Messages are written with
+ * the same persistence unit as the rest of the MOP use case, so that its transaction is committed
+ * in a single database connection. Messages are delivered and removed by the MOK module.
+ *
+ * @see MailOutboxMessage
+ * @see pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.MailOutboxFacade
+ */
+@Repository
+@LoggerInterceptor
+@TxTracked
+@Transactional(propagation = Propagation.MANDATORY)
+public class MailOutboxMOPFacade extends AbstractFacade<MailOutboxMessage> {
+
+    @PersistenceContext(unitName = DatabaseConfigConstants.MOP_PU)
+    private EntityManager entityManager;
+
+    /**
+     * Constructs the facade.
+     */
+    public MailOutboxMOPFacade() {
+        super(MailOutboxMessage.class);
+    }
+
+    /**
+     * Retrieves an entity manager.
+     *
+     * @return Entity manager associated with the facade.
+     */
+    @Override
+    protected EntityManager getEntityManager() {
+        return this.entityManager;
+    }
+
+    /**
+     * Persists a new message in the outbox, as a part of the current transaction.
+     *
+     * @param entity Message to be persisted.
+     */
+    @Override
+    @PermitAll
+    public void create(MailOutboxMessage entity) throws ApplicationBaseException {
+        super.create(entity);
+    }
+}
@@ -3,7 +3,9 @@ package pl.lodz.p.it.ssbd2024.ssbd03.utils;
 import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerInterceptor;
 
 import java.util.Locale;
+import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
 
 @LoggerInterceptor
 public class I18n {
@@ -100,6 +102,8 @@ public class I18n {
     public static final String INTERNAL_SERVER_ERROR = "application.internal.server.error.exception";
     public static final String UNAUTHORIZED_EXCEPTION = "application.unauthorized.exception";
     public static final String ACCESS_DENIED_EXCEPTION = "application.access.denied.exception";
+    public static final String TOO_MANY_REQUESTS_EXCEPTION = "application.too.many.requests.exception";
+    public static final String SERVICE_UNAVAILABLE_EXCEPTION = "application.service.unavailable.exception";
     public static final String UNEXPECTED_DATABASE_EXCEPTION = "application.database.server.exception";
     public static final String PATH_NOT_FOUND_EXCEPTION = "application.path.not.found.exception";
     public static final String UNSUPPORTED_OPERATION_EXCEPTION = "application.unsupported.operation.exception";
@@ -216,18 +220,24 @@ public class I18n {
     public static final String ADMINISTRATIVELY_CANCELLED_RESERVATION_RESULT_MESSAGE = "mail.administratively.cancelled.reservation.result_message";
     public static final String ADMINISTRATIVELY_CANCELLED_RESERVATION_ACTION_DESCRIPTION = "mail.administratively.cancelled.reservation.action_description";
     public static final String ADMINISTRATIVELY_CANCELLED_RESERVATION_NOTE_TITLE = "mail.administratively.cancelled.reservation.note_title";
+    public static final String ADMINISTRATIVELY_CANCELLED_RESERVATION_DIGEST_MESSAGE_SUBJECT = "mail.administratively.cancelled.reservation.digest.message.subject";
+    public static final String ADMINISTRATIVELY_CANCELLED_RESERVATION_DIGEST_RESULT_MESSAGE = "mail.administratively.cancelled.reservation.digest.result_message";
 
     public static final String SYSTEM_END_RESERVATION_GREETING_MESSAGE = "mail.system.end.reservation.greeting.message";
     public static final String SYSTEM_END_RESERVATION_MESSAGE_SUBJECT = "mail.system.end.reservation.message.subject";
     public static final String SYSTEM_END_RESERVATION_RESULT_MESSAGE = "mail.system.end.reservation.result_message";
     public static final String SYSTEM_END_RESERVATION_ACTION_DESCRIPTION = "mail.system.end.reservation.action_description";
     public static final String SYSTEM_END_RESERVATION_NOTE_TITLE = "mail.system.end.reservation.note_title";
+    public static final String SYSTEM_END_RESERVATION_DIGEST_MESSAGE_SUBJECT = "mail.system.end.reservation.digest.message.subject";
+    public static final String SYSTEM_END_RESERVATION_DIGEST_RESULT_MESSAGE = "mail.system.end.reservation.digest.result_message";
 
     public static final String CHANGED_CLIENT_TYPE_GREETING_MESSAGE = "mail.changed.client.type.greeting.message";
     public static final String CHANGED_CLIENT_TYPE_MESSAGE_SUBJECT = "mail.changed.client.type.message.subject";
     public static final String CHANGED_CLIENT_TYPE_RESULT_MESSAGE = "mail.changed.client.type.result_message";
     public static final String CHANGED_CLIENT_TYPE_ACTION_DESCRIPTION = "mail.changed.client.type.action_description";
     public static final String CHANGED_CLIENT_TYPE_NOTE_TITLE = "mail.changed.client.type.note_title";
+    public static final String CHANGED_CLIENT_TYPE_DIGEST_MESSAGE_SUBJECT = "mail.changed.client.type.digest.message.subject";
+    public static final String CHANGED_CLIENT_TYPE_DIGEST_RESULT_MESSAGE = "mail.changed.client.type.digest.result_message";
 
     public static final String AUTO_GENERATED_MESSAGE_NOTE = "mail.auto.generate.message.note";
 
@@ -235,9 +245,19 @@ public class I18n {
     public static final String STAFF_USER_LEVEL = "user.level.staff";
     public static final String ADMIN_USER_LEVEL = "user.level.admin";
 
+    /**
+     * Message catalogs resolved for each requested language, so that the locale and the bundle are looked up
+     * only once per language.
+     */
+    private static final Map<String, ResourceBundle> BUNDLES = new ConcurrentHashMap<>();
+
     public static String getMessage(String messageKey, String language) {
-        Locale locale = new Locale.Builder().setLanguage(language).build();
-        ResourceBundle resourceBundle = ResourceBundle.getBundle("Messages", locale);
+        ResourceBundle resourceBundle = BUNDLES.computeIfAbsent(language != null ? language : "", I18n::loadBundle);
         return resourceBundle.getString(messageKey);
     }
+
+    private static ResourceBundle loadBundle(String language) {
+        Locale locale = new Locale.Builder().setLanguage(language).build();
+        return ResourceBundle.getBundle("Messages", locale);
+    }
 }
@@ -0,0 +1,270 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.utils.async;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Task executor running each task on a new virtual thread, with the number of concurrently running tasks limited
+ * by a semaphore. Tasks submitted while all permits are taken wait for a permit on their own virtual thread, so
+ * waiting tasks do not hold any platform thread. The number of waiting tasks is limited as well, and tasks exceeding
+ * that limit are handled according to the rejection policy.
+ * <p>
+ * The executor counts waiting, running, completed, failed and rejected tasks, and measures the time tasks spend
+ * waiting for a permit and running.
+ */
+@Slf4j
+public class BoundedVirtualThreadTaskExecutor implements AsyncTaskExecutor {
+
+    /**
+     * Handling of tasks submitted when the limit of waiting tasks is reached.
+     */
+    public enum RejectionPolicy {
+
+        /**
+         * Task is rejected with TaskRejectedException.
+         */
+        ABORT,
+
+        /**
+         * Task is run on the submitting thread, which slows down the submitter.
+         */
+        CALLER_RUNS
+    }
+
+    private final int maxConcurrency;
+
+    private final int queueCapacity;
+
+    private final RejectionPolicy rejectionPolicy;
+
+    private final long shutdownTimeoutMillis;
+
+    private final ThreadFactory threadFactory;
+
+    private final Semaphore runPermits;
+
+    private final Semaphore admissionPermits;
+
+    private final AtomicBoolean shutdown = new AtomicBoolean();
+
+    private final AtomicInteger queuedTasks = new AtomicInteger();
+
+    private final AtomicInteger activeTasks = new AtomicInteger();
+
+    private final AtomicLong completedTasks = new AtomicLong();
+
+    private final AtomicLong failedTasks = new AtomicLong();
+
+    private final AtomicLong rejectedTasks = new AtomicLong();
+
+    private final AtomicLong totalQueueTimeNanos = new AtomicLong();
+
+    private final AtomicLong totalExecutionTimeNanos = new AtomicLong();
+
+    private final AtomicLong maxExecutionTimeNanos = new AtomicLong();
+
+    private volatile TaskDecorator taskDecorator;
+
+    /**
+     * Constructs the executor.
+     *
+     * @param threadNamePrefix      Prefix of the names of the virtual threads, followed by the number of the thread.
+     * @param maxConcurrency        Maximum number of tasks running at the same time.
+     * @param queueCapacity         Maximum number of tasks waiting for a permit to run.
+     * @param rejectionPolicy       Handling of tasks exceeding the queue capacity.
+     * @param shutdownTimeoutMillis Maximum time of waiting for the submitted tasks, when the executor is shut down.
+     */
+    public BoundedVirtualThreadTaskExecutor(String threadNamePrefix, int maxConcurrency, int queueCapacity,
+                                            RejectionPolicy rejectionPolicy, long shutdownTimeoutMillis) {
+        if (maxConcurrency < 1) throw new IllegalArgumentException("Maximum concurrency must be positive.");
+        if (queueCapacity < 0) throw new IllegalArgumentException("Queue capacity must not be negative.");
+        this.maxConcurrency = maxConcurrency;
+        this.queueCapacity = queueCapacity;
+        this.rejectionPolicy = rejectionPolicy;
+        this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+        this.threadFactory = Thread.ofVirtual().name(threadNamePrefix, 1).factory();
+        this.runPermits = new Semaphore(maxConcurrency);
+        this.admissionPermits = new Semaphore(maxConcurrency + queueCapacity);
+    }
+
+    /**
+     * Sets the decorator applied to every submitted task, e.g. to propagate context of the submitting thread.
+     * The decorated task is the one counted, queued and reported by the executor.
+     *
+     * @param taskDecorator Decorator of the submitted tasks, or null for no decoration.
+     */
+    public void setTaskDecorator(TaskDecorator taskDecorator) {
+        this.taskDecorator = taskDecorator;
+    }
+
+    @Override
+    public void execute(Runnable submittedTask) {
+        TaskDecorator decorator = taskDecorator;
+        Runnable task = decorator != null ? decorator.decorate(submittedTask) : submittedTask;
+        if (shutdown.get()) {
+            rejectedTasks.incrementAndGet();
+            throw new TaskRejectedException("Executor has been shut down, task: %s was rejected.".formatted(task));
+        }
+        if (!admissionPermits.tryAcquire()) {
+            rejectedTasks.incrementAndGet();
+            this.reject(task);
+            return;
+        }
+
+        long submitTime = System.nanoTime();
+        queuedTasks.incrementAndGet();
+        try {
+            threadFactory.newThread(() -> this.runWhenPermitted(task, submitTime)).start();
+        } catch (RuntimeException | Error exception) {
+            queuedTasks.decrementAndGet();
+            admissionPermits.release();
+            throw new TaskRejectedException("Virtual thread for task: %s could not be started.".formatted(task), exception);
+        }
+    }
+
+    /**
+     * Stops accepting new tasks, and waits for the submitted ones to finish, at most for the shutdown timeout.
+     * Subsequent calls do not wait.
+     *
+     * @return True if all the submitted tasks finished in time, false otherwise.
+     */
+    public boolean shutdown() {
+        if (!shutdown.compareAndSet(false, true)) {
+            return queuedTasks.get() + activeTasks.get() == 0;
+        }
+        try {
+            boolean finished = admissionPermits.tryAcquire(maxConcurrency + queueCapacity, shutdownTimeoutMillis, TimeUnit.MILLISECONDS);
+            if (!finished) {
+                log.warn("{} asynchronous tasks were still waiting or running, when the executor was shut down.",
+                        queuedTasks.get() + activeTasks.get());
+            }
+            return finished;
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * @return Number of tasks waiting for a permit to run.
+     */
+    public int getQueuedTasks() {
+        return queuedTasks.get();
+    }
+
+    /**
+     * @return Number of running tasks.
+     */
+    public int getActiveTasks() {
+        return activeTasks.get();
+    }
+
+    /**
+     * @return Number of tasks finished without an exception, since the executor was created.
+     */
+    public long getCompletedTasks() {
+        return completedTasks.get();
+    }
+
+    /**
+     * @return Number of tasks finished with an exception, since the executor was created.
+     */
+    public long getFailedTasks() {
+        return failedTasks.get();
+    }
+
+    /**
+     * @return Number of tasks exceeding the queue capacity, including the ones run by the submitting thread,
+     * since the executor was created.
+     */
+    public long getRejectedTasks() {
+        return rejectedTasks.get();
+    }
+
+    /**
+     * @return Total time tasks spent waiting for a permit to run, in nanoseconds.
+     */
+    public long getTotalQueueTimeNanos() {
+        return totalQueueTimeNanos.get();
+    }
+
+    /**
+     * @return Total time of running tasks, in nanoseconds.
+     */
+    public long getTotalExecutionTimeNanos() {
+        return totalExecutionTimeNanos.get();
+    }
+
+    /**
+     * @return Longest time of running a single task, in nanoseconds.
+     */
+    public long getMaxExecutionTimeNanos() {
+        return maxExecutionTimeNanos.get();
+    }
+
+    /**
+     * @return Maximum number of tasks running at the same time.
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * @return Maximum number of tasks waiting for a permit to run.
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    private void runWhenPermitted(Runnable task, long submitTime) {
+        try {
+            runPermits.acquire();
+        } catch (InterruptedException exception) {
+            queuedTasks.decrementAndGet();
+            admissionPermits.release();
+            failedTasks.incrementAndGet();
+            log.error("Asynchronous task: {} was interrupted while waiting for a permit to run.", task);
+            return;
+        }
+
+        long startTime = System.nanoTime();
+        queuedTasks.decrementAndGet();
+        activeTasks.incrementAndGet();
+        totalQueueTimeNanos.addAndGet(startTime - submitTime);
+        try {
+            task.run();
+            completedTasks.incrementAndGet();
+        } catch (RuntimeException | Error exception) {
+            failedTasks.incrementAndGet();
+            log.error("Exception: {} was thrown by asynchronous task: {}. Cause: {}",
+                    exception.getClass().getSimpleName(), task, exception.getMessage(), exception);
+        } finally {
+            long executionTime = System.nanoTime() - startTime;
+            totalExecutionTimeNanos.addAndGet(executionTime);
+            maxExecutionTimeNanos.accumulateAndGet(executionTime, Math::max);
+            activeTasks.decrementAndGet();
+            runPermits.release();
+            admissionPermits.release();
+        }
+    }
+
+    private void reject(Runnable task) {
+        switch (rejectionPolicy) {
+            case ABORT -> throw new TaskRejectedException(
+                    "Limit of %d waiting asynchronous tasks was reached, task: %s was rejected.".formatted(queueCapacity, task));
+            case CALLER_RUNS -> {
+                log.warn("Limit of {} waiting asynchronous tasks was reached, task: {} is run by the submitting thread.", queueCapacity, task);
+                task.run();
+            }
+        }
+    }
+}
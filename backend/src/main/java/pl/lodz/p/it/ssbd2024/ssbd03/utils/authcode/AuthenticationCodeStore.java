@@ -0,0 +1,41 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.utils.authcode;
+
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Account;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.mok.token.TokenNotValidException;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.mok.token.read.TokenNotFoundException;
+
+/**
+ * Short-lived store of authentication codes, used in the second step of multifactor authentication.
+ * Only a single code is kept for each account, and codes are stored as digests, never in their original form.
+ * Implementation is chosen with <code>authentication.code.store</code> property.
+ *
+ * @see InMemoryAuthenticationCodeStore
+ * @see DatabaseAuthenticationCodeStore
+ */
+public interface AuthenticationCodeStore {
+
+    /**
+     * Stores digest of the authentication code for the account, replacing previously stored one.
+     *
+     * @param account    Account, which the code was generated for.
+     * @param codeDigest Digest of the authentication code.
+     * @throws ApplicationBaseException General superclass for all exceptions thrown by exception handling aspects
+     *                                  on facade components.
+     */
+    void put(Account account, String codeDigest) throws ApplicationBaseException;
+
+    /**
+     * Compares digest of the authentication code with the stored one, and removes it, when they are equal,
+     * so that each code could be used only once.
+     *
+     * @param account    Account, which user tries to authenticate to.
+     * @param codeDigest Digest of the authentication code given by the user.
+     * @return True if the digests are equal, false otherwise.
+     * @throws TokenNotFoundException   Threw when there is no code stored for the account.
+     * @throws TokenNotValidException   Threw when stored code has already expired.
+     * @throws ApplicationBaseException General superclass for all exceptions thrown by exception handling aspects
+     *                                  on facade components.
+     */
+    boolean consume(Account account, String codeDigest) throws ApplicationBaseException;
+}
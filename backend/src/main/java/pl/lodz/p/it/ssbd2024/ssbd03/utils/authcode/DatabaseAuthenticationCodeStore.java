@@ -0,0 +1,60 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.utils.authcode;
+
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Account;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Token;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.mok.token.TokenNotValidException;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.mok.token.read.TokenNotFoundException;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.TokenAuthFacade;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.I18n;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Authentication code store keeping codes in the token table, as MULTI_FACTOR_AUTHENTICATION_CODE tokens.
+ * Codes are visible to all nodes of the application, so this store should be used in clustered deployments.
+ * Must be called inside an existing transaction, just as the facade used.
+ */
+public class DatabaseAuthenticationCodeStore implements AuthenticationCodeStore {
+
+    private final TokenAuthFacade tokenFacade;
+
+    private final Duration validityPeriod;
+
+    /**
+     * Constructs the store.
+     *
+     * @param tokenFacade    Facade used for storing codes as tokens.
+     * @param validityPeriod Time, after which stored codes expire.
+     */
+    public DatabaseAuthenticationCodeStore(TokenAuthFacade tokenFacade, Duration validityPeriod) {
+        this.tokenFacade = tokenFacade;
+        this.validityPeriod = validityPeriod;
+    }
+
+    @Override
+    public void put(Account account, String codeDigest) throws ApplicationBaseException {
+        tokenFacade.removeByTypeAndAccount(Token.TokenType.MULTI_FACTOR_AUTHENTICATION_CODE, account.getId());
+        tokenFacade.create(new Token(codeDigest, account, Token.TokenType.MULTI_FACTOR_AUTHENTICATION_CODE,
+                LocalDateTime.now().plus(validityPeriod)));
+    }
+
+    @Override
+    public boolean consume(Account account, String codeDigest) throws ApplicationBaseException {
+        Token token = tokenFacade.findByTypeAndAccount(Token.TokenType.MULTI_FACTOR_AUTHENTICATION_CODE, account.getId())
+                .orElseThrow(TokenNotFoundException::new);
+        if (token.getCreationTime() == null || token.getCreationTime().plus(validityPeriod).isBefore(LocalDateTime.now())) {
+            tokenFacade.remove(token);
+            throw new TokenNotValidException(I18n.TOKEN_INVALID_OR_EXPIRED);
+        }
+        if (codeDigest == null || !MessageDigest.isEqual(token.getTokenValue().getBytes(StandardCharsets.UTF_8),
+                codeDigest.getBytes(StandardCharsets.UTF_8))) {
+            return false;
+        }
+        tokenFacade.remove(token);
+        return true;
+    }
+}
@@ -0,0 +1,122 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.utils.authcode;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Account;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.mok.token.TokenNotValidException;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.mok.token.read.TokenNotFoundException;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.I18n;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authentication code store keeping codes in an expiring, in-memory map. It does not touch the database at all,
+ * but codes are visible only to the node that generated them, so it should be used either with a single node,
+ * or with sessions pinned to nodes.
+ * <p>
+ * Changes of the map follow the outcome of the current transaction, just as the rows of the database store do.
+ * Stored code becomes visible after the transaction is committed, and consumed code is restored when
+ * the transaction is rolled back.
+ */
+@Slf4j
+public class InMemoryAuthenticationCodeStore implements AuthenticationCodeStore {
+
+    private final long validityPeriod;
+
+    private final Map<UUID, StoredCode> codes = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs the store.
+     *
+     * @param validityPeriod Time, after which stored codes expire.
+     */
+    public InMemoryAuthenticationCodeStore(Duration validityPeriod) {
+        this.validityPeriod = validityPeriod.toNanos();
+    }
+
+    @Override
+    public void put(Account account, String codeDigest) {
+        UUID accountId = account.getId();
+        StoredCode storedCode = new StoredCode(codeDigest, System.nanoTime() + validityPeriod);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            codes.put(accountId, storedCode);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                codes.put(accountId, storedCode);
+            }
+        });
+    }
+
+    @Override
+    public boolean consume(Account account, String codeDigest) throws ApplicationBaseException {
+        StoredCode storedCode = codes.get(account.getId());
+        if (storedCode == null) throw new TokenNotFoundException();
+        if (storedCode.isExpired(System.nanoTime())) {
+            codes.remove(account.getId(), storedCode);
+            throw new TokenNotValidException(I18n.TOKEN_INVALID_OR_EXPIRED);
+        }
+        // Removing exactly the compared entry makes sure, that the code is used only once, even by concurrent requests.
+        if (!storedCode.matches(codeDigest) || !codes.remove(account.getId(), storedCode)) return false;
+        this.restoreOnRollback(account.getId(), storedCode);
+        return true;
+    }
+
+    /**
+     * Puts the consumed code back to the store, when the current transaction is not committed, unless another code
+     * has been stored for the account in the meantime.
+     *
+     * @param accountId  Identifier of the account, which the code was generated for.
+     * @param storedCode Consumed code.
+     */
+    private void restoreOnRollback(UUID accountId, StoredCode storedCode) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    codes.putIfAbsent(accountId, storedCode);
+                }
+            }
+        });
+    }
+
+    /**
+     * Removes expired codes, which were never used, from the store.
+     */
+    @Scheduled(fixedRate = 1L, timeUnit = TimeUnit.MINUTES)
+    public void removeExpiredCodes() {
+        long now = System.nanoTime();
+        codes.values().removeIf(storedCode -> storedCode.isExpired(now));
+    }
+
+    /**
+     * @return Number of codes kept in the store.
+     */
+    public int size() {
+        return codes.size();
+    }
+
+    private record StoredCode(String codeDigest, long expirationTime) {
+
+        boolean isExpired(long now) {
+            return now - expirationTime > 0;
+        }
+
+        boolean matches(String otherDigest) {
+            return otherDigest != null && MessageDigest.isEqual(codeDigest.getBytes(StandardCharsets.UTF_8),
+                    otherDigest.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
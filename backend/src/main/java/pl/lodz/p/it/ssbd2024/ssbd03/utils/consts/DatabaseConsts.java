@@ -17,11 +17,35 @@ public class DatabaseConsts {
     public static final String TOKEN_TABLE = "token";
     public static final String TOKEN_TOKEN_TYPE_COLUMN = "type";
     public static final String TOKEN_TOKEN_VALUE_COLUMN = "token_value";
+    public static final String TOKEN_TOKEN_DIGEST_COLUMN = "token_digest";
+    public static final String TOKEN_EXPIRATION_TIMESTAMP_COLUMN = "expiration_timestamp";
     public static final String TOKEN_ACCOUNT_ID_COLUMN = "account_id";
 
     public static final String TOKEN_ACCOUNT_ID_INDEX = "idx_token_account_id";
+    public static final String TOKEN_TOKEN_DIGEST_KEY = "token_token_digest_key";
+    public static final String TOKEN_EXPIRATION_TIMESTAMP_INDEX = "idx_token_expiration_timestamp";
+    public static final String TOKEN_TOKEN_TYPE_INDEX = "idx_token_type";
     public static final String TOKEN_ACCOUNT_ID_FK = "token_account_id_fk";
 
+    // public.mail_outbox table
+
+    public static final String MAIL_OUTBOX_TABLE = "mail_outbox";
+    public static final String MAIL_OUTBOX_RECIPIENT_COLUMN = "recipient";
+    public static final String MAIL_OUTBOX_SUBJECT_COLUMN = "subject";
+    public static final String MAIL_OUTBOX_CONTENT_COLUMN = "content";
+    public static final String MAIL_OUTBOX_STATUS_COLUMN = "status";
+    public static final String MAIL_OUTBOX_ATTEMPTS_COLUMN = "attempts";
+    public static final String MAIL_OUTBOX_NEXT_ATTEMPT_TIMESTAMP_COLUMN = "next_attempt_timestamp";
+    public static final String MAIL_OUTBOX_LAST_ERROR_COLUMN = "last_error";
+    public static final String MAIL_OUTBOX_DIGEST_CATEGORY_COLUMN = "digest_category";
+    public static final String MAIL_OUTBOX_DIGEST_ITEM_COLUMN = "digest_item";
+    public static final String MAIL_OUTBOX_LANGUAGE_COLUMN = "language";
+    public static final String MAIL_OUTBOX_FIRST_NAME_COLUMN = "first_name";
+    public static final String MAIL_OUTBOX_LAST_NAME_COLUMN = "last_name";
+
+    public static final String MAIL_OUTBOX_STATUS_NEXT_ATTEMPT_INDEX = "idx_mail_outbox_status_next_attempt";
+    public static final String MAIL_OUTBOX_RECIPIENT_DIGEST_CATEGORY_INDEX = "idx_mail_outbox_recipient_digest_category";
+
     // MOK
 
     // public.account table
@@ -121,6 +145,7 @@ public class DatabaseConsts {
     public static final String PAST_PASSWORD_TABLE = "past_password";
     public static final String PAST_PASSWORD_COLUMN = "past_password";
     public static final String PAST_PASSWORD_ACCOUNT_ID_COLUMN = "account_id";
+    public static final String PAST_PASSWORD_CREATION_TIME_COLUMN = "creation_time";
 
     public static final String PAST_PASSWORD_ACCOUNT_ID_INDEX = "idx_account_id";
     public static final String PAST_PASSWORD_ACCOUNT_ID_FK = "past_password_account_id_fk";
@@ -224,12 +249,14 @@ public class DatabaseConsts {
     public static final String RESERVATION_END_TIME_COLUMN = "end_time";
     public static final String RESERVATION_STATUS_COLUMN = "status";
 
-    public static final String RESERVATION_SECTOR_ID_INDEX = "idx_reservation_sector_id";
+    public static final String RESERVATION_SECTOR_ID_BEGIN_TIME_INDEX = "idx_reservation_sector_id_begin_time";
     public static final String RESERVATION_SECTOR_ID_FK = "reservation_sector_id_fk";
 
-    public static final String RESERVATION_CLIENT_ID_INDEX = "idx_reservation_client_id";
+    public static final String RESERVATION_CLIENT_ID_BEGIN_TIME_INDEX = "idx_reservation_client_id_begin_time";
     public static final String RESERVATION_CLIENT_ID_FK = "reservation_client_id_fk";
 
+    public static final String RESERVATION_BEGIN_TIME_INDEX = "idx_reservation_begin_time";
+
     // public.sector table
 
     public static final String SECTOR_TABLE = "sector";
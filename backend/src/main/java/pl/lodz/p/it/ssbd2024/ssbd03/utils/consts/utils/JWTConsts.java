@@ -7,5 +7,4 @@ public class JWTConsts {
     public static final String ACCOUNT_ID = "account_id";
     public static final String USER_LEVELS = "user_levels";
     public static final String EMAIL = "email";
-    public static final String CODE_VALUE = "code";
 }
@@ -0,0 +1,255 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.utils.image;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Component holding a bounded pool of images presented on the login page, already encoded in Base64, so that
+ * serving an image does not require any I/O. The pool is refreshed periodically on a dedicated background thread.
+ * <p>
+ * Images are loaded from the local location (any Spring resource pattern, e.g.
+ * <code>file:/opt/eldorado/images/*</code>). When the remote source is configured, the pool is filled with the
+ * local images first, and then each refresh downloads a few images from the remote URL, replacing the oldest ones.
+ * When the remote URL is unavailable, images already in the pool are kept. Downloaded images are read only up to
+ * the maximum image size, and responses declaring larger content are not read at all.
+ */
+@Slf4j
+@Component
+public class RandomImagePool {
+
+    private static final Set<String> IMAGE_EXTENSIONS = Set.of("png", "jpg", "jpeg", "gif", "webp");
+
+    /**
+     * Source of the images refreshing the pool.
+     */
+    public enum Source {
+        LOCAL,
+        REMOTE
+    }
+
+    private final Source source;
+
+    private final String localLocation;
+
+    private final URI remoteUrl;
+
+    private final int remoteBatchSize;
+
+    private final int maxSize;
+
+    private final int maxImageBytes;
+
+    private final long refreshIntervalSeconds;
+
+    private final ResourcePatternResolver resourcePatternResolver = new PathMatchingResourcePatternResolver();
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ImagePool-1");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private HttpClient httpClient;
+
+    /**
+     * Immutable snapshot of the encoded images, replaced as a whole on every refresh.
+     */
+    private volatile List<String> images = List.of();
+
+    /**
+     * Autowired constructor for the component.
+     *
+     * @param source                 Source of the images refreshing the pool.
+     * @param localLocation          Resource pattern matching the local images.
+     * @param remoteUrl              URL returning a random image, used with the remote source.
+     * @param remoteBatchSize        Number of images downloaded from the remote URL on every refresh.
+     * @param maxSize                Maximum number of images held in the pool.
+     * @param maxImageBytes          Maximum size of a single image. Larger images are skipped.
+     * @param refreshIntervalSeconds Time between refreshes of the pool.
+     */
+    @Autowired
+    public RandomImagePool(@Value("${image.pool.source}") Source source,
+                           @Value("${image.pool.local.location}") String localLocation,
+                           @Value("${image.pool.remote.url}") String remoteUrl,
+                           @Value("${image.pool.remote.batch.size}") int remoteBatchSize,
+                           @Value("${image.pool.max.size}") int maxSize,
+                           @Value("${image.pool.max.image.bytes}") int maxImageBytes,
+                           @Value("${image.pool.refresh.interval.seconds}") long refreshIntervalSeconds) {
+        this.source = source;
+        this.localLocation = localLocation;
+        this.remoteUrl = URI.create(remoteUrl);
+        this.remoteBatchSize = remoteBatchSize;
+        this.maxSize = maxSize;
+        this.maxImageBytes = maxImageBytes;
+        this.refreshIntervalSeconds = refreshIntervalSeconds;
+    }
+
+    /**
+     * Fills the pool with the local images, and starts periodic refreshes of the pool.
+     */
+    @PostConstruct
+    public void start() {
+        this.refreshLocal();
+        long initialDelay = source == Source.REMOTE ? 0 : refreshIntervalSeconds;
+        executor.scheduleWithFixedDelay(this::refresh, initialDelay, refreshIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops periodic refreshes of the pool, when the application context is closed.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return Randomly chosen image encoded in Base64, or empty Optional, when the pool is empty.
+     */
+    public Optional<String> getRandomImage() {
+        List<String> snapshot = images;
+        if (snapshot.isEmpty()) return Optional.empty();
+        return Optional.of(snapshot.get(ThreadLocalRandom.current().nextInt(snapshot.size())));
+    }
+
+    /**
+     * @return Number of images in the pool.
+     */
+    public int getSize() {
+        return images.size();
+    }
+
+    /**
+     * Refreshes the pool from the configured source. Exceptions are logged, and the images already in the pool
+     * are kept.
+     */
+    public void refresh() {
+        try {
+            switch (source) {
+                case LOCAL -> this.refreshLocal();
+                case REMOTE -> this.refreshRemote();
+            }
+        } catch (RuntimeException exception) {
+            log.error("Exception: {} occurred while refreshing the login page image pool. Cause: {}.",
+                    exception.getClass().getSimpleName(), exception.getMessage());
+        }
+    }
+
+    /**
+     * Replaces the pool with the images matching the local location. When no image could be loaded, the images
+     * already in the pool are kept.
+     */
+    private void refreshLocal() {
+        Resource[] resources;
+        try {
+            resources = resourcePatternResolver.getResources(localLocation);
+        } catch (IOException exception) {
+            log.warn("Images of the login page could not be listed from location: {}. Cause: {}.", localLocation, exception.getMessage());
+            return;
+        }
+
+        List<String> loaded = new ArrayList<>();
+        Arrays.stream(resources)
+                .filter(Resource::isReadable)
+                .filter(resource -> isImage(resource.getFilename()))
+                .sorted(Comparator.comparing(resource -> String.valueOf(resource.getFilename())))
+                .limit(maxSize)
+                .forEach(resource -> {
+                    try (InputStream inputStream = resource.getInputStream()) {
+                        byte[] bytes = inputStream.readNBytes(maxImageBytes + 1);
+                        if (bytes.length == 0 || bytes.length > maxImageBytes) {
+                            log.warn("Image: {} is empty or exceeds {} bytes, and was skipped.", resource.getFilename(), maxImageBytes);
+                        } else {
+                            loaded.add(Base64.getEncoder().encodeToString(bytes));
+                        }
+                    } catch (IOException exception) {
+                        log.warn("Image: {} could not be read. Cause: {}.", resource.getFilename(), exception.getMessage());
+                    }
+                });
+
+        if (!loaded.isEmpty()) {
+            images = List.copyOf(loaded);
+        }
+        log.info("Login page image pool holds {} images after loading from location: {}.", images.size(), localLocation);
+    }
+
+    /**
+     * Downloads images from the remote URL, replacing the oldest images in the pool, when the pool is full.
+     */
+    private void refreshRemote() {
+        if (httpClient == null) {
+            httpClient = HttpClient.newBuilder()
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .followRedirects(HttpClient.Redirect.NORMAL)
+                    .build();
+        }
+
+        Deque<String> refreshed = new ArrayDeque<>(images);
+        int downloaded = 0;
+        for (int i = 0; i < remoteBatchSize; i++) {
+            try {
+                HttpRequest request = HttpRequest.newBuilder(remoteUrl).timeout(Duration.ofSeconds(10)).GET().build();
+                HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+                try (InputStream body = response.body()) {
+                    long declaredLength = response.headers().firstValueAsLong("Content-Length").orElse(-1);
+                    if (response.statusCode() != 200 || declaredLength > maxImageBytes) {
+                        log.warn("Image downloaded from: {} was skipped (status: {}, declared size: {} bytes).", remoteUrl, response.statusCode(), declaredLength);
+                        continue;
+                    }
+                    byte[] bytes = body.readNBytes(maxImageBytes + 1);
+                    if (bytes.length == 0 || bytes.length > maxImageBytes) {
+                        log.warn("Image downloaded from: {} is empty or exceeds {} bytes, and was skipped.", remoteUrl, maxImageBytes);
+                        continue;
+                    }
+                    refreshed.addLast(Base64.getEncoder().encodeToString(bytes));
+                    if (refreshed.size() > maxSize) refreshed.removeFirst();
+                    downloaded++;
+                }
+            } catch (IOException exception) {
+                log.warn("Image could not be downloaded from: {}. Cause: {}.", remoteUrl, exception.getMessage());
+                break;
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        if (downloaded > 0) {
+            images = List.copyOf(refreshed);
+        }
+    }
+
+    private static boolean isImage(String fileName) {
+        if (fileName == null) return false;
+        int dot = fileName.lastIndexOf('.');
+        return dot >= 0 && IMAGE_EXTENSIONS.contains(fileName.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,104 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.utils.mail;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Circuit breaker guarding calls to an external service. After the configured number of consecutive failures
+ * the circuit is opened, and no calls are allowed until the open period passes. Then a single trial call
+ * is allowed (the circuit is half-open): its success closes the circuit, while its failure opens it again.
+ * <p>
+ * Instances are thread-safe.
+ */
+public class CircuitBreaker {
+
+    /**
+     * State of the circuit.
+     */
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+
+    private final Duration openDuration;
+
+    private final Clock clock;
+
+    private State state = State.CLOSED;
+
+    private int consecutiveFailures;
+
+    private Instant openedAt;
+
+    /**
+     * Constructs closed circuit breaker.
+     *
+     * @param failureThreshold Number of consecutive failures, after which the circuit is opened.
+     * @param openDuration     Time, for which the circuit stays open, before a trial call is allowed.
+     * @param clock            Clock used for measuring the open period.
+     */
+    public CircuitBreaker(int failureThreshold, Duration openDuration, Clock clock) {
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.clock = clock;
+    }
+
+    /**
+     * Checks whether a call is allowed. When the open period has passed, the circuit becomes half-open,
+     * and only the first caller is allowed to make a call.
+     *
+     * @return True if the call could be made, false otherwise.
+     */
+    public synchronized boolean allowsRequest() {
+        return switch (state) {
+            case CLOSED -> true;
+            case HALF_OPEN -> false;
+            case OPEN -> {
+                if (clock.instant().isBefore(openedAt.plus(openDuration))) yield false;
+                state = State.HALF_OPEN;
+                yield true;
+            }
+        };
+    }
+
+    /**
+     * Records successful call, closing the circuit.
+     */
+    public synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        state = State.CLOSED;
+    }
+
+    /**
+     * Records failed call. The circuit is opened, when the failure threshold is reached, or when the trial call
+     * of the half-open circuit failed.
+     */
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = clock.instant();
+        }
+    }
+
+    /**
+     * Gives up the trial call of the half-open circuit without making it, e.g. when there was nothing to call
+     * the service for. The circuit is opened again, but the next caller is allowed to make the trial call.
+     */
+    public synchronized void releaseTrial() {
+        if (state == State.HALF_OPEN) {
+            state = State.OPEN;
+        }
+    }
+
+    /**
+     * @return Current state of the circuit.
+     */
+    public synchronized State getState() {
+        return state;
+    }
+}
@@ -0,0 +1,94 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.utils.mail;
+
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.MailOutboxMessage;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.I18n;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Utility class merging notifications of the same category, sent to the same recipient, into single digest
+ * messages. Each digest is rendered in the language of the recipient, with the action descriptions of all
+ * the merged notifications listed one after another. Messages without a digest category, and notifications
+ * which have nothing to be merged with, are delivered as they were rendered.
+ *
+ * @see MailDigestCategory
+ */
+public class MailDigestAggregator {
+
+    private static final String DIGEST_ITEM_SEPARATOR = "<br/>";
+
+    private MailDigestAggregator() {
+    }
+
+    /**
+     * Message ready for delivery, representing one or more messages from the outbox.
+     *
+     * @param recipient  E-mail address, which the message is sent to.
+     * @param subject    Subject of the message.
+     * @param content    Content of the message, in HTML format.
+     * @param messageIds Identifiers of the messages from the outbox, delivered by this message.
+     */
+    public record Delivery(String recipient, String subject, String content, List<UUID> messageIds) {
+    }
+
+    /**
+     * Merges notifications of the same category, sent to the same recipient, into digests.
+     *
+     * @param messages Messages claimed from the outbox.
+     * @param template Template used for rendering digests. When it is null, notifications are not merged.
+     * @return Messages ready for delivery, in the order of the first message from the outbox represented by each of them.
+     */
+    public static List<Delivery> aggregate(List<MailOutboxMessage> messages, MailTemplate template) {
+        Map<Object, List<MailOutboxMessage>> groups = new LinkedHashMap<>();
+        for (MailOutboxMessage message : messages) {
+            Object key = template == null || message.getDigestCategory() == null ? message.getId()
+                    : List.of(message.getRecipient(), message.getDigestCategory(), Objects.toString(message.getLanguage(), ""));
+            groups.computeIfAbsent(key, k -> new ArrayList<>()).add(message);
+        }
+
+        List<Delivery> deliveries = new ArrayList<>(groups.size());
+        for (List<MailOutboxMessage> group : groups.values()) {
+            MailOutboxMessage first = group.get(0);
+            if (group.size() == 1) {
+                deliveries.add(new Delivery(first.getRecipient(), first.getSubject(), first.getContent(), List.of(first.getId())));
+            } else {
+                deliveries.add(renderDigest(group, template));
+            }
+        }
+        return deliveries;
+    }
+
+    /**
+     * Renders single digest of the notifications.
+     *
+     * @param group    Notifications of the same category, sent to the same recipient.
+     * @param template Template used for rendering the digest.
+     * @return Digest ready for delivery.
+     */
+    private static Delivery renderDigest(List<MailOutboxMessage> group, MailTemplate template) {
+        MailOutboxMessage first = group.get(0);
+        MailDigestCategory category = first.getDigestCategory();
+        String language = first.getLanguage();
+
+        String content = template.values()
+                .set(MailPlaceholder.FIRSTNAME, Objects.toString(first.getFirstName(), ""))
+                .set(MailPlaceholder.LASTNAME, Objects.toString(first.getLastName(), ""))
+                .set(MailPlaceholder.GREETING_MESSAGE, I18n.getMessage(category.getGreetingMessageKey(), language))
+                .set(MailPlaceholder.RESULT_MESSAGE, I18n.getMessage(category.getDigestResultMessageKey(), language))
+                .set(MailPlaceholder.ACTION_DESCRIPTION, group.stream()
+                        .map(message -> Objects.toString(message.getDigestItem(), ""))
+                        .collect(Collectors.joining(DIGEST_ITEM_SEPARATOR)))
+                .set(MailPlaceholder.NOTE_TITLE, I18n.getMessage(category.getNoteTitleKey(), language))
+                .set(MailPlaceholder.NOTE_MESSAGE, I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
+                .render();
+        String subject = String.format(I18n.getMessage(category.getDigestSubjectKey(), language), group.size());
+
+        return new Delivery(first.getRecipient(), subject, content, group.stream().map(MailOutboxMessage::getId).toList());
+    }
+}
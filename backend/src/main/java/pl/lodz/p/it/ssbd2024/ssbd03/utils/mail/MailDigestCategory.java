@@ -0,0 +1,60 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.utils.mail;
+
+import lombok.Getter;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.I18n;
+
+/**
+ * Categories of notifications, which could be sent in bursts to the same user, e.g. when a sector with many
+ * reservations is deactivated. Notifications of the same category, sent to the same recipient within the digest
+ * window, are merged into a single digest message, listing action descriptions of all the notifications.
+ *
+ * @see MailDigestAggregator
+ */
+@Getter
+public enum MailDigestCategory {
+
+    /**
+     * Notification about a reservation cancelled due to the sector deactivation.
+     */
+    ADMINISTRATIVELY_CANCELLED_RESERVATION(I18n.ADMINISTRATIVELY_CANCELLED_RESERVATION_GREETING_MESSAGE, I18n.ADMINISTRATIVELY_CANCELLED_RESERVATION_NOTE_TITLE,
+            I18n.ADMINISTRATIVELY_CANCELLED_RESERVATION_DIGEST_MESSAGE_SUBJECT, I18n.ADMINISTRATIVELY_CANCELLED_RESERVATION_DIGEST_RESULT_MESSAGE),
+
+    /**
+     * Notification about a reservation ended by the system.
+     */
+    SYSTEM_END_RESERVATION(I18n.SYSTEM_END_RESERVATION_GREETING_MESSAGE, I18n.SYSTEM_END_RESERVATION_NOTE_TITLE,
+            I18n.SYSTEM_END_RESERVATION_DIGEST_MESSAGE_SUBJECT, I18n.SYSTEM_END_RESERVATION_DIGEST_RESULT_MESSAGE),
+
+    /**
+     * Notification about a change of the client type.
+     */
+    CHANGED_CLIENT_TYPE(I18n.CHANGED_CLIENT_TYPE_GREETING_MESSAGE, I18n.CHANGED_CLIENT_TYPE_NOTE_TITLE,
+            I18n.CHANGED_CLIENT_TYPE_DIGEST_MESSAGE_SUBJECT, I18n.CHANGED_CLIENT_TYPE_DIGEST_RESULT_MESSAGE);
+
+    /**
+     * Key of the greeting message, shared with the single notification.
+     */
+    private final String greetingMessageKey;
+
+    /**
+     * Key of the note title, shared with the single notification.
+     */
+    private final String noteTitleKey;
+
+    /**
+     * Key of the digest subject, formatted with the number of merged notifications.
+     */
+    private final String digestSubjectKey;
+
+    /**
+     * Key of the digest result message.
+     */
+    private final String digestResultMessageKey;
+
+    MailDigestCategory(String greetingMessageKey, String noteTitleKey, String digestSubjectKey, String digestResultMessageKey) {
+        this.greetingMessageKey = greetingMessageKey;
+        this.noteTitleKey = noteTitleKey;
+        this.digestSubjectKey = digestSubjectKey;
+        this.digestResultMessageKey = digestResultMessageKey;
+    }
+}
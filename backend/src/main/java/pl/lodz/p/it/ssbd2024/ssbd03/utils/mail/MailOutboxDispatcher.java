@@ -0,0 +1,346 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.utils.mail;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.MailOutboxMessage;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.services.interfaces.MailOutboxServiceInterface;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.tracing.Span;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.tracing.Tracer;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Component delivering e-mail messages waiting in the outbox. Messages are claimed in batches, and each batch
+ * is sent over a single SMTP connection, instead of opening a new connection for every message. The outbox is
+ * drained periodically, and right after a transaction writing a message to the outbox is committed.
+ * <p>
+ * Failed messages are retried with exponential backoff (see {@link MailOutboxServiceInterface}). When whole
+ * batches fail, e.g. because the SMTP server is unavailable, the circuit breaker stops delivery attempts
+ * for the configured period, after which a single message is sent as a trial.
+ * <p>
+ * Notifications of the same category, claimed together for the same recipient, are merged into a single digest
+ * (see {@link MailDigestAggregator}).
+ * <p>
+ * All delivery work is done on a single, dedicated thread, so that batches are never sent concurrently
+ * by the same application node.
+ */
+@Slf4j
+@Component
+@Profile("!test")
+public class MailOutboxDispatcher {
+
+    private final JavaMailSenderImpl mailSender;
+
+    private final MailOutboxServiceInterface mailOutboxService;
+
+    private final MailTemplateRegistry mailTemplateRegistry;
+
+    private final CircuitBreaker circuitBreaker;
+
+    private final String senderEmail;
+
+    private final int batchSize;
+
+    private final long pollIntervalMillis;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "MailOutbox-1");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicBoolean wakeUpScheduled = new AtomicBoolean();
+
+    private final AtomicLong deliveredMessages = new AtomicLong();
+
+    private final AtomicLong retriedMessages = new AtomicLong();
+
+    private final AtomicLong failedMessages = new AtomicLong();
+
+    private final AtomicLong coalescedMessages = new AtomicLong();
+
+    /**
+     * Autowired constructor for the component.
+     *
+     * @param mailSender           Component from Spring framework, used to send e-mail messages.
+     * @param mailOutboxService    Service managing delivery state of the messages in the outbox.
+     * @param mailTemplateRegistry Component holding the digest template, and the logo image attached inline to every message.
+     * @param senderEmail          E-mail address of the sender - that is the Eldorado application.
+     * @param batchSize            Maximum number of messages sent over a single SMTP connection.
+     * @param pollIntervalMillis   Time between periodic checks of the outbox.
+     * @param failureThreshold     Number of consecutive failed batches, after which delivery is suspended.
+     * @param openSeconds          Time, for which delivery is suspended.
+     */
+    @Autowired
+    public MailOutboxDispatcher(JavaMailSenderImpl mailSender,
+                                MailOutboxServiceInterface mailOutboxService,
+                                MailTemplateRegistry mailTemplateRegistry,
+                                @Value("${mail.sender.email}") String senderEmail,
+                                @Value("${mail.outbox.batch.size}") int batchSize,
+                                @Value("${mail.outbox.poll.interval.millis}") long pollIntervalMillis,
+                                @Value("${mail.outbox.circuit.failure.threshold}") int failureThreshold,
+                                @Value("${mail.outbox.circuit.open.seconds}") long openSeconds) {
+        this.mailSender = mailSender;
+        this.mailOutboxService = mailOutboxService;
+        this.mailTemplateRegistry = mailTemplateRegistry;
+        this.senderEmail = senderEmail;
+        this.batchSize = batchSize;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, Duration.ofSeconds(openSeconds), Clock.systemUTC());
+    }
+
+    /**
+     * Starts periodic checks of the outbox.
+     */
+    @PostConstruct
+    public void start() {
+        executor.scheduleWithFixedDelay(this::dispatchSafely, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops delivery, when the application context is closed. Messages claimed by an interrupted batch are
+     * delivered after their lease ends.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Schedules draining of the outbox, after the transaction writing a new message is committed. The draining
+     * is traced as a part of the trace of the committed transaction.
+     *
+     * @param event Event describing the written message.
+     */
+    @TransactionalEventListener
+    public void onMailQueued(MailQueuedEvent event) {
+        if (wakeUpScheduled.compareAndSet(false, true)) {
+            executor.execute(Tracer.propagate("MailOutboxDispatcher.dispatch", () -> {
+                wakeUpScheduled.set(false);
+                dispatchSafely();
+            }));
+        }
+    }
+
+    /**
+     * Delivers messages due for delivery, batch by batch, until there are no more such messages,
+     * or the circuit breaker suspends the delivery.
+     *
+     * @return Number of delivered messages.
+     */
+    public int dispatch() {
+        int delivered = 0;
+        while (circuitBreaker.allowsRequest()) {
+            boolean trial = circuitBreaker.getState() == CircuitBreaker.State.HALF_OPEN;
+            int size = trial ? 1 : batchSize;
+
+            List<MailOutboxMessage> batch;
+            try {
+                batch = mailOutboxService.claimDueMessages(size);
+            } catch (ApplicationBaseException exception) {
+                circuitBreaker.releaseTrial();
+                log.error("Exception: {} occurred while claiming messages from the mail outbox. Cause: {}.",
+                        exception.getClass().getSimpleName(), exception.getMessage());
+                break;
+            }
+            if (batch.isEmpty()) {
+                circuitBreaker.releaseTrial();
+                break;
+            }
+
+            delivered += this.deliver(batch);
+            if (batch.size() < size && !trial) break;
+        }
+        return delivered;
+    }
+
+    /**
+     * @return Number of messages delivered since the application start.
+     */
+    public long getDeliveredMessages() {
+        return deliveredMessages.get();
+    }
+
+    /**
+     * @return Number of failed delivery attempts, which will be retried, since the application start.
+     */
+    public long getRetriedMessages() {
+        return retriedMessages.get();
+    }
+
+    /**
+     * @return Number of messages, which could not be delivered after the maximum number of attempts,
+     * since the application start.
+     */
+    public long getFailedMessages() {
+        return failedMessages.get();
+    }
+
+    /**
+     * @return Number of delivered messages, which were merged into digests of other messages, since the application start.
+     */
+    public long getCoalescedMessages() {
+        return coalescedMessages.get();
+    }
+
+    /**
+     * @return Current state of the circuit breaker guarding the SMTP server.
+     */
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    private void dispatchSafely() {
+        try {
+            this.dispatch();
+        } catch (RuntimeException exception) {
+            log.error("Exception: {} occurred while dispatching the mail outbox. Cause: {}.",
+                    exception.getClass().getSimpleName(), exception.getMessage());
+        }
+    }
+
+    /**
+     * Sends the batch of messages over a single SMTP connection, and records the results. Rendering and sending
+     * of the messages are traced as separate spans.
+     *
+     * @param batch Messages claimed for delivery.
+     * @return Number of delivered messages.
+     */
+    private int deliver(List<MailOutboxMessage> batch) {
+        Span span = Tracer.startSpan("MailOutboxDispatcher.deliver", Span.Kind.INTERNAL);
+        span.setAttribute("mail.batch.size", batch.size());
+        try {
+            int delivered = this.deliverInSpan(batch);
+            span.setAttribute("mail.delivered", delivered);
+            return delivered;
+        } catch (RuntimeException exception) {
+            span.recordException(exception);
+            throw exception;
+        } finally {
+            span.end();
+        }
+    }
+
+    private int deliverInSpan(List<MailOutboxMessage> batch) {
+        Span renderSpan = Tracer.startSpan("mail.render", Span.Kind.INTERNAL);
+        MailTemplate digestTemplate = mailTemplateRegistry.getTemplate(MailTemplateType.DEFAULT).orElse(null);
+        Map<MimeMessage, List<UUID>> prepared = new LinkedHashMap<>();
+        Map<UUID, String> failures = new HashMap<>();
+        for (MailDigestAggregator.Delivery delivery : MailDigestAggregator.aggregate(batch, digestTemplate)) {
+            try {
+                prepared.put(this.createMimeMessage(delivery), delivery.messageIds());
+            } catch (MessagingException exception) {
+                delivery.messageIds().forEach(id -> failures.put(id, describe(exception)));
+            }
+        }
+        renderSpan.setAttribute("mail.messages", prepared.size());
+        renderSpan.end();
+
+        Map<Object, Exception> failedMimeMessages = Map.of();
+        MailException batchException = null;
+        if (!prepared.isEmpty()) {
+            Span sendSpan = Tracer.startSpan("mail.send", Span.Kind.CLIENT);
+            try {
+                mailSender.send(prepared.keySet().toArray(MimeMessage[]::new));
+            } catch (MailSendException exception) {
+                failedMimeMessages = exception.getFailedMessages();
+                batchException = failedMimeMessages.isEmpty() ? exception : null;
+                sendSpan.recordException(exception);
+            } catch (MailException exception) {
+                batchException = exception;
+                sendSpan.recordException(exception);
+            } finally {
+                sendSpan.end();
+            }
+        }
+
+        List<UUID> delivered = new ArrayList<>();
+        int coalesced = 0;
+        for (Map.Entry<MimeMessage, List<UUID>> entry : prepared.entrySet()) {
+            Exception exception = batchException != null ? batchException : failedMimeMessages.get(entry.getKey());
+            if (exception == null) {
+                delivered.addAll(entry.getValue());
+                coalesced += entry.getValue().size() - 1;
+            } else {
+                entry.getValue().forEach(id -> failures.put(id, describe(exception)));
+            }
+        }
+
+        if (prepared.isEmpty()) {
+            circuitBreaker.releaseTrial();
+        } else if (delivered.isEmpty()) {
+            circuitBreaker.recordFailure();
+        } else {
+            circuitBreaker.recordSuccess();
+        }
+
+        try {
+            int failed = mailOutboxService.recordDeliveryResults(delivered, failures);
+            deliveredMessages.addAndGet(delivered.size());
+            coalescedMessages.addAndGet(coalesced);
+            retriedMessages.addAndGet(failures.size() - failed);
+            failedMessages.addAndGet(failed);
+        } catch (ApplicationBaseException exception) {
+            log.error("Exception: {} occurred while recording results of {} delivered and {} failed e-mail messages. Cause: {}.",
+                    exception.getClass().getSimpleName(), delivered.size(), failures.size(), exception.getMessage());
+        }
+
+        if (!failures.isEmpty()) {
+            log.warn("{} of {} e-mail messages from the mail outbox could not be delivered.", failures.size(), batch.size());
+        }
+        return delivered.size();
+    }
+
+    /**
+     * Creates e-mail message from the messages waiting in the outbox, with the logo attached inline.
+     *
+     * @param delivery Message, or digest of messages, waiting in the outbox.
+     * @return E-mail message ready to be sent.
+     * @throws MessagingException Exception thrown when the e-mail message could not be created.
+     */
+    private MimeMessage createMimeMessage(MailDigestAggregator.Delivery delivery) throws MessagingException {
+        MimeMessage mimeMessage = mailSender.createMimeMessage();
+        MimeMessageHelper messageHelper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
+
+        messageHelper.setTo(delivery.recipient());
+        messageHelper.setSubject(delivery.subject());
+        messageHelper.setText(delivery.content(), true);
+        messageHelper.setFrom(senderEmail);
+
+        byte[] logo = mailTemplateRegistry.getLogo().orElse(null);
+        if (logo != null) {
+            messageHelper.addInline(MailTemplateRegistry.LOGO_CONTENT_ID, new ByteArrayResource(logo), MailTemplateRegistry.LOGO_CONTENT_TYPE);
+        }
+        return mimeMessage;
+    }
+
+    private static String describe(Exception exception) {
+        return exception.getClass().getSimpleName() + ": " + exception.getMessage();
+    }
+}
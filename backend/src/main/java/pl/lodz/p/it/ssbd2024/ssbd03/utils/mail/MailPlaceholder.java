@@ -0,0 +1,38 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.utils.mail;
+
+import lombok.Getter;
+
+/**
+ * Placeholders, which could be used in e-mail templates located in the /resources/templates folder.
+ * Each placeholder is written in the template as a dollar sign followed by its name, e.g. <code>$firstname</code>.
+ */
+@Getter
+public enum MailPlaceholder {
+
+    FIRSTNAME("firstname"),
+    LASTNAME("lastname"),
+    GREETING_MESSAGE("greeting_message"),
+    RESULT_MESSAGE("result_message"),
+    ACTION_DESCRIPTION("action_description"),
+    ACTION_LINK("action_link"),
+    CODE("code"),
+    NOTE_TITLE("note_title"),
+    NOTE_MESSAGE("note_message"),
+    ELDORADO_LOGO("eldorado_logo");
+
+    /**
+     * Name of the placeholder, as written in the template after the dollar sign.
+     */
+    private final String name;
+
+    MailPlaceholder(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return Placeholder, as written in the template, e.g. <code>$firstname</code>.
+     */
+    public String getToken() {
+        return "$" + name;
+    }
+}
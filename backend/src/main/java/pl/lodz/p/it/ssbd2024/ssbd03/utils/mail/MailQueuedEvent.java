@@ -0,0 +1,12 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.utils.mail;
+
+import java.util.UUID;
+
+/**
+ * Event published when an e-mail message is written to the outbox. It is handled after the transaction writing
+ * the message is committed, so that the message could be delivered without waiting for the next outbox poll.
+ *
+ * @param messageId Identifier of the message in the outbox.
+ */
+public record MailQueuedEvent(UUID messageId) {
+}
@@ -0,0 +1,161 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.utils.mail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * E-mail template compiled into a sequence of literal fragments and placeholder slots, so that the template source
+ * is scanned only once, instead of once for every placeholder on every rendered message. Rendering writes
+ * the fragments and the values of the placeholders into a reusable, per-thread buffer in a single pass.
+ * <p>
+ * Instances are immutable and could be shared between threads.
+ *
+ * @see MailPlaceholder
+ */
+public class MailTemplate {
+
+    private static final int MAX_RETAINED_BUFFER_CAPACITY = 256 * 1024;
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(StringBuilder::new);
+
+    private final String[] literals;
+
+    private final MailPlaceholder[] slots;
+
+    private final int literalsLength;
+
+    private MailTemplate(List<String> literals, List<MailPlaceholder> slots) {
+        this.literals = literals.toArray(String[]::new);
+        this.slots = slots.toArray(MailPlaceholder[]::new);
+        this.literalsLength = literals.stream().mapToInt(String::length).sum();
+    }
+
+    /**
+     * Compiles the template source. Placeholders are matched the same way as with String.replace(), that is
+     * the longest placeholder written at the given position is used. Dollar signs not followed by any
+     * of the placeholders are left as they are.
+     *
+     * @param source    Source of the template.
+     * @param constants Values of the placeholders, which are the same for every rendered message. They are
+     *                  inlined into literal fragments.
+     * @return Compiled template.
+     */
+    public static MailTemplate compile(String source, Map<MailPlaceholder, String> constants) {
+        List<String> literals = new ArrayList<>();
+        List<MailPlaceholder> slots = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+
+        int position = 0;
+        while (position < source.length()) {
+            int dollar = source.indexOf('$', position);
+            if (dollar < 0) {
+                literal.append(source, position, source.length());
+                break;
+            }
+            literal.append(source, position, dollar);
+
+            MailPlaceholder placeholder = matchPlaceholder(source, dollar + 1);
+            if (placeholder == null) {
+                literal.append('$');
+                position = dollar + 1;
+            } else if (constants.containsKey(placeholder)) {
+                literal.append(constants.get(placeholder));
+                position = dollar + 1 + placeholder.getName().length();
+            } else {
+                literals.add(literal.toString());
+                slots.add(placeholder);
+                literal.setLength(0);
+                position = dollar + 1 + placeholder.getName().length();
+            }
+        }
+        literals.add(literal.toString());
+        return new MailTemplate(literals, slots);
+    }
+
+    /**
+     * Compiles the template source without any constant values.
+     *
+     * @param source Source of the template.
+     * @return Compiled template.
+     * @see #compile(String, Map)
+     */
+    public static MailTemplate compile(String source) {
+        return compile(source, Map.of());
+    }
+
+    /**
+     * @return New, empty set of placeholder values, used to render this template.
+     */
+    public Values values() {
+        return new Values();
+    }
+
+    private static MailPlaceholder matchPlaceholder(String source, int offset) {
+        MailPlaceholder matched = null;
+        for (MailPlaceholder placeholder : MailPlaceholder.values()) {
+            String name = placeholder.getName();
+            if (source.startsWith(name, offset) && (matched == null || name.length() > matched.getName().length())) {
+                matched = placeholder;
+            }
+        }
+        return matched;
+    }
+
+    private String render(String[] values) {
+        StringBuilder buffer = BUFFER.get();
+        if (buffer.capacity() > MAX_RETAINED_BUFFER_CAPACITY) {
+            buffer = new StringBuilder();
+            BUFFER.set(buffer);
+        }
+        buffer.setLength(0);
+
+        int valuesLength = 0;
+        for (MailPlaceholder slot : slots) {
+            String value = values[slot.ordinal()];
+            valuesLength += value != null ? value.length() : slot.getToken().length();
+        }
+        buffer.ensureCapacity(literalsLength + valuesLength);
+
+        for (int i = 0; i < slots.length; i++) {
+            buffer.append(literals[i]);
+            String value = values[slots[i].ordinal()];
+            buffer.append(value != null ? value : slots[i].getToken());
+        }
+        buffer.append(literals[slots.length]);
+        return buffer.toString();
+    }
+
+    /**
+     * Values of the placeholders used for rendering a single message. Placeholders without a value are rendered
+     * as they are written in the template.
+     */
+    public class Values {
+
+        private final String[] values = new String[MailPlaceholder.values().length];
+
+        private Values() {
+        }
+
+        /**
+         * Sets value of the placeholder.
+         *
+         * @param placeholder Placeholder, which value is set.
+         * @param value       Value of the placeholder.
+         * @return This set of values, for chaining.
+         * @throws NullPointerException Thrown when the value is null.
+         */
+        public Values set(MailPlaceholder placeholder, String value) {
+            values[placeholder.ordinal()] = Objects.requireNonNull(value);
+            return this;
+        }
+
+        /**
+         * @return Template rendered with the set values.
+         */
+        public String render() {
+            return MailTemplate.this.render(values);
+        }
+    }
+}
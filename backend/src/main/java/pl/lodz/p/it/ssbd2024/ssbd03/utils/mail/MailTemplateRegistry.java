@@ -0,0 +1,108 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.utils.mail;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Component holding e-mail templates and images, read from the /resources/templates folder once, when the
+ * application starts, instead of on every sent message. Templates are kept compiled, with the logo placeholder
+ * pointing to the logo attached inline to the message under {@link #LOGO_CONTENT_ID}.
+ */
+@Slf4j
+@Component
+public class MailTemplateRegistry {
+
+    /**
+     * Content identifier of the logo image, attached inline to every sent e-mail message.
+     */
+    public static final String LOGO_CONTENT_ID = "eldorado-logo";
+
+    /**
+     * Content type of the logo image.
+     */
+    public static final String LOGO_CONTENT_TYPE = "image/png";
+
+    private static final String LOGO_FILE_NAME = "eldorado.png";
+
+    private final Map<MailTemplateType, MailTemplate> templates = new EnumMap<>(MailTemplateType.class);
+
+    private final byte[] logo;
+
+    /**
+     * Constructs the component, reading and compiling all e-mail templates, and reading the logo image.
+     * Missing resources are logged, and reported as empty results of the getters.
+     */
+    public MailTemplateRegistry() {
+        Map<MailPlaceholder, String> constants = Map.of(MailPlaceholder.ELDORADO_LOGO, "cid:" + LOGO_CONTENT_ID);
+        for (MailTemplateType type : MailTemplateType.values()) {
+            String source = this.loadTemplate(type.getFileName());
+            if (source != null) {
+                templates.put(type, MailTemplate.compile(source, constants));
+            }
+        }
+        this.logo = this.loadImage(LOGO_FILE_NAME);
+    }
+
+    /**
+     * @param type Type of the e-mail template.
+     * @return Compiled e-mail template, or empty optional if the template could not be read.
+     */
+    public Optional<MailTemplate> getTemplate(MailTemplateType type) {
+        return Optional.ofNullable(templates.get(type));
+    }
+
+    /**
+     * @return Content of the logo image, or empty optional if the image could not be read.
+     */
+    public Optional<byte[]> getLogo() {
+        return Optional.ofNullable(logo);
+    }
+
+    /**
+     * Loads e-mail template from the /resources/templates folder. Lines of the template are joined without
+     * line separators.
+     *
+     * @param templateName Name of the template file.
+     * @return Content of the template, or null if the template file could not be read.
+     */
+    private String loadTemplate(String templateName) {
+        StringBuilder builder = new StringBuilder();
+        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream("templates/" + templateName);
+             BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            String placeHolder;
+            while ((placeHolder = bufferedReader.readLine()) != null) {
+                builder.append(placeHolder);
+            }
+            return builder.toString();
+        } catch (IOException | NullPointerException exception) {
+            log.error("Exception: {} thrown while reading template: {} from a file. Cause: {}. Make sure that the file containing the template is located in the templates/ folder.",
+                    exception.getClass().getSimpleName(), templateName, exception.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Loads an image from the /resources/templates/images folder.
+     *
+     * @param imageName Name of the image file.
+     * @return Content of the image, or null if the image file could not be read.
+     */
+    private byte[] loadImage(String imageName) {
+        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream("templates/images/" + imageName)) {
+            return inputStream.readAllBytes();
+        } catch (IOException | NullPointerException exception) {
+            log.error("Exception: {} thrown while reading image: {} from a file. Cause: {}. Make sure that the file containing the image is located in the templates/images/ folder.",
+                    exception.getClass().getSimpleName(), imageName, exception.getMessage());
+            return null;
+        }
+    }
+}
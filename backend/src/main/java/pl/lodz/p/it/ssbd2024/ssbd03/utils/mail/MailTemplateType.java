@@ -0,0 +1,34 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.utils.mail;
+
+import lombok.Getter;
+
+/**
+ * E-mail templates located in the /resources/templates folder.
+ */
+@Getter
+public enum MailTemplateType {
+
+    /**
+     * Template containing a button with a link, e.g. for confirming account registration.
+     */
+    LINK("link-template.html"),
+
+    /**
+     * Template containing the action description only.
+     */
+    DEFAULT("default-template.html"),
+
+    /**
+     * Template containing a code, e.g. the multifactor authentication code.
+     */
+    CODE("code-template.html");
+
+    /**
+     * Name of the template file.
+     */
+    private final String fileName;
+
+    MailTemplateType(String fileName) {
+        this.fileName = fileName;
+    }
+}
@@ -0,0 +1,113 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.utils.password;
+
+import lombok.Getter;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt password encoder with a configured work factor (strength), which limits the number of hashing operations
+ * performed at the same time. Operations run on the calling thread, after taking one of the permits. Only the
+ * configured number of callers may wait for a permit, and only for the configured time, so a burst of login attempts
+ * occupies a bounded number of request threads, and the rest of them is rejected with RejectedExecutionException
+ * instead of waiting.
+ * <p>
+ * Hashes with work factor lower than the configured one are reported by {@link #upgradeEncoding(String)}, so that
+ * they are rehashed after successful authentication. Hashes with higher work factor are kept, so that nodes
+ * configured with different work factors do not rehash the same password back and forth.
+ */
+public class BoundedBCryptPasswordEncoder implements PasswordEncoder {
+
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+
+    /**
+     * Work factor used for generating new hashes.
+     */
+    @Getter
+    private final int strength;
+
+    private final BCryptPasswordEncoder delegate;
+
+    private final Semaphore permits;
+
+    private final int maxWaiting;
+
+    private final long maxWaitNanos;
+
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    /**
+     * Constructs the encoder.
+     *
+     * @param strength       Work factor used for generating new hashes.
+     * @param maxConcurrency Maximum number of hashing operations performed at the same time.
+     * @param maxWaiting     Maximum number of hashing operations waiting for a permit. When exceeded, new operations
+     *                       are rejected with RejectedExecutionException.
+     * @param maxWait        Maximum time of waiting for a permit, after which the operation is rejected
+     *                       with RejectedExecutionException.
+     */
+    public BoundedBCryptPasswordEncoder(int strength, int maxConcurrency, int maxWaiting, Duration maxWait) {
+        this.strength = strength;
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.maxWaiting = maxWaiting;
+        this.maxWaitNanos = maxWait.toNanos();
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) return false;
+        Matcher matcher = BCRYPT_PATTERN.matcher(encodedPassword);
+        return matcher.matches() && Integer.parseInt(matcher.group(1)) < strength;
+    }
+
+    /**
+     * @return Number of hashing operations waiting for a permit.
+     */
+    public int getQueuedOperations() {
+        return waiting.get();
+    }
+
+    private <T> T execute(Supplier<T> operation) {
+        if (!permits.tryAcquire()) {
+            if (waiting.incrementAndGet() > maxWaiting) {
+                waiting.decrementAndGet();
+                throw new RejectedExecutionException("Too many password hashing operations are waiting.");
+            }
+            try {
+                if (!permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS)) {
+                    throw new RejectedExecutionException("Password hashing operation waited too long.");
+                }
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Password hashing was interrupted.", exception);
+            } finally {
+                waiting.decrementAndGet();
+            }
+        }
+
+        try {
+            return operation.get();
+        } finally {
+            permits.release();
+        }
+    }
+}
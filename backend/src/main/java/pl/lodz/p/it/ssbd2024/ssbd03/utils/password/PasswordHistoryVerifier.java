@@ -0,0 +1,173 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.utils.password;
+
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Account;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Component responsible for keeping the password history of user accounts, and checking whether a new password
+ * was used before. Only the configured number of the most recent password hashes is kept and verified.
+ * <p>
+ * Since each hash comparison is a full BCrypt computation, hashes are compared in parallel, on virtual threads,
+ * with at most <code>account.password.history.verification.parallelism</code> comparisons in flight for a single
+ * check. Hashes are checked from the newest one, and the check ends on the first match, without starting
+ * the remaining comparisons. Comparisons of all concurrent checks together are limited to
+ * <code>account.password.history.verification.max.concurrency</code>, so that simultaneous password changes
+ * cannot occupy more CPU cores than that.
+ * <p>
+ * Note: This component is not annotated with LoggerInterceptor, since its method parameters contain raw passwords.
+ */
+@Slf4j
+@Component
+public class PasswordHistoryVerifier {
+
+    /**
+     * Number of the most recent password hashes, that are kept and verified for each account.
+     */
+    @Getter
+    private final int historySize;
+
+    /**
+     * Maximum number of hash comparisons, performed at the same time for a single check.
+     */
+    private final int parallelism;
+
+    /**
+     * Permits for hash comparisons, shared by all checks.
+     */
+    private final Semaphore comparisonPermits;
+
+    private final PasswordEncoder passwordEncoder;
+
+    private final ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Autowired constructor for the component.
+     *
+     * @param passwordEncoder Component used to compare the new password with hashes of the previous ones.
+     * @param historySize     Number of the most recent password hashes, that are kept and verified for each account.
+     * @param parallelism     Maximum number of hash comparisons, performed at the same time for a single check.
+     * @param maxConcurrency  Maximum number of hash comparisons, performed at the same time for all checks.
+     */
+    @Autowired
+    public PasswordHistoryVerifier(PasswordEncoder passwordEncoder,
+                                   @Value("${account.password.history.size}") int historySize,
+                                   @Value("${account.password.history.verification.parallelism}") int parallelism,
+                                   @Value("${account.password.history.verification.max.concurrency}") int maxConcurrency) {
+        this.passwordEncoder = passwordEncoder;
+        this.historySize = historySize;
+        this.parallelism = parallelism;
+        this.comparisonPermits = new Semaphore(maxConcurrency, true);
+    }
+
+    /**
+     * Checks whether the given password matches any of the recent passwords of the account.
+     *
+     * @param account     Account, which password history is checked.
+     * @param rawPassword New password, in its original form.
+     * @return True if the password was used recently, false otherwise.
+     */
+    public boolean isPreviouslyUsed(Account account, String rawPassword) {
+        return matchesAny(rawPassword, account.getRecentPasswordHashes(historySize));
+    }
+
+    /**
+     * Adds hash of the new password to the password history of the account, and removes hashes
+     * that no longer fit in the history window.
+     *
+     * @param account      Account, which password history is modified.
+     * @param passwordHash Hash of the new password.
+     */
+    public void addToHistory(Account account, String passwordHash) {
+        account.addPreviousPassword(passwordHash);
+        account.trimPreviousPasswords(historySize);
+    }
+
+    /**
+     * Checks whether the given password matches any of the given hashes.
+     *
+     * @param rawPassword    Password, in its original form.
+     * @param passwordHashes Hashes of passwords, in the order in which they should be checked.
+     * @return True if the password matches any of the hashes, false otherwise.
+     */
+    public boolean matchesAny(String rawPassword, List<String> passwordHashes) {
+        if (passwordHashes.size() <= 1 || parallelism <= 1) {
+            try {
+                for (String passwordHash : passwordHashes) {
+                    if (compare(rawPassword, passwordHash)) return true;
+                }
+                return false;
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Password history verification was interrupted.", exception);
+            }
+        }
+
+        CompletionService<Boolean> completionService = new ExecutorCompletionService<>(executorService);
+        List<Future<Boolean>> futures = new ArrayList<>();
+        Iterator<String> iterator = passwordHashes.iterator();
+        int running = 0;
+        try {
+            while (running < parallelism && iterator.hasNext()) {
+                String passwordHash = iterator.next();
+                futures.add(completionService.submit(() -> compare(rawPassword, passwordHash)));
+                running++;
+            }
+            while (running > 0) {
+                boolean matches = completionService.take().get();
+                running--;
+                if (matches) return true;
+                if (iterator.hasNext()) {
+                    String passwordHash = iterator.next();
+                    futures.add(completionService.submit(() -> compare(rawPassword, passwordHash)));
+                    running++;
+                }
+            }
+            return false;
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Password history verification was interrupted.", exception);
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof RuntimeException runtimeException) throw runtimeException;
+            throw new IllegalStateException("Password history verification failed.", exception.getCause());
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    /**
+     * Compares the password with a single hash, after taking one of the permits shared by all checks.
+     */
+    private boolean compare(String rawPassword, String passwordHash) throws InterruptedException {
+        comparisonPermits.acquire();
+        try {
+            return passwordEncoder.matches(rawPassword, passwordHash);
+        } finally {
+            comparisonPermits.release();
+        }
+    }
+
+    /**
+     * Stops the executor used for parallel verification, when the application context is closed.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executorService.shutdownNow();
+    }
+}
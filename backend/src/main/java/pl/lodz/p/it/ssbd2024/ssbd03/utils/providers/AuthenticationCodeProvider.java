@@ -0,0 +1,93 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.utils.providers;
+
+import com.eatthepath.otp.TimeBasedOneTimePasswordGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Account;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationInternalServerErrorException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.InvalidKeyException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+
+/**
+ * Component generating authentication codes for multifactor authentication, and computing their digests.
+ * <p>
+ * Both keys used here are derived from the shared <code>secret.key</code> property, so that codes generated
+ * on one node of the application could be verified on any other one. Each account has its own TOTP key,
+ * so that accounts authenticating at the same time receive different codes.
+ * <p>
+ * Note: This component is not annotated with LoggerInterceptor, since its method parameters contain authentication codes.
+ */
+@Slf4j
+@Component
+public class AuthenticationCodeProvider {
+
+    private static final String KEY_DERIVATION_ALGORITHM = "HmacSHA256";
+    private static final String TOTP_KEY_PURPOSE = "multi-factor-authentication-totp";
+    private static final String DIGEST_KEY_PURPOSE = "multi-factor-authentication-digest";
+
+    private final TimeBasedOneTimePasswordGenerator totp = new TimeBasedOneTimePasswordGenerator(Duration.of(30, ChronoUnit.SECONDS), 8);
+
+    private final byte[] totpMasterKey;
+    private final byte[] digestKey;
+
+    /**
+     * Autowired constructor for the component.
+     *
+     * @param secretKey Secret key shared by all nodes of the application.
+     */
+    @Autowired
+    public AuthenticationCodeProvider(@Value("${secret.key}") String secretKey) {
+        byte[] sharedSecret = secretKey.getBytes(StandardCharsets.UTF_8);
+        this.totpMasterKey = hmac(sharedSecret, TOTP_KEY_PURPOSE);
+        this.digestKey = hmac(sharedSecret, DIGEST_KEY_PURPOSE);
+    }
+
+    /**
+     * Generates authentication code for the account.
+     *
+     * @param account Account, which the code is generated for.
+     * @return Authentication code, consisting of 8 digits.
+     * @throws ApplicationInternalServerErrorException Threw when the code could not be generated.
+     */
+    public String generateCode(Account account) throws ApplicationInternalServerErrorException {
+        SecretKeySpec accountKey = new SecretKeySpec(hmac(totpMasterKey, account.getId().toString()), totp.getAlgorithm());
+        try {
+            return totp.generateOneTimePasswordString(accountKey, Instant.now());
+        } catch (InvalidKeyException exception) {
+            log.error("Could not generate authentication code. Cause: {}", exception.getMessage());
+            throw new ApplicationInternalServerErrorException();
+        }
+    }
+
+    /**
+     * Computes digest of the authentication code, bound to the account, which is kept in the authentication code
+     * store instead of the code itself.
+     *
+     * @param account Account, which the code was generated for.
+     * @param code    Authentication code.
+     * @return Digest of the code, encoded in Base64.
+     */
+    public String digest(Account account, String code) {
+        return Base64.getEncoder().encodeToString(hmac(digestKey, account.getId() + ":" + code));
+    }
+
+    private static byte[] hmac(byte[] key, String data) {
+        try {
+            Mac mac = Mac.getInstance(KEY_DERIVATION_ALGORITHM);
+            mac.init(new SecretKeySpec(key, KEY_DERIVATION_ALGORITHM));
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+}
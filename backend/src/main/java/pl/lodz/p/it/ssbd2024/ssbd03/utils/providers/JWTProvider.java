@@ -4,8 +4,6 @@ import com.auth0.jwt.JWT;
 import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTVerificationException;
-import com.auth0.jwt.exceptions.SignatureVerificationException;
-import com.auth0.jwt.exceptions.TokenExpiredException;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import jakarta.annotation.security.PermitAll;
 import jakarta.annotation.security.RolesAllowed;
@@ -19,8 +17,6 @@ import pl.lodz.p.it.ssbd2024.ssbd03.commons.dto.SignableDTO;
 import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Authorities;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Account;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.mok.token.TokenDataExtractionException;
-import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.mok.token.TokenNotValidException;
-import pl.lodz.p.it.ssbd2024.ssbd03.utils.I18n;
 import pl.lodz.p.it.ssbd2024.ssbd03.utils.consts.utils.JWTConsts;
 
 import java.time.Instant;
@@ -40,9 +36,6 @@ import java.util.UUID;
 @LoggerInterceptor
 public class JWTProvider {
 
-    @Value("${authentication.code.validity.period.length.minutes}")
-    private int authenticationCodeValidityLength;
-
     @Value("${jwt.token.validity.period.length.minutes}")
     private int accessTokenTTL;
 
@@ -189,49 +182,6 @@ public class JWTProvider {
         }
     }
 
-    // Multifactor Auth
-
-    /**
-     * Method used to generate JWT token, which is valid for next couple of minutes
-     * (default: 5 minutes), containing code used for second step in two factor
-     * authentication.
-     */
-    @RolesAllowed(Authorities.LOGIN)
-    public String generateMultiFactorAuthToken(String codeValue) {
-        return JWT.create()
-                .withClaim(JWTConsts.CODE_VALUE, codeValue)
-                .withIssuedAt(Instant.now())
-                .withExpiresAt(Instant.now().plus(this.authenticationCodeValidityLength, ChronoUnit.MINUTES))
-                .withIssuer(JWTConsts.TOKEN_ISSUER)
-                .sign(Algorithm.HMAC256(this.getSignInKey()));
-    }
-
-    @RolesAllowed(Authorities.LOGIN)
-    public String extractHashedCodeValueFromToken(String token) throws TokenDataExtractionException, TokenNotValidException {
-        try {
-            JWTVerifier jwtVerifier = JWT.require(Algorithm.HMAC256(this.getSignInKey())).build();
-            DecodedJWT decodedJWT = jwtVerifier.verify(token);
-            return decodedJWT.getClaim(JWTConsts.CODE_VALUE).asString();
-        } catch (SignatureVerificationException exception) {
-            throw new TokenDataExtractionException();
-        } catch (TokenExpiredException exception) {
-            throw new TokenNotValidException(I18n.TOKEN_INVALID_OR_EXPIRED);
-        }
-    }
-
-    @RolesAllowed(Authorities.LOGIN)
-    public boolean isMultiFactorAuthTokenValid(String multiFactorAuthToken) {
-        try {
-            JWTVerifier jwtVerifier = JWT.require(Algorithm.HMAC256(this.getSignInKey()))
-                    .withIssuer(JWTConsts.TOKEN_ISSUER)
-                    .build();
-            DecodedJWT decodedJWT = jwtVerifier.verify(multiFactorAuthToken);
-            return decodedJWT.getExpiresAt().after(new Date());
-        } catch (JWTVerificationException exception) {
-            return false;
-        }
-    }
-
     /**
      * Decodes the key to String format and returns it.
      *
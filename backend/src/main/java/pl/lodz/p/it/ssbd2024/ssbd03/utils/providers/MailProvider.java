@@ -1,61 +1,95 @@
 package pl.lodz.p.it.ssbd2024.ssbd03.utils.providers;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.security.RolesAllowed;
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.env.Environment;
-import org.springframework.mail.javamail.JavaMailSenderImpl;
-import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerInterceptor;
 import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Authorities;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.MailOutboxMessage;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.utils.EmailTemplateNotFoundException;
-import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.utils.ImageNotFoundException;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.MailOutboxFacade;
+import pl.lodz.p.it.ssbd2024.ssbd03.mop.facades.MailOutboxMOPFacade;
 import pl.lodz.p.it.ssbd2024.ssbd03.utils.I18n;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.mail.MailDigestCategory;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.mail.MailPlaceholder;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.mail.MailQueuedEvent;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.mail.MailTemplateRegistry;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.mail.MailTemplateType;
 import pl.lodz.p.it.ssbd2024.ssbd03.utils.messages.log.MailProviderMessages;
 
-import java.io.*;
-import java.net.URISyntaxException;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.util.Arrays;
-import java.util.Base64;
-import java.util.Optional;
+import java.time.LocalDateTime;
 
 /**
- * Component used for sending e-mail messages.
+ * Component used for sending e-mail messages. Messages are rendered immediately, and written to the mail outbox
+ * in the transaction of the calling use case, so they are sent only when the use case succeeds.
+ * <p>
+ * Notifications sent in bursts to the same user, e.g. when reservations are cancelled due to the sector deactivation,
+ * are held in the outbox for the digest window, specified by <code>mail.digest.window.seconds</code> property,
+ * and notifications of the same category are delivered to the user as a single digest.
+ * <p>
+ * Messages sent by MOP use cases are written with the MOP persistence unit, so that their transactions
+ * use a single database connection, and do not require the two-phase commit.
+ *
+ * @see pl.lodz.p.it.ssbd2024.ssbd03.utils.mail.MailOutboxDispatcher
  */
 @Slf4j
 @Component
-@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Transactional(propagation = Propagation.MANDATORY)
 @LoggerInterceptor
 public class MailProvider {
 
-    @Value("${mail.sender.email}")
-    private String senderEmail;
+    private final MailOutboxFacade mailOutboxFacade;
 
-    private final JavaMailSenderImpl mailSender;
+    private final MailOutboxMOPFacade mailOutboxMOPFacade;
 
-    private final Environment env;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final MailTemplateRegistry mailTemplateRegistry;
+
+    private final Counter enqueuedEmailsCounter;
+
+    private final Counter enqueuedNotificationsCounter;
+
+    /**
+     * Time, for which notifications are held in the outbox, waiting for other notifications of the same category.
+     */
+    @Value("${mail.digest.window.seconds}")
+    private long digestWindowSeconds;
 
     /**
      * Autowired constructor for the component.
      *
-     * @param javaMailSender Component from Spring framework, used to send e-mail messages to certain
-     *                       e-mail addresses.
+     * @param mailOutboxFacade     Facade used to write e-mail messages to the mail outbox.
+     * @param mailOutboxMOPFacade  Facade used to write e-mail messages to the mail outbox in MOP use cases.
+     * @param eventPublisher       Component used to notify the outbox dispatcher about written messages.
+     * @param mailTemplateRegistry Component holding compiled e-mail templates.
+     * @param meterRegistry        Registry of the metrics, used to count messages written to the outbox.
      */
     @Autowired
-    public MailProvider(JavaMailSenderImpl javaMailSender, Environment env) {
-        this.mailSender = javaMailSender;
-        this.env = env;
+    public MailProvider(MailOutboxFacade mailOutboxFacade, MailOutboxMOPFacade mailOutboxMOPFacade,
+                        ApplicationEventPublisher eventPublisher, MailTemplateRegistry mailTemplateRegistry,
+                        MeterRegistry meterRegistry) {
+        this.mailOutboxFacade = mailOutboxFacade;
+        this.mailOutboxMOPFacade = mailOutboxMOPFacade;
+        this.eventPublisher = eventPublisher;
+        this.mailTemplateRegistry = mailTemplateRegistry;
+        this.enqueuedEmailsCounter = enqueuedCounter(meterRegistry, "email");
+        this.enqueuedNotificationsCounter = enqueuedCounter(meterRegistry, "notification");
+    }
+
+    private static Counter enqueuedCounter(MeterRegistry meterRegistry, String type) {
+        return Counter.builder("mail.messages.enqueued")
+                .description("Number of e-mail messages written to the mail outbox")
+                .tag("type", type)
+                .register(meterRegistry);
     }
 
     /**
@@ -67,28 +101,27 @@ public class MailProvider {
      * @param confirmationURL URL used to confirm the account creation.
      * @param language        Language of the message.
      */
-    @Async
 //    @RolesAllowed({
 //            Authorities.REGISTER_CLIENT, Authorities.REGISTER_USER, Authorities.RESEND_EMAIL_CONFIRMATION_MAIL
 //    })
     public void sendRegistrationConfirmEmail(String firstName, String lastName, String emailReceiver, String confirmationURL, String language) {
         try {
-            String logo = this.loadImage("eldorado.png").orElseThrow(() -> new ImageNotFoundException(MailProviderMessages.IMAGE_NOT_FOUND_EXCEPTION));
-            String emailContent = this.loadTemplate("link-template.html").orElseThrow(() -> new EmailTemplateNotFoundException(MailProviderMessages.EMAIL_TEMPLATE_NOT_FOUND_EXCEPTION))
-                    .replace("$firstname", firstName)
-                    .replace("$lastname", lastName)
-                    .replace("$greeting_message", I18n.getMessage(I18n.CONFIRM_REGISTER_GREETING_MESSAGE, language))
-                    .replace("$result_message", I18n.getMessage(I18n.CONFIRM_REGISTER_RESULT_MESSAGE, language))
-                    .replace("$action_description", I18n.getMessage(I18n.CONFIRM_REGISTER_ACTION_DESCRIPTION, language))
-                    .replace("$action_link", confirmationURL)
-                    .replace("$note_title", I18n.getMessage(I18n.CONFIRM_REGISTER_NOTE_TITLE, language))
-                    .replace("$note_message", I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
-                    .replace("$eldorado_logo", "data:image/png;base64," + logo);
-            this.sendEmail(emailContent, emailReceiver, senderEmail, I18n.getMessage(I18n.CONFIRM_REGISTER_MESSAGE_SUBJECT, language));
-        } catch (EmailTemplateNotFoundException | ImageNotFoundException | MessagingException |
+            String emailContent = this.mailTemplateRegistry.getTemplate(MailTemplateType.LINK).orElseThrow(() -> new EmailTemplateNotFoundException(MailProviderMessages.EMAIL_TEMPLATE_NOT_FOUND_EXCEPTION))
+                    .values()
+                    .set(MailPlaceholder.FIRSTNAME, firstName)
+                    .set(MailPlaceholder.LASTNAME, lastName)
+                    .set(MailPlaceholder.GREETING_MESSAGE, I18n.getMessage(I18n.CONFIRM_REGISTER_GREETING_MESSAGE, language))
+                    .set(MailPlaceholder.RESULT_MESSAGE, I18n.getMessage(I18n.CONFIRM_REGISTER_RESULT_MESSAGE, language))
+                    .set(MailPlaceholder.ACTION_DESCRIPTION, I18n.getMessage(I18n.CONFIRM_REGISTER_ACTION_DESCRIPTION, language))
+                    .set(MailPlaceholder.ACTION_LINK, confirmationURL)
+                    .set(MailPlaceholder.NOTE_TITLE, I18n.getMessage(I18n.CONFIRM_REGISTER_NOTE_TITLE, language))
+                    .set(MailPlaceholder.NOTE_MESSAGE, I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
+                    .render();
+            this.enqueueEmail(emailContent, emailReceiver, I18n.getMessage(I18n.CONFIRM_REGISTER_MESSAGE_SUBJECT, language));
+        } catch (EmailTemplateNotFoundException | ApplicationBaseException |
                  NullPointerException exception) {
-            log.error("Exception of type: {} was throw while sending account activation e-mail message, due to the exception: {} being thrown. Reason: {}",
-                    exception.getClass().getSimpleName(), exception.getCause().getClass().getSimpleName(), exception.getMessage());
+            log.error("Exception of type: {} was throw while sending account activation e-mail message. Reason: {}",
+                    exception.getClass().getSimpleName(), exception.getMessage(), exception);
         }
     }
 
@@ -102,26 +135,25 @@ public class MailProvider {
      * @param confirmationURL URL used to restore access to the account creation.
      * @param language        Language of the message.
      */
-    @Async
 //    @RolesAllowed({Authorities.RESTORE_ACCOUNT_ACCESS})
     public void sendAccountAccessRestoreEmailMessage(String firstName, String lastName, String emailReceiver, String confirmationURL, String language) {
         try {
-            String logo = this.loadImage("eldorado.png").orElseThrow(() -> new ImageNotFoundException(MailProviderMessages.IMAGE_NOT_FOUND_EXCEPTION));
-            String emailContent = this.loadTemplate("link-template.html").orElseThrow(() -> new EmailTemplateNotFoundException(MailProviderMessages.EMAIL_TEMPLATE_NOT_FOUND_EXCEPTION))
-                    .replace("$firstname", firstName)
-                    .replace("$lastname", lastName)
-                    .replace("$greeting_message", I18n.getMessage(I18n.RESTORE_ACCESS_CODE_GREETING_MESSAGE, language))
-                    .replace("$result_message", I18n.getMessage(I18n.RESTORE_ACCESS_CODE_RESULT_MESSAGE, language))
-                    .replace("$action_description", I18n.getMessage(I18n.RESTORE_ACCESS_CODE_ACTION_DESCRIPTION, language))
-                    .replace("$action_link", confirmationURL)
-                    .replace("$note_title", I18n.getMessage(I18n.RESTORE_ACCESS_CODE_NOTE_TITLE, language))
-                    .replace("$note_message", I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
-                    .replace("$eldorado_logo", "data:image/png;base64," + logo);
-            this.sendEmail(emailContent, emailReceiver, senderEmail, I18n.getMessage(I18n.RESTORE_ACCESS_CODE_MESSAGE_SUBJECT, language));
-        } catch (EmailTemplateNotFoundException | ImageNotFoundException | MessagingException |
+            String emailContent = this.mailTemplateRegistry.getTemplate(MailTemplateType.LINK).orElseThrow(() -> new EmailTemplateNotFoundException(MailProviderMessages.EMAIL_TEMPLATE_NOT_FOUND_EXCEPTION))
+                    .values()
+                    .set(MailPlaceholder.FIRSTNAME, firstName)
+                    .set(MailPlaceholder.LASTNAME, lastName)
+                    .set(MailPlaceholder.GREETING_MESSAGE, I18n.getMessage(I18n.RESTORE_ACCESS_CODE_GREETING_MESSAGE, language))
+                    .set(MailPlaceholder.RESULT_MESSAGE, I18n.getMessage(I18n.RESTORE_ACCESS_CODE_RESULT_MESSAGE, language))
+                    .set(MailPlaceholder.ACTION_DESCRIPTION, I18n.getMessage(I18n.RESTORE_ACCESS_CODE_ACTION_DESCRIPTION, language))
+                    .set(MailPlaceholder.ACTION_LINK, confirmationURL)
+                    .set(MailPlaceholder.NOTE_TITLE, I18n.getMessage(I18n.RESTORE_ACCESS_CODE_NOTE_TITLE, language))
+                    .set(MailPlaceholder.NOTE_MESSAGE, I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
+                    .render();
+            this.enqueueEmail(emailContent, emailReceiver, I18n.getMessage(I18n.RESTORE_ACCESS_CODE_MESSAGE_SUBJECT, language));
+        } catch (EmailTemplateNotFoundException | ApplicationBaseException |
                  NullPointerException exception) {
-            log.error("Exception of type: {} was throw while sending account access restore message, due to the exception: {} being thrown. Reason: {}",
-                    exception.getClass().getSimpleName(), exception.getCause().getClass().getSimpleName(), exception.getMessage());
+            log.error("Exception of type: {} was throw while sending account access restore message. Reason: {}",
+                    exception.getClass().getSimpleName(), exception.getMessage(), exception);
         }
     }
 
@@ -134,25 +166,24 @@ public class MailProvider {
      * @param emailReceiver E-mail address to which the message will be sent.
      * @param language      Language of the message.
      */
-    @Async
 //    @RolesAllowed({Authorities.RESTORE_ACCOUNT_ACCESS})
     public void sendAccountAccessRestoreInfoEmail(String firstName, String lastName, String emailReceiver, String language) {
         try {
-            String logo = this.loadImage("eldorado.png").orElseThrow(() -> new ImageNotFoundException(MailProviderMessages.IMAGE_NOT_FOUND_EXCEPTION));
-            String emailContent = this.loadTemplate("default-template.html").orElseThrow(() -> new EmailTemplateNotFoundException(MailProviderMessages.EMAIL_TEMPLATE_NOT_FOUND_EXCEPTION))
-                    .replace("$firstname", firstName)
-                    .replace("$lastname", lastName)
-                    .replace("$greeting_message", I18n.getMessage(I18n.RESTORE_ACCESS_CONFIRM_GREETING_MESSAGE, language))
-                    .replace("$result_message", I18n.getMessage(I18n.RESTORE_ACCESS_CONFIRM_RESULT_MESSAGE, language))
-                    .replace("$action_description", I18n.getMessage(I18n.RESTORE_ACCESS_CONFIRM_ACTION_DESCRIPTION, language))
-                    .replace("$note_title", I18n.getMessage(I18n.RESTORE_ACCESS_CONFIRM_NOTE_TITLE, language))
-                    .replace("$note_message", I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
-                    .replace("$eldorado_logo", "data:image/png;base64," + logo);
-            this.sendEmail(emailContent, emailReceiver, senderEmail, I18n.getMessage(I18n.RESTORE_ACCESS_CONFIRM_MESSAGE_SUBJECT, language));
-        } catch (EmailTemplateNotFoundException | ImageNotFoundException | MessagingException |
+            String emailContent = this.mailTemplateRegistry.getTemplate(MailTemplateType.DEFAULT).orElseThrow(() -> new EmailTemplateNotFoundException(MailProviderMessages.EMAIL_TEMPLATE_NOT_FOUND_EXCEPTION))
+                    .values()
+                    .set(MailPlaceholder.FIRSTNAME, firstName)
+                    .set(MailPlaceholder.LASTNAME, lastName)
+                    .set(MailPlaceholder.GREETING_MESSAGE, I18n.getMessage(I18n.RESTORE_ACCESS_CONFIRM_GREETING_MESSAGE, language))
+                    .set(MailPlaceholder.RESULT_MESSAGE, I18n.getMessage(I18n.RESTORE_ACCESS_CONFIRM_RESULT_MESSAGE, language))
+                    .set(MailPlaceholder.ACTION_DESCRIPTION, I18n.getMessage(I18n.RESTORE_ACCESS_CONFIRM_ACTION_DESCRIPTION, language))
+                    .set(MailPlaceholder.NOTE_TITLE, I18n.getMessage(I18n.RESTORE_ACCESS_CONFIRM_NOTE_TITLE, language))
+                    .set(MailPlaceholder.NOTE_MESSAGE, I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
+                    .render();
+            this.enqueueEmail(emailContent, emailReceiver, I18n.getMessage(I18n.RESTORE_ACCESS_CONFIRM_MESSAGE_SUBJECT, language));
+        } catch (EmailTemplateNotFoundException | ApplicationBaseException |
                  NullPointerException exception) {
-            log.error("Exception of type: {} was throw while sending account access restore e-mail message, due to the exception: {} being thrown. Reason: {}",
-                    exception.getClass().getSimpleName(), exception.getCause().getClass().getSimpleName(), exception.getMessage());
+            log.error("Exception of type: {} was throw while sending account access restore e-mail message. Reason: {}",
+                    exception.getClass().getSimpleName(), exception.getMessage(), exception);
         }
     }
 
@@ -164,27 +195,26 @@ public class MailProvider {
      * @param emailReceiver E-mail address to which the message will be sent.
      * @param language      Language of the message.
      */
-    @Async
 //    @RolesAllowed({Authorities.BLOCK_ACCOUNT, Authorities.LOGIN})
     public void sendBlockAccountInfoEmail(String firstName, String lastName, String emailReceiver, String language, boolean adminLock) {
         try {
-            String logo = this.loadImage("eldorado.png").orElseThrow(() -> new ImageNotFoundException(MailProviderMessages.IMAGE_NOT_FOUND_EXCEPTION));
-            String emailContent = this.loadTemplate("default-template.html").orElseThrow(() -> new EmailTemplateNotFoundException(MailProviderMessages.EMAIL_TEMPLATE_NOT_FOUND_EXCEPTION))
-                    .replace("$firstname", firstName)
-                    .replace("$lastname", lastName)
-                    .replace("$greeting_message", I18n.getMessage(I18n.BLOCK_ACCOUNT_GREETING_MESSAGE, language))
-                    .replace("$result_message",
+            String emailContent = this.mailTemplateRegistry.getTemplate(MailTemplateType.DEFAULT).orElseThrow(() -> new EmailTemplateNotFoundException(MailProviderMessages.EMAIL_TEMPLATE_NOT_FOUND_EXCEPTION))
+                    .values()
+                    .set(MailPlaceholder.FIRSTNAME, firstName)
+                    .set(MailPlaceholder.LASTNAME, lastName)
+                    .set(MailPlaceholder.GREETING_MESSAGE, I18n.getMessage(I18n.BLOCK_ACCOUNT_GREETING_MESSAGE, language))
+                    .set(MailPlaceholder.RESULT_MESSAGE,
                             I18n.getMessage(adminLock ? I18n.BLOCK_ACCOUNT_RESULT_MESSAGE_ADMIN : I18n.BLOCK_ACCOUNT_RESULT_MESSAGE_AUTO, language))
-                    .replace("$action_description",
+                    .set(MailPlaceholder.ACTION_DESCRIPTION,
                             I18n.getMessage(adminLock ? I18n.BLOCK_ACCOUNT_ACTION_DESCRIPTION_ADMIN : I18n.BLOCK_ACCOUNT_ACTION_DESCRIPTION_AUTO, language))
-                    .replace("$note_title", I18n.getMessage(I18n.BLOCK_ACCOUNT_NOTE_TITLE, language))
-                    .replace("$note_message", I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
-                    .replace("$eldorado_logo", "data:image/png;base64," + logo);
-            this.sendEmail(emailContent, emailReceiver, senderEmail, I18n.getMessage(I18n.BLOCK_ACCOUNT_MESSAGE_SUBJECT, language));
-        } catch (EmailTemplateNotFoundException | ImageNotFoundException | MessagingException |
+                    .set(MailPlaceholder.NOTE_TITLE, I18n.getMessage(I18n.BLOCK_ACCOUNT_NOTE_TITLE, language))
+                    .set(MailPlaceholder.NOTE_MESSAGE, I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
+                    .render();
+            this.enqueueEmail(emailContent, emailReceiver, I18n.getMessage(I18n.BLOCK_ACCOUNT_MESSAGE_SUBJECT, language));
+        } catch (EmailTemplateNotFoundException | ApplicationBaseException |
                  NullPointerException exception) {
-            log.error("Exception of type: {} was throw while sending account block e-mail message, due to the exception: {} being thrown. Reason: {}",
-                    exception.getClass().getSimpleName(), exception.getCause().getClass().getSimpleName(), exception.getMessage());
+            log.error("Exception of type: {} was throw while sending account block e-mail message. Reason: {}",
+                    exception.getClass().getSimpleName(), exception.getMessage(), exception);
         }
     }
 
@@ -196,25 +226,24 @@ public class MailProvider {
      * @param emailReceiver E-mail address to which the message will be sent.
      * @param language      Language of the message.
      */
-    @Async
 //    @RolesAllowed({Authorities.UNBLOCK_ACCOUNT})
     public void sendUnblockAccountInfoEmail(String firstName, String lastName, String emailReceiver, String language) {
         try {
-            String logo = this.loadImage("eldorado.png").orElseThrow(() -> new ImageNotFoundException("Given image could not be found!"));
-            String emailContent = this.loadTemplate("default-template.html").orElseThrow(() -> new EmailTemplateNotFoundException("Given email template not found!"))
-                    .replace("$firstname", firstName)
-                    .replace("$lastname", lastName)
-                    .replace("$greeting_message", I18n.getMessage(I18n.UNBLOCK_ACCOUNT_GREETING_MESSAGE, language))
-                    .replace("$result_message", I18n.getMessage(I18n.UNBLOCK_ACCOUNT_RESULT_MESSAGE, language))
-                    .replace("$action_description", I18n.getMessage(I18n.UNBLOCK_ACCOUNT_ACTION_DESCRIPTION, language))
-                    .replace("$note_title", I18n.getMessage(I18n.UNBLOCK_ACCOUNT_NOTE_TITLE, language))
-                    .replace("$note_message", I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
-                    .replace("$eldorado_logo", "data:image/png;base64," + logo);
-            this.sendEmail(emailContent, emailReceiver, senderEmail, I18n.getMessage(I18n.UNBLOCK_ACCOUNT_MESSAGE_SUBJECT, language));
-        } catch (EmailTemplateNotFoundException | ImageNotFoundException | MessagingException |
+            String emailContent = this.mailTemplateRegistry.getTemplate(MailTemplateType.DEFAULT).orElseThrow(() -> new EmailTemplateNotFoundException("Given email template not found!"))
+                    .values()
+                    .set(MailPlaceholder.FIRSTNAME, firstName)
+                    .set(MailPlaceholder.LASTNAME, lastName)
+                    .set(MailPlaceholder.GREETING_MESSAGE, I18n.getMessage(I18n.UNBLOCK_ACCOUNT_GREETING_MESSAGE, language))
+                    .set(MailPlaceholder.RESULT_MESSAGE, I18n.getMessage(I18n.UNBLOCK_ACCOUNT_RESULT_MESSAGE, language))
+                    .set(MailPlaceholder.ACTION_DESCRIPTION, I18n.getMessage(I18n.UNBLOCK_ACCOUNT_ACTION_DESCRIPTION, language))
+                    .set(MailPlaceholder.NOTE_TITLE, I18n.getMessage(I18n.UNBLOCK_ACCOUNT_NOTE_TITLE, language))
+                    .set(MailPlaceholder.NOTE_MESSAGE, I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
+                    .render();
+            this.enqueueEmail(emailContent, emailReceiver, I18n.getMessage(I18n.UNBLOCK_ACCOUNT_MESSAGE_SUBJECT, language));
+        } catch (EmailTemplateNotFoundException | ApplicationBaseException |
                  NullPointerException exception) {
-            log.error("Exception of type: {} was throw while sending account unblock e-mail message, due to the exception: {} being thrown. Reason: {}",
-                    exception.getClass().getSimpleName(), exception.getCause().getClass().getSimpleName(), exception.getMessage());
+            log.error("Exception of type: {} was throw while sending account unblock e-mail message. Reason: {}",
+                    exception.getClass().getSimpleName(), exception.getMessage(), exception);
         }
     }
 
@@ -226,25 +255,24 @@ public class MailProvider {
      * @param emailReceiver E-mail address to which the message will be sent.
      * @param language      Language of the message.
      */
-    @Async
 //    @RolesAllowed({Authorities.REMOVE_ACCOUNT})
     public void sendRemoveAccountInfoEmail(String firstName, String lastName, String emailReceiver, String language) {
         try {
-            String logo = this.loadImage("eldorado.png").orElseThrow(() -> new ImageNotFoundException("Given image could not be found!"));
-            String emailContent = this.loadTemplate("default-template.html").orElseThrow(() -> new EmailTemplateNotFoundException("Given email template not found!"))
-                    .replace("$firstname", firstName)
-                    .replace("$lastname", lastName)
-                    .replace("$greeting_message", I18n.getMessage(I18n.REMOVE_ACCOUNT_GREETING_MESSAGE, language))
-                    .replace("$result_message", I18n.getMessage(I18n.REMOVE_ACCOUNT_RESULT_MESSAGE, language))
-                    .replace("$action_description", I18n.getMessage(I18n.REMOVE_ACCOUNT_ACTION_DESCRIPTION, language))
-                    .replace("$note_title", I18n.getMessage(I18n.REMOVE_ACCOUNT_NOTE_TITLE, language))
-                    .replace("$note_message", I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
-                    .replace("$eldorado_logo", "data:image/png;base64," + logo);
-            this.sendEmail(emailContent, emailReceiver, senderEmail, I18n.getMessage(I18n.REMOVE_ACCOUNT_MESSAGE_SUBJECT, language));
-        } catch (EmailTemplateNotFoundException | ImageNotFoundException | MessagingException |
+            String emailContent = this.mailTemplateRegistry.getTemplate(MailTemplateType.DEFAULT).orElseThrow(() -> new EmailTemplateNotFoundException("Given email template not found!"))
+                    .values()
+                    .set(MailPlaceholder.FIRSTNAME, firstName)
+                    .set(MailPlaceholder.LASTNAME, lastName)
+                    .set(MailPlaceholder.GREETING_MESSAGE, I18n.getMessage(I18n.REMOVE_ACCOUNT_GREETING_MESSAGE, language))
+                    .set(MailPlaceholder.RESULT_MESSAGE, I18n.getMessage(I18n.REMOVE_ACCOUNT_RESULT_MESSAGE, language))
+                    .set(MailPlaceholder.ACTION_DESCRIPTION, I18n.getMessage(I18n.REMOVE_ACCOUNT_ACTION_DESCRIPTION, language))
+                    .set(MailPlaceholder.NOTE_TITLE, I18n.getMessage(I18n.REMOVE_ACCOUNT_NOTE_TITLE, language))
+                    .set(MailPlaceholder.NOTE_MESSAGE, I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
+                    .render();
+            this.enqueueEmail(emailContent, emailReceiver, I18n.getMessage(I18n.REMOVE_ACCOUNT_MESSAGE_SUBJECT, language));
+        } catch (EmailTemplateNotFoundException | ApplicationBaseException |
                  NullPointerException exception) {
-            log.error("Exception of type: {} was throw while sending remove access level e-mail message, due to the exception: {} being thrown. Reason: {}",
-                    exception.getClass().getSimpleName(), exception.getCause().getClass().getSimpleName(), exception.getMessage());
+            log.error("Exception of type: {} was throw while sending remove access level e-mail message. Reason: {}",
+                    exception.getClass().getSimpleName(), exception.getMessage(), exception);
         }
     }
 
@@ -256,25 +284,24 @@ public class MailProvider {
      * @param emailReceiver E-mail address to which the message will be sent.
      * @param language      Language of the message.
      */
-    @Async
 //    @RolesAllowed({Authorities.BLOCK_ACCOUNT})
     public void sendSuspendAccountInfoEmail(String firstName, String lastName, String emailReceiver, String language) {
         try {
-            String logo = this.loadImage("eldorado.png").orElseThrow(() -> new ImageNotFoundException("Given image could not be found!"));
-            String emailContent = this.loadTemplate("default-template.html").orElseThrow(() -> new EmailTemplateNotFoundException("Given email template not found!"))
-                    .replace("$firstname", firstName)
-                    .replace("$lastname", lastName)
-                    .replace("$greeting_message", I18n.getMessage(I18n.SUSPEND_ACCOUNT_GREETING_MESSAGE, language))
-                    .replace("$result_message", I18n.getMessage(I18n.SUSPEND_ACCOUNT_RESULT_MESSAGE, language))
-                    .replace("$action_description", I18n.getMessage(I18n.SUSPEND_ACCOUNT_ACTION_DESCRIPTION, language))
-                    .replace("$note_title", I18n.getMessage(I18n.SUSPEND_ACCOUNT_NOTE_TITLE, language))
-                    .replace("$note_message", I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
-                    .replace("$eldorado_logo", "data:image/png;base64," + logo);
-            this.sendEmail(emailContent, emailReceiver, senderEmail, I18n.getMessage(I18n.SUSPEND_ACCOUNT_MESSAGE_SUBJECT, language));
-        } catch (EmailTemplateNotFoundException | ImageNotFoundException | MessagingException |
+            String emailContent = this.mailTemplateRegistry.getTemplate(MailTemplateType.DEFAULT).orElseThrow(() -> new EmailTemplateNotFoundException("Given email template not found!"))
+                    .values()
+                    .set(MailPlaceholder.FIRSTNAME, firstName)
+                    .set(MailPlaceholder.LASTNAME, lastName)
+                    .set(MailPlaceholder.GREETING_MESSAGE, I18n.getMessage(I18n.SUSPEND_ACCOUNT_GREETING_MESSAGE, language))
+                    .set(MailPlaceholder.RESULT_MESSAGE, I18n.getMessage(I18n.SUSPEND_ACCOUNT_RESULT_MESSAGE, language))
+                    .set(MailPlaceholder.ACTION_DESCRIPTION, I18n.getMessage(I18n.SUSPEND_ACCOUNT_ACTION_DESCRIPTION, language))
+                    .set(MailPlaceholder.NOTE_TITLE, I18n.getMessage(I18n.SUSPEND_ACCOUNT_NOTE_TITLE, language))
+                    .set(MailPlaceholder.NOTE_MESSAGE, I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
+                    .render();
+            this.enqueueEmail(emailContent, emailReceiver, I18n.getMessage(I18n.SUSPEND_ACCOUNT_MESSAGE_SUBJECT, language));
+        } catch (EmailTemplateNotFoundException | ApplicationBaseException |
                  NullPointerException exception) {
-            log.error("Exception of type: {} was throw while sending account suspension e-mail message, due to the exception: {} being thrown. Reason: {}",
-                    exception.getClass().getSimpleName(), exception.getCause().getClass().getSimpleName(), exception.getMessage());
+            log.error("Exception of type: {} was throw while sending account suspension e-mail message. Reason: {}",
+                    exception.getClass().getSimpleName(), exception.getMessage(), exception);
         }
     }
 
@@ -287,26 +314,25 @@ public class MailProvider {
      * @param confirmationURL URL used to confirm the e-mail address.
      * @param language        Language of the message.
      */
-    @Async
 //    @RolesAllowed({Authorities.CHANGE_USER_MAIL, Authorities.CHANGE_OWN_MAIL, Authorities.RESEND_EMAIL_CONFIRMATION_MAIL})
     public void sendEmailConfirmEmail(String firstName, String lastName, String emailReceiver, String confirmationURL, String language) {
         try {
-            String logo = this.loadImage("eldorado.png").orElseThrow(() -> new ImageNotFoundException(MailProviderMessages.IMAGE_NOT_FOUND_EXCEPTION));
-            String emailContent = this.loadTemplate("link-template.html").orElseThrow(() -> new EmailTemplateNotFoundException(MailProviderMessages.EMAIL_TEMPLATE_NOT_FOUND_EXCEPTION))
-                    .replace("$firstname", firstName)
-                    .replace("$lastname", lastName)
-                    .replace("$greeting_message", I18n.getMessage(I18n.CONFIRM_EMAIL_GREETING_MESSAGE, language))
-                    .replace("$result_message", I18n.getMessage(I18n.CONFIRM_EMAIL_RESULT_MESSAGE, language))
-                    .replace("$action_description", I18n.getMessage(I18n.CONFIRM_EMAIL_ACTION_DESCRIPTION, language))
-                    .replace("$action_link", confirmationURL)
-                    .replace("$note_title", I18n.getMessage(I18n.CONFIRM_EMAIL_NOTE_TITLE, language))
-                    .replace("$note_message", I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
-                    .replace("$eldorado_logo", "data:image/png;base64," + logo);
-            this.sendEmail(emailContent, emailReceiver, senderEmail, I18n.getMessage(I18n.CONFIRM_EMAIL_MESSAGE_SUBJECT, language));
-        } catch (EmailTemplateNotFoundException | ImageNotFoundException | MessagingException |
+            String emailContent = this.mailTemplateRegistry.getTemplate(MailTemplateType.LINK).orElseThrow(() -> new EmailTemplateNotFoundException(MailProviderMessages.EMAIL_TEMPLATE_NOT_FOUND_EXCEPTION))
+                    .values()
+                    .set(MailPlaceholder.FIRSTNAME, firstName)
+                    .set(MailPlaceholder.LASTNAME, lastName)
+                    .set(MailPlaceholder.GREETING_MESSAGE, I18n.getMessage(I18n.CONFIRM_EMAIL_GREETING_MESSAGE, language))
+                    .set(MailPlaceholder.RESULT_MESSAGE, I18n.getMessage(I18n.CONFIRM_EMAIL_RESULT_MESSAGE, language))
+                    .set(MailPlaceholder.ACTION_DESCRIPTION, I18n.getMessage(I18n.CONFIRM_EMAIL_ACTION_DESCRIPTION, language))
+                    .set(MailPlaceholder.ACTION_LINK, confirmationURL)
+                    .set(MailPlaceholder.NOTE_TITLE, I18n.getMessage(I18n.CONFIRM_EMAIL_NOTE_TITLE, language))
+                    .set(MailPlaceholder.NOTE_MESSAGE, I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
+                    .render();
+            this.enqueueEmail(emailContent, emailReceiver, I18n.getMessage(I18n.CONFIRM_EMAIL_MESSAGE_SUBJECT, language));
+        } catch (EmailTemplateNotFoundException | ApplicationBaseException |
                  NullPointerException exception) {
-            log.error("Exception of type: {} was throw while sending e-mail change confirmation message, due to the exception: {} being thrown. Reason: {}",
-                    exception.getClass().getSimpleName(), exception.getCause().getClass().getSimpleName(), exception.getMessage());
+            log.error("Exception of type: {} was throw while sending e-mail change confirmation message. Reason: {}",
+                    exception.getClass().getSimpleName(), exception.getMessage(), exception);
         }
     }
 
@@ -320,26 +346,25 @@ public class MailProvider {
      * @param confirmationURL URL used to confirm the account creation.
      * @param language        Language of the message.
      */
-    @Async
 //    @RolesAllowed({Authorities.RESET_PASSWORD, Authorities.CHANGE_USER_PASSWORD})
     public void sendPasswordResetEmail(String firstName, String lastName, String emailReceiver, String confirmationURL, String language) {
         try {
-            String logo = this.loadImage("eldorado.png").orElseThrow(() -> new ImageNotFoundException(MailProviderMessages.IMAGE_NOT_FOUND_EXCEPTION));
-            String emailContent = this.loadTemplate("link-template.html").orElseThrow(() -> new EmailTemplateNotFoundException(MailProviderMessages.EMAIL_TEMPLATE_NOT_FOUND_EXCEPTION))
-                    .replace("$firstname", firstName)
-                    .replace("$lastname", lastName)
-                    .replace("$greeting_message", I18n.getMessage(I18n.PASSWORD_RESET_GREETING_MESSAGE, language))
-                    .replace("$result_message", I18n.getMessage(I18n.PASSWORD_RESET_RESULT_MESSAGE, language))
-                    .replace("$action_description", I18n.getMessage(I18n.PASSWORD_RESET_ACTION_DESCRIPTION, language))
-                    .replace("$action_link", confirmationURL)
-                    .replace("$note_title", I18n.getMessage(I18n.PASSWORD_RESET_NOTE_TITLE, language))
-                    .replace("$note_message", I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
-                    .replace("$eldorado_logo", "data:image/png;base64," + logo);
-            this.sendEmail(emailContent, emailReceiver, senderEmail, I18n.getMessage(I18n.PASSWORD_RESET_MESSAGE_SUBJECT, language));
-        } catch (EmailTemplateNotFoundException | ImageNotFoundException | MessagingException |
+            String emailContent = this.mailTemplateRegistry.getTemplate(MailTemplateType.LINK).orElseThrow(() -> new EmailTemplateNotFoundException(MailProviderMessages.EMAIL_TEMPLATE_NOT_FOUND_EXCEPTION))
+                    .values()
+                    .set(MailPlaceholder.FIRSTNAME, firstName)
+                    .set(MailPlaceholder.LASTNAME, lastName)
+                    .set(MailPlaceholder.GREETING_MESSAGE, I18n.getMessage(I18n.PASSWORD_RESET_GREETING_MESSAGE, language))
+                    .set(MailPlaceholder.RESULT_MESSAGE, I18n.getMessage(I18n.PASSWORD_RESET_RESULT_MESSAGE, language))
+                    .set(MailPlaceholder.ACTION_DESCRIPTION, I18n.getMessage(I18n.PASSWORD_RESET_ACTION_DESCRIPTION, language))
+                    .set(MailPlaceholder.ACTION_LINK, confirmationURL)
+                    .set(MailPlaceholder.NOTE_TITLE, I18n.getMessage(I18n.PASSWORD_RESET_NOTE_TITLE, language))
+                    .set(MailPlaceholder.NOTE_MESSAGE, I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
+                    .render();
+            this.enqueueEmail(emailContent, emailReceiver, I18n.getMessage(I18n.PASSWORD_RESET_MESSAGE_SUBJECT, language));
+        } catch (EmailTemplateNotFoundException | ApplicationBaseException |
                  NullPointerException exception) {
-            log.error("Exception of type: {} was throw while sending password reset e-mail message, due to the exception: {} being thrown. Reason: {}",
-                    exception.getClass().getSimpleName(), exception.getCause().getClass().getSimpleName(), exception.getMessage());
+            log.error("Exception of type: {} was throw while sending password reset e-mail message. Reason: {}",
+                    exception.getClass().getSimpleName(), exception.getMessage(), exception);
         }
     }
 
@@ -353,26 +378,25 @@ public class MailProvider {
      * @param emailReceiver E-mail address to which the message will be sent.
      * @param language      Language of the message.
      */
-    @Async
 //    @RolesAllowed({Authorities.LOGIN})
     public void sendTwoFactorAuthCode(String firstName, String lastName, String authCode, String emailReceiver, String language) {
         try {
-            String logo = this.loadImage("eldorado.png").orElseThrow(() -> new ImageNotFoundException(MailProviderMessages.IMAGE_NOT_FOUND_EXCEPTION));
-            String emailContent = this.loadTemplate("code-template.html").orElseThrow(() -> new EmailTemplateNotFoundException(MailProviderMessages.EMAIL_TEMPLATE_NOT_FOUND_EXCEPTION))
-                    .replace("$firstname", firstName)
-                    .replace("$lastname", lastName)
-                    .replace("$greeting_message", I18n.getMessage(I18n.LOGIN_AUTHENTICATION_CODE_GREETING_MESSAGE, language))
-                    .replace("$result_message", I18n.getMessage(I18n.LOGIN_AUTHENTICATION_CODE_RESULT_MESSAGE, language))
-                    .replace("$action_description", I18n.getMessage(I18n.LOGIN_AUTHENTICATION_CODE_ACTION_DESCRIPTION, language))
-                    .replace("$code", authCode)
-                    .replace("$note_title", I18n.getMessage(I18n.LOGIN_AUTHENTICATION_CODE_NOTE_TITLE, language))
-                    .replace("$note_message", I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
-                    .replace("$eldorado_logo", "data:image/png;base64," + logo);
-            this.sendEmail(emailContent, emailReceiver, senderEmail, I18n.getMessage(I18n.LOGIN_AUTHENTICATION_CODE_MESSAGE_SUBJECT, language));
-        } catch (EmailTemplateNotFoundException | ImageNotFoundException | MessagingException |
+            String emailContent = this.mailTemplateRegistry.getTemplate(MailTemplateType.CODE).orElseThrow(() -> new EmailTemplateNotFoundException(MailProviderMessages.EMAIL_TEMPLATE_NOT_FOUND_EXCEPTION))
+                    .values()
+                    .set(MailPlaceholder.FIRSTNAME, firstName)
+                    .set(MailPlaceholder.LASTNAME, lastName)
+                    .set(MailPlaceholder.GREETING_MESSAGE, I18n.getMessage(I18n.LOGIN_AUTHENTICATION_CODE_GREETING_MESSAGE, language))
+                    .set(MailPlaceholder.RESULT_MESSAGE, I18n.getMessage(I18n.LOGIN_AUTHENTICATION_CODE_RESULT_MESSAGE, language))
+                    .set(MailPlaceholder.ACTION_DESCRIPTION, I18n.getMessage(I18n.LOGIN_AUTHENTICATION_CODE_ACTION_DESCRIPTION, language))
+                    .set(MailPlaceholder.CODE, authCode)
+                    .set(MailPlaceholder.NOTE_TITLE, I18n.getMessage(I18n.LOGIN_AUTHENTICATION_CODE_NOTE_TITLE, language))
+                    .set(MailPlaceholder.NOTE_MESSAGE, I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
+                    .render();
+            this.enqueueEmail(emailContent, emailReceiver, I18n.getMessage(I18n.LOGIN_AUTHENTICATION_CODE_MESSAGE_SUBJECT, language));
+        } catch (EmailTemplateNotFoundException | ApplicationBaseException |
                  NullPointerException exception) {
-            log.error("Exception of type: {} was throw while sending two factor auth code e-mail message, due to the exception: {} being thrown. Reason: {}",
-                    exception.getClass().getSimpleName(), exception.getCause().getClass().getSimpleName(), exception.getMessage());
+            log.error("Exception of type: {} was throw while sending two factor auth code e-mail message. Reason: {}",
+                    exception.getClass().getSimpleName(), exception.getMessage(), exception);
         }
     }
 
@@ -384,25 +408,24 @@ public class MailProvider {
      * @param emailReceiver E-mail address to which the message will be sent.
      * @param language      Language of the message.
      */
-    @Async
 //    @RolesAllowed({Authorities.CONFIRM_ACCOUNT_CREATION})
     public void sendActivationConfirmationEmail(String firstName, String lastName, String emailReceiver, String language) {
         try {
-            String logo = this.loadImage("eldorado.png").orElseThrow(() -> new ImageNotFoundException(MailProviderMessages.IMAGE_NOT_FOUND_EXCEPTION));
-            String emailContent = this.loadTemplate("default-template.html").orElseThrow(() -> new EmailTemplateNotFoundException(MailProviderMessages.EMAIL_TEMPLATE_NOT_FOUND_EXCEPTION))
-                    .replace("$firstname", firstName)
-                    .replace("$lastname", lastName)
-                    .replace("$greeting_message", I18n.getMessage(I18n.CONFIRM_ACCOUNT_ACTIVATION_GREETING_MESSAGE, language))
-                    .replace("$result_message", I18n.getMessage(I18n.CONFIRM_ACCOUNT_ACTIVATION_RESULT_MESSAGE, language))
-                    .replace("$action_description", I18n.getMessage(I18n.CONFIRM_ACCOUNT_ACTIVATION_ACTION_DESCRIPTION, language))
-                    .replace("$note_title", I18n.getMessage(I18n.CONFIRM_ACCOUNT_ACTIVATION_NOTE_TITLE, language))
-                    .replace("$note_message", I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
-                    .replace("$eldorado_logo", "data:image/png;base64," + logo);
-            this.sendEmail(emailContent, emailReceiver, senderEmail, I18n.getMessage(I18n.CONFIRM_ACCOUNT_ACTIVATION_MESSAGE_SUBJECT, language));
-        } catch (EmailTemplateNotFoundException | ImageNotFoundException | MessagingException |
+            String emailContent = this.mailTemplateRegistry.getTemplate(MailTemplateType.DEFAULT).orElseThrow(() -> new EmailTemplateNotFoundException(MailProviderMessages.EMAIL_TEMPLATE_NOT_FOUND_EXCEPTION))
+                    .values()
+                    .set(MailPlaceholder.FIRSTNAME, firstName)
+                    .set(MailPlaceholder.LASTNAME, lastName)
+                    .set(MailPlaceholder.GREETING_MESSAGE, I18n.getMessage(I18n.CONFIRM_ACCOUNT_ACTIVATION_GREETING_MESSAGE, language))
+                    .set(MailPlaceholder.RESULT_MESSAGE, I18n.getMessage(I18n.CONFIRM_ACCOUNT_ACTIVATION_RESULT_MESSAGE, language))
+                    .set(MailPlaceholder.ACTION_DESCRIPTION, I18n.getMessage(I18n.CONFIRM_ACCOUNT_ACTIVATION_ACTION_DESCRIPTION, language))
+                    .set(MailPlaceholder.NOTE_TITLE, I18n.getMessage(I18n.CONFIRM_ACCOUNT_ACTIVATION_NOTE_TITLE, language))
+                    .set(MailPlaceholder.NOTE_MESSAGE, I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
+                    .render();
+            this.enqueueEmail(emailContent, emailReceiver, I18n.getMessage(I18n.CONFIRM_ACCOUNT_ACTIVATION_MESSAGE_SUBJECT, language));
+        } catch (EmailTemplateNotFoundException | ApplicationBaseException |
                  NullPointerException exception) {
-            log.error("Exception of type: {} was throw while sending successful account activation e-mail message, due to the exception: {} being thrown. Reason: {}",
-                    exception.getClass().getSimpleName(), exception.getCause().getClass().getSimpleName(), exception.getMessage());
+            log.error("Exception of type: {} was throw while sending successful account activation e-mail message. Reason: {}",
+                    exception.getClass().getSimpleName(), exception.getMessage(), exception);
         }
     }
 
@@ -415,26 +438,25 @@ public class MailProvider {
      * @param userLevel     Internationalization key indicating the user level that was granted to the user account.
      * @param language      Language of the message.
      */
-    @Async
 //    @RolesAllowed({Authorities.ADD_USER_LEVEL})
     public void sendEmailNotificationAboutGrantedUserLevel(String firstName, String lastName, String emailReceiver, String userLevel, String language) {
         try {
-            String logo = this.loadImage("eldorado.png").orElseThrow(() -> new ImageNotFoundException(MailProviderMessages.IMAGE_NOT_FOUND_EXCEPTION));
-            String emailContent = this.loadTemplate("default-template.html").orElseThrow(() -> new EmailTemplateNotFoundException(MailProviderMessages.EMAIL_TEMPLATE_NOT_FOUND_EXCEPTION))
-                    .replace("$firstname", firstName)
-                    .replace("$lastname", lastName)
-                    .replace("$greeting_message", I18n.getMessage(I18n.ACCESS_LEVEL_GRANTED_GREETING_MESSAGE, language))
-                    .replace("$result_message", I18n.getMessage(I18n.ACCESS_LEVEL_GRANTED_RESULT_MESSAGE, language))
-                    .replace("$USER_LEVEL", I18n.getMessage(userLevel, language))
-                    .replace("$action_description", I18n.getMessage(I18n.ACCESS_LEVEL_GRANTED_ACTION_DESCRIPTION, language))
-                    .replace("$note_title", I18n.getMessage(I18n.ACCESS_LEVEL_GRANTED_NOTE_TITLE, language))
-                    .replace("$note_message", I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
-                    .replace("$eldorado_logo", "data:image/png;base64," + logo);
-            this.sendEmail(emailContent, emailReceiver, senderEmail, I18n.getMessage(I18n.ACCESS_LEVEL_GRANTED_MESSAGE_SUBJECT, language));
-        } catch (EmailTemplateNotFoundException | ImageNotFoundException | MessagingException |
+            String emailContent = this.mailTemplateRegistry.getTemplate(MailTemplateType.DEFAULT).orElseThrow(() -> new EmailTemplateNotFoundException(MailProviderMessages.EMAIL_TEMPLATE_NOT_FOUND_EXCEPTION))
+                    .values()
+                    .set(MailPlaceholder.FIRSTNAME, firstName)
+                    .set(MailPlaceholder.LASTNAME, lastName)
+                    .set(MailPlaceholder.GREETING_MESSAGE, I18n.getMessage(I18n.ACCESS_LEVEL_GRANTED_GREETING_MESSAGE, language))
+                    .set(MailPlaceholder.RESULT_MESSAGE, I18n.getMessage(I18n.ACCESS_LEVEL_GRANTED_RESULT_MESSAGE, language)
+                            .replace("$USER_LEVEL", I18n.getMessage(userLevel, language)))
+                    .set(MailPlaceholder.ACTION_DESCRIPTION, I18n.getMessage(I18n.ACCESS_LEVEL_GRANTED_ACTION_DESCRIPTION, language))
+                    .set(MailPlaceholder.NOTE_TITLE, I18n.getMessage(I18n.ACCESS_LEVEL_GRANTED_NOTE_TITLE, language))
+                    .set(MailPlaceholder.NOTE_MESSAGE, I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
+                    .render();
+            this.enqueueEmail(emailContent, emailReceiver, I18n.getMessage(I18n.ACCESS_LEVEL_GRANTED_MESSAGE_SUBJECT, language));
+        } catch (EmailTemplateNotFoundException | ApplicationBaseException |
                  NullPointerException exception) {
-            log.error("Exception of type: {} was throw while sending e-mail notification message about granted user level, due to the exception: {} being thrown. Reason: {}",
-                    exception.getClass().getSimpleName(), exception.getCause().getClass().getSimpleName(), exception.getMessage());
+            log.error("Exception of type: {} was throw while sending e-mail notification message about granted user level. Reason: {}",
+                    exception.getClass().getSimpleName(), exception.getMessage(), exception);
         }
     }
 
@@ -447,26 +469,25 @@ public class MailProvider {
      * @param userLevel     Internationalization key indicating the user level connected to the account that was revoked.
      * @param language      Language of the message.
      */
-    @Async
 //    @RolesAllowed({Authorities.REMOVE_USER_LEVEL})
     public void sendEmailNotificationAboutRevokedUserLevel(String firstName, String lastName, String emailReceiver, String userLevel, String language) {
         try {
-            String logo = this.loadImage("eldorado.png").orElseThrow(() -> new ImageNotFoundException(MailProviderMessages.IMAGE_NOT_FOUND_EXCEPTION));
-            String emailContent = this.loadTemplate("default-template.html").orElseThrow(() -> new EmailTemplateNotFoundException(MailProviderMessages.EMAIL_TEMPLATE_NOT_FOUND_EXCEPTION))
-                    .replace("$firstname", firstName)
-                    .replace("$lastname", lastName)
-                    .replace("$greeting_message", I18n.getMessage(I18n.ACCESS_LEVEL_REVOKED_GREETING_MESSAGE, language))
-                    .replace("$result_message", I18n.getMessage(I18n.ACCESS_LEVEL_REVOKED_RESULT_MESSAGE, language))
-                    .replace("$USER_LEVEL", I18n.getMessage(userLevel, language))
-                    .replace("$action_description", I18n.getMessage(I18n.ACCESS_LEVEL_REVOKED_ACTION_DESCRIPTION, language))
-                    .replace("$note_title", I18n.getMessage(I18n.ACCESS_LEVEL_REVOKED_NOTE_TITLE, language))
-                    .replace("$note_message", I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
-                    .replace("$eldorado_logo", "data:image/png;base64," + logo);
-            this.sendEmail(emailContent, emailReceiver, senderEmail, I18n.getMessage(I18n.ACCESS_LEVEL_REVOKED_MESSAGE_SUBJECT, language));
-        } catch (EmailTemplateNotFoundException | ImageNotFoundException | MessagingException |
+            String emailContent = this.mailTemplateRegistry.getTemplate(MailTemplateType.DEFAULT).orElseThrow(() -> new EmailTemplateNotFoundException(MailProviderMessages.EMAIL_TEMPLATE_NOT_FOUND_EXCEPTION))
+                    .values()
+                    .set(MailPlaceholder.FIRSTNAME, firstName)
+                    .set(MailPlaceholder.LASTNAME, lastName)
+                    .set(MailPlaceholder.GREETING_MESSAGE, I18n.getMessage(I18n.ACCESS_LEVEL_REVOKED_GREETING_MESSAGE, language))
+                    .set(MailPlaceholder.RESULT_MESSAGE, I18n.getMessage(I18n.ACCESS_LEVEL_REVOKED_RESULT_MESSAGE, language)
+                            .replace("$USER_LEVEL", I18n.getMessage(userLevel, language)))
+                    .set(MailPlaceholder.ACTION_DESCRIPTION, I18n.getMessage(I18n.ACCESS_LEVEL_REVOKED_ACTION_DESCRIPTION, language))
+                    .set(MailPlaceholder.NOTE_TITLE, I18n.getMessage(I18n.ACCESS_LEVEL_REVOKED_NOTE_TITLE, language))
+                    .set(MailPlaceholder.NOTE_MESSAGE, I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
+                    .render();
+            this.enqueueEmail(emailContent, emailReceiver, I18n.getMessage(I18n.ACCESS_LEVEL_REVOKED_MESSAGE_SUBJECT, language));
+        } catch (EmailTemplateNotFoundException | ApplicationBaseException |
                  NullPointerException exception) {
-            log.error("Exception of type: {} was throw while sending e-mail notification message about revoked user level, due to the exception: {} being thrown. Reason: {}",
-                    exception.getClass().getSimpleName(), exception.getCause().getClass().getSimpleName(), exception.getMessage());
+            log.error("Exception of type: {} was throw while sending e-mail notification message about revoked user level. Reason: {}",
+                    exception.getClass().getSimpleName(), exception.getMessage(), exception);
         }
     }
 
@@ -481,32 +502,31 @@ public class MailProvider {
      * @param sector        Sector in which a place has been reserved.
      * @param timeframe     Reservation timeframe.
      */
-    @Async
 //    @RolesAllowed(Authorities.RESERVE_PARKING_PLACE)
     public void sendMadeReservationInfoEmail(String firstName, String lastName, String emailReceiver,
                                              String language, String address, String sector, String timeframe) {
         try {
-            String logo = this.loadImage("eldorado.png").orElseThrow(() -> new ImageNotFoundException("Given image could not be found!"));
-            String emailContent = this.loadTemplate("default-template.html").orElseThrow(() -> new EmailTemplateNotFoundException("Given email template not found!"))
-                    .replace("$firstname", firstName)
-                    .replace("$lastname", lastName)
-                    .replace("$greeting_message", I18n.getMessage(I18n.MADE_RESERVATION_GREETING_MESSAGE, language))
-                    .replace("$result_message", I18n.getMessage(I18n.MADE_RESERVATION_RESULT_MESSAGE, language))
-                    .replace("$action_description",
+            String emailContent = this.mailTemplateRegistry.getTemplate(MailTemplateType.DEFAULT).orElseThrow(() -> new EmailTemplateNotFoundException("Given email template not found!"))
+                    .values()
+                    .set(MailPlaceholder.FIRSTNAME, firstName)
+                    .set(MailPlaceholder.LASTNAME, lastName)
+                    .set(MailPlaceholder.GREETING_MESSAGE, I18n.getMessage(I18n.MADE_RESERVATION_GREETING_MESSAGE, language))
+                    .set(MailPlaceholder.RESULT_MESSAGE, I18n.getMessage(I18n.MADE_RESERVATION_RESULT_MESSAGE, language))
+                    .set(MailPlaceholder.ACTION_DESCRIPTION,
                             String.format(I18n.getMessage(I18n.MADE_RESERVATION_ACTION_DESCRIPTION, language),
                                     address,
                                     sector,
                                     timeframe
                             )
                     )
-                    .replace("$note_title", I18n.getMessage(I18n.MADE_RESERVATION_NOTE_TITLE, language))
-                    .replace("$note_message", I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
-                    .replace("$eldorado_logo", "data:image/png;base64," + logo);
-            this.sendEmail(emailContent, emailReceiver, senderEmail, I18n.getMessage(I18n.MADE_RESERVATION_MESSAGE_SUBJECT, language));
-        } catch (EmailTemplateNotFoundException | ImageNotFoundException | MessagingException |
+                    .set(MailPlaceholder.NOTE_TITLE, I18n.getMessage(I18n.MADE_RESERVATION_NOTE_TITLE, language))
+                    .set(MailPlaceholder.NOTE_MESSAGE, I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
+                    .render();
+            this.enqueueEmail(this.mailOutboxMOPFacade::create, emailContent, emailReceiver, I18n.getMessage(I18n.MADE_RESERVATION_MESSAGE_SUBJECT, language));
+        } catch (EmailTemplateNotFoundException | ApplicationBaseException |
                  NullPointerException exception) {
-            log.error("Exception of type: {} was throw while sending a new reservation notification e-mail message, due to the exception: {} being thrown. Reason: {}",
-                    exception.getClass().getSimpleName(), exception.getCause().getClass().getSimpleName(), exception.getMessage());
+            log.error("Exception of type: {} was throw while sending a new reservation notification e-mail message. Reason: {}",
+                    exception.getClass().getSimpleName(), exception.getMessage(), exception);
         }
     }
 
@@ -519,30 +539,29 @@ public class MailProvider {
      * @param language      Language of the message.
      * @param reservationId Identifier of the reservation.
      */
-    @Async
 //    @RolesAllowed(Authorities.CANCEL_RESERVATION)
     public void sendCancelledReservationInfoEmail(String firstName, String lastName, String emailReceiver,
                                                   String language, String reservationId) {
         try {
-            String logo = this.loadImage("eldorado.png").orElseThrow(() -> new ImageNotFoundException("Given image could not be found!"));
-            String emailContent = this.loadTemplate("default-template.html").orElseThrow(() -> new EmailTemplateNotFoundException("Given email template not found!"))
-                    .replace("$firstname", firstName)
-                    .replace("$lastname", lastName)
-                    .replace("$greeting_message", I18n.getMessage(I18n.CANCELLED_RESERVATION_GREETING_MESSAGE, language))
-                    .replace("$result_message", I18n.getMessage(I18n.CANCELLED_RESERVATION_RESULT_MESSAGE, language))
-                    .replace("$action_description",
+            String emailContent = this.mailTemplateRegistry.getTemplate(MailTemplateType.DEFAULT).orElseThrow(() -> new EmailTemplateNotFoundException("Given email template not found!"))
+                    .values()
+                    .set(MailPlaceholder.FIRSTNAME, firstName)
+                    .set(MailPlaceholder.LASTNAME, lastName)
+                    .set(MailPlaceholder.GREETING_MESSAGE, I18n.getMessage(I18n.CANCELLED_RESERVATION_GREETING_MESSAGE, language))
+                    .set(MailPlaceholder.RESULT_MESSAGE, I18n.getMessage(I18n.CANCELLED_RESERVATION_RESULT_MESSAGE, language))
+                    .set(MailPlaceholder.ACTION_DESCRIPTION,
                             String.format(I18n.getMessage(I18n.CANCELLED_RESERVATION_ACTION_DESCRIPTION, language),
                                     reservationId
                             )
                     )
-                    .replace("$note_title", I18n.getMessage(I18n.CANCELLED_RESERVATION_NOTE_TITLE, language))
-                    .replace("$note_message", I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
-                    .replace("$eldorado_logo", "data:image/png;base64," + logo);
-            this.sendEmail(emailContent, emailReceiver, senderEmail, I18n.getMessage(I18n.CANCELLED_RESERVATION_MESSAGE_SUBJECT, language));
-        } catch (EmailTemplateNotFoundException | ImageNotFoundException | MessagingException |
+                    .set(MailPlaceholder.NOTE_TITLE, I18n.getMessage(I18n.CANCELLED_RESERVATION_NOTE_TITLE, language))
+                    .set(MailPlaceholder.NOTE_MESSAGE, I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
+                    .render();
+            this.enqueueEmail(this.mailOutboxMOPFacade::create, emailContent, emailReceiver, I18n.getMessage(I18n.CANCELLED_RESERVATION_MESSAGE_SUBJECT, language));
+        } catch (EmailTemplateNotFoundException | ApplicationBaseException |
                  NullPointerException exception) {
-            log.error("Exception of type: {} was throw while sending a cancellation reservation notification e-mail message, due to the exception: {} being thrown. Reason: {}",
-                    exception.getClass().getSimpleName(), exception.getCause().getClass().getSimpleName(), exception.getMessage());
+            log.error("Exception of type: {} was throw while sending a cancellation reservation notification e-mail message. Reason: {}",
+                    exception.getClass().getSimpleName(), exception.getMessage(), exception);
         }
     }
 
@@ -555,30 +574,27 @@ public class MailProvider {
      * @param language      Language of the message.
      * @param reservationId Identifier of the reservation.
      */
-    @Async
 //    @RolesAllowed(Authorities.DEACTIVATE_SECTOR)
     public void sendAdministrativelyCancelledReservationInfoEmail(String firstName, String lastName, String emailReceiver,
                                                   String language, String reservationId) {
         try {
-            String logo = this.loadImage("eldorado.png").orElseThrow(() -> new ImageNotFoundException("Given image could not be found!"));
-            String emailContent = this.loadTemplate("default-template.html").orElseThrow(() -> new EmailTemplateNotFoundException("Given email template not found!"))
-                    .replace("$firstname", firstName)
-                    .replace("$lastname", lastName)
-                    .replace("$greeting_message", I18n.getMessage(I18n.ADMINISTRATIVELY_CANCELLED_RESERVATION_GREETING_MESSAGE, language))
-                    .replace("$result_message", I18n.getMessage(I18n.ADMINISTRATIVELY_CANCELLED_RESERVATION_RESULT_MESSAGE, language))
-                    .replace("$action_description",
-                            String.format(I18n.getMessage(I18n.ADMINISTRATIVELY_CANCELLED_RESERVATION_ACTION_DESCRIPTION, language),
-                                    reservationId
-                            )
-                    )
-                    .replace("$note_title", I18n.getMessage(I18n.ADMINISTRATIVELY_CANCELLED_RESERVATION_NOTE_TITLE, language))
-                    .replace("$note_message", I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
-                    .replace("$eldorado_logo", "data:image/png;base64," + logo);
-            this.sendEmail(emailContent, emailReceiver, senderEmail, I18n.getMessage(I18n.ADMINISTRATIVELY_CANCELLED_RESERVATION_MESSAGE_SUBJECT, language));
-        } catch (EmailTemplateNotFoundException | ImageNotFoundException | MessagingException |
+            String actionDescription = String.format(I18n.getMessage(I18n.ADMINISTRATIVELY_CANCELLED_RESERVATION_ACTION_DESCRIPTION, language), reservationId);
+            String emailContent = this.mailTemplateRegistry.getTemplate(MailTemplateType.DEFAULT).orElseThrow(() -> new EmailTemplateNotFoundException("Given email template not found!"))
+                    .values()
+                    .set(MailPlaceholder.FIRSTNAME, firstName)
+                    .set(MailPlaceholder.LASTNAME, lastName)
+                    .set(MailPlaceholder.GREETING_MESSAGE, I18n.getMessage(I18n.ADMINISTRATIVELY_CANCELLED_RESERVATION_GREETING_MESSAGE, language))
+                    .set(MailPlaceholder.RESULT_MESSAGE, I18n.getMessage(I18n.ADMINISTRATIVELY_CANCELLED_RESERVATION_RESULT_MESSAGE, language))
+                    .set(MailPlaceholder.ACTION_DESCRIPTION, actionDescription)
+                    .set(MailPlaceholder.NOTE_TITLE, I18n.getMessage(I18n.ADMINISTRATIVELY_CANCELLED_RESERVATION_NOTE_TITLE, language))
+                    .set(MailPlaceholder.NOTE_MESSAGE, I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
+                    .render();
+            this.enqueueNotification(emailContent, emailReceiver, I18n.getMessage(I18n.ADMINISTRATIVELY_CANCELLED_RESERVATION_MESSAGE_SUBJECT, language),
+                    MailDigestCategory.ADMINISTRATIVELY_CANCELLED_RESERVATION, actionDescription, language, firstName, lastName);
+        } catch (EmailTemplateNotFoundException | ApplicationBaseException |
                  NullPointerException exception) {
-            log.error("Exception of type: {} was throw while sending the administrative reservation cancellation notification e-mail message, due to the exception: {} being thrown. Reason: {}",
-                    exception.getClass().getSimpleName(), exception.getCause().getClass().getSimpleName(), exception.getMessage());
+            log.error("Exception of type: {} was throw while sending the administrative reservation cancellation notification e-mail message. Reason: {}",
+                    exception.getClass().getSimpleName(), exception.getMessage(), exception);
         }
     }
 
@@ -591,30 +607,27 @@ public class MailProvider {
      * @param language      Language of the message.
      * @param reservationId Identifier of the reservation.
      */
-    @Async
 //    @RolesAllowed(Authorities.END_RESERVATION)
     public void sendSystemEndReservationInfoEmail(String firstName, String lastName, String emailReceiver,
                                                                   String language, String reservationId) {
         try {
-            String logo = this.loadImage("eldorado.png").orElseThrow(() -> new ImageNotFoundException("Given image could not be found!"));
-            String emailContent = this.loadTemplate("default-template.html").orElseThrow(() -> new EmailTemplateNotFoundException("Given email template not found!"))
-                    .replace("$firstname", firstName)
-                    .replace("$lastname", lastName)
-                    .replace("$greeting_message", I18n.getMessage(I18n.SYSTEM_END_RESERVATION_GREETING_MESSAGE, language))
-                    .replace("$result_message", I18n.getMessage(I18n.SYSTEM_END_RESERVATION_RESULT_MESSAGE, language))
-                    .replace("$action_description",
-                            String.format(I18n.getMessage(I18n.SYSTEM_END_RESERVATION_ACTION_DESCRIPTION, language),
-                                    reservationId
-                            )
-                    )
-                    .replace("$note_title", I18n.getMessage(I18n.SYSTEM_END_RESERVATION_NOTE_TITLE, language))
-                    .replace("$note_message", I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
-                    .replace("$eldorado_logo", "data:image/png;base64," + logo);
-            this.sendEmail(emailContent, emailReceiver, senderEmail, I18n.getMessage(I18n.SYSTEM_END_RESERVATION_MESSAGE_SUBJECT, language));
-        } catch (EmailTemplateNotFoundException | ImageNotFoundException | MessagingException |
+            String actionDescription = String.format(I18n.getMessage(I18n.SYSTEM_END_RESERVATION_ACTION_DESCRIPTION, language), reservationId);
+            String emailContent = this.mailTemplateRegistry.getTemplate(MailTemplateType.DEFAULT).orElseThrow(() -> new EmailTemplateNotFoundException("Given email template not found!"))
+                    .values()
+                    .set(MailPlaceholder.FIRSTNAME, firstName)
+                    .set(MailPlaceholder.LASTNAME, lastName)
+                    .set(MailPlaceholder.GREETING_MESSAGE, I18n.getMessage(I18n.SYSTEM_END_RESERVATION_GREETING_MESSAGE, language))
+                    .set(MailPlaceholder.RESULT_MESSAGE, I18n.getMessage(I18n.SYSTEM_END_RESERVATION_RESULT_MESSAGE, language))
+                    .set(MailPlaceholder.ACTION_DESCRIPTION, actionDescription)
+                    .set(MailPlaceholder.NOTE_TITLE, I18n.getMessage(I18n.SYSTEM_END_RESERVATION_NOTE_TITLE, language))
+                    .set(MailPlaceholder.NOTE_MESSAGE, I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
+                    .render();
+            this.enqueueNotification(emailContent, emailReceiver, I18n.getMessage(I18n.SYSTEM_END_RESERVATION_MESSAGE_SUBJECT, language),
+                    MailDigestCategory.SYSTEM_END_RESERVATION, actionDescription, language, firstName, lastName);
+        } catch (EmailTemplateNotFoundException | ApplicationBaseException |
                  NullPointerException exception) {
-            log.error("Exception of type: {} was throw while sending the system end reservation notification e-mail message, due to the exception: {} being thrown. Reason: {}",
-                    exception.getClass().getSimpleName(), exception.getCause().getClass().getSimpleName(), exception.getMessage());
+            log.error("Exception of type: {} was throw while sending the system end reservation notification e-mail message. Reason: {}",
+                    exception.getClass().getSimpleName(), exception.getMessage(), exception);
         }
     }
 
@@ -627,105 +640,95 @@ public class MailProvider {
      * @param language      Language of the message.
      * @param newClientTypeName Name of the granted client type.
      */
-    @Async
 //    @RolesAllowed({Authorities.EXIT_PARKING, Authorities.END_RESERVATION})
     public void sendChangedClientTypeInfoEmail(String firstName, String lastName, String emailReceiver,
                                                   String language, String newClientTypeName) {
         try {
-            String logo = this.loadImage("eldorado.png").orElseThrow(() -> new ImageNotFoundException("Given image could not be found!"));
-            String emailContent = this.loadTemplate("default-template.html").orElseThrow(() -> new EmailTemplateNotFoundException("Given email template not found!"))
-                    .replace("$firstname", firstName)
-                    .replace("$lastname", lastName)
-                    .replace("$greeting_message", I18n.getMessage(I18n.CHANGED_CLIENT_TYPE_GREETING_MESSAGE, language))
-                    .replace("$result_message", I18n.getMessage(I18n.CHANGED_CLIENT_TYPE_RESULT_MESSAGE, language))
-                    .replace("$action_description",
-                            String.format(I18n.getMessage(I18n.CHANGED_CLIENT_TYPE_ACTION_DESCRIPTION, language),
-                                    newClientTypeName
-                            )
-                    )
-                    .replace("$note_title", I18n.getMessage(I18n.CHANGED_CLIENT_TYPE_NOTE_TITLE, language))
-                    .replace("$note_message", I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
-                    .replace("$eldorado_logo", "data:image/png;base64," + logo);
-            this.sendEmail(emailContent, emailReceiver, senderEmail, I18n.getMessage(I18n.CHANGED_CLIENT_TYPE_MESSAGE_SUBJECT, language));
-        } catch (EmailTemplateNotFoundException | ImageNotFoundException | MessagingException |
+            String actionDescription = String.format(I18n.getMessage(I18n.CHANGED_CLIENT_TYPE_ACTION_DESCRIPTION, language), newClientTypeName);
+            String emailContent = this.mailTemplateRegistry.getTemplate(MailTemplateType.DEFAULT).orElseThrow(() -> new EmailTemplateNotFoundException("Given email template not found!"))
+                    .values()
+                    .set(MailPlaceholder.FIRSTNAME, firstName)
+                    .set(MailPlaceholder.LASTNAME, lastName)
+                    .set(MailPlaceholder.GREETING_MESSAGE, I18n.getMessage(I18n.CHANGED_CLIENT_TYPE_GREETING_MESSAGE, language))
+                    .set(MailPlaceholder.RESULT_MESSAGE, I18n.getMessage(I18n.CHANGED_CLIENT_TYPE_RESULT_MESSAGE, language))
+                    .set(MailPlaceholder.ACTION_DESCRIPTION, actionDescription)
+                    .set(MailPlaceholder.NOTE_TITLE, I18n.getMessage(I18n.CHANGED_CLIENT_TYPE_NOTE_TITLE, language))
+                    .set(MailPlaceholder.NOTE_MESSAGE, I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
+                    .render();
+            this.enqueueNotification(emailContent, emailReceiver, I18n.getMessage(I18n.CHANGED_CLIENT_TYPE_MESSAGE_SUBJECT, language),
+                    MailDigestCategory.CHANGED_CLIENT_TYPE, actionDescription, language, firstName, lastName);
+        } catch (EmailTemplateNotFoundException | ApplicationBaseException |
                  NullPointerException exception) {
-            log.error("Exception of type: {} was throw while sending the granted new client type notification e-mail message, due to the exception: {} being thrown. Reason: {}",
-                    exception.getClass().getSimpleName(), exception.getCause().getClass().getSimpleName(), exception.getMessage());
+            log.error("Exception of type: {} was throw while sending the granted new client type notification e-mail message. Reason: {}",
+                    exception.getClass().getSimpleName(), exception.getMessage(), exception);
         }
     }
 
     /**
-     * This method is used to send the user e-mail address.
+     * Writes the e-mail message to the outbox, as a part of the current transaction. The message is delivered
+     * by MailOutboxDispatcher after the transaction is committed, and it is discarded when the transaction
+     * is rolled back.
      *
      * @param emailContent  E-mail content that will be sent to the user e-mail address (in HTML format).
      * @param emailReceiver E-mail address of the user, which the mail is sent to.
-     * @param senderEmail   E-mail address of the sender - that is the Eldorado application.
      * @param emailSubject  Topic of the e-mail message.
-     * @throws MessagingException Exception thrown while the e-mail message is being sent.
+     * @throws ApplicationBaseException General superclass for all exceptions thrown by exception handling aspects
+     *                                  on facade components.
      */
-//    @RolesAllowed({
-//            Authorities.REGISTER_CLIENT, Authorities.REGISTER_USER,
-//            Authorities.RESTORE_ACCOUNT_ACCESS, Authorities.BLOCK_ACCOUNT,
-//            Authorities.LOGIN, Authorities.UNBLOCK_ACCOUNT, Authorities.CHANGE_USER_MAIL,
-//            Authorities.CHANGE_OWN_MAIL, Authorities.RESEND_EMAIL_CONFIRMATION_MAIL,
-//            Authorities.RESET_PASSWORD, Authorities.CHANGE_USER_PASSWORD,
-//            Authorities.CONFIRM_ACCOUNT_CREATION, Authorities.ADD_USER_LEVEL,
-//            Authorities.REMOVE_USER_LEVEL
-//    })
-    private void sendEmail(String emailContent, String emailReceiver, String senderEmail, String emailSubject) throws MessagingException {
-        if (!Arrays.asList(env.getActiveProfiles()).contains("test")) {
-            MimeMessage mimeMessage = mailSender.createMimeMessage();
-            mimeMessage.setHeader("Content-Type", "text/plain; charset=\"utf-8\"");
-            MimeMessageHelper messageHelper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
-
-            messageHelper.setTo(emailReceiver);
-
-            messageHelper.setSubject(emailSubject);
-            messageHelper.setText(emailContent, true);
-            messageHelper.setFrom(senderEmail);
-            this.mailSender.send(mimeMessage);
-        }
+    private void enqueueEmail(String emailContent, String emailReceiver, String emailSubject) throws ApplicationBaseException {
+        this.enqueueEmail(this.mailOutboxFacade::create, emailContent, emailReceiver, emailSubject);
     }
 
     /**
-     * Loads e-mail template from the /resources/templates folder.
+     * Writes the e-mail message to the outbox with the given facade method, as a part of the current transaction.
      *
-     * @param templateName Name of the template file.
-     * @return Returns a String containing the loaded template.
-     * If an exception occurs while reading the template file it will return everything read up to this point.
+     * @param outbox        Method of the facade, which persists the message in the persistence unit of the use case.
+     * @param emailContent  E-mail content that will be sent to the user e-mail address (in HTML format).
+     * @param emailReceiver E-mail address of the user, which the mail is sent to.
+     * @param emailSubject  Topic of the e-mail message.
+     * @throws ApplicationBaseException General superclass for all exceptions thrown by exception handling aspects
+     *                                  on facade components.
      */
-    private Optional<String> loadTemplate(String templateName) {
-        StringBuilder builder = new StringBuilder();
-        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream("templates/" + templateName);
-             BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
-            String placeHolder;
-            while ((placeHolder = bufferedReader.readLine()) != null) {
-                builder.append(placeHolder);
-            }
-        } catch (IOException | NullPointerException exception) {
-            log.error("Exception: {} thrown while reading template: {} from a file. Cause: {}. Make sure that the file containing the template is located in the templates/ folder.",
-                    exception.getClass().getSimpleName(), templateName, exception.getMessage());
-        }
-        return Optional.of(builder.toString());
+    private void enqueueEmail(OutboxWriter outbox, String emailContent, String emailReceiver, String emailSubject) throws ApplicationBaseException {
+        MailOutboxMessage message = new MailOutboxMessage(emailReceiver, emailSubject, emailContent);
+        outbox.create(message);
+        this.eventPublisher.publishEvent(new MailQueuedEvent(message.getId()));
+        enqueuedEmailsCounter.increment();
     }
 
     /**
-     * Loads an image from the /resources/templates/images folder.
+     * Writes the notification to the outbox, as a part of the current MOP transaction. The notification is held
+     * in the outbox for the digest window, and then it is delivered together with other notifications of the same
+     * category, sent to the same user in the meantime.
      *
-     * @param imageName Name of the image file.
-     * @return Returns a String containing the loaded image.
-     * If an exception occurs while reading the image file it will return everything read up to this point.
+     * @param emailContent      E-mail content, used when the notification is delivered alone (in HTML format).
+     * @param emailReceiver     E-mail address of the user, which the mail is sent to.
+     * @param emailSubject      Topic of the e-mail message, used when the notification is delivered alone.
+     * @param digestCategory    Category of the notification.
+     * @param actionDescription Action description of the notification, listed in the digest.
+     * @param language          Language of the message.
+     * @param firstName         User's first name.
+     * @param lastName          User's last name.
+     * @throws ApplicationBaseException General superclass for all exceptions thrown by exception handling aspects
+     *                                  on facade components.
      */
-    private Optional<String> loadImage(String imageName) {
-        StringBuilder builder = new StringBuilder();
-        try {
-            URL imagePath = getClass().getClassLoader().getResource("templates/images/" + imageName);
-            byte[] imageContent = Files.readAllBytes(Path.of(imagePath.toURI()));
-            builder.append(new String(Base64.getEncoder().encode(imageContent)));
-        } catch (IOException | URISyntaxException | NullPointerException exception) {
-            log.error("Exception: {} thrown while reading image: {} from a file. Cause: {}. Make sure that the file containing the image is located in the templates/images/ folder.",
-                    exception.getClass().getSimpleName(), imageName, exception.getMessage());
+    private void enqueueNotification(String emailContent, String emailReceiver, String emailSubject,
+                                     MailDigestCategory digestCategory, String actionDescription,
+                                     String language, String firstName, String lastName) throws ApplicationBaseException {
+        MailOutboxMessage message = new MailOutboxMessage(emailReceiver, emailSubject, emailContent, digestCategory,
+                actionDescription, language, firstName, lastName, LocalDateTime.now().plusSeconds(digestWindowSeconds));
+        this.mailOutboxMOPFacade.create(message);
+        if (digestWindowSeconds <= 0) {
+            this.eventPublisher.publishEvent(new MailQueuedEvent(message.getId()));
         }
-        return Optional.of(builder.toString());
+        enqueuedNotificationsCounter.increment();
+    }
+
+    /**
+     * Facade method persisting the e-mail message in the outbox.
+     */
+    @FunctionalInterface
+    private interface OutboxWriter {
+        void create(MailOutboxMessage message) throws ApplicationBaseException;
     }
 }
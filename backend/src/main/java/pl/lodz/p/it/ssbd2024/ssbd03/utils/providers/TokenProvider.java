@@ -11,6 +11,7 @@ import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Authorities;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Account;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Token;
 
+import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 
 @Component
@@ -43,21 +44,22 @@ public class TokenProvider {
     @RolesAllowed({Authorities.REFRESH_SESSION, Authorities.LOGIN})
     public Token generateRefreshToken(Account account) {
         String tokenValue = jwtProvider.generateActionToken(account, refreshTokenTTL, ChronoUnit.MINUTES);
-        return new Token(tokenValue, account, Token.TokenType.REFRESH_TOKEN);
-    }
-
-    @RolesAllowed(Authorities.LOGIN)
-    public Token generateMultiFactorAuthToken(Account account, String hashedAuthCode) {
-        String tokenValue = jwtProvider.generateMultiFactorAuthToken(hashedAuthCode);
-        return new Token(tokenValue, account, Token.TokenType.MULTI_FACTOR_AUTHENTICATION_CODE);
+        return new Token(tokenValue, account, Token.TokenType.REFRESH_TOKEN, expirationTime(refreshTokenTTL, ChronoUnit.MINUTES));
     }
 
     @RolesAllowed({Authorities.RESET_PASSWORD})
     public Token generatePasswordResetToken(Account account) {
         String tokenValue = jwtProvider.generateActionToken(account, passwordResetTokenTTL, ChronoUnit.MINUTES);
-        return new Token(tokenValue, account, Token.TokenType.RESET_PASSWORD);
+        return new Token(tokenValue, account, Token.TokenType.RESET_PASSWORD, expirationTime(passwordResetTokenTTL, ChronoUnit.MINUTES));
     }
 
+    /**
+     * Generates the token of the password reset forced by the administrator. The token has no expiration time,
+     * since it marks, that the user has to change the password, until the password is changed.
+     *
+     * @param account Account, which password was reset.
+     * @return Token of the password reset, which is never removed as expired.
+     */
     @RolesAllowed({Authorities.CHANGE_USER_PASSWORD})
     public Token generateAdminPasswordResetToken(Account account) {
         String tokenValue = jwtProvider.generateActionToken(account, passwordResetTokenTTL, ChronoUnit.MINUTES);
@@ -67,18 +69,30 @@ public class TokenProvider {
     @RolesAllowed({Authorities.REGISTER_CLIENT, Authorities.REGISTER_USER})
     public Token generateAccountActivationToken(Account account) {
         String tokenValue = jwtProvider.generateActionToken(account, accountActivationTokenTTL, ChronoUnit.HOURS);
-        return new Token(tokenValue, account, Token.TokenType.REGISTER);
+        return new Token(tokenValue, account, Token.TokenType.REGISTER, expirationTime(accountActivationTokenTTL, ChronoUnit.HOURS));
     }
 
     @RolesAllowed({Authorities.CHANGE_OWN_MAIL, Authorities.CHANGE_USER_MAIL})
     public Token generateEmailChangeToken(Account account, String newEmail) {
         String tokenValue = jwtProvider.generateEmailToken(account, newEmail, emailChangeTokenTTL);
-        return new Token(tokenValue, account, Token.TokenType.CONFIRM_EMAIL);
+        return new Token(tokenValue, account, Token.TokenType.CONFIRM_EMAIL, expirationTime(emailChangeTokenTTL, ChronoUnit.HOURS));
     }
 
     @RolesAllowed({Authorities.RESTORE_ACCOUNT_ACCESS})
     public Token generateRestoreAccessToken(Account account) {
         String tokenValue = jwtProvider.generateActionToken(account, restoreAccessTokenTTL, ChronoUnit.MINUTES);
-        return new Token(tokenValue, account, Token.TokenType.RESTORE_ACCESS_TOKEN);
+        return new Token(tokenValue, account, Token.TokenType.RESTORE_ACCESS_TOKEN, expirationTime(restoreAccessTokenTTL, ChronoUnit.MINUTES));
+    }
+
+    /**
+     * Computes expiration time of the token, stored along with the token in order to remove it
+     * from the database, when it is no longer valid.
+     *
+     * @param ttl  Time to live of the token.
+     * @param unit Unit of the time to live.
+     * @return Time, after which the token expires.
+     */
+    private LocalDateTime expirationTime(int ttl, ChronoUnit unit) {
+        return LocalDateTime.now().plus(ttl, unit);
     }
 }
@@ -0,0 +1,94 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.utils.quota;
+
+import lombok.Getter;
+import org.springframework.http.HttpMethod;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Enum grouping REST endpoints of the application into classes, which share the same request quota.
+ * Classes are checked in the declaration order, so the first matching class is used, and any other
+ * request sent to the API falls into the DEFAULT class.
+ */
+@Getter
+public enum EndpointClass {
+
+    /**
+     * Endpoints of the parking gates, that is entering and leaving the parking.
+     */
+    PARKING_GATE("parking.gate", List.of(
+            new Matcher(HttpMethod.POST, "^/api/v1/parking/%s/enter$".formatted(EndpointClass.UUID_REGEX)),
+            new Matcher(HttpMethod.POST, "^/api/v1/parking/reservations/%s/(enter|exit)$".formatted(EndpointClass.UUID_REGEX))
+    )),
+
+    /**
+     * Endpoints used for making and cancelling reservations.
+     */
+    RESERVATION("reservation", List.of(
+            new Matcher(HttpMethod.POST, "^/api/v1/reservations/make-reservation$"),
+            new Matcher(HttpMethod.DELETE, "^/api/v1/reservations/cancel-reservation/.*")
+    )),
+
+    /**
+     * Endpoints performing expensive, paged searches in the database.
+     */
+    SEARCH("search", List.of(
+            new Matcher(HttpMethod.GET, "^/api/v1/accounts/match-phrase-in-account.*"),
+            new Matcher(HttpMethod.GET, "^/api/v1/accounts/?$"),
+            new Matcher(HttpMethod.GET, "^/api/v1/reservations/?$"),
+            new Matcher(HttpMethod.GET, "^/api/v1/parking/?$"),
+            new Matcher(HttpMethod.GET, "^/api/v1/.*/history-data$")
+    )),
+
+    /**
+     * Any other endpoint of the API.
+     */
+    DEFAULT("default", List.of(
+            new Matcher(null, "^/api/.*")
+    ));
+
+    private static final String UUID_REGEX = "[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}";
+
+    /**
+     * Name of the class, used as a part of the quota property names, e.g. quota.search.capacity.
+     */
+    private final String propertyName;
+
+    private final List<Matcher> matchers;
+
+    EndpointClass(String propertyName, List<Matcher> matchers) {
+        this.propertyName = propertyName;
+        this.matchers = matchers;
+    }
+
+    /**
+     * Resolves endpoint class of the request.
+     *
+     * @param method HTTP method of the request.
+     * @param path   Path of the request within the application.
+     * @return Endpoint class of the request, or null if the request is not sent to the API (e.g. swagger resources).
+     */
+    public static EndpointClass resolve(String method, String path) {
+        for (EndpointClass endpointClass : values()) {
+            for (Matcher matcher : endpointClass.matchers) {
+                if (matcher.matches(method, path)) return endpointClass;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Precompiled pair of HTTP method (null matches any method) and request path pattern.
+     */
+    private record Matcher(HttpMethod method, Pattern pattern) {
+
+        Matcher(HttpMethod method, String regex) {
+            this(method, Pattern.compile(regex));
+        }
+
+        boolean matches(String requestMethod, String path) {
+            return (method == null || method.name().equals(requestMethod)) && pattern.matcher(path).matches();
+        }
+    }
+}
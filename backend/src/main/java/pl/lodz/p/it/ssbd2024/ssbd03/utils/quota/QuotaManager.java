@@ -0,0 +1,126 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.utils.quota;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Component responsible for keeping track of API request quotas. Each endpoint class has its own budget
+ * (capacity and period configured in quota.properties), and the budget is tracked separately for each client,
+ * identified by their login (when authenticated) or IP address (otherwise).
+ * <p>
+ * Buckets are kept in concurrent maps, which stripe their content internally, and buckets themselves are
+ * lock-free, so checking the quota never blocks the request thread.
+ *
+ * @see RateLimitBucket
+ * @see EndpointClass
+ */
+@Slf4j
+@Component
+public class QuotaManager {
+
+    /**
+     * Key of the shared bucket, used for all new clients of the endpoint class when the number of tracked clients
+     * exceeds <code>quota.max.tracked.keys</code>.
+     */
+    private static final String OVERFLOW_KEY = "overflow";
+
+    @Getter
+    @Value("${quota.enabled}")
+    private boolean enabled;
+
+    @Value("${quota.max.tracked.keys}")
+    private int maxTrackedKeys;
+
+    private final Map<EndpointClass, Long> capacities = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Long> periods = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, ConcurrentHashMap<String, RateLimitBucket>> buckets = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, LongAdder> allowedCounters = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, LongAdder> throttledCounters = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Long> lastReportedThrottledCounts = new EnumMap<>(EndpointClass.class);
+
+    /**
+     * Autowired constructor for the component.
+     *
+     * @param env Environment used to read budgets of each endpoint class.
+     */
+    @Autowired
+    public QuotaManager(Environment env) {
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            String prefix = "quota." + endpointClass.getPropertyName();
+            capacities.put(endpointClass, env.getRequiredProperty(prefix + ".capacity", Long.class));
+            periods.put(endpointClass, TimeUnit.SECONDS.toNanos(env.getRequiredProperty(prefix + ".period.seconds", Long.class)));
+            buckets.put(endpointClass, new ConcurrentHashMap<>());
+            allowedCounters.put(endpointClass, new LongAdder());
+            throttledCounters.put(endpointClass, new LongAdder());
+            lastReportedThrottledCounts.put(endpointClass, 0L);
+        }
+    }
+
+    /**
+     * Takes a single request from the quota of the given client for the given endpoint class.
+     *
+     * @param endpointClass Class of the called endpoint.
+     * @param clientKey     Identity of the client, either login or IP address.
+     * @return Result of the quota check.
+     */
+    public QuotaResult acquire(EndpointClass endpointClass, String clientKey) {
+        long now = System.nanoTime();
+        ConcurrentHashMap<String, RateLimitBucket> classBuckets = buckets.get(endpointClass);
+        RateLimitBucket bucket = classBuckets.get(clientKey);
+        if (bucket == null) {
+            String key = classBuckets.size() < maxTrackedKeys ? clientKey : OVERFLOW_KEY;
+            bucket = classBuckets.computeIfAbsent(key,
+                    k -> new RateLimitBucket(capacities.get(endpointClass), periods.get(endpointClass), now));
+        }
+
+        QuotaResult result = bucket.tryAcquire(now);
+        (result.allowed() ? allowedCounters : throttledCounters).get(endpointClass).increment();
+        return result;
+    }
+
+    /**
+     * @param endpointClass Class of the endpoints.
+     * @return Total number of requests to the given endpoint class that fitted in the quota.
+     */
+    public long getAllowedCount(EndpointClass endpointClass) {
+        return allowedCounters.get(endpointClass).sum();
+    }
+
+    /**
+     * @param endpointClass Class of the endpoints.
+     * @return Total number of requests to the given endpoint class that were rejected, since they exceeded the quota.
+     */
+    public long getThrottledCount(EndpointClass endpointClass) {
+        return throttledCounters.get(endpointClass).sum();
+    }
+
+    /**
+     * Removes buckets that regained all of their tokens, as they are equivalent to new buckets. This keeps memory
+     * usage proportional to the number of recently active clients. Also logs number of throttled calls
+     * since the last execution.
+     */
+    @Scheduled(fixedRate = 1L, timeUnit = TimeUnit.MINUTES)
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            buckets.get(endpointClass).values().removeIf(bucket -> bucket.isFull(now));
+            long throttled = getThrottledCount(endpointClass);
+            long throttledSinceLastCheck = throttled - lastReportedThrottledCounts.put(endpointClass, throttled);
+            if (throttledSinceLastCheck > 0) {
+                log.warn("Quota of endpoint class: {} rejected {} requests since the last check.",
+                        endpointClass.name(), throttledSinceLastCheck);
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.utils.quota;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Result of a single quota check.
+ *
+ * @param allowed          True if the request fits in the quota, false if it should be rejected.
+ * @param limit            Maximum number of requests (size of the burst) of the endpoint class.
+ * @param remaining        Number of requests that could be sent right now, without being rejected.
+ * @param resetNanos       Time, in nanoseconds, after which the quota will be fully restored.
+ * @param retryAfterNanos  Time, in nanoseconds, after which the rejected request could be retried.
+ */
+public record QuotaResult(boolean allowed, long limit, long remaining, long resetNanos, long retryAfterNanos) {
+
+    /**
+     * @return Time after which the quota will be fully restored, rounded up to whole seconds.
+     */
+    public long resetSeconds() {
+        return toSecondsRoundedUp(resetNanos);
+    }
+
+    /**
+     * @return Time after which the rejected request could be retried, rounded up to whole seconds.
+     */
+    public long retryAfterSeconds() {
+        return toSecondsRoundedUp(retryAfterNanos);
+    }
+
+    private static long toSecondsRoundedUp(long nanos) {
+        long second = TimeUnit.SECONDS.toNanos(1);
+        return Math.max(0L, (nanos + second - 1) / second);
+    }
+}
@@ -0,0 +1,74 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.utils.quota;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket, implemented as the generic cell rate algorithm (GCRA). Whole state of the bucket is a
+ * single "theoretical arrival time" stored in an AtomicLong, so acquiring a token is a single compare-and-set
+ * operation, and no lock is ever taken on the request path.
+ * <p>
+ * Bucket holds at most <code>capacity</code> tokens and regains one token every <code>period / capacity</code>
+ * nanoseconds.
+ */
+public class RateLimitBucket {
+
+    private final long capacity;
+
+    /**
+     * Time needed to regain a single token, in nanoseconds.
+     */
+    private final long emissionInterval;
+
+    /**
+     * Time needed to regain all tokens, in nanoseconds.
+     */
+    private final long burstTolerance;
+
+    private final AtomicLong theoreticalArrivalTime;
+
+    /**
+     * Constructs a full bucket.
+     *
+     * @param capacity      Maximum number of tokens in the bucket.
+     * @param periodNanos   Time, in nanoseconds, needed to regain all tokens.
+     * @param nowNanos      Current time, in nanoseconds.
+     */
+    public RateLimitBucket(long capacity, long periodNanos, long nowNanos) {
+        this.capacity = capacity;
+        this.emissionInterval = Math.max(1L, periodNanos / capacity);
+        this.burstTolerance = emissionInterval * capacity;
+        this.theoreticalArrivalTime = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Tries to take a single token from the bucket.
+     *
+     * @param nowNanos Current time, in nanoseconds.
+     * @return Result of the attempt, containing data used to fill the rate limit response headers.
+     */
+    public QuotaResult tryAcquire(long nowNanos) {
+        while (true) {
+            long current = theoreticalArrivalTime.get();
+            long base = Math.max(current, nowNanos);
+            long next = base + emissionInterval;
+            long debt = next - nowNanos;
+            if (debt > burstTolerance) {
+                return new QuotaResult(false, capacity, 0, current - nowNanos, debt - burstTolerance);
+            }
+            if (theoreticalArrivalTime.compareAndSet(current, next)) {
+                return new QuotaResult(true, capacity, (burstTolerance - debt) / emissionInterval, debt, 0);
+            }
+        }
+    }
+
+    /**
+     * Checks whether the bucket regained all of its tokens, and could be therefore removed and recreated
+     * later without changing the behaviour of the quota.
+     *
+     * @param nowNanos Current time, in nanoseconds.
+     * @return True if the bucket is full, false otherwise.
+     */
+    public boolean isFull(long nowNanos) {
+        return theoreticalArrivalTime.get() <= nowNanos;
+    }
+}
@@ -0,0 +1,189 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.utils.tracing;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Exporter appending spans to a local file, one line per local root, in the JSON encoding of the OTLP
+ * <code>ExportTraceServiceRequest</code>, so the file can be read by the OpenTelemetry Collector
+ * (<code>otlpjsonfile</code> receiver), or processed line by line with jq.
+ * <p>
+ * Spans are serialized and written by a single background thread. When its queue is full, spans are dropped,
+ * instead of blocking the threads ending them. Local roots shorter than the minimal duration are not exported,
+ * so that only slow operations are kept.
+ */
+@Slf4j
+public class JsonLinesSpanExporter implements SpanExporter, AutoCloseable {
+
+    private static final List<Span> END_OF_EXPORT = List.of();
+    private static final String SCOPE_NAME = "pl.lodz.p.it.ssbd2024.ssbd03";
+
+    private final Path path;
+    private final long minDurationNanos;
+    private final Map<String, Object> resource;
+    private final BlockingQueue<List<Span>> queue;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Thread writerThread;
+
+    private final AtomicLong exportedTraces = new AtomicLong();
+    private final AtomicLong droppedTraces = new AtomicLong();
+
+    /**
+     * Creates the exporter, and starts its writer thread.
+     *
+     * @param path              File, to which the spans are appended. It is created with its parent directories, if needed.
+     * @param queueCapacity     Maximum number of local roots waiting to be written.
+     * @param minDurationMillis Minimal duration of the local root, for its spans to be exported.
+     * @param serviceName       Name of the service, put in the resource of the spans.
+     */
+    public JsonLinesSpanExporter(Path path, int queueCapacity, long minDurationMillis, String serviceName) {
+        this.path = path;
+        this.minDurationNanos = TimeUnit.MILLISECONDS.toNanos(minDurationMillis);
+        this.resource = Map.of("attributes", List.of(attribute("service.name", serviceName)));
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.writerThread = new Thread(this::writeLoop, "TraceExporter-1");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    @Override
+    public void export(Span root, List<Span> spans) {
+        if (root.getDurationNanos() < minDurationNanos) return;
+        if (!queue.offer(spans)) droppedTraces.incrementAndGet();
+    }
+
+    /**
+     * Writes the spans waiting in the queue, and stops the writer thread.
+     */
+    @Override
+    public void close() {
+        try {
+            queue.put(END_OF_EXPORT);
+            writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        if (droppedTraces.get() > 0) {
+            log.warn("{} traces were dropped by the exporter, since its queue was full.", droppedTraces.get());
+        }
+    }
+
+    /**
+     * @return Number of local roots written to the file.
+     */
+    public long getExportedTraces() {
+        return exportedTraces.get();
+    }
+
+    /**
+     * @return Number of local roots dropped, since the queue was full.
+     */
+    public long getDroppedTraces() {
+        return droppedTraces.get();
+    }
+
+    /**
+     * Serializes the spans of the local root to a single line.
+     *
+     * @param spans Spans of the local root.
+     *
+     * @return Line in the JSON encoding of the OTLP <code>ExportTraceServiceRequest</code>, without the line separator.
+     *
+     * @throws JsonProcessingException Exception thrown when the spans could not be serialized.
+     */
+    public String toJsonLine(List<Span> spans) throws JsonProcessingException {
+        List<Map<String, Object>> otlpSpans = new ArrayList<>(spans.size());
+        for (Span span : spans) otlpSpans.add(toOtlp(span));
+        Map<String, Object> scopeSpans = Map.of("scope", Map.of("name", SCOPE_NAME), "spans", otlpSpans);
+        Map<String, Object> resourceSpans = Map.of("resource", resource, "scopeSpans", List.of(scopeSpans));
+        return objectMapper.writeValueAsString(Map.of("resourceSpans", List.of(resourceSpans)));
+    }
+
+    private void writeLoop() {
+        try (BufferedWriter writer = Files.newBufferedWriter(this.createParentDirectories(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            while (true) {
+                List<Span> spans = queue.take();
+                do {
+                    if (spans == END_OF_EXPORT) {
+                        writer.flush();
+                        return;
+                    }
+                    this.write(writer, spans);
+                    spans = queue.poll();
+                } while (spans != null);
+                writer.flush();
+            }
+        } catch (IOException exception) {
+            log.error("Exception: {} occurred while writing traces to: {}. Cause: {}.",
+                    exception.getClass().getSimpleName(), path, exception.getMessage());
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(BufferedWriter writer, List<Span> spans) throws IOException {
+        try {
+            writer.write(this.toJsonLine(spans));
+            writer.newLine();
+            exportedTraces.incrementAndGet();
+        } catch (JsonProcessingException exception) {
+            droppedTraces.incrementAndGet();
+            log.error("Exception: {} occurred while serializing trace: {}. Cause: {}.",
+                    exception.getClass().getSimpleName(), spans.get(0).getTraceId(), exception.getMessage());
+        }
+    }
+
+    private Path createParentDirectories() throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        return path;
+    }
+
+    private static Map<String, Object> toOtlp(Span span) {
+        Map<String, Object> otlpSpan = new LinkedHashMap<>();
+        otlpSpan.put("traceId", span.getTraceId());
+        otlpSpan.put("spanId", span.getSpanId());
+        if (span.getParentSpanId() != null) otlpSpan.put("parentSpanId", span.getParentSpanId());
+        otlpSpan.put("name", span.getName());
+        otlpSpan.put("kind", span.getKind().getOtlpValue());
+        // 64-bit integers are encoded as strings in the JSON encoding of OTLP.
+        otlpSpan.put("startTimeUnixNano", String.valueOf(span.getStartEpochNanos()));
+        otlpSpan.put("endTimeUnixNano", String.valueOf(span.getEndEpochNanos()));
+        otlpSpan.put("attributes", span.getAttributes().entrySet().stream()
+                .map(entry -> attribute(entry.getKey(), entry.getValue()))
+                .toList());
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("code", span.isError() ? 2 : 0);
+        if (span.getStatusMessage() != null) status.put("message", span.getStatusMessage());
+        otlpSpan.put("status", status);
+        return otlpSpan;
+    }
+
+    private static Map<String, Object> attribute(String key, Object value) {
+        Map<String, Object> otlpValue = switch (value) {
+            case Boolean bool -> Map.of("boolValue", bool);
+            case Integer number -> Map.of("intValue", String.valueOf(number));
+            case Long number -> Map.of("intValue", String.valueOf(number));
+            case Number number -> Map.of("doubleValue", number.doubleValue());
+            default -> Map.of("stringValue", String.valueOf(value));
+        };
+        return Map.of("key", key, "value", otlpValue);
+    }
+}
@@ -0,0 +1,172 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.utils.tracing;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Timed operation in the trace, e.g. handling of the HTTP request, or a call of a service method. Spans are started
+ * by {@link Tracer}, and exported when the outermost span started on the thread (local root) is ended.
+ * <p>
+ * Span is modified only by the thread, which started it, except for the detached spans, which may be ended
+ * by another thread.
+ */
+public class Span {
+
+    /**
+     * Kind of the span, with its number in the OTLP protocol.
+     */
+    public enum Kind {
+        INTERNAL(1),
+        SERVER(2),
+        CLIENT(3);
+
+        private final int otlpValue;
+
+        Kind(int otlpValue) {
+            this.otlpValue = otlpValue;
+        }
+
+        public int getOtlpValue() {
+            return otlpValue;
+        }
+    }
+
+    private final String traceId;
+    private final String spanId;
+    private final String parentSpanId;
+    private final Kind kind;
+    private final long startEpochNanos;
+    private final long startNanoTime;
+    private final Map<String, Object> attributes = new LinkedHashMap<>();
+
+    /**
+     * Span, which was current on the thread, when this span was started, or null for detached spans.
+     */
+    final Span previous;
+
+    /**
+     * Spans of the same thread and local root, exported together.
+     */
+    final Tracer.Segment segment;
+
+    private String name;
+    private long endEpochNanos;
+    private boolean error;
+    private String statusMessage;
+
+    Span(String traceId, String spanId, String parentSpanId, Kind kind, String name, Span previous, Tracer.Segment segment) {
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parentSpanId = parentSpanId;
+        this.kind = kind;
+        this.name = name;
+        this.previous = previous;
+        this.segment = segment;
+        Instant now = Instant.now();
+        this.startEpochNanos = now.getEpochSecond() * 1_000_000_000L + now.getNano();
+        this.startNanoTime = System.nanoTime();
+    }
+
+    /**
+     * Ends the span. Subsequent calls have no effect.
+     */
+    public void end() {
+        if (endEpochNanos != 0) return;
+        endEpochNanos = startEpochNanos + (System.nanoTime() - startNanoTime);
+        Tracer.ended(this);
+    }
+
+    /**
+     * @param name Name of the operation, replacing the one given when the span was started.
+     */
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @param key   Key of the attribute, preferably following OpenTelemetry semantic conventions (e.g. <code>http.route</code>).
+     * @param value Value of the attribute: string, boolean or number. Null values are ignored.
+     */
+    public void setAttribute(String key, Object value) {
+        if (value != null) attributes.put(key, value);
+    }
+
+    /**
+     * Marks the span as failed, with the exception as the reason.
+     *
+     * @param throwable Exception thrown by the traced operation.
+     */
+    public void recordException(Throwable throwable) {
+        this.setError(throwable.getClass().getSimpleName());
+        attributes.put("exception.type", throwable.getClass().getName());
+    }
+
+    /**
+     * Marks the span as failed.
+     *
+     * @param message Description of the failure.
+     */
+    public void setError(String message) {
+        this.error = true;
+        this.statusMessage = message;
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public String getSpanId() {
+        return spanId;
+    }
+
+    /**
+     * @return Identifier of the parent span, or null for the root of the trace.
+     */
+    public String getParentSpanId() {
+        return parentSpanId;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getStartEpochNanos() {
+        return startEpochNanos;
+    }
+
+    /**
+     * @return Time of the end of the span, as nanoseconds since the epoch, or 0 if the span has not ended yet.
+     */
+    public long getEndEpochNanos() {
+        return endEpochNanos;
+    }
+
+    public long getDurationNanos() {
+        return endEpochNanos - startEpochNanos;
+    }
+
+    public Map<String, Object> getAttributes() {
+        return Collections.unmodifiableMap(attributes);
+    }
+
+    public boolean isError() {
+        return error;
+    }
+
+    public String getStatusMessage() {
+        return statusMessage;
+    }
+
+    /**
+     * @return Context, which the spans started on other threads use as their parent.
+     */
+    public TraceContext getContext() {
+        return new TraceContext(traceId, spanId);
+    }
+}
@@ -0,0 +1,18 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.utils.tracing;
+
+import java.util.List;
+
+/**
+ * Destination of the ended spans.
+ */
+public interface SpanExporter {
+
+    /**
+     * Exports the spans of the local root, after it is ended. Called on the thread, which ended the local root,
+     * so implementations should not block.
+     *
+     * @param root  Outermost span started on the thread.
+     * @param spans All ended spans of the local root, including the root itself as the last one.
+     */
+    void export(Span root, List<Span> spans);
+}
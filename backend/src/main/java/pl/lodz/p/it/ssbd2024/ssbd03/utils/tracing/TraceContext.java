@@ -0,0 +1,31 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.utils.tracing;
+
+import java.util.regex.Pattern;
+
+/**
+ * Identifiers of the span, which is the parent of the spans started on another thread, or in another process.
+ *
+ * @param traceId Identifier of the trace (correlation identifier), 32 lowercase hexadecimal characters.
+ * @param spanId  Identifier of the parent span, 16 lowercase hexadecimal characters.
+ */
+public record TraceContext(String traceId, String spanId) {
+
+    private static final Pattern TRACEPARENT = Pattern.compile("00-([0-9a-f]{32})-([0-9a-f]{16})-[0-9a-f]{2}");
+    private static final String INVALID_TRACE_ID = "0".repeat(32);
+    private static final String INVALID_SPAN_ID = "0".repeat(16);
+
+    /**
+     * Parses the value of the W3C <code>traceparent</code> header, sent by a client or a proxy already tracing the request.
+     *
+     * @param traceparent Value of the header, e.g. <code>00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01</code>.
+     *
+     * @return Context of the remote parent span, or null if the header is absent or invalid.
+     */
+    public static TraceContext fromTraceparent(String traceparent) {
+        if (traceparent == null) return null;
+        var matcher = TRACEPARENT.matcher(traceparent.trim());
+        if (!matcher.matches()) return null;
+        if (INVALID_TRACE_ID.equals(matcher.group(1)) || INVALID_SPAN_ID.equals(matcher.group(2))) return null;
+        return new TraceContext(matcher.group(1), matcher.group(2));
+    }
+}
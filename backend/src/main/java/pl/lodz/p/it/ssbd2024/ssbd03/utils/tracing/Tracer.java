@@ -0,0 +1,191 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.utils.tracing;
+
+import org.slf4j.MDC;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Lightweight tracer of the application. The current span is kept per thread, and each started span becomes a child
+ * of the current one. The outermost span started on the thread (local root) begins a new trace, or continues the trace
+ * of a remote parent, e.g. of the request submitting an asynchronous task. When the local root is ended, spans of
+ * the thread are passed together to the exporter.
+ * <p>
+ * Identifier of the trace is the correlation identifier of the request, and is put in the logging MDC under
+ * {@link #TRACE_ID_MDC_KEY} key, while the local root is current.
+ * <p>
+ * Tracing is disabled until the exporter is set. Spans started while it is disabled are not exported.
+ */
+public final class Tracer {
+
+    public static final String TRACE_ID_MDC_KEY = "traceId";
+
+    private static final ThreadLocal<Span> CURRENT = new ThreadLocal<>();
+
+    private static volatile SpanExporter exporter;
+
+    private Tracer() {}
+
+    /**
+     * @param spanExporter Exporter of the ended spans, or null to disable tracing.
+     */
+    public static void setExporter(SpanExporter spanExporter) {
+        exporter = spanExporter;
+    }
+
+    /**
+     * @return True if the spans are exported, false otherwise.
+     */
+    public static boolean isEnabled() {
+        return exporter != null;
+    }
+
+    /**
+     * @return Span current on the calling thread, or null if there is none.
+     */
+    public static Span currentSpan() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Starts the span as a child of the current one, or as the root of a new trace, and makes it current.
+     * The span must be ended on the same thread.
+     *
+     * @param name Name of the traced operation.
+     * @param kind Kind of the span.
+     *
+     * @return Started span.
+     */
+    public static Span startSpan(String name, Span.Kind kind) {
+        Span current = CURRENT.get();
+        if (current != null) {
+            return makeCurrent(new Span(current.getTraceId(), newSpanId(), current.getSpanId(), kind, name, current, current.segment));
+        }
+        return startLocalRoot(name, kind, newTraceId(), null);
+    }
+
+    /**
+     * Starts the span as a child of the remote parent, and makes it current. The span is the local root, so it is
+     * exported together with its descendants, when it is ended. The span must be ended on the same thread.
+     *
+     * @param name   Name of the traced operation.
+     * @param kind   Kind of the span.
+     * @param parent Context of the parent span started on another thread or in another process, or null to begin a new trace.
+     *
+     * @return Started span.
+     */
+    public static Span startSpan(String name, Span.Kind kind, TraceContext parent) {
+        if (parent == null) return startLocalRoot(name, kind, newTraceId(), null);
+        return startLocalRoot(name, kind, parent.traceId(), parent.spanId());
+    }
+
+    /**
+     * Starts the span as a child of the current one, without making it current, e.g. for an operation, whose
+     * completion is signalled by a callback. The span may be ended on another thread, but it is exported only
+     * when it is ended before its local root.
+     *
+     * @param name Name of the traced operation.
+     *
+     * @return Started span, or null if there is no current span.
+     */
+    public static Span startDetachedSpan(String name) {
+        Span current = CURRENT.get();
+        if (current == null) return null;
+        return new Span(current.getTraceId(), newSpanId(), current.getSpanId(), Span.Kind.INTERNAL, name, null, current.segment);
+    }
+
+    /**
+     * Wraps the task, so that it is executed in a span, which is the child of the span current on the submitting thread.
+     * Used as a task decorator of the executors.
+     *
+     * @param task Task to be executed on another thread.
+     *
+     * @return Wrapped task, or the task itself, if there is no current span.
+     */
+    public static Runnable propagate(Runnable task) {
+        return propagate("async.task", task);
+    }
+
+    /**
+     * Wraps the task, so that it is executed in a span, which is the child of the span current on the submitting thread.
+     *
+     * @param name Name of the span of the task.
+     * @param task Task to be executed on another thread.
+     *
+     * @return Wrapped task, or the task itself, if there is no current span.
+     */
+    public static Runnable propagate(String name, Runnable task) {
+        Span current = CURRENT.get();
+        if (current == null) return task;
+        TraceContext parent = current.getContext();
+        return () -> {
+            Span span = startSpan(name, Span.Kind.INTERNAL, parent);
+            try {
+                task.run();
+            } catch (RuntimeException | Error exception) {
+                span.recordException(exception);
+                throw exception;
+            } finally {
+                span.end();
+            }
+        };
+    }
+
+    static void ended(Span span) {
+        if (CURRENT.get() == span) {
+            CURRENT.set(span.previous);
+            if (span.segment.root == span) {
+                if (span.previous == null) MDC.remove(TRACE_ID_MDC_KEY);
+                else MDC.put(TRACE_ID_MDC_KEY, span.previous.getTraceId());
+            }
+        }
+
+        List<Span> spans = span.segment.add(span);
+        SpanExporter spanExporter = exporter;
+        if (spans != null && spanExporter != null) spanExporter.export(span, spans);
+    }
+
+    private static Span startLocalRoot(String name, Span.Kind kind, String traceId, String parentSpanId) {
+        Segment segment = new Segment();
+        Span span = new Span(traceId, newSpanId(), parentSpanId, kind, name, CURRENT.get(), segment);
+        segment.root = span;
+        if (isEnabled()) MDC.put(TRACE_ID_MDC_KEY, traceId);
+        return makeCurrent(span);
+    }
+
+    private static Span makeCurrent(Span span) {
+        CURRENT.set(span);
+        return span;
+    }
+
+    private static String newTraceId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return "%016x%016x".formatted(random.nextLong(), random.nextLong() | 1L);
+    }
+
+    private static String newSpanId() {
+        return "%016x".formatted(ThreadLocalRandom.current().nextLong() | 1L);
+    }
+
+    /**
+     * Ended spans of the local root, collected until the local root is ended.
+     */
+    static final class Segment {
+
+        private final List<Span> spans = new ArrayList<>();
+        private Span root;
+        private boolean complete;
+
+        /**
+         * @return All spans of the segment, when the ended span is its root, null otherwise.
+         */
+        synchronized List<Span> add(Span span) {
+            if (complete) return null;
+            spans.add(span);
+            if (span != root) return null;
+            complete = true;
+            return List.copyOf(spans);
+        }
+    }
+}
@@ -1,4 +1,10 @@
 \c ssbd03 ssbd03admin
+--
+-- Name: pg_trgm; Type: EXTENSION; Schema: -; Owner: -
+--
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm WITH SCHEMA public;
+
 --
 -- Name: account; Type: TABLE; Schema: public; Owner: ssbd03admin
 --
@@ -185,7 +191,8 @@ ALTER TABLE public.parking_event OWNER TO ssbd03admin;
 
 CREATE TABLE public.past_password (
                                       account_id uuid NOT NULL,
-                                      past_password character varying(255)
+                                      past_password character varying(255),
+                                      creation_time timestamp(6) without time zone
 );
 
 
@@ -274,6 +281,8 @@ CREATE TABLE public.token (
                               account_id uuid NOT NULL,
                               id uuid NOT NULL,
                               token_value character varying(512) NOT NULL,
+                              token_digest bytea NOT NULL,
+                              expiration_timestamp timestamp(6) without time zone,
                               created_by character varying(255),
                               type character varying(255) NOT NULL,
                               CONSTRAINT token_type_check CHECK (((type)::text = ANY ((ARRAY['REFRESH_TOKEN'::character varying, 'MULTI_FACTOR_AUTHENTICATION_CODE'::character varying, 'REGISTER'::character varying, 'RESET_PASSWORD'::character varying, 'CONFIRM_EMAIL'::character varying, 'CHANGE_OVERWRITTEN_PASSWORD'::character varying, 'RESTORE_ACCESS_TOKEN'::character varying])::text[])))
@@ -282,6 +291,33 @@ CREATE TABLE public.token (
 
 ALTER TABLE public.token OWNER TO ssbd03admin;
 
+--
+-- Name: mail_outbox; Type: TABLE; Schema: public; Owner: ssbd03admin
+--
+
+CREATE TABLE public.mail_outbox (
+                                    creation_timestamp timestamp(6) without time zone NOT NULL,
+                                    next_attempt_timestamp timestamp(6) without time zone NOT NULL,
+                                    version bigint NOT NULL,
+                                    attempts integer NOT NULL,
+                                    id uuid NOT NULL,
+                                    recipient character varying(320) NOT NULL,
+                                    subject character varying(512) NOT NULL,
+                                    content text NOT NULL,
+                                    status character varying(16) NOT NULL,
+                                    last_error character varying(1024),
+                                    digest_category character varying(64),
+                                    digest_item character varying(1024),
+                                    language character varying(16),
+                                    first_name character varying(32),
+                                    last_name character varying(32),
+                                    CONSTRAINT mail_outbox_digest_category_check CHECK (((digest_category)::text = ANY ((ARRAY['ADMINISTRATIVELY_CANCELLED_RESERVATION'::character varying, 'SYSTEM_END_RESERVATION'::character varying, 'CHANGED_CLIENT_TYPE'::character varying])::text[]))),
+                                    CONSTRAINT mail_outbox_status_check CHECK (((status)::text = ANY ((ARRAY['PENDING'::character varying, 'FAILED'::character varying])::text[])))
+);
+
+
+ALTER TABLE public.mail_outbox OWNER TO ssbd03admin;
+
 --
 -- Name: user_level; Type: TABLE; Schema: public; Owner: ssbd03admin
 --
@@ -476,11 +512,19 @@ ALTER TABLE ONLY public.token
 
 
 --
--- Name: token token_token_value_key; Type: CONSTRAINT; Schema: public; Owner: ssbd03admin
+-- Name: token token_token_digest_key; Type: CONSTRAINT; Schema: public; Owner: ssbd03admin
 --
 
 ALTER TABLE ONLY public.token
-    ADD CONSTRAINT token_token_value_key UNIQUE (token_value);
+    ADD CONSTRAINT token_token_digest_key UNIQUE (token_digest);
+
+
+--
+-- Name: mail_outbox mail_outbox_pkey; Type: CONSTRAINT; Schema: public; Owner: ssbd03admin
+--
+
+ALTER TABLE ONLY public.mail_outbox
+    ADD CONSTRAINT mail_outbox_pkey PRIMARY KEY (id);
 
 
 --
@@ -570,17 +614,17 @@ CREATE INDEX idx_parking_event_reservation_id ON public.parking_event USING btre
 
 
 --
--- Name: idx_reservation_client_id; Type: INDEX; Schema: public; Owner: ssbd03admin
+-- Name: idx_reservation_client_id_begin_time; Type: INDEX; Schema: public; Owner: ssbd03admin
 --
 
-CREATE INDEX idx_reservation_client_id ON public.reservation USING btree (client_id);
+CREATE INDEX idx_reservation_client_id_begin_time ON public.reservation USING btree (client_id, begin_time);
 
 
 --
--- Name: idx_reservation_sector_id; Type: INDEX; Schema: public; Owner: ssbd03admin
+-- Name: idx_reservation_sector_id_begin_time; Type: INDEX; Schema: public; Owner: ssbd03admin
 --
 
-CREATE INDEX idx_reservation_sector_id ON public.reservation USING btree (sector_id);
+CREATE INDEX idx_reservation_sector_id_begin_time ON public.reservation USING btree (sector_id, begin_time);
 
 
 --
@@ -604,6 +648,27 @@ CREATE INDEX idx_staff_data_user_level_id ON public.staff_data USING btree (id);
 CREATE INDEX idx_token_account_id ON public.token USING btree (account_id);
 
 
+--
+-- Name: idx_token_expiration_timestamp; Type: INDEX; Schema: public; Owner: ssbd03admin
+--
+
+CREATE INDEX idx_token_expiration_timestamp ON public.token USING btree (expiration_timestamp);
+
+
+--
+-- Name: idx_mail_outbox_status_next_attempt; Type: INDEX; Schema: public; Owner: ssbd03admin
+--
+
+CREATE INDEX idx_mail_outbox_status_next_attempt ON public.mail_outbox USING btree (status, next_attempt_timestamp);
+
+
+--
+-- Name: idx_mail_outbox_recipient_digest_category; Type: INDEX; Schema: public; Owner: ssbd03admin
+--
+
+CREATE INDEX idx_mail_outbox_recipient_digest_category ON public.mail_outbox USING btree (recipient, digest_category);
+
+
 --
 -- Name: idx_user_level_account_id; Type: INDEX; Schema: public; Owner: ssbd03admin
 --
@@ -611,6 +676,69 @@ CREATE INDEX idx_token_account_id ON public.token USING btree (account_id);
 CREATE INDEX idx_user_level_account_id ON public.user_level USING btree (account_id);
 
 
+--
+-- Name: idx_reservation_begin_time; Type: INDEX; Schema: public; Owner: ssbd03admin
+--
+
+CREATE INDEX idx_reservation_begin_time ON public.reservation USING btree (begin_time);
+
+
+--
+-- Name: idx_reservation_active_begin_time; Type: INDEX; Schema: public; Owner: ssbd03admin
+--
+
+CREATE INDEX idx_reservation_active_begin_time ON public.reservation USING btree (begin_time) WHERE status IN ('AWAITING', 'IN_PROGRESS');
+
+
+--
+-- Name: idx_reservation_active_end_time; Type: INDEX; Schema: public; Owner: ssbd03admin
+--
+
+CREATE INDEX idx_reservation_active_end_time ON public.reservation USING btree (end_time) WHERE status IN ('AWAITING', 'IN_PROGRESS');
+
+
+--
+-- Name: idx_account_inactive_creation_timestamp; Type: INDEX; Schema: public; Owner: ssbd03admin
+--
+
+CREATE INDEX idx_account_inactive_creation_timestamp ON public.account USING btree (creation_timestamp) WHERE active = false;
+
+
+--
+-- Name: idx_account_blocked_login; Type: INDEX; Schema: public; Owner: ssbd03admin
+--
+
+CREATE INDEX idx_account_blocked_login ON public.account USING btree (login) WHERE blocked = true;
+
+
+--
+-- Name: idx_account_login_trgm; Type: INDEX; Schema: public; Owner: ssbd03admin
+--
+
+CREATE INDEX idx_account_login_trgm ON public.account USING gin (lower(login) gin_trgm_ops);
+
+
+--
+-- Name: idx_personal_data_name_trgm; Type: INDEX; Schema: public; Owner: ssbd03admin
+--
+
+CREATE INDEX idx_personal_data_name_trgm ON public.personal_data USING gin (lower(name) gin_trgm_ops);
+
+
+--
+-- Name: idx_personal_data_lastname_trgm; Type: INDEX; Schema: public; Owner: ssbd03admin
+--
+
+CREATE INDEX idx_personal_data_lastname_trgm ON public.personal_data USING gin (lower(lastname) gin_trgm_ops);
+
+
+--
+-- Name: idx_token_type; Type: INDEX; Schema: public; Owner: ssbd03admin
+--
+
+CREATE INDEX idx_token_type ON public.token USING btree (type);
+
+
 --
 -- Name: account_attributes account_attribute_account_id_fk; Type: FK CONSTRAINT; Schema: public; Owner: ssbd03admin
 --
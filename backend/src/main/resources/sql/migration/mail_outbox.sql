@@ -0,0 +1,23 @@
+-- Adds the mail outbox, which e-mail messages are written to in the transaction of the use case sending them.
+-- Must be executed by ssbd03admin on existing databases, before deploying the application version
+-- introducing the mail_outbox table. The script is idempotent.
+
+CREATE TABLE IF NOT EXISTS public.mail_outbox (
+    creation_timestamp timestamp(6) without time zone NOT NULL,
+    next_attempt_timestamp timestamp(6) without time zone NOT NULL,
+    version bigint NOT NULL,
+    attempts integer NOT NULL,
+    id uuid NOT NULL,
+    recipient character varying(320) NOT NULL,
+    subject character varying(512) NOT NULL,
+    content text NOT NULL,
+    status character varying(16) NOT NULL,
+    last_error character varying(1024),
+    CONSTRAINT mail_outbox_pkey PRIMARY KEY (id),
+    CONSTRAINT mail_outbox_status_check CHECK (((status)::text = ANY ((ARRAY['PENDING'::character varying, 'FAILED'::character varying])::text[])))
+);
+
+CREATE INDEX IF NOT EXISTS idx_mail_outbox_status_next_attempt ON public.mail_outbox USING btree (status, next_attempt_timestamp);
+
+GRANT SELECT, INSERT, DELETE, UPDATE ON TABLE public.mail_outbox TO ssbd03mok;
+GRANT INSERT ON TABLE public.mail_outbox TO ssbd03mop;
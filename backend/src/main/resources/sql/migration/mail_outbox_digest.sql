@@ -0,0 +1,15 @@
+-- Adds columns describing notifications, which could be merged into a digest, to the mail outbox.
+-- Must be executed by ssbd03admin on existing databases, before deploying the application version
+-- introducing notification digests. The script is idempotent.
+
+ALTER TABLE public.mail_outbox ADD COLUMN IF NOT EXISTS digest_category character varying(64);
+ALTER TABLE public.mail_outbox ADD COLUMN IF NOT EXISTS digest_item character varying(1024);
+ALTER TABLE public.mail_outbox ADD COLUMN IF NOT EXISTS language character varying(16);
+ALTER TABLE public.mail_outbox ADD COLUMN IF NOT EXISTS first_name character varying(32);
+ALTER TABLE public.mail_outbox ADD COLUMN IF NOT EXISTS last_name character varying(32);
+
+ALTER TABLE public.mail_outbox DROP CONSTRAINT IF EXISTS mail_outbox_digest_category_check;
+ALTER TABLE public.mail_outbox ADD CONSTRAINT mail_outbox_digest_category_check
+    CHECK (((digest_category)::text = ANY ((ARRAY['ADMINISTRATIVELY_CANCELLED_RESERVATION'::character varying, 'SYSTEM_END_RESERVATION'::character varying, 'CHANGED_CLIENT_TYPE'::character varying])::text[])));
+
+CREATE INDEX IF NOT EXISTS idx_mail_outbox_recipient_digest_category ON public.mail_outbox USING btree (recipient, digest_category);
@@ -0,0 +1,42 @@
+-- Adds the indexes used by the named queries on large tables, verified by NamedQueryExplainIT.
+-- Must be executed by ssbd03admin on existing databases. The script is idempotent.
+-- pg_trgm is a trusted extension, so it may be created by the owner of the database.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Reservations of a client and of a sector, listed and counted in the order of their begin time.
+-- The composite indexes replace the single column indexes of the foreign keys.
+
+CREATE INDEX IF NOT EXISTS idx_reservation_client_id_begin_time ON public.reservation USING btree (client_id, begin_time);
+CREATE INDEX IF NOT EXISTS idx_reservation_sector_id_begin_time ON public.reservation USING btree (sector_id, begin_time);
+DROP INDEX IF EXISTS public.idx_reservation_client_id;
+DROP INDEX IF EXISTS public.idx_reservation_sector_id;
+
+-- Paginated list of all reservations.
+
+CREATE INDEX IF NOT EXISTS idx_reservation_begin_time ON public.reservation USING btree (begin_time);
+
+-- Awaiting and in progress reservations, a small part of all reservations, looked up by the schedulers
+-- terminating and completing reservations.
+
+CREATE INDEX IF NOT EXISTS idx_reservation_active_begin_time ON public.reservation USING btree (begin_time)
+    WHERE status IN ('AWAITING', 'IN_PROGRESS');
+CREATE INDEX IF NOT EXISTS idx_reservation_active_end_time ON public.reservation USING btree (end_time)
+    WHERE status IN ('AWAITING', 'IN_PROGRESS');
+
+-- Inactive and blocked accounts, looked up by the schedulers removing not activated accounts and unblocking accounts.
+
+CREATE INDEX IF NOT EXISTS idx_account_inactive_creation_timestamp ON public.account USING btree (creation_timestamp)
+    WHERE active = false;
+CREATE INDEX IF NOT EXISTS idx_account_blocked_login ON public.account USING btree (login)
+    WHERE blocked = true;
+
+-- Searching accounts by a part of the login, first name or last name (LIKE '%phrase%').
+
+CREATE INDEX IF NOT EXISTS idx_account_login_trgm ON public.account USING gin (lower(login) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_personal_data_name_trgm ON public.personal_data USING gin (lower(name) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_personal_data_lastname_trgm ON public.personal_data USING gin (lower(lastname) gin_trgm_ops);
+
+-- Registration tokens, looked up by the scheduler removing not activated accounts.
+
+CREATE INDEX IF NOT EXISTS idx_token_type ON public.token USING btree (type);
@@ -0,0 +1,14 @@
+-- Adds creation time of password history entries, used for keeping only the most recent passwords in the history.
+-- Must be executed by ssbd03admin on existing databases, before deploying the application version
+-- introducing the creation_time column. The script is idempotent.
+-- Existing entries get the time of the first account history row with the same password hash, and the creation
+-- time of the account when there is no such row.
+
+ALTER TABLE public.past_password ADD COLUMN IF NOT EXISTS creation_time timestamp(6) without time zone;
+
+UPDATE public.past_password pp
+SET creation_time = COALESCE(
+        (SELECT min(ah.modification_time) FROM public.account_history ah
+         WHERE ah.id = pp.account_id AND ah.password = pp.past_password),
+        (SELECT a.creation_timestamp FROM public.account a WHERE a.id = pp.account_id))
+WHERE pp.creation_time IS NULL;
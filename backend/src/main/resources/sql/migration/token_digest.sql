@@ -0,0 +1,18 @@
+-- Moves lookups of tokens from the raw token value to its SHA-256 digest.
+-- Must be executed by ssbd03admin on existing databases, before deploying the application version
+-- introducing the token_digest column. The script is idempotent.
+
+ALTER TABLE public.token ADD COLUMN IF NOT EXISTS token_digest bytea;
+
+UPDATE public.token SET token_digest = sha256(convert_to(token_value, 'UTF8')) WHERE token_digest IS NULL;
+
+ALTER TABLE public.token ALTER COLUMN token_digest SET NOT NULL;
+
+ALTER TABLE ONLY public.token DROP CONSTRAINT IF EXISTS token_token_value_key;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'token_token_digest_key') THEN
+        ALTER TABLE ONLY public.token ADD CONSTRAINT token_token_digest_key UNIQUE (token_digest);
+    END IF;
+END $$;
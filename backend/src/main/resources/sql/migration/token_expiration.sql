@@ -0,0 +1,17 @@
+-- Adds expiration time of tokens, used by the scheduled removal of expired tokens.
+-- Must be executed by ssbd03admin on existing databases, before deploying the application version
+-- introducing the expiration_timestamp column. The script is idempotent.
+-- Existing refresh, password reset, e-mail change and multi-factor authentication tokens, the only ones removed
+-- when expired, get expiration time based on the longest token validity period (24 hours). Tokens of the password
+-- change forced by the administrator never expire, so their expiration time is cleared, also when it was set
+-- by a previous version of this script.
+
+ALTER TABLE public.token ADD COLUMN IF NOT EXISTS expiration_timestamp timestamp(6) without time zone;
+
+UPDATE public.token SET expiration_timestamp = creation_timestamp + INTERVAL '24 hours'
+WHERE expiration_timestamp IS NULL
+  AND type IN ('REFRESH_TOKEN', 'RESET_PASSWORD', 'CONFIRM_EMAIL', 'MULTI_FACTOR_AUTHENTICATION_CODE');
+
+UPDATE public.token SET expiration_timestamp = NULL WHERE type = 'CHANGE_OVERWRITTEN_PASSWORD';
+
+CREATE INDEX IF NOT EXISTS idx_token_expiration_timestamp ON public.token USING btree (expiration_timestamp);
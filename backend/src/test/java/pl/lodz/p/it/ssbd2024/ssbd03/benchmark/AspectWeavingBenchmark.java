@@ -0,0 +1,293 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.aspectj.lang.Aspects;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.aspectj.annotation.AnnotationAwareAspectJAutoProxyCreator;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.objenesis.SpringObjenesis;
+import org.springframework.stereotype.Repository;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ClassUtils;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.exception.facade.AccountFacadeAspect;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.exception.facade.GenericFacadeAspect;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.exception.facade.ParkingFacadeAspect;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.exception.facade.TokenFacadeAspect;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.exception.facade.UserLevelFacadeAspect;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.exception.service.GenericServiceAspect;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerAspect;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerInterceptor;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.TxAspect;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.TxTracked;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.metrics.MetricsAspect;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.tracing.TracingAspect;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.util.RunAsImpl;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.util.WovenAspectBeanFactoryPostProcessor;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.authorization.AuthorityIndex;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.roles.RolesMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the aspects of the application applied through Spring AOP proxies (default build), or woven
+ * at compile time (aspectj-ctw Maven profile), where only RunAsImpl and the exception translating aspects are still
+ * applied through proxies. The mode is detected from the compiled classes, so the benchmark is run once for each build:
+ * <ul>
+ *     <li><code>call</code>: average time of a call passing through controller, service and facade, annotated
+ *     just as in the application, so that the logging, transaction tracking and exception translating aspects
+ *     are applied, compared with the same call through classes without the annotations. Logging of the aspects
+ *     is limited to WARN, so that only the advice itself is measured.</li>
+ *     <li><code>proxyComponents</code>: time spent by the auto proxy creator on all components of the application
+ *     in a fresh JVM, which is the part of the context startup that compile-time weaving removes. Full context
+ *     startup requires the databases, and is not measured.</li>
+ * </ul>
+ * Usage: build test classes with <code>mvn -P dev test-compile</code> or
+ * <code>mvn -P dev,aspectj-ctw process-test-classes</code> (test classes are woven after their compilation), then
+ * run the main method from the test classpath.
+ */
+public class AspectWeavingBenchmark {
+
+    private static final List<Class<?>> ASPECTS = List.of(GenericFacadeAspect.class, AccountFacadeAspect.class,
+            ParkingFacadeAspect.class, TokenFacadeAspect.class, UserLevelFacadeAspect.class, GenericServiceAspect.class,
+            RunAsImpl.class, LoggerAspect.class, TxAspect.class, MetricsAspect.class, TracingAspect.class);
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(AspectWeavingBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @State(Scope.Benchmark)
+    public static class CallChain {
+
+        public enum Variant {NO_ASPECTS, ASPECTS}
+
+        @Param({"NO_ASPECTS", "ASPECTS"})
+        public Variant variant;
+
+        private PlainController plainController;
+        private BenchmarkController controller;
+        private long value;
+
+        @Setup
+        public void setUp() {
+            aspectsLogger().setLevel(Level.WARN);
+            if (variant == Variant.NO_ASPECTS) {
+                plainController = new PlainController(new PlainService(new PlainFacade()));
+                return;
+            }
+            AspectWeavingBenchmark benchmark = new AspectWeavingBenchmark();
+            List<Object> aspects = aspects().stream()
+                    .filter(aspect -> !WovenAspectBeanFactoryPostProcessor.isWovenAspect(aspect.getClass()))
+                    .toList();
+            BenchmarkFacade facade = proxy(benchmark.new BenchmarkFacade(), aspects);
+            BenchmarkService service = proxy(benchmark.new BenchmarkService(facade), aspects);
+            controller = proxy(benchmark.new BenchmarkController(service), aspects);
+        }
+
+        @TearDown
+        public void tearDown() {
+            aspectsLogger().setLevel(null);
+        }
+
+        long handle() {
+            return variant == Variant.NO_ASPECTS ? plainController.handle(value++) : controller.handle(value++);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Components {
+
+        private final List<Object> beans = new ArrayList<>();
+        private final List<Class<?>> types = new ArrayList<>();
+        private AnnotationAwareAspectJAutoProxyCreator proxyCreator;
+
+        @Setup
+        public void setUp() {
+            DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+            for (Object aspect : aspects()) {
+                beanFactory.registerSingleton(aspect.getClass().getSimpleName(), aspect);
+            }
+            proxyCreator = new AnnotationAwareAspectJAutoProxyCreator();
+            proxyCreator.setProxyTargetClass(true);
+            proxyCreator.setBeanFactory(beanFactory);
+
+            ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(true);
+            SpringObjenesis objenesis = new SpringObjenesis();
+            for (BeanDefinition definition : scanner.findCandidateComponents("pl.lodz.p.it.ssbd2024.ssbd03")) {
+                Class<?> type = ClassUtils.resolveClassName(definition.getBeanClassName(), null);
+                if (type.isAnnotationPresent(Configuration.class) || ASPECTS.contains(type)) continue;
+                types.add(type);
+                beans.add(objenesis.newInstance(type));
+            }
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    @Fork(1)
+    public long call(CallChain chain) {
+        return chain.handle();
+    }
+
+    /**
+     * Passes every component through the auto proxy creator once per JVM, as the application context does
+     * on startup, so the first (cold) invocation is measured in each fork.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(5)
+    public int proxyComponents(Components components) {
+        int proxies = 0;
+        for (int i = 0; i < components.beans.size(); i++) {
+            Object result = components.proxyCreator.postProcessAfterInitialization(components.beans.get(i),
+                    components.types.get(i).getName());
+            if (AopUtils.isAopProxy(result)) proxies++;
+        }
+        return proxies;
+    }
+
+    private static Logger aspectsLogger() {
+        return (Logger) LoggerFactory.getLogger("pl.lodz.p.it.ssbd2024.ssbd03.aspects");
+    }
+
+    private static List<Object> aspects() {
+        return ASPECTS.stream().map(AspectWeavingBenchmark::aspect).toList();
+    }
+
+    private static Object aspect(Class<?> type) {
+        if (WovenAspectBeanFactoryPostProcessor.isWovenAspect(type)) return Aspects.aspectOf(type);
+        // None of the benchmarked classes is run as SYSTEM, so the roles are never mapped.
+        if (type == RunAsImpl.class) return new RunAsImpl(new RolesMapper(new AuthorityIndex()));
+        return BeanUtils.instantiateClass(type);
+    }
+
+    /**
+     * @return Proxy of the target with the given aspects, or the target itself when none of them applies to it,
+     * just as the auto proxy creator does.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(T target, List<Object> aspects) {
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        aspects.forEach(proxyFactory::addAspect);
+        if (AopUtils.findAdvisorsThatCanApply(List.of(proxyFactory.getAdvisors()), target.getClass()).isEmpty()) {
+            return target;
+        }
+        return (T) proxyFactory.getProxy();
+    }
+
+    // Classes without any annotation are not advised in either mode, so they are the baseline of the call.
+
+    public static class PlainController {
+
+        private final PlainService service;
+
+        public PlainController(PlainService service) {
+            this.service = service;
+        }
+
+        public long handle(long value) {
+            return service.process(value);
+        }
+    }
+
+    public static class PlainService {
+
+        private final PlainFacade facade;
+
+        public PlainService(PlainFacade facade) {
+            this.facade = facade;
+        }
+
+        public long process(long value) {
+            return facade.find(value);
+        }
+    }
+
+    public static class PlainFacade {
+
+        public long find(long value) {
+            return value + 1;
+        }
+    }
+
+    // Inner (non-static) classes are not picked up by component scanning of the application context in the ITs.
+
+    @LoggerInterceptor
+    @TxTracked
+    public class BenchmarkController {
+
+        private final BenchmarkService service;
+
+        public BenchmarkController() {
+            this(null);
+        }
+
+        public BenchmarkController(BenchmarkService service) {
+            this.service = service;
+        }
+
+        public long handle(long value) {
+            return service.process(value);
+        }
+    }
+
+    @Service
+    @LoggerInterceptor
+    @TxTracked
+    public class BenchmarkService {
+
+        private final BenchmarkFacade facade;
+
+        public BenchmarkService() {
+            this(null);
+        }
+
+        public BenchmarkService(BenchmarkFacade facade) {
+            this.facade = facade;
+        }
+
+        public long process(long value) {
+            return facade.find(value);
+        }
+    }
+
+    @Repository
+    @LoggerInterceptor
+    @TxTracked
+    public class BenchmarkFacade {
+
+        public long find(long value) {
+            return value + 1;
+        }
+    }
+}
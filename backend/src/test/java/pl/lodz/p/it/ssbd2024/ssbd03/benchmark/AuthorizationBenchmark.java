@@ -0,0 +1,158 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.benchmark;
+
+import jakarta.annotation.security.RolesAllowed;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.Advisor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.authorization.AuthorityIndex;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.authorization.AuthorityMaskAuthenticationToken;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.authorization.AuthorityMaskAuthorizationManager;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Authorities;
+
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * JMH benchmark of the JSR-250 authorization of a call passing through controller, service and facade proxies,
+ * each annotated with <code>@RolesAllowed</code>, just as in the application. The default Spring Security
+ * authorization manager is compared with the one using precompiled authority masks, with and without the mask
+ * computed in advance by the JWT filter. The user has all authorities declared in {@link Authorities}, and
+ * the required authority is the last one on each list.
+ * <p>
+ * Usage: build test classes (<code>mvn -P dev test-compile</code>), then run the main method from the test classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthorizationBenchmark {
+
+    /**
+     * Authorization manager used by the proxies, and the authentication of the user.
+     */
+    public enum Variant {
+        JSR250_MANAGER,
+        MASK_MANAGER,
+        MASK_MANAGER_WITH_MASK
+    }
+
+    @Param({"JSR250_MANAGER", "MASK_MANAGER", "MASK_MANAGER_WITH_MASK"})
+    public Variant variant;
+
+    private Controller controller;
+    private long value;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(AuthorizationBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup
+    public void setUp() {
+        List<SimpleGrantedAuthority> authorities = Arrays.stream(Authorities.class.getDeclaredFields())
+                .filter(field -> Modifier.isStatic(field.getModifiers()))
+                .map(field -> new SimpleGrantedAuthority("ROLE_" + field.getName()))
+                .toList();
+        AuthorityIndex authorityIndex = new AuthorityIndex();
+        AuthorityMaskAuthorizationManager maskManager = new AuthorityMaskAuthorizationManager(authorityIndex);
+
+        Supplier<Advisor> advisor = switch (variant) {
+            case JSR250_MANAGER -> AuthorizationManagerBeforeMethodInterceptor::jsr250;
+            case MASK_MANAGER, MASK_MANAGER_WITH_MASK -> () -> AuthorizationManagerBeforeMethodInterceptor.jsr250(maskManager);
+        };
+        Authentication authentication = variant == Variant.MASK_MANAGER_WITH_MASK ?
+                new AuthorityMaskAuthenticationToken("login", null, authorities, authorityIndex.maskOf(authorities)) :
+                new UsernamePasswordAuthenticationToken("login", null, authorities);
+
+        Facade facade = proxy(new Facade(), advisor.get());
+        Service service = proxy(new Service(facade), advisor.get());
+        controller = proxy(new Controller(service), advisor.get());
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public long handle() {
+        return controller.handle(value++);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(T target, Advisor advisor) {
+        ProxyFactory proxyFactory = new ProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvisor(advisor);
+        return (T) proxyFactory.getProxy();
+    }
+
+    public static class Controller {
+
+        private final Service service;
+
+        public Controller() {
+            this(null);
+        }
+
+        public Controller(Service service) {
+            this.service = service;
+        }
+
+        @RolesAllowed({Authorities.GET_OWN_ACCOUNT, Authorities.MODIFY_OWN_ACCOUNT, Authorities.RESERVE_PARKING_PLACE})
+        public long handle(long value) {
+            return service.process(value);
+        }
+    }
+
+    public static class Service {
+
+        private final Facade facade;
+
+        public Service() {
+            this(null);
+        }
+
+        public Service(Facade facade) {
+            this.facade = facade;
+        }
+
+        @RolesAllowed({Authorities.GET_OWN_ACCOUNT, Authorities.CHANGE_OWN_MAIL, Authorities.RESERVE_PARKING_PLACE})
+        public long process(long value) {
+            return facade.find(value);
+        }
+    }
+
+    public static class Facade {
+
+        @RolesAllowed({Authorities.LOGIN, Authorities.REGISTER_CLIENT, Authorities.GET_OWN_ACCOUNT,
+                Authorities.CHANGE_OWN_MAIL, Authorities.MODIFY_USER_ACCOUNT, Authorities.RESERVE_PARKING_PLACE})
+        public long find(long value) {
+            return value + 1;
+        }
+    }
+}
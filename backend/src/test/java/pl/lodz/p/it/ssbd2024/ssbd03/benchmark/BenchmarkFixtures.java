@@ -0,0 +1,112 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.benchmark;
+
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.AbstractEntity;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Account;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Client;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Staff;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.Address;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.Parking;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.ParkingEvent;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.Reservation;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.Sector;
+
+import java.lang.reflect.Field;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Entities used by the benchmarks, shaped like the data of a running application: parking with sectors of all types,
+ * partially occupied, and accounts with several user levels. Data is generated from a fixed seed, so that results
+ * of consecutive runs are comparable.
+ */
+final class BenchmarkFixtures {
+
+    static final long SEED = 20240601L;
+
+    private static final Field ID_FIELD;
+
+    static {
+        try {
+            ID_FIELD = AbstractEntity.class.getDeclaredField("id");
+            ID_FIELD.setAccessible(true);
+        } catch (NoSuchFieldException exception) {
+            throw new ExceptionInInitializerError(exception);
+        }
+    }
+
+    private BenchmarkFixtures() {}
+
+    static <T extends AbstractEntity> T withId(T entity) {
+        try {
+            ID_FIELD.set(entity, UUID.randomUUID());
+            return entity;
+        } catch (IllegalAccessException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    /**
+     * @param sectorCount Number of sectors of the parking.
+     * @param random      Source of the occupancy and weights of the sectors.
+     * @return Parking with the given number of sectors, each with 20 to 200 places, occupied in 0 to 100%,
+     * and weight from 1 to 100.
+     */
+    static Parking parking(int sectorCount, Random random) {
+        Parking parking = withId(new Parking(0L, new Address("Łódź", "90-924", "Wólczańska"),
+                Parking.SectorDeterminationStrategy.LEAST_OCCUPIED));
+        Sector.SectorType[] types = Sector.SectorType.values();
+        for (int i = 0; i < sectorCount; i++) {
+            int maxPlaces = 20 + random.nextInt(181);
+            parking.addSector("%c%c-%02d".formatted('A' + i / 100 % 26, 'A' + i / 10 % 10, i % 100),
+                    types[i % types.length], maxPlaces, 1 + random.nextInt(100));
+        }
+        for (Sector sector : parking.getSectors()) {
+            withId(sector);
+            sector.setOccupiedPlaces(random.nextInt(sector.getMaxPlaces() + 1));
+        }
+        return parking;
+    }
+
+    /**
+     * @return Active account of a client, who is also a staff member.
+     */
+    static Account account() {
+        Account account = withId(new Account("jerzybem", "$2a$10$z8ljVYjzKj0pBg5dQbjzVOTyn8gGmsD.YnzG1qFnIc8eoV4sHf0P2",
+                "Jerzy", "Bem", "jerzybem@example.com", "123123123", 0L));
+        account.setActive(true);
+        account.setAccountLanguage("pl");
+        account.getActivityLog().setLastSuccessfulLoginTime(LocalDateTime.now().minusDays(1));
+        account.getActivityLog().setLastSuccessfulLoginIp("192.168.1.10");
+        Client client = withId(new Client(0L));
+        client.setAccount(account);
+        account.addUserLevel(client);
+        Staff staff = withId(new Staff(0L));
+        staff.setAccount(account);
+        account.addUserLevel(staff);
+        return account;
+    }
+
+    /**
+     * @param parking Parking, in sectors of which the reservations are made.
+     * @param count   Number of reservations.
+     * @param random  Source of the sectors of the reservations.
+     * @return Reservations of the account, each with entry and exit events.
+     */
+    static List<Reservation> reservations(Parking parking, Account account, int count, Random random) {
+        Client client = (Client) account.getUserLevels().stream().filter(Client.class::isInstance).findFirst().orElseThrow();
+        List<Reservation> reservations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Sector sector = parking.getSectors().get(random.nextInt(parking.getSectors().size()));
+            LocalDateTime beginTime = LocalDateTime.now().minusDays(count - i);
+            Reservation reservation = withId(new Reservation(client, sector, beginTime));
+            reservation.setEndTime(beginTime.plusHours(2));
+            reservation.getParkingEvents().add(withId(new ParkingEvent(beginTime, ParkingEvent.EventType.ENTRY)));
+            reservation.getParkingEvents().add(withId(new ParkingEvent(beginTime.plusHours(2), ParkingEvent.EventType.EXIT)));
+            reservations.add(reservation);
+        }
+        return reservations;
+    }
+}
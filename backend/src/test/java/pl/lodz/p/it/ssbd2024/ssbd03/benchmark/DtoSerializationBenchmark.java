@@ -0,0 +1,84 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import pl.lodz.p.it.ssbd2024.ssbd03.commons.dto.mok.accountOutputDTO.AccountOutputDTO;
+import pl.lodz.p.it.ssbd2024.ssbd03.commons.dto.mop.reservationDTO.ReservationOutputListDTO;
+import pl.lodz.p.it.ssbd2024.ssbd03.commons.dto.mop.sectorDTO.SectorListDTO;
+import pl.lodz.p.it.ssbd2024.ssbd03.commons.mappers.mok.AccountMapper;
+import pl.lodz.p.it.ssbd2024.ssbd03.commons.mappers.mop.ReservationListMapper;
+import pl.lodz.p.it.ssbd2024.ssbd03.commons.mappers.mop.SectorListMapper;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Account;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.Parking;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.mok.mapper.MapperBaseException;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of writing the response bodies of the most frequent endpoints: the own account, the sectors of
+ * a parking (a page of 16) and the reservations of a client (a page of 20). The object mapper is configured just like
+ * the one of the JSON message converter in WebConfig.
+ * <p>
+ * Usage: build test classes (<code>mvn -P dev test-compile</code>), then run the main method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoSerializationBenchmark {
+
+    private ObjectWriter objectWriter;
+    private AccountOutputDTO account;
+    private List<SectorListDTO> sectors;
+    private List<ReservationOutputListDTO> reservations;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(DtoSerializationBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup
+    public void setUp() throws MapperBaseException {
+        objectWriter = new ObjectMapper().writer();
+        Random random = new Random(BenchmarkFixtures.SEED);
+        Account accountEntity = BenchmarkFixtures.account();
+        Parking parking = BenchmarkFixtures.parking(16, random);
+        account = AccountMapper.toAccountOutputDto(accountEntity);
+        sectors = parking.getSectors().stream().map(SectorListMapper::toSectorListDTO).toList();
+        reservations = BenchmarkFixtures.reservations(parking, accountEntity, 20, random).stream()
+                .map(ReservationListMapper::toReservationListDTO)
+                .toList();
+    }
+
+    @Benchmark
+    public byte[] account() throws JsonProcessingException {
+        return objectWriter.writeValueAsBytes(account);
+    }
+
+    @Benchmark
+    public byte[] sectorPage() throws JsonProcessingException {
+        return objectWriter.writeValueAsBytes(sectors);
+    }
+
+    @Benchmark
+    public byte[] reservationPage() throws JsonProcessingException {
+        return objectWriter.writeValueAsBytes(reservations);
+    }
+}
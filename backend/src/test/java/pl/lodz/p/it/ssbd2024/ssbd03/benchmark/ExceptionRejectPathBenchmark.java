@@ -0,0 +1,115 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.stereotype.Repository;
+import org.springframework.stereotype.Service;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.exception.facade.GenericFacadeAspect;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.exception.service.GenericServiceAspect;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.mop.reservation.ReservationNoAvailablePlaceException;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the reject path of making a reservation: the service asks the facade for the number of taken
+ * places and throws ReservationNoAvailablePlaceException, which passes through the exception translating aspects
+ * of the service and the facade layer. The call is made at a given stack depth, emulating frames of the servlet
+ * container, filter chain and controller. Exceptions capturing the stack trace are compared with stackless ones.
+ * <p>
+ * Usage: build test classes (<code>mvn -P dev test-compile</code>), then run the main method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExceptionRejectPathBenchmark {
+
+    @Param({"false", "true"})
+    public boolean stackless;
+
+    @Param({"50", "150"})
+    public int stackDepth;
+
+    private ReservationServiceStub service;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ExceptionRejectPathBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup
+    public void setUp() {
+        ApplicationBaseException.setStacklessExpectedOutcomes(stackless);
+        List<Object> aspects = List.of(new GenericFacadeAspect(), new GenericServiceAspect());
+        service = proxy(new ReservationServiceStub(proxy(new SectorFacadeStub(), aspects)), aspects);
+    }
+
+    @TearDown
+    public void tearDown() {
+        ApplicationBaseException.setStacklessExpectedOutcomes(false);
+    }
+
+    @Benchmark
+    public Object reject() {
+        return this.callAtDepth(stackDepth);
+    }
+
+    private Object callAtDepth(int depth) {
+        if (depth > 0) return this.callAtDepth(depth - 1);
+        try {
+            return service.makeReservation();
+        } catch (ApplicationBaseException exception) {
+            return exception;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(T target, List<Object> aspects) {
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        aspects.forEach(proxyFactory::addAspect);
+        return (T) proxyFactory.getProxy();
+    }
+
+    // Inner (non-static) classes are not picked up by component scanning of the application context in the ITs.
+
+    @Service
+    public class ReservationServiceStub {
+
+        private final SectorFacadeStub facade;
+
+        public ReservationServiceStub(SectorFacadeStub facade) {
+            this.facade = facade;
+        }
+
+        public Object makeReservation() throws ApplicationBaseException {
+            if (facade.countTakenPlaces() >= 10) throw new ReservationNoAvailablePlaceException();
+            return facade;
+        }
+    }
+
+    @Repository
+    public class SectorFacadeStub {
+
+        public int countTakenPlaces() {
+            return 10;
+        }
+    }
+}
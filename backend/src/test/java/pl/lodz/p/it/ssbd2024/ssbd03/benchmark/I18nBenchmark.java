@@ -0,0 +1,55 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.I18n;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of resolving the messages, as done several times for each rendered mail. Keys are taken in turns,
+ * so that lookups are not reduced to a single constant.
+ * <p>
+ * Usage: build test classes (<code>mvn -P dev test-compile</code>), then run the main method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class I18nBenchmark {
+
+    private static final String[] KEYS = {
+            I18n.CONFIRM_REGISTER_GREETING_MESSAGE,
+            I18n.MADE_RESERVATION_MESSAGE_SUBJECT,
+            I18n.LOGIN_AUTHENTICATION_CODE_RESULT_MESSAGE,
+            I18n.AUTO_GENERATED_MESSAGE_NOTE,
+    };
+
+    @Param({"pl", "en"})
+    public String language;
+
+    private int index;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(I18nBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Benchmark
+    public String getMessage() {
+        index = (index + 1) & (KEYS.length - 1);
+        return I18n.getMessage(KEYS[index], language);
+    }
+}
@@ -0,0 +1,81 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import pl.lodz.p.it.ssbd2024.ssbd03.commons.dto.SignableDTO;
+import pl.lodz.p.it.ssbd2024.ssbd03.commons.mappers.mok.AccountMapper;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Account;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.mok.mapper.MapperBaseException;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.mok.token.TokenDataExtractionException;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.JWTProvider;
+
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of signing and verifying JSON Web Tokens: the access token issued at login and verified by
+ * the JWT filter on each request, and the signature of the DTO sent with the account (used for optimistic locking
+ * of modifications). The provider is called directly, without the security and logging proxies.
+ * <p>
+ * Usage: build test classes (<code>mvn -P dev test-compile</code>), then run the main method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JWTProviderBenchmark {
+
+    private JWTProvider jwtProvider;
+    private Account account;
+    private SignableDTO signableDTO;
+    private String accessToken;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JWTProviderBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup
+    public void setUp() throws MapperBaseException {
+        jwtProvider = new JWTProvider();
+        ReflectionTestUtils.setField(jwtProvider, "secretKey",
+                Base64.getEncoder().encodeToString("benchmark-secret-key-of-at-least-256-bits-length".getBytes()));
+        ReflectionTestUtils.setField(jwtProvider, "accessTokenTTL", 15);
+        account = BenchmarkFixtures.account();
+        signableDTO = AccountMapper.toAccountOutputDto(account);
+        accessToken = jwtProvider.generateJWTToken(account);
+    }
+
+    @Benchmark
+    public String signAccessToken() {
+        return jwtProvider.generateJWTToken(account);
+    }
+
+    @Benchmark
+    public boolean verifyAccessToken() {
+        return jwtProvider.isTokenValid(accessToken, account);
+    }
+
+    @Benchmark
+    public Object extractAccountId() throws TokenDataExtractionException {
+        return jwtProvider.extractAccountId(accessToken);
+    }
+
+    @Benchmark
+    public String signObject() {
+        return jwtProvider.generateObjectSignature(signableDTO);
+    }
+}
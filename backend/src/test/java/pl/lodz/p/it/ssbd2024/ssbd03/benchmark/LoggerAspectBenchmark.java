@@ -0,0 +1,133 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.helpers.NOPAppender;
+import org.aspectj.lang.Aspects;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.test.util.ReflectionTestUtils;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerAspect;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerInterceptor;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.util.WovenAspectBeanFactoryPostProcessor;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the overhead of LoggerAspect on a call of a service method, compared with the call of the same
+ * method without the aspect. Variants cover the configurations of the application: INFO level disabled, call not
+ * sampled, and call logged in plain and in structured format. Logged events are passed to an appender discarding
+ * them, so that the cost of building the message is measured, not the cost of the console.
+ * <p>
+ * Usage: build test classes (<code>mvn -P dev test-compile</code>), then run the main method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoggerAspectBenchmark {
+
+    public enum Variant {NO_ASPECT, INFO_DISABLED, NOT_SAMPLED, LOGGED_PLAIN, LOGGED_STRUCTURED}
+
+    @Param({"NO_ASPECT", "INFO_DISABLED", "NOT_SAMPLED", "LOGGED_PLAIN", "LOGGED_STRUCTURED"})
+    public Variant variant;
+
+    private AccountServiceStub service;
+    private UUID id;
+    private Logger aspectLogger;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(LoggerAspectBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup
+    public void setUp() {
+        id = UUID.randomUUID();
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("jerzybem", null,
+                List.of(new SimpleGrantedAuthority("ROLE_CLIENT"), new SimpleGrantedAuthority("ROLE_GET_OWN_ACCOUNT"))));
+
+        aspectLogger = (Logger) LoggerFactory.getLogger(LoggerAspect.class);
+        NOPAppender<ILoggingEvent> appender = new NOPAppender<>();
+        appender.setContext(aspectLogger.getLoggerContext());
+        appender.start();
+        aspectLogger.detachAndStopAllAppenders();
+        aspectLogger.addAppender(appender);
+        aspectLogger.setAdditive(false);
+        aspectLogger.setLevel(variant == Variant.INFO_DISABLED ? Level.ERROR : Level.INFO);
+
+        boolean woven = WovenAspectBeanFactoryPostProcessor.isWovenAspect(LoggerAspect.class);
+        LoggerAspect aspect = woven ? Aspects.aspectOf(LoggerAspect.class) : new LoggerAspect();
+        ReflectionTestUtils.setField(aspect, "structured", variant == Variant.LOGGED_STRUCTURED);
+        ReflectionTestUtils.setField(aspect, "defaultSamplingRate", variant == Variant.NOT_SAMPLED ? 0.0 : 1.0);
+        ReflectionTestUtils.setField(aspect, "packageSamplingRates", "");
+        aspect.init();
+
+        if (variant == Variant.NO_ASPECT) {
+            service = new AccountServiceStub();
+        } else if (woven) {
+            service = new LoggedAccountServiceStub();
+        } else {
+            AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new LoggedAccountServiceStub());
+            proxyFactory.setProxyTargetClass(true);
+            proxyFactory.addAspect(aspect);
+            service = proxyFactory.getProxy();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+        aspectLogger.detachAndStopAllAppenders();
+        aspectLogger.setAdditive(true);
+        aspectLogger.setLevel(null);
+    }
+
+    @Benchmark
+    public Object call() {
+        return service.getAccount(id, "pl");
+    }
+
+    // Inner (non-static) classes are not picked up by component scanning of the application context in the ITs.
+
+    @Service
+    public class AccountServiceStub {
+
+        public Object getAccount(UUID accountId, String language) {
+            return accountId;
+        }
+    }
+
+    @Service
+    @LoggerInterceptor
+    public class LoggedAccountServiceStub extends AccountServiceStub {
+
+        @Override
+        public Object getAccount(UUID accountId, String language) {
+            return accountId;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import pl.lodz.p.it.ssbd2024.ssbd03.commons.dto.mok.accountInputDTO.AccountModifyDTO;
+import pl.lodz.p.it.ssbd2024.ssbd03.commons.dto.mok.accountOutputDTO.AccountOutputDTO;
+import pl.lodz.p.it.ssbd2024.ssbd03.commons.dto.mop.parkingDTO.ParkingModifyDTO;
+import pl.lodz.p.it.ssbd2024.ssbd03.commons.dto.mop.sectorDTO.SectorModifyDTO;
+import pl.lodz.p.it.ssbd2024.ssbd03.commons.mappers.mok.AccountHistoryDataMapper;
+import pl.lodz.p.it.ssbd2024.ssbd03.commons.mappers.mok.AccountListMapper;
+import pl.lodz.p.it.ssbd2024.ssbd03.commons.mappers.mok.AccountMapper;
+import pl.lodz.p.it.ssbd2024.ssbd03.commons.mappers.mok.AttributeMapper;
+import pl.lodz.p.it.ssbd2024.ssbd03.commons.mappers.mok.UserLevelMapper;
+import pl.lodz.p.it.ssbd2024.ssbd03.commons.mappers.mop.ParkingHistoryDataMapper;
+import pl.lodz.p.it.ssbd2024.ssbd03.commons.mappers.mop.ParkingListMapper;
+import pl.lodz.p.it.ssbd2024.ssbd03.commons.mappers.mop.ParkingMapper;
+import pl.lodz.p.it.ssbd2024.ssbd03.commons.mappers.mop.ReservationListMapper;
+import pl.lodz.p.it.ssbd2024.ssbd03.commons.mappers.mop.SectorClientListMapper;
+import pl.lodz.p.it.ssbd2024.ssbd03.commons.mappers.mop.SectorListMapper;
+import pl.lodz.p.it.ssbd2024.ssbd03.commons.mappers.mop.SectorMapper;
+import pl.lodz.p.it.ssbd2024.ssbd03.commons.mappers.mop.UserReservationMapper;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Account;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.AccountHistoryData;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.AttributeName;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.AttributeRecord;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.AttributeValue;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.OperationType;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.UserLevel;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.Parking;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.ParkingHistoryData;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.Reservation;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.Sector;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.mok.mapper.MapperBaseException;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the entity-DTO mappers of the MOK and MOP modules, each mapping a single, fully populated
+ * object. Input DTOs are obtained by mapping the entities, so both directions work on the same data.
+ * <p>
+ * Usage: build test classes (<code>mvn -P dev test-compile</code>), then run the main method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    private Account account;
+    private AccountHistoryData accountHistoryData;
+    private AccountModifyDTO accountModifyDTO;
+    private UserLevel userLevel;
+    private AttributeRecord attributeRecord;
+    private Parking parking;
+    private ParkingHistoryData parkingHistoryData;
+    private ParkingModifyDTO parkingModifyDTO;
+    private Sector sector;
+    private SectorModifyDTO sectorModifyDTO;
+    private Reservation reservation;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MapperBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup
+    public void setUp() throws MapperBaseException {
+        Random random = new Random(BenchmarkFixtures.SEED);
+        account = BenchmarkFixtures.account();
+        accountHistoryData = new AccountHistoryData(account, OperationType.PERSONAL_DATA_MODIFICATION, account);
+        userLevel = account.getUserLevels().iterator().next();
+        AccountOutputDTO accountOutputDTO = AccountMapper.toAccountOutputDto(account);
+        accountModifyDTO = new AccountModifyDTO(accountOutputDTO.getLogin(), accountOutputDTO.getVersion(),
+                accountOutputDTO.getUserLevelsDto(), accountOutputDTO.getName(), accountOutputDTO.getLastname(),
+                accountOutputDTO.getPhoneNumber(), accountOutputDTO.isTwoFactorAuth());
+
+        AttributeName attributeName = BenchmarkFixtures.withId(new AttributeName("language"));
+        AttributeValue attributeValue = BenchmarkFixtures.withId(new AttributeValue("pl", attributeName));
+        attributeRecord = BenchmarkFixtures.withId(new AttributeRecord());
+        attributeRecord.setAttributeName(attributeName);
+        attributeRecord.setAttributeValue(attributeValue);
+
+        parking = BenchmarkFixtures.parking(16, random);
+        parkingHistoryData = new ParkingHistoryData(parking, account);
+        parkingModifyDTO = new ParkingModifyDTO(parking.getVersion(), parking.getId(), parking.getAddress().getCity(),
+                parking.getAddress().getZipCode(), parking.getAddress().getStreet(), parking.getSectorStrategy().name());
+        sector = parking.getSectors().getFirst();
+        sectorModifyDTO = new SectorModifyDTO(sector.getId(), parking.getId(), sector.getVersion(), sector.getName(),
+                sector.getType(), sector.getMaxPlaces(), sector.getWeight());
+        reservation = BenchmarkFixtures.reservations(parking, account, 1, random).getFirst();
+    }
+
+    // MOK
+
+    @Benchmark
+    public Object accountToAccountOutputDto() throws MapperBaseException {
+        return AccountMapper.toAccountOutputDto(account);
+    }
+
+    @Benchmark
+    public Object accountModifyDtoToAccount() throws MapperBaseException {
+        return AccountMapper.toAccount(accountModifyDTO);
+    }
+
+    @Benchmark
+    public Object accountToAccountListDto() {
+        return AccountListMapper.toAccountListDTO(account);
+    }
+
+    @Benchmark
+    public Object accountHistoryDataToOutputDto() {
+        return AccountHistoryDataMapper.toAccountHistoryDataOutputDto(accountHistoryData);
+    }
+
+    @Benchmark
+    public Object attributeRecordToAttributeDto() {
+        return AttributeMapper.toAttributeDTO(attributeRecord);
+    }
+
+    @Benchmark
+    public Object userLevelToUserLevelDto() throws MapperBaseException {
+        return UserLevelMapper.toUserLevelDTO(userLevel);
+    }
+
+    // MOP
+
+    @Benchmark
+    public Object parkingToParkingOutputDto() {
+        return ParkingMapper.toParkingOutputDto(parking);
+    }
+
+    @Benchmark
+    public Object parkingModifyDtoToParking() {
+        return ParkingMapper.toParking(parkingModifyDTO);
+    }
+
+    @Benchmark
+    public Object parkingToParkingListDto() {
+        return ParkingListMapper.toParkingListDTO(parking);
+    }
+
+    @Benchmark
+    public Object parkingHistoryDataToOutputDto() {
+        return ParkingHistoryDataMapper.toParkingHistoryDataOutputDto(parkingHistoryData);
+    }
+
+    @Benchmark
+    public Object sectorToSectorOutputDto() {
+        return SectorMapper.toSectorOutputDTO(sector);
+    }
+
+    @Benchmark
+    public Object sectorModifyDtoToSector() {
+        return SectorMapper.toSector(sectorModifyDTO, parking);
+    }
+
+    @Benchmark
+    public Object sectorToSectorListDto() {
+        return SectorListMapper.toSectorListDTO(sector);
+    }
+
+    @Benchmark
+    public Object sectorToSectorClientListDto() {
+        return SectorClientListMapper.toSectorClientListDTO(sector);
+    }
+
+    @Benchmark
+    public Object reservationToReservationListDto() {
+        return ReservationListMapper.toReservationListDTO(reservation);
+    }
+
+    @Benchmark
+    public Object reservationToReservationParkingEventListDto() {
+        return ReservationListMapper.toReservationParkingEventListDTO(reservation, reservation.getParkingEvents());
+    }
+
+    @Benchmark
+    public Object reservationToUserReservationDto() {
+        return UserReservationMapper.toDTO(reservation);
+    }
+}
@@ -0,0 +1,74 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.password.PasswordHistoryVerifier;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * JMH benchmark of password history verification, for different history sizes and numbers of comparisons run
+ * in parallel for a single check. Worst case is measured, that is the new password does not match any of the hashes,
+ * so all of them are checked. Hashes use BCrypt work factor 10, the default of Spring Security.
+ * <p>
+ * Parallel comparisons are faster only when there are free CPU cores, so results depend on the machine much more
+ * than in the other benchmarks.
+ * <p>
+ * Usage: build test classes (<code>mvn -P dev test-compile</code>), then run the main method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class PasswordHistoryVerifierBenchmark {
+
+    private static final int STRENGTH = 10;
+
+    @Param({"1", "5", "10", "30"})
+    public int historySize;
+
+    @Param({"1", "4", "8"})
+    public int parallelism;
+
+    private PasswordHistoryVerifier verifier;
+    private List<String> hashes;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(PasswordHistoryVerifierBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup
+    public void setUp() {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(STRENGTH);
+        verifier = new PasswordHistoryVerifier(encoder, historySize, parallelism, parallelism);
+        hashes = IntStream.range(0, historySize).mapToObj(i -> encoder.encode("Password" + i)).toList();
+    }
+
+    @TearDown
+    public void tearDown() {
+        verifier.shutdown();
+    }
+
+    @Benchmark
+    public boolean matchesAny() {
+        return verifier.matchesAny("NewPassword", hashes);
+    }
+}
@@ -0,0 +1,74 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.authorization.AuthorityIndex;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Roles;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.roles.RolesMapper;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.utils.UnsupportedRoleException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of mapping the roles of the user into authorities, as done by the JWT filter for each user level
+ * of each authenticated request. Roles are read from the same roles.properties as in the application.
+ * <p>
+ * Usage: build test classes (<code>mvn -P dev test-compile</code>), then run the main method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RolesMapperBenchmark {
+
+    @Param({"CLIENT", "STAFF", "ADMIN"})
+    public Roles role;
+
+    private RolesMapper rolesMapper;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RolesMapperBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        Properties properties = new Properties();
+        try (InputStream inputStream = RolesMapper.class.getResourceAsStream("/properties/roles.properties")) {
+            properties.load(inputStream);
+        }
+        rolesMapper = new RolesMapper(new AuthorityIndex());
+        for (String name : new String[] {"admin", "staff", "client", "authenticated", "anonymous", "system"}) {
+            String field = "role" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+            ReflectionTestUtils.setField(rolesMapper, field, properties.getProperty("role." + name).split(","));
+        }
+        rolesMapper.init();
+    }
+
+    @Benchmark
+    public Object getAuthorities() throws UnsupportedRoleException {
+        return rolesMapper.getAuthorities(role);
+    }
+
+    @Benchmark
+    public Object getAuthorityMask() throws UnsupportedRoleException {
+        return rolesMapper.getAuthorityMask(role);
+    }
+}
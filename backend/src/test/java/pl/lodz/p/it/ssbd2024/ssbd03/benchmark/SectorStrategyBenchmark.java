@@ -0,0 +1,70 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.Parking;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.Sector;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.SectorDeterminationStrategy.LeastOccupied;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.SectorDeterminationStrategy.LeastOccupiedWeighted;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.SectorDeterminationStrategy.MostOccupied;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.SectorDeterminationStrategy.SectorStrategy;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the strategies choosing the sector of the reservation, over the sectors of a single parking,
+ * as passed by the service when the reservation is made or the client enters the parking. Sizes cover a small
+ * parking (4 sectors), a typical one (16) and a multi-storey one (64).
+ * <p>
+ * Usage: build test classes (<code>mvn -P dev test-compile</code>), then run the main method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SectorStrategyBenchmark {
+
+    @Param({"LEAST_OCCUPIED", "MOST_OCCUPIED", "LEAST_OCCUPIED_WEIGHTED"})
+    public Parking.SectorDeterminationStrategy strategy;
+
+    @Param({"4", "16", "64"})
+    public int sectorCount;
+
+    private SectorStrategy sectorStrategy;
+    private List<Sector> sectors;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SectorStrategyBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup
+    public void setUp() {
+        sectorStrategy = switch (strategy) {
+            case LEAST_OCCUPIED -> new LeastOccupied();
+            case MOST_OCCUPIED -> new MostOccupied();
+            case LEAST_OCCUPIED_WEIGHTED -> new LeastOccupiedWeighted();
+        };
+        sectors = List.copyOf(BenchmarkFixtures.parking(sectorCount, new Random(BenchmarkFixtures.SEED)).getSectors());
+    }
+
+    @Benchmark
+    public Sector choose() {
+        return sectorStrategy.choose(sectors);
+    }
+}
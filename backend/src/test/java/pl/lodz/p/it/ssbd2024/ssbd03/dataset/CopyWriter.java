@@ -0,0 +1,101 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.dataset;
+
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+
+/**
+ * Writes rows of a single table to PostgreSQL with <code>COPY ... FROM STDIN</code> in the CSV format, buffering
+ * them in chunks. Strings are always quoted, so that an empty string differs from NULL (an empty unquoted value).
+ */
+class CopyWriter implements AutoCloseable {
+
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    private final CopyIn copyIn;
+    private final StringBuilder chunk = new StringBuilder(CHUNK_SIZE + 4096);
+    private boolean closed = false;
+
+    CopyWriter(CopyManager copyManager, String table, String... columns) throws SQLException {
+        this.copyIn = copyManager.copyIn("COPY public.%s (%s) FROM STDIN (FORMAT csv)".formatted(table, String.join(", ", columns)));
+    }
+
+    /**
+     * Writes a row, with its values in the order of the columns given when opening the writer.
+     */
+    void row(Object... values) throws SQLException {
+        appendRow(chunk, values);
+        if (chunk.length() >= CHUNK_SIZE) {
+            flushChunk();
+        }
+    }
+
+    /**
+     * Finishes the copy.
+     *
+     * @return Number of rows copied.
+     */
+    long finish() throws SQLException {
+        flushChunk();
+        closed = true;
+        return copyIn.endCopy();
+    }
+
+    /**
+     * Cancels the copy, unless it was finished.
+     */
+    @Override
+    public void close() throws SQLException {
+        if (!closed) {
+            closed = true;
+            copyIn.cancelCopy();
+        }
+    }
+
+    private void flushChunk() throws SQLException {
+        if (!chunk.isEmpty()) {
+            byte[] bytes = chunk.toString().getBytes(StandardCharsets.UTF_8);
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+            chunk.setLength(0);
+        }
+    }
+
+    /**
+     * Appends a row in the CSV format of COPY, terminated with a new line.
+     */
+    static void appendRow(StringBuilder row, Object... values) {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                row.append(',');
+            }
+            appendValue(row, values[i]);
+        }
+        row.append('\n');
+    }
+
+    private static void appendValue(StringBuilder row, Object value) {
+        switch (value) {
+            case null -> { }
+            case Boolean bool -> row.append(bool ? 't' : 'f');
+            case byte[] bytes -> row.append("\\x").append(HexFormat.of().formatHex(bytes));
+            case LocalDateTime time -> row.append(time);
+            case Enum<?> constant -> row.append(constant.name());
+            case String string -> {
+                row.append('"');
+                for (int i = 0; i < string.length(); i++) {
+                    char character = string.charAt(i);
+                    if (character == '"') {
+                        row.append('"');
+                    }
+                    row.append(character);
+                }
+                row.append('"');
+            }
+            default -> row.append(value);
+        }
+    }
+}
@@ -0,0 +1,678 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.dataset;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Client.ClientType;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.OperationType;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Token;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Token.TokenType;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.Parking.SectorDeterminationStrategy;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.ParkingEvent.EventType;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.Reservation.ReservationStatus;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.Sector.SectorType;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Generator of a synthetic, production-scale dataset, bulk-loaded into PostgreSQL with <code>COPY</code>: accounts
+ * with their personal data, user levels, past passwords, tokens and history, parking with their sectors and history,
+ * and reservations with their parking events. The volumes are given by {@link DatasetVolumes}.
+ * <p>
+ * The data follows the temporal patterns of a working system: registrations grow over time, most accounts logged in
+ * recently, only a few wait for activation or are blocked (the schedulers remove and unblock them), reservations
+ * follow the business growth, the daily rush hours and quieter weekends, and their statuses and parking events are
+ * consistent with their time relative to now. A few clients make most of the reservations, and walk-in reservations
+ * made at the gates have no client.
+ * <p>
+ * Every row is derived from the seed and its own index only, so the same seed and volumes give the same dataset, and
+ * rows referring to each other are generated without keeping the referenced ones in memory. Identifiers have the form
+ * <code>d50000TT-0000-4000-8000-IIIIIIIIIIII</code>, where TT identifies the table and I is the index of the row, so
+ * the dataset may be loaded next to other data, e.g. the integration test one. All accounts have the password of the
+ * integration test accounts, so that they may log in during load tests.
+ * <p>
+ * The tables must exist and the generated rows must not be there yet. Run it from the command line with
+ * <pre>
+ * mvn -B test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=pl.lodz.p.it.ssbd2024.ssbd03.dataset.DatasetGenerator \
+ *     -Dexec.args="jdbc:postgresql://localhost:5432/ssbd03 ssbd03admin admin" -Ddataset.reservations=5000000
+ * </pre>
+ */
+public class DatasetGenerator {
+
+    /**
+     * BCrypt hash of the password of all generated accounts, the same as the one of the integration test accounts.
+     */
+    public static final String PASSWORD_HASH = "$2a$12$A1wGVanmSuv.GRqlKI4OuuvtV.AgP8pfb3I3fOyNuvgOHpuCiGzHa";
+    public static final long DEFAULT_SEED = 20240601L;
+
+    // Tables, as identified in the generated identifiers and random streams
+    public static final int ACCOUNT = 0x01;
+    public static final int CLIENT = 0x02;
+    public static final int STAFF = 0x03;
+    public static final int ADMIN = 0x04;
+    public static final int PARKING = 0x05;
+    public static final int SECTOR = 0x06;
+    public static final int RESERVATION = 0x07;
+    public static final int ENTRY = 0x08;
+    public static final int EXIT = 0x09;
+    public static final int TOKEN = 0x0A;
+    private static final int PAST_PASSWORD = 0x0B;
+    private static final int ACCOUNT_HISTORY = 0x0C;
+    private static final int PARKING_HISTORY = 0x0D;
+
+    private static final long ID_MOST_SIGNIFICANT_BITS = 0xD500_0000_0000_4000L;
+    private static final long ID_LEAST_SIGNIFICANT_BITS = 0x8000_0000_0000_0000L;
+
+    private static final int STAFF_EVERY = 50;
+    private static final int ADMIN_EVERY = 200;
+    private static final int MINUTES_OF_DAY = 24 * 60;
+    private static final int REFRESH_TOKEN_VALIDITY_DAYS = 7;
+    private static final double WALK_IN_RATIO = 0.15;
+
+    /**
+     * Relative number of reservations beginning at each hour of the day, with the morning and afternoon rush hours.
+     */
+    private static final int[] HOUR_WEIGHTS = {1, 1, 1, 1, 1, 2, 4, 8, 10, 9, 7, 6, 6, 6, 6, 7, 9, 10, 8, 6, 4, 3, 2, 1};
+    /**
+     * Relative number of reservations lasting from 1 to 8 hours.
+     */
+    private static final int[] DURATION_WEIGHTS = {30, 25, 15, 10, 8, 6, 4, 2};
+
+    private static final List<String> FIRST_NAMES = List.of("Adam", "Anna", "Bartosz", "Barbara", "Cezary", "Celina",
+            "Dariusz", "Dorota", "Edward", "Ewa", "Filip", "Franciszka", "Grzegorz", "Grazyna", "Henryk", "Halina",
+            "Igor", "Irena", "Jan", "Joanna", "Karol", "Katarzyna", "Lukasz", "Laura", "Marek", "Maria", "Norbert",
+            "Natalia", "Oskar", "Olga", "Piotr", "Paulina", "Rafal", "Renata", "Szymon", "Sylwia", "Tomasz", "Teresa",
+            "Wojciech", "Zofia");
+    private static final List<String> LAST_NAME_STEMS = List.of("Nowak", "Kowal", "Wisniew", "Wojcik", "Kamin",
+            "Lewandow", "Zielin", "Szyman", "Wozniak", "Dabrow", "Kozlow", "Jankow", "Mazur", "Kwiatkow", "Krawiec",
+            "Piotrow", "Grabow", "Pawlow", "Michal", "Zajac", "Krol", "Wieczor", "Jablon", "Wrobel", "Majew", "Olszew",
+            "Stepien", "Malinow", "Jaworow", "Adamczew", "Dudek", "Nowicki", "Pawlak", "Gorecki", "Witkow", "Walczak",
+            "Sikor", "Baran", "Rutkow", "Michalak");
+    private static final List<String> LAST_NAME_ENDINGS = List.of("", "ski", "ska", "czyk", "iak", "ek", "ewicz", "owska");
+    private static final List<String> CITIES = List.of("Lodz", "Warszawa", "Krakow", "Gdansk", "Poznan", "Wroclaw",
+            "Szczecin", "Lublin", "Katowice", "Bialystok");
+    private static final List<String> STREETS = List.of("Piotrkowska", "Marszalkowska", "Dluga", "Krotka", "Polna",
+            "Lesna", "Sloneczna", "Ogrodowa", "Lipowa", "Kwiatowa", "Wolczanska", "Zeromskiego");
+
+    private final DatasetVolumes volumes;
+    private final long seed;
+    private final LocalDateTime now;
+
+    /**
+     * Account of the dataset.
+     *
+     * @param activated   Activation time, or null if the account waits for activation.
+     * @param blockedTime Time of blocking after unsuccessful logins, or null if the account is not blocked or was
+     *                    blocked by an administrator.
+     * @param lastLogin   Time of the last successful login, or null if the account never logged in.
+     */
+    public record GeneratedAccount(int index, String login, String name, String lastname, String language,
+                            LocalDateTime created, LocalDateTime activated, boolean blocked, LocalDateTime blockedTime,
+                            boolean suspended, LocalDateTime lastLogin, ClientType clientType) {
+
+        public boolean active() {
+            return activated != null;
+        }
+    }
+
+    /**
+     * Reservation of the dataset.
+     *
+     * @param clientIndex Index of the account of the client, or null for a walk-in reservation made at the gate.
+     * @param entry       Time of the entry event, or null if the client did not enter.
+     * @param exit        Time of the exit event, or null if the client did not exit.
+     */
+    public record GeneratedReservation(long index, LocalDateTime created, LocalDateTime begin, LocalDateTime end,
+                                Integer clientIndex, int sectorIndex, ReservationStatus status,
+                                LocalDateTime entry, LocalDateTime exit) {
+    }
+
+    /**
+     * @param volumes Volumes of the dataset.
+     * @param seed    Seed of the pseudo-random values; the same seed gives the same dataset.
+     * @param now     Time relative to which the dataset is generated, usually the current time.
+     */
+    public DatasetGenerator(DatasetVolumes volumes, long seed, LocalDateTime now) {
+        this.volumes = volumes;
+        this.seed = seed;
+        this.now = now;
+    }
+
+    /**
+     * Loads the dataset into the database given by the JDBC URL, user and password in the arguments, with the
+     * volumes given by the <code>dataset.*</code> system properties (see {@link DatasetVolumes}) and the seed given
+     * by <code>dataset.seed</code>.
+     */
+    public static void main(String[] args) throws SQLException {
+        if (args.length != 3) {
+            System.err.println("Usage: DatasetGenerator <JDBC URL> <user> <password>");
+            System.exit(2);
+        }
+        DatasetVolumes volumes = DatasetVolumes.fromSystemProperties(DatasetVolumes.productionScale());
+        long seed = Long.getLong("dataset.seed", DEFAULT_SEED);
+        System.out.println("Generating " + volumes);
+
+        long start = System.nanoTime();
+        try (Connection connection = DriverManager.getConnection(args[0], args[1], args[2])) {
+            Map<String, Long> rows = new DatasetGenerator(volumes, seed, LocalDateTime.now()).load(connection);
+            rows.forEach((table, count) -> System.out.printf("%-16s %,14d%n", table, count));
+        }
+        System.out.printf("Loaded in %.1f s%n", (System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * Loads the dataset in a single transaction, updates the columns derived from the reservations (occupied places
+     * of sectors and reservation hours of clients), and analyzes the loaded tables.
+     *
+     * @param connection Connection to the database, as a user allowed to insert into all the tables.
+     * @return Number of rows loaded into each table.
+     * @throws SQLException When the dataset could not be loaded; nothing is loaded then.
+     */
+    public Map<String, Long> load(Connection connection) throws SQLException {
+        CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+        boolean autoCommit = connection.getAutoCommit();
+        Map<String, Long> rows = new LinkedHashMap<>();
+        connection.setAutoCommit(false);
+        try {
+            copyAccounts(copyManager, rows);
+            copyUserLevels(copyManager, rows);
+            copyTokens(copyManager, rows);
+            copyAccountHistory(copyManager, rows);
+            copyParking(copyManager, rows);
+            copyReservations(copyManager, rows);
+            updateDerivedColumns(connection);
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            for (String table : rows.keySet()) {
+                statement.execute("ANALYZE public." + table);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * @return Identifier of the row of the table with the index.
+     */
+    public static UUID id(int table, long index) {
+        return new UUID(ID_MOST_SIGNIFICANT_BITS | ((long) table << 32), ID_LEAST_SIGNIFICANT_BITS | index);
+    }
+
+    // Accounts
+
+    private void copyAccounts(CopyManager copyManager, Map<String, Long> rows) throws SQLException {
+        try (CopyWriter accounts = new CopyWriter(copyManager, "account", "id", "login", "password", "suspended",
+                "active", "blocked", "two_factor_auth", "language", "phone_number", "creation_timestamp",
+                "activation_timestamp", "blocked_timestamp", "last_successful_login_time", "unsuccessful_login_counter",
+                "version")) {
+            for (int i = 1; i <= volumes.accounts(); i++) {
+                GeneratedAccount account = account(i);
+                accounts.row(id(ACCOUNT, i), account.login(), PASSWORD_HASH, account.suspended(), account.active(),
+                        account.blocked(), false, account.language(), "5%08d".formatted(i), account.created(),
+                        account.activated(), account.blockedTime(), account.lastLogin(), 0, 0);
+            }
+            rows.put("account", accounts.finish());
+        }
+
+        try (CopyWriter personalData = new CopyWriter(copyManager, "personal_data", "id", "name", "lastname", "email")) {
+            for (int i = 1; i <= volumes.accounts(); i++) {
+                GeneratedAccount account = account(i);
+                personalData.row(id(ACCOUNT, i), account.name(), account.lastname(), email(i));
+            }
+            rows.put("personal_data", personalData.finish());
+        }
+
+        try (CopyWriter pastPasswords = new CopyWriter(copyManager, "past_password", "account_id", "past_password", "creation_time")) {
+            for (int i = 1; i <= volumes.accounts(); i++) {
+                GeneratedAccount account = account(i);
+                SplittableRandom random = random(PAST_PASSWORD, i);
+                for (int p = 0; p < volumes.pastPasswordsPerAccount(); p++) {
+                    pastPasswords.row(id(ACCOUNT, i), pastPasswordHash(p), between(random, account.created(), now));
+                }
+            }
+            rows.put("past_password", pastPasswords.finish());
+        }
+    }
+
+    /**
+     * @return Account with the index, starting from 1.
+     */
+    public GeneratedAccount account(int index) {
+        SplittableRandom random = random(ACCOUNT, index);
+        double state = random.nextDouble();
+        boolean pending = state < 0.002;
+        LocalDateTime created = pending
+                ? now.minusMinutes(random.nextLong(MINUTES_OF_DAY))
+                : now.minusMinutes(MINUTES_OF_DAY + (long) ((double) volumes.historyDays() * MINUTES_OF_DAY * (1 - Math.sqrt(random.nextDouble()))));
+        LocalDateTime activated = pending ? null : created.plusMinutes(1 + (long) exponential(random, 30));
+
+        boolean blocked = !pending && state < 0.003;
+        LocalDateTime blockedTime = blocked && state < 0.0025
+                ? later(activated, now.minusMinutes(random.nextLong(MINUTES_OF_DAY)))
+                : null;
+        boolean suspended = !pending && random.nextDouble() < 0.005;
+        LocalDateTime lastLogin = !pending && random.nextDouble() >= 0.1
+                ? later(activated, now.minusMinutes((long) exponential(random, 14 * MINUTES_OF_DAY)))
+                : null;
+
+        String name = FIRST_NAMES.get(random.nextInt(FIRST_NAMES.size()));
+        String lastname = LAST_NAME_STEMS.get(random.nextInt(LAST_NAME_STEMS.size()))
+                + LAST_NAME_ENDINGS.get(random.nextInt(LAST_NAME_ENDINGS.size()));
+        String language = random.nextDouble() < 0.8 ? "PL" : "EN";
+        double type = random.nextDouble();
+        ClientType clientType = type < 0.6 ? ClientType.BASIC : type < 0.9 ? ClientType.STANDARD : ClientType.PREMIUM;
+
+        return new GeneratedAccount(index, "user" + index, name, lastname, language, created, activated, blocked,
+                blockedTime, suspended, lastLogin, clientType);
+    }
+
+    private static String email(int index) {
+        return "user" + index + "@example.com";
+    }
+
+    /**
+     * Past passwords of an account are unique, so each one gets a distinct checksum of the common hash, which matches
+     * none of the passwords.
+     */
+    private static String pastPasswordHash(int index) {
+        return PASSWORD_HASH.substring(0, PASSWORD_HASH.length() - 4) + String.format(Locale.ROOT, "%04d", index);
+    }
+
+    private void copyUserLevels(CopyManager copyManager, Map<String, Long> rows) throws SQLException {
+        try (CopyWriter userLevels = new CopyWriter(copyManager, "user_level", "id", "creation_timestamp", "level", "account_id", "version")) {
+            for (int i = 1; i <= volumes.accounts(); i++) {
+                GeneratedAccount account = account(i);
+                userLevels.row(id(CLIENT, i), account.created(), "CLIENT", id(ACCOUNT, i), 0);
+                if (i % STAFF_EVERY == 0) {
+                    userLevels.row(id(STAFF, i), account.created(), "STAFF", id(ACCOUNT, i), 0);
+                }
+                if (i % ADMIN_EVERY == 0) {
+                    userLevels.row(id(ADMIN, i), account.created(), "ADMIN", id(ACCOUNT, i), 0);
+                }
+            }
+            rows.put("user_level", userLevels.finish());
+        }
+
+        try (CopyWriter clients = new CopyWriter(copyManager, "client_data", "id", "type", "total_reservation_hours")) {
+            for (int i = 1; i <= volumes.accounts(); i++) {
+                clients.row(id(CLIENT, i), account(i).clientType(), 0);
+            }
+            rows.put("client_data", clients.finish());
+        }
+        try (CopyWriter staff = new CopyWriter(copyManager, "staff_data", "id")) {
+            for (int i = STAFF_EVERY; i <= volumes.accounts(); i += STAFF_EVERY) {
+                staff.row(id(STAFF, i));
+            }
+            rows.put("staff_data", staff.finish());
+        }
+        try (CopyWriter admins = new CopyWriter(copyManager, "admin_data", "id")) {
+            for (int i = ADMIN_EVERY; i <= volumes.accounts(); i += ADMIN_EVERY) {
+                admins.row(id(ADMIN, i));
+            }
+            rows.put("admin_data", admins.finish());
+        }
+    }
+
+    /**
+     * Copies a refresh token of each account which logged in during the validity of refresh tokens, a registration
+     * token of each account waiting for activation, and a password reset token of a few other accounts.
+     */
+    private void copyTokens(CopyManager copyManager, Map<String, Long> rows) throws SQLException {
+        try (CopyWriter tokens = new CopyWriter(copyManager, "token", "id", "creation_timestamp", "expiration_timestamp",
+                "account_id", "token_value", "token_digest", "type", "version")) {
+            long tokenIndex = 0;
+            for (int i = 1; i <= volumes.accounts(); i++) {
+                GeneratedAccount account = account(i);
+                SplittableRandom random = random(TOKEN, i);
+                if (!account.active()) {
+                    writeToken(tokens, ++tokenIndex, random, i, account.created(), account.created().plusDays(1), TokenType.REGISTER);
+                    continue;
+                }
+                if (account.lastLogin() != null && account.lastLogin().isAfter(now.minusDays(REFRESH_TOKEN_VALIDITY_DAYS))) {
+                    writeToken(tokens, ++tokenIndex, random, i, account.lastLogin(),
+                            account.lastLogin().plusDays(REFRESH_TOKEN_VALIDITY_DAYS), TokenType.REFRESH_TOKEN);
+                }
+                if (random.nextDouble() < 0.005) {
+                    LocalDateTime created = now.minusMinutes(random.nextLong(60));
+                    writeToken(tokens, ++tokenIndex, random, i, created, created.plusHours(1), TokenType.RESET_PASSWORD);
+                }
+            }
+            rows.put("token", tokens.finish());
+        }
+    }
+
+    private void writeToken(CopyWriter tokens, long tokenIndex, SplittableRandom random, int accountIndex,
+                            LocalDateTime created, LocalDateTime expiration, TokenType type) throws SQLException {
+        byte[] value = new byte[32];
+        random.nextBytes(value);
+        String tokenValue = HexFormat.of().formatHex(value);
+        tokens.row(id(TOKEN, tokenIndex), created, expiration, id(ACCOUNT, accountIndex), tokenValue,
+                Token.digest(tokenValue), type, 0);
+    }
+
+    /**
+     * Copies the history of each account: its registration, its activation, and logins or personal data
+     * modifications after the activation.
+     */
+    private void copyAccountHistory(CopyManager copyManager, Map<String, Long> rows) throws SQLException {
+        try (CopyWriter history = new CopyWriter(copyManager, "account_history", "id", "version", "login", "password",
+                "suspended", "active", "blocked", "two_factor_auth", "first_name", "last_name", "email", "phone_number",
+                "unsuccessful_login_counter", "language", "operation_type", "modification_time", "modified_by",
+                "last_successful_login_time")) {
+            for (int i = 1; i <= volumes.accounts(); i++) {
+                GeneratedAccount account = account(i);
+                SplittableRandom random = random(ACCOUNT_HISTORY, i);
+                UUID accountId = id(ACCOUNT, i);
+                int versions = account.active() ? volumes.accountHistoryPerAccount() : 1;
+                LocalDateTime modified = account.created();
+                for (int version = 0; version < versions; version++) {
+                    OperationType operation = switch (version) {
+                        case 0 -> OperationType.REGISTRATION;
+                        case 1 -> OperationType.ACTIVATION;
+                        default -> random.nextDouble() < 0.9 ? OperationType.LOGIN : OperationType.PERSONAL_DATA_MODIFICATION;
+                    };
+                    if (version == 1) {
+                        modified = account.activated();
+                    } else if (version > 1) {
+                        modified = between(random, modified, later(modified, account.lastLogin() != null ? account.lastLogin() : now));
+                    }
+                    history.row(accountId, version, account.login(), PASSWORD_HASH, false, version > 0, false, false,
+                            account.name(), account.lastname(), email(i), "5%08d".formatted(i), 0, account.language(),
+                            operation, modified, accountId, operation == OperationType.LOGIN ? modified : null);
+                }
+            }
+            rows.put("account_history", history.finish());
+        }
+    }
+
+    // Parking
+
+    private void copyParking(CopyManager copyManager, Map<String, Long> rows) throws SQLException {
+        LocalDateTime opening = now.minusDays(volumes.historyDays() + 30L);
+        try (CopyWriter parking = new CopyWriter(copyManager, "parking", "id", "creation_timestamp", "sector_strategy",
+                "zip_code", "city", "street", "version")) {
+            for (int p = 0; p < volumes.parking(); p++) {
+                SplittableRandom random = random(PARKING, p);
+                parking.row(id(PARKING, p), opening, SectorDeterminationStrategy.values()[p % SectorDeterminationStrategy.values().length],
+                        zipCode(p), city(p), street(random), volumes.parkingHistoryPerParking());
+            }
+            rows.put("parking", parking.finish());
+        }
+
+        try (CopyWriter sectors = new CopyWriter(copyManager, "sector", "id", "creation_timestamp", "occupied_places",
+                "max_places", "weight", "name", "parking_id", "type", "version", "deactivation_time")) {
+            for (int p = 0; p < volumes.parking(); p++) {
+                for (int s = 0; s < volumes.sectorsPerParking(); s++) {
+                    int sector = sectorIndex(p, s);
+                    SplittableRandom random = random(SECTOR, sector);
+                    sectors.row(id(SECTOR, sector), opening, 0, 20 + random.nextInt(181), 1 + random.nextInt(100),
+                            "S-%02d".formatted(s + 1), id(PARKING, p), sectorType(s), 0, deactivationTime(sector));
+                }
+            }
+            rows.put("sector", sectors.finish());
+        }
+
+        UUID modifiedBy = id(ACCOUNT, volumes.accounts() >= ADMIN_EVERY ? ADMIN_EVERY : 1);
+        try (CopyWriter history = new CopyWriter(copyManager, "parking_history", "id", "version", "city", "street",
+                "zip_code", "strategy", "modification_time", "modified_by")) {
+            for (int p = 0; p < volumes.parking(); p++) {
+                SplittableRandom random = random(PARKING_HISTORY, p);
+                LocalDateTime modified = opening;
+                for (int version = 0; version < volumes.parkingHistoryPerParking(); version++) {
+                    history.row(id(PARKING, p), version, city(p), street(random), zipCode(p),
+                            SectorDeterminationStrategy.values()[random.nextInt(SectorDeterminationStrategy.values().length)],
+                            modified, modifiedBy);
+                    modified = between(random, modified, now);
+                }
+            }
+            rows.put("parking_history", history.finish());
+        }
+    }
+
+    private int sectorIndex(int parking, int sector) {
+        return parking * volumes.sectorsPerParking() + sector;
+    }
+
+    private static SectorType sectorType(int sectorInParking) {
+        return SectorType.values()[sectorInParking % SectorType.values().length];
+    }
+
+    /**
+     * @return Time of the deactivation of 3% of the sectors, a month ago, or null for the other sectors.
+     */
+    private LocalDateTime deactivationTime(int sector) {
+        return random(SECTOR, sector).split().nextDouble() < 0.03 ? now.minusDays(30) : null;
+    }
+
+    private static String zipCode(int parking) {
+        return "%02d-%03d".formatted(parking % 100, parking % 1000);
+    }
+
+    private static String city(int parking) {
+        return CITIES.get(parking % CITIES.size());
+    }
+
+    private static String street(SplittableRandom random) {
+        return STREETS.get(random.nextInt(STREETS.size())) + " " + (1 + random.nextInt(200));
+    }
+
+    // Reservations
+
+    private void copyReservations(CopyManager copyManager, Map<String, Long> rows) throws SQLException {
+        try (CopyWriter reservations = new CopyWriter(copyManager, "reservation", "id", "creation_timestamp",
+                "begin_time", "end_time", "client_id", "sector_id", "version", "status")) {
+            for (long r = 0; r < volumes.reservations(); r++) {
+                GeneratedReservation reservation = reservation(r);
+                reservations.row(id(RESERVATION, r), reservation.created(), reservation.begin(), reservation.end(),
+                        reservation.clientIndex() == null ? null : id(CLIENT, reservation.clientIndex()),
+                        id(SECTOR, reservation.sectorIndex()), 0, reservation.status());
+            }
+            rows.put("reservation", reservations.finish());
+        }
+
+        try (CopyWriter events = new CopyWriter(copyManager, "parking_event", "id", "reservation_id", "date", "type", "version")) {
+            for (long r = 0; r < volumes.reservations(); r++) {
+                GeneratedReservation reservation = reservation(r);
+                if (reservation.entry() != null) {
+                    events.row(id(ENTRY, r), id(RESERVATION, r), reservation.entry(), EventType.ENTRY, 0);
+                }
+                if (reservation.exit() != null) {
+                    events.row(id(EXIT, r), id(RESERVATION, r), reservation.exit(), EventType.EXIT, 0);
+                }
+            }
+            rows.put("parking_event", events.finish());
+        }
+    }
+
+    /**
+     * @return Reservation with the index, starting from 0.
+     */
+    public GeneratedReservation reservation(long index) {
+        SplittableRandom random = random(RESERVATION, index);
+        LocalDateTime begin = reservationBegin(random);
+        LocalDateTime end = begin.plusHours(1 + pick(random, DURATION_WEIGHTS));
+        boolean future = begin.isAfter(now);
+
+        // Walk-in reservations are made at the gate when entering, so there are none in the future
+        GeneratedAccount client = future || random.nextDouble() >= WALK_IN_RATIO ? chooseClient(random, begin, future) : null;
+        Integer clientIndex = client == null ? null : client.index();
+        int sector = chooseSector(random, client == null ? null : client.clientType());
+        LocalDateTime created = client == null
+                ? begin
+                : later(client.activated(), begin.minusMinutes(60 + (long) exponential(random, 2 * MINUTES_OF_DAY)));
+
+        LocalDateTime deactivation = deactivationTime(sector);
+        if ((client == null && future) || (deactivation != null && begin.isAfter(deactivation))) {
+            return new GeneratedReservation(index, created, begin, end, clientIndex, sector, ReservationStatus.CANCELLED, null, null);
+        }
+
+        LocalDateTime entry = client == null ? begin : earlier(begin.plusMinutes((long) exponential(random, 10)), end.minusMinutes(2));
+        LocalDateTime exit = later(entry.plusMinutes(1), end.minusMinutes((long) exponential(random, 20)));
+        if (future) {
+            return new GeneratedReservation(index, created, begin, end, clientIndex, sector, ReservationStatus.AWAITING, null, null);
+        }
+        if (end.isAfter(now)) {
+            // In progress: the client entered, unless the entry is still to come
+            return entry.isAfter(now)
+                    ? new GeneratedReservation(index, created, begin, end, clientIndex, sector, ReservationStatus.AWAITING, null, null)
+                    : new GeneratedReservation(index, created, begin, end, clientIndex, sector, ReservationStatus.IN_PROGRESS, entry, null);
+        }
+        double outcome = clientIndex == null ? 0 : random.nextDouble();
+        if (outcome < 0.70) {
+            return new GeneratedReservation(index, created, begin, end, clientIndex, sector, ReservationStatus.COMPLETED_MANUALLY, entry, exit);
+        } else if (outcome < 0.85) {
+            return new GeneratedReservation(index, created, begin, end, clientIndex, sector, ReservationStatus.COMPLETED_AUTOMATICALLY, null, null);
+        } else if (outcome < 0.97) {
+            return new GeneratedReservation(index, created, begin, end, clientIndex, sector, ReservationStatus.CANCELLED, null, null);
+        }
+        return new GeneratedReservation(index, created, begin, end, clientIndex, sector, ReservationStatus.TERMINATED, entry, null);
+    }
+
+    /**
+     * @return Client of a reservation, active when the reservation begins, or null if none was found in a few
+     * attempts. Most of the past reservations belong to a few clients, while the future ones are spread evenly, as
+     * each client may have only a few active reservations.
+     */
+    private GeneratedAccount chooseClient(SplittableRandom random, LocalDateTime begin, boolean future) {
+        for (int attempt = 0; attempt < 10; attempt++) {
+            double position = future ? random.nextDouble() : Math.pow(random.nextDouble(), 2);
+            GeneratedAccount account = account(1 + Math.min((int) (volumes.accounts() * position), volumes.accounts() - 1));
+            if (account.active() && account.activated().isBefore(begin)) {
+                return account;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return Begin of a reservation: on a day chosen with the weight growing with the business and lower on
+     * weekends (or decreasing with the distance for days after today), at a quarter of an hour chosen with the
+     * weights of the hours of the day.
+     */
+    private LocalDateTime reservationBegin(SplittableRandom random) {
+        LocalDate today = now.toLocalDate();
+        while (true) {
+            int day = random.nextInt(-volumes.historyDays(), volumes.futureDays() + 1);
+            double weight = day <= 0
+                    ? 0.4 + 0.6 * (day + volumes.historyDays()) / volumes.historyDays()
+                    : Math.exp(-day / 4.0);
+            LocalDate date = today.plusDays(day);
+            if (date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                weight *= 0.6;
+            }
+            if (random.nextDouble() < weight) {
+                return date.atTime(pick(random, HOUR_WEIGHTS), 15 * random.nextInt(4));
+            }
+        }
+    }
+
+    /**
+     * @return Index of a sector of a parking chosen with the weight decreasing with its index, of a type available
+     * to clients of the type (any type for walk-in reservations).
+     */
+    private int chooseSector(SplittableRandom random, ClientType clientType) {
+        int parking = (int) (volumes.parking() * Math.pow(random.nextDouble(), 1.5));
+        int sector = random.nextInt(volumes.sectorsPerParking());
+        for (int attempt = 0; attempt < volumes.sectorsPerParking() && !isAvailable(sectorType(sector), clientType); attempt++) {
+            sector = (sector + 1) % volumes.sectorsPerParking();
+        }
+        return sectorIndex(Math.min(parking, volumes.parking() - 1), sector);
+    }
+
+    private static boolean isAvailable(SectorType sectorType, ClientType clientType) {
+        return clientType == null || switch (clientType) {
+            case BASIC -> sectorType == SectorType.UNCOVERED;
+            case STANDARD -> sectorType != SectorType.UNDERGROUND;
+            case PREMIUM -> true;
+        };
+    }
+
+    /**
+     * Sets the occupied places of the generated sectors to the number of reservations in progress in them, and the
+     * reservation hours of the generated clients to the hours of their finished reservations.
+     */
+    private void updateDerivedColumns(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("""
+                UPDATE public.sector s SET occupied_places = LEAST(s.max_places, o.occupied)
+                FROM (SELECT sector_id, count(*) AS occupied FROM public.reservation
+                      WHERE status = 'IN_PROGRESS' GROUP BY sector_id) o
+                WHERE s.id = o.sector_id AND s.id BETWEEN ? AND ?""")) {
+            statement.setObject(1, id(SECTOR, 0));
+            statement.setObject(2, id(SECTOR, 0xFFFF_FFFF_FFFFL));
+            statement.executeUpdate();
+        }
+        try (PreparedStatement statement = connection.prepareStatement("""
+                UPDATE public.client_data c SET total_reservation_hours = h.hours
+                FROM (SELECT client_id, sum(EXTRACT(EPOCH FROM end_time - begin_time) / 3600)::bigint AS hours
+                      FROM public.reservation
+                      WHERE status IN ('COMPLETED_MANUALLY', 'COMPLETED_AUTOMATICALLY', 'TERMINATED') AND client_id IS NOT NULL
+                      GROUP BY client_id) h
+                WHERE c.id = h.client_id AND c.id BETWEEN ? AND ?""")) {
+            statement.setObject(1, id(CLIENT, 0));
+            statement.setObject(2, id(CLIENT, 0xFFFF_FFFF_FFFFL));
+            statement.executeUpdate();
+        }
+    }
+
+    // Random values
+
+    private SplittableRandom random(int table, long index) {
+        return new SplittableRandom(seed ^ ((long) table << 56) ^ (index * 0x9E37_79B9_7F4A_7C15L));
+    }
+
+    /**
+     * @return Index of the weight, chosen with the probability proportional to the weight.
+     */
+    private static int pick(SplittableRandom random, int[] weights) {
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        int value = random.nextInt(total);
+        for (int i = 0; i < weights.length; i++) {
+            value -= weights[i];
+            if (value < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    private static double exponential(SplittableRandom random, double mean) {
+        return -mean * Math.log(1 - random.nextDouble());
+    }
+
+    private static LocalDateTime between(SplittableRandom random, LocalDateTime from, LocalDateTime to) {
+        long minutes = Duration.between(from, to).toMinutes();
+        return minutes <= 0 ? from : from.plusMinutes(random.nextLong(minutes + 1));
+    }
+
+    private static LocalDateTime earlier(LocalDateTime first, LocalDateTime second) {
+        return first.isBefore(second) ? first : second;
+    }
+
+    private static LocalDateTime later(LocalDateTime first, LocalDateTime second) {
+        return first.isAfter(second) ? first : second;
+    }
+}
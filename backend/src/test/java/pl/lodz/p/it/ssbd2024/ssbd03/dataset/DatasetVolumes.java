@@ -0,0 +1,63 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.dataset;
+
+/**
+ * Volumes of the synthetic dataset produced by {@link DatasetGenerator}. Each volume may be overridden with a system
+ * property named <code>dataset.</code> followed by the name of the component in kebab case, e.g.
+ * <code>-Ddataset.reservations=5000000</code> or <code>-Ddataset.history-days=365</code>.
+ *
+ * @param accounts                 Number of accounts. Each of them is a client, every 50th one is a staff member
+ *                                 and every 200th one an administrator.
+ * @param pastPasswordsPerAccount  Number of past passwords of each account.
+ * @param accountHistoryPerAccount Number of account history rows of each account, at least 1 (the registration).
+ * @param parking                  Number of parking.
+ * @param sectorsPerParking        Number of sectors of each parking, at most 99.
+ * @param parkingHistoryPerParking Number of parking history rows of each parking.
+ * @param reservations             Number of reservations, together with their parking events.
+ * @param historyDays              Number of days before now covered by the creation of accounts and by reservations.
+ * @param futureDays               Number of days after now covered by awaiting reservations.
+ */
+public record DatasetVolumes(int accounts,
+                             int pastPasswordsPerAccount,
+                             int accountHistoryPerAccount,
+                             int parking,
+                             int sectorsPerParking,
+                             int parkingHistoryPerParking,
+                             long reservations,
+                             int historyDays,
+                             int futureDays) {
+
+    private static final String PROPERTY_PREFIX = "dataset.";
+
+    public DatasetVolumes {
+        if (accounts < 1 || parking < 1 || sectorsPerParking < 1 || sectorsPerParking > 99 || reservations < 0
+                || pastPasswordsPerAccount < 0 || accountHistoryPerAccount < 1 || parkingHistoryPerParking < 0
+                || historyDays < 1 || futureDays < 0) {
+            throw new IllegalArgumentException("Invalid dataset volumes: " + this);
+        }
+    }
+
+    /**
+     * @return Volumes of a production-scale dataset: 100 000 accounts, 200 parking with 2 000 sectors and
+     * 2 000 000 reservations over two years.
+     */
+    public static DatasetVolumes productionScale() {
+        return new DatasetVolumes(100_000, 2, 4, 200, 10, 5, 2_000_000L, 730, 14);
+    }
+
+    /**
+     * @param defaults Volumes used when no system property overrides them.
+     * @return Volumes given by the <code>dataset.*</code> system properties, or the defaults.
+     */
+    public static DatasetVolumes fromSystemProperties(DatasetVolumes defaults) {
+        return new DatasetVolumes(
+                Integer.getInteger(PROPERTY_PREFIX + "accounts", defaults.accounts()),
+                Integer.getInteger(PROPERTY_PREFIX + "past-passwords-per-account", defaults.pastPasswordsPerAccount()),
+                Integer.getInteger(PROPERTY_PREFIX + "account-history-per-account", defaults.accountHistoryPerAccount()),
+                Integer.getInteger(PROPERTY_PREFIX + "parking", defaults.parking()),
+                Integer.getInteger(PROPERTY_PREFIX + "sectors-per-parking", defaults.sectorsPerParking()),
+                Integer.getInteger(PROPERTY_PREFIX + "parking-history-per-parking", defaults.parkingHistoryPerParking()),
+                Long.getLong(PROPERTY_PREFIX + "reservations", defaults.reservations()),
+                Integer.getInteger(PROPERTY_PREFIX + "history-days", defaults.historyDays()),
+                Integer.getInteger(PROPERTY_PREFIX + "future-days", defaults.futureDays()));
+    }
+}
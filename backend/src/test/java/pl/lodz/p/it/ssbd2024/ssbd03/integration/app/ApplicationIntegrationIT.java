@@ -67,6 +67,7 @@ public class ApplicationIntegrationIT extends TestcontainersConfigFull {
 
     private static final String CONTENT_TYPE = MediaType.APPLICATION_JSON_VALUE;
     private static final String BASE_URL = "http://localhost:8181/api/v1";
+    private static final String APPLICATION_URL = "http://localhost:8181";
 
     private static final ObjectMapper mapper = new ObjectMapper();
 
@@ -409,6 +410,78 @@ public class ApplicationIntegrationIT extends TestcontainersConfigFull {
                 .statusCode(HttpStatus.FORBIDDEN.value());
     }
 
+    @Test
+    public void getMetricsAsAdminReturnsOKStatusCode() throws JsonProcessingException {
+        String loginToken = login("jerzybem", "P@ssw0rd!", "pl");
+
+        RestAssured
+                .given()
+                .header("Authorization", "Bearer " + loginToken)
+                .get(APPLICATION_URL + "/metrics")
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.OK.value());
+    }
+
+    @Test
+    public void getMetricsAsUnauthenticatedUserUnauthorized() {
+        RestAssured
+                .given()
+                .get(APPLICATION_URL + "/metrics")
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.UNAUTHORIZED.value());
+    }
+
+    @Test
+    public void getMetricsAsClientForbidden() throws JsonProcessingException {
+        String loginToken = login("jakubkoza", "P@ssw0rd!", "pl");
+
+        RestAssured
+                .given()
+                .header("Authorization", "Bearer " + loginToken)
+                .get(APPLICATION_URL + "/metrics")
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.FORBIDDEN.value());
+    }
+
+    @Test
+    public void getReadinessAsUnauthenticatedUserReturnsOnlyStatus() {
+        RestAssured
+                .given()
+                .get(APPLICATION_URL + "/health/ready")
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.OK.value())
+                .body("status", Matchers.equalTo("UP"))
+                .body("components", Matchers.nullValue());
+    }
+
+    @Test
+    public void getHealthDetailsAsUnauthenticatedUserUnauthorized() {
+        RestAssured
+                .given()
+                .get(APPLICATION_URL + "/health")
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.UNAUTHORIZED.value());
+    }
+
+    @Test
+    public void getHealthDetailsAsAdminReturnsComponents() throws JsonProcessingException {
+        String loginToken = login("jerzybem", "P@ssw0rd!", "pl");
+
+        RestAssured
+                .given()
+                .header("Authorization", "Bearer " + loginToken)
+                .get(APPLICATION_URL + "/health")
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.OK.value())
+                .body("components", Matchers.not(Matchers.empty()));
+    }
+
     @Test
     public void getSelfInfoAboutAccountSuccessfulTest() throws JsonProcessingException {
         String loginToken = login("jerzybem", "P@ssw0rd!", "pl");
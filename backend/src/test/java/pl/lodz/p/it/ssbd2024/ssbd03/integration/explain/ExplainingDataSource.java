@@ -0,0 +1,121 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.integration.explain;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Data source which, while explaining is started, runs <code>EXPLAIN (FORMAT JSON)</code> of each prepared statement
+ * right before the statement itself is executed, on the same connection and with the same parameters. Each
+ * distinct SQL statement is explained once, so the subsequent selects of the eagerly fetched associations of a
+ * long result list do not repeat the same plan.
+ */
+class ExplainingDataSource extends DelegatingDataSource {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of("executeQuery", "executeUpdate", "execute", "executeLargeUpdate");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<ExplainedStatement> explainedStatements = new ArrayList<>();
+    private final Set<String> explainedSql = new HashSet<>();
+    private boolean explaining = false;
+
+    /**
+     * Plan of a statement executed while explaining was started.
+     *
+     * @param sql  SQL of the statement.
+     * @param plan Root node of the plan, the "Plan" element of the EXPLAIN output.
+     */
+    record ExplainedStatement(String sql, JsonNode plan) {
+    }
+
+    private record ParameterBinding(Method setter, Object[] arguments) {
+    }
+
+    ExplainingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    void start() {
+        explainedStatements.clear();
+        explainedSql.clear();
+        explaining = true;
+    }
+
+    /**
+     * @return Plans of the statements executed since the last {@link #start()}, in the order of their execution.
+     */
+    List<ExplainedStatement> stop() {
+        explaining = false;
+        return List.copyOf(explainedStatements);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, arguments) -> {
+                    Object result = invoke(connection, method, arguments);
+                    if (method.getName().equals("prepareStatement")) {
+                        return wrap(connection, (PreparedStatement) result, (String) arguments[0]);
+                    }
+                    return result;
+                });
+    }
+
+    private PreparedStatement wrap(Connection connection, PreparedStatement statement, String sql) {
+        List<ParameterBinding> bindings = new ArrayList<>();
+        return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{PreparedStatement.class},
+                (proxy, method, arguments) -> {
+                    String name = method.getName();
+                    if (name.startsWith("set") && arguments != null && arguments.length >= 2 && arguments[0] instanceof Integer) {
+                        bindings.add(new ParameterBinding(method, arguments));
+                    } else if (name.equals("clearParameters")) {
+                        bindings.clear();
+                    } else if (explaining && EXECUTE_METHODS.contains(name) && arguments == null && explainedSql.add(sql)) {
+                        explainedStatements.add(new ExplainedStatement(sql, explain(connection, sql, bindings)));
+                    }
+                    return invoke(statement, method, arguments);
+                });
+    }
+
+    private JsonNode explain(Connection connection, String sql, List<ParameterBinding> bindings) throws Exception {
+        try (PreparedStatement explain = connection.prepareStatement("EXPLAIN (FORMAT JSON) " + sql)) {
+            for (ParameterBinding binding : bindings) {
+                binding.setter().invoke(explain, binding.arguments());
+            }
+            try (ResultSet resultSet = explain.executeQuery()) {
+                resultSet.next();
+                return objectMapper.readTree(resultSet.getString(1)).get(0).get("Plan");
+            }
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] arguments) throws Throwable {
+        try {
+            return method.invoke(target, arguments);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,441 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.integration.explain;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.NamedNativeQuery;
+import jakarta.persistence.NamedQuery;
+import jakarta.persistence.Parameter;
+import jakarta.persistence.Query;
+import jakarta.persistence.metamodel.EntityType;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.postgresql.ds.PGSimpleDataSource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import pl.lodz.p.it.ssbd2024.ssbd03.TestcontainersConfig;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.dbconfig.DatabaseConfigConstants;
+import pl.lodz.p.it.ssbd2024.ssbd03.dataset.DatasetGenerator;
+import pl.lodz.p.it.ssbd2024.ssbd03.dataset.DatasetVolumes;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Client;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.MailOutboxMessage;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Token;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.Parking;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.Sector;
+import pl.lodz.p.it.ssbd2024.ssbd03.integration.explain.ExplainingDataSource.ExplainedStatement;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.mail.MailDigestCategory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Query plan regression tests of all named queries of the entities: on a large synthetic dataset produced by
+ * {@link DatasetGenerator} (100 000 accounts and 1 000 000 reservations, unless overridden by the
+ * <code>dataset.*</code> properties) with the indexes of sql/migration/named_query_indexes.sql, each named query
+ * is executed with representative parameters, and each SQL statement it causes is explained with
+ * <code>EXPLAIN (FORMAT JSON)</code> right before its execution. A test fails when:
+ * <ul>
+ *     <li>a plan contains a sequential scan of a large table (at least <code>explain.large-table-rows</code> rows,
+ *     50 000 by default), unless explain_expectations.properties allows it for the query,</li>
+ *     <li>the estimated total cost of the query exceeds its cost in explain_plan_costs.properties by more than
+ *     <code>explain.cost-tolerance</code> (a half by default), or the query has no cost there.</li>
+ * </ul>
+ * The tests use a standalone entity manager factory of all entities, so they do not depend on the Spring context.
+ * When run with <code>-Dexplain.record=true</code>, the costs are not checked, and the plans and costs of all
+ * queries are written to target/explain-plans, to be reviewed and copied over the cost baseline.
+ */
+public class NamedQueryExplainIT extends TestcontainersConfig {
+
+    private static final DatasetVolumes DATASET = new DatasetVolumes(100_000, 2, 3, 200, 10, 5, 1_000_000L, 730, 14);
+    private static final String INDEXES = "sql/migration/named_query_indexes.sql";
+    private static final String EXPECTATIONS = "explain_scripts/explain_expectations.properties";
+    private static final String COSTS = "explain_scripts/explain_plan_costs.properties";
+    private static final Path RECORD_DIRECTORY = Path.of("target", "explain-plans");
+    private static final boolean RECORD = Boolean.getBoolean("explain.record");
+    private static final long LARGE_TABLE_ROWS = Long.getLong("explain.large-table-rows", 50_000L);
+    private static final int STATISTICS_TARGET = 10_000;
+    private static final double COST_TOLERANCE = Double.parseDouble(System.getProperty("explain.cost-tolerance", "0.5"));
+
+    /**
+     * Queries listing elements page by page in the facades, explained with a page of 10 elements like there. Results
+     * of the other queries are not limited, but only the first rows of them are fetched.
+     */
+    private static final Set<String> PAGINATED_QUERIES = Set.of(
+            "Account.findAllAccounts",
+            "Account.findAccountsMatchingPhraseInNameOrLastnameWithLoginAscendingOrder",
+            "Account.findAccountsMatchingPhraseInNameOrLastnameWithLoginInDescendingOrder",
+            "Account.findAccountsMatchingPhraseInNameOrLastnameWithUserLevelInAscendingOrder",
+            "Account.findAccountsMatchingPhraseInNameOrLastnameWithUserLevelInDescendingOrder",
+            "AccountHistoryData.findByAccountId",
+            "ParkingHistoryData.findByParkingId",
+            "Parking.findAll",
+            "Parking.findAllParking",
+            "Parking.findAllAvailableParking",
+            "Parking.findWithAvailablePlaces",
+            "Sector.findAllInParking",
+            "Sector.findWithAvailablePlaces",
+            "Reservation.findAll",
+            "Reservation.findActiveReservationsByLogin",
+            "Reservation.findHistoricalReservationsByLogin",
+            "Reservation.findAllParkingEventsForGivenReservation");
+    private static final int PAGE_SIZE = 10;
+
+    private static LocalContainerEntityManagerFactoryBean entityManagerFactoryBean;
+    private static ExplainingDataSource dataSource;
+    private static Set<String> largeTables;
+    private static Map<String, Object> parameters;
+    private static final Properties expectations = loadProperties(EXPECTATIONS);
+    private static final Properties costs = loadProperties(COSTS);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeAll
+    static void setup() throws SQLException {
+        PGSimpleDataSource postgresDataSource = new PGSimpleDataSource();
+        postgresDataSource.setUrl(String.format("jdbc:postgresql://localhost:%s/ssbd03", postgres.getFirstMappedPort()));
+        postgresDataSource.setUser("ssbd03admin");
+        postgresDataSource.setPassword("admin");
+        dataSource = new ExplainingDataSource(postgresDataSource);
+
+        Properties properties = new Properties();
+        properties.put("hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect");
+        properties.put("hibernate.hbm2ddl.auto", "create");
+        properties.put("hibernate.jdbc.fetch_size", String.valueOf(PAGE_SIZE));
+        entityManagerFactoryBean = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactoryBean.setDataSource(dataSource);
+        entityManagerFactoryBean.setPersistenceUnitName("explainPU");
+        entityManagerFactoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        entityManagerFactoryBean.setPackagesToScan(DatabaseConfigConstants.JPA_PACKAGE_TO_SCAN);
+        entityManagerFactoryBean.setJpaProperties(properties);
+        entityManagerFactoryBean.afterPropertiesSet();
+
+        // Time of the dataset is also the time of the parameters, so that their selectivity is the same in every run
+        LocalDateTime now = LocalDateTime.now();
+        try (Connection connection = postgresDataSource.getConnection()) {
+            new DatasetGenerator(DatasetVolumes.fromSystemProperties(DATASET), DatasetGenerator.DEFAULT_SEED, now)
+                    .load(connection);
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource(INDEXES));
+            // Statistics of samples covering whole tables, and visibility maps of vacuumed tables, so that
+            // the estimated costs do not depend on random samples or on the timing of autovacuum
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET default_statistics_target = " + STATISTICS_TARGET);
+                statement.execute("VACUUM ANALYZE");
+            }
+            largeTables = findLargeTables(connection);
+            parameters = findRepresentativeParameters(connection, now);
+        }
+    }
+
+    @AfterAll
+    static void teardown() {
+        if (entityManagerFactoryBean != null) {
+            entityManagerFactoryBean.destroy();
+        }
+    }
+
+    @TestFactory
+    public Stream<DynamicTest> namedQueryPlansTest() {
+        return namedQueries().entrySet().stream()
+                .map(query -> DynamicTest.dynamicTest(query.getKey(), () -> checkPlans(query.getKey(), isModifying(query.getValue()))));
+    }
+
+    /**
+     * Executes the named query in a transaction which is rolled back, and checks the plans of its statements.
+     */
+    private void checkPlans(String name, boolean modifying) throws IOException {
+        EntityManager entityManager = entityManagerFactory().createEntityManager();
+        List<ExplainedStatement> statements;
+        try {
+            entityManager.getTransaction().begin();
+            Query query = entityManager.createNamedQuery(name);
+            bindParameters(name, query, entityManager);
+            dataSource.start();
+            try {
+                if (modifying) {
+                    query.executeUpdate();
+                } else {
+                    if (PAGINATED_QUERIES.contains(name)) {
+                        query.setFirstResult(0).setMaxResults(PAGE_SIZE);
+                    }
+                    try (Stream<?> results = query.getResultStream()) {
+                        results.limit(PAGE_SIZE).forEach(result -> { });
+                    }
+                }
+            } finally {
+                statements = dataSource.stop();
+            }
+        } finally {
+            if (entityManager.getTransaction().isActive()) {
+                entityManager.getTransaction().rollback();
+            }
+            entityManager.close();
+        }
+
+        assertFalse(statements.isEmpty(), "Named query " + name + " did not execute any statement");
+        double cost = statements.get(0).plan().path("Total Cost").asDouble();
+        if (RECORD) {
+            record(name, statements, cost);
+            return;
+        }
+
+        Set<String> allowedTables = allowedSequentialScans(name);
+        StringBuilder violations = new StringBuilder();
+        for (ExplainedStatement statement : statements) {
+            List<JsonNode> scans = new ArrayList<>();
+            collectSequentialScans(statement.plan(), scans);
+            List<String> tables = scans.stream()
+                    .map(scan -> scan.path("Relation Name").asText())
+                    .filter(table -> largeTables.contains(table) && !allowedTables.contains(table))
+                    .distinct()
+                    .toList();
+            if (!tables.isEmpty()) {
+                violations.append(System.lineSeparator()).append("Sequential scan of ").append(String.join(", ", tables))
+                        .append(" in:").append(System.lineSeparator()).append(statement.sql()).append(System.lineSeparator());
+                describe(statement.plan(), 0, violations);
+            }
+        }
+        assertTrue(violations.isEmpty(), "Named query " + name + " scans large tables sequentially" + violations);
+
+        String baseline = costs.getProperty(name);
+        if (baseline == null) {
+            fail(String.format(Locale.ROOT, "No cost baseline of %s in %s, its estimated cost is %.2f", name, COSTS, cost));
+        }
+        double maximumCost = Double.parseDouble(baseline.trim()) * (1 + COST_TOLERANCE);
+        StringBuilder plan = new StringBuilder();
+        describe(statements.get(0).plan(), 0, plan);
+        assertTrue(cost <= maximumCost, String.format(Locale.ROOT, "Estimated cost of %s is %.2f, while its baseline is %s (at most %.2f)%n%s%n%s",
+                name, cost, baseline.trim(), maximumCost, statements.get(0).sql(), plan));
+    }
+
+    /**
+     * Binds representative parameters of the dataset to the named query. A parameter is bound by its name, unless
+     * its meaning in the query differs from the one of the other queries.
+     */
+    private void bindParameters(String name, Query query, EntityManager entityManager) {
+        for (Parameter<?> parameter : query.getParameters()) {
+            String parameterName = parameter.getName();
+            Object value = switch (name + "." + parameterName) {
+                case "ParkingHistoryData.findByParkingId.id", "ParkingHistoryData.checkIfEntityExists.id" -> parameters.get("parkingId");
+                case "Sector.findBySectorTypes.parkingId" -> entityManager.getReference(Parking.class, parameters.get("parkingId"));
+                case "Parking.removeParkingById.parkingId" -> UUID.randomUUID();
+                default -> parameters.get(parameterName);
+            };
+            if (value == null) {
+                fail("No representative value of parameter " + parameterName + " of named query " + name);
+            }
+            query.setParameter(parameterName, value);
+        }
+    }
+
+    /**
+     * @return Representative values of the parameters of the named queries: identifiers of a client with awaiting
+     * reservations and the sector of one of them, of a reservation with parking events, and time limits like the
+     * ones used by the facades and the schedulers, relative to the time of the dataset.
+     */
+    private static Map<String, Object> findRepresentativeParameters(Connection connection, LocalDateTime now) throws SQLException {
+        Map<String, Object> values = new HashMap<>();
+        try (PreparedStatement statement = connection.prepareStatement("""
+                SELECT a.id, a.login, p.email, r.sector_id, s.parking_id, s.name
+                FROM public.reservation r
+                JOIN public.user_level u ON u.id = r.client_id
+                JOIN public.account a ON a.id = u.account_id
+                JOIN public.personal_data p ON p.id = a.id
+                JOIN public.sector s ON s.id = r.sector_id
+                WHERE r.status = 'AWAITING'
+                LIMIT 1""");
+             ResultSet resultSet = statement.executeQuery()) {
+            assertTrue(resultSet.next(), "No awaiting reservation in the dataset");
+            values.put("accountId", resultSet.getObject(1, UUID.class));
+            values.put("id", resultSet.getObject(1, UUID.class));
+            values.put("clientLogin", resultSet.getString(2));
+            values.put("ownerLogin", resultSet.getString(2));
+            values.put("email", resultSet.getString(3));
+            values.put("recipient", resultSet.getString(3));
+            values.put("sectorId", resultSet.getObject(4, UUID.class));
+            values.put("parkingId", resultSet.getObject(5, UUID.class));
+            values.put("name", resultSet.getString(6));
+        }
+        try (PreparedStatement statement = connection.prepareStatement("SELECT reservation_id FROM public.parking_event LIMIT 1");
+             ResultSet resultSet = statement.executeQuery()) {
+            assertTrue(resultSet.next(), "No parking event in the dataset");
+            values.put("reservationId", resultSet.getObject(1, UUID.class));
+        }
+        try (PreparedStatement statement = connection.prepareStatement("SELECT token_digest FROM public.token LIMIT 1");
+             ResultSet resultSet = statement.executeQuery()) {
+            assertTrue(resultSet.next(), "No token in the dataset");
+            values.put("tokenDigest", resultSet.getBytes(1));
+        }
+
+        values.put("login", "user4711");
+        values.put("phrase", "Kowalczyk");
+        values.put("active", true);
+        values.put("blocked", true);
+        values.put("showOnlyActive", true);
+        values.put("userLevel", Client.class);
+        values.put("version", 1L);
+        values.put("attributeName", "language");
+        values.put("tokenType", Token.TokenType.REGISTER);
+        values.put("status", MailOutboxMessage.MailStatus.PENDING);
+        values.put("ids", List.of(UUID.randomUUID()));
+        values.put("digestCategory", MailDigestCategory.values()[0].name());
+        values.put("batchSize", 100);
+        values.put("sectorTypes", List.of(Sector.SectorType.COVERED));
+
+        values.put("now", now);
+        values.put("expirationTime", now);
+        values.put("timestamp", now.minusDays(1));
+        values.put("lastSuccessfulLoginTime", now.minusDays(30));
+        values.put("deactivationMinimum", now.plusHours(24));
+        values.put("currentTime", now);
+        values.put("currentTimeMinusReserve", now.minusHours(24));
+        values.put("currentTimePlusReserve", now.plusHours(24));
+        values.put("beginTime", now.plusHours(1));
+        values.put("beginTimeMinusMaxReservationTime", now.minusHours(23));
+        values.put("beginTimePlusMaxReservationTime", now.plusHours(25));
+        values.put("current_timestamp", now);
+        return values;
+    }
+
+    /**
+     * @return Names of the tables with at least the configured number of rows, according to the statistics.
+     */
+    private static Set<String> findLargeTables(Connection connection) throws SQLException {
+        Set<String> tables = new HashSet<>();
+        try (PreparedStatement statement = connection.prepareStatement("""
+                SELECT c.relname FROM pg_class c
+                JOIN pg_namespace n ON n.oid = c.relnamespace
+                WHERE n.nspname = 'public' AND c.relkind = 'r' AND c.reltuples >= ?""")) {
+            statement.setLong(1, LARGE_TABLE_ROWS);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    tables.add(resultSet.getString(1));
+                }
+            }
+        }
+        assertFalse(tables.isEmpty(), "No table of the dataset has " + LARGE_TABLE_ROWS + " rows");
+        return tables;
+    }
+
+    /**
+     * @return Named queries and named native queries of all entities, by their names, sorted.
+     */
+    private static Map<String, String> namedQueries() {
+        Map<String, String> queries = new TreeMap<>();
+        for (EntityType<?> entity : entityManagerFactory().getMetamodel().getEntities()) {
+            Class<?> entityClass = entity.getJavaType();
+            Arrays.stream(entityClass.getAnnotationsByType(NamedQuery.class)).forEach(query -> queries.put(query.name(), query.query()));
+            Arrays.stream(entityClass.getAnnotationsByType(NamedNativeQuery.class)).forEach(query -> queries.put(query.name(), query.query()));
+        }
+        return queries;
+    }
+
+    private static boolean isModifying(String query) {
+        String statement = query.strip().toUpperCase(Locale.ROOT);
+        return statement.startsWith("DELETE") || statement.startsWith("UPDATE") || statement.startsWith("INSERT");
+    }
+
+    private static Set<String> allowedSequentialScans(String name) {
+        String tables = expectations.getProperty(name + ".allowed-seq-scans");
+        if (tables == null) {
+            return Set.of();
+        }
+        Set<String> allowed = new HashSet<>();
+        for (String table : tables.split(",")) {
+            allowed.add(table.strip());
+        }
+        return allowed;
+    }
+
+    private static void collectSequentialScans(JsonNode plan, List<JsonNode> scans) {
+        if ("Seq Scan".equals(plan.path("Node Type").asText())) {
+            scans.add(plan);
+        }
+        for (JsonNode child : plan.path("Plans")) {
+            collectSequentialScans(child, scans);
+        }
+    }
+
+    /**
+     * Describes the plan as an indented tree of its nodes, similar to the text format of EXPLAIN.
+     */
+    private static void describe(JsonNode node, int depth, StringBuilder description) {
+        description.append("  ".repeat(depth + 1)).append("-> ").append(node.path("Node Type").asText());
+        if (node.has("Relation Name")) {
+            description.append(" on ").append(node.get("Relation Name").asText());
+        }
+        if (node.has("Index Name")) {
+            description.append(" using ").append(node.get("Index Name").asText());
+        }
+        description.append(String.format(Locale.ROOT, " (cost=%.2f rows=%d)", node.path("Total Cost").asDouble(), node.path("Plan Rows").asLong()));
+        if (node.has("Filter")) {
+            description.append(" filter: ").append(node.get("Filter").asText());
+        }
+        description.append(System.lineSeparator());
+        for (JsonNode child : node.path("Plans")) {
+            describe(child, depth + 1, description);
+        }
+    }
+
+    /**
+     * Writes the plans of the statements of the named query to a JSON file, and its cost to the costs file, in the
+     * format of explain_plan_costs.properties.
+     */
+    private void record(String name, List<ExplainedStatement> statements, double cost) throws IOException {
+        Files.createDirectories(RECORD_DIRECTORY);
+        ArrayNode plans = objectMapper.createArrayNode();
+        for (ExplainedStatement statement : statements) {
+            plans.addObject().put("sql", statement.sql()).set("plan", statement.plan());
+        }
+        Files.writeString(RECORD_DIRECTORY.resolve(name + ".json"),
+                objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(plans), StandardCharsets.UTF_8);
+        Files.writeString(RECORD_DIRECTORY.resolve("explain_plan_costs.properties"),
+                String.format(Locale.ROOT, "%s=%.2f%n", name, cost),
+                StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private static EntityManagerFactory entityManagerFactory() {
+        return entityManagerFactoryBean.getObject();
+    }
+
+    private static Properties loadProperties(String path) {
+        Properties properties = new Properties();
+        try (InputStream input = new ClassPathResource(path).getInputStream()) {
+            properties.load(input);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return properties;
+    }
+}
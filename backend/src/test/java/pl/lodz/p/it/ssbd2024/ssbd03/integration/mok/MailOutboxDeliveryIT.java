@@ -0,0 +1,237 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.integration.mok;
+
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.lodz.p.it.ssbd2024.ssbd03.TestcontainersConfig;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Authorities;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.webconfig.WebConfig;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Account;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.MailOutboxMessage;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.AccountMOKFacade;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.MailOutboxFacade;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.services.interfaces.MailOutboxServiceInterface;
+import pl.lodz.p.it.ssbd2024.ssbd03.mop.services.interfaces.ReservationServiceInterface;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.mail.MailOutboxDispatcher;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.mail.MailTemplateRegistry;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Delivery of e-mail messages written to the outbox by committed use cases, through the real service and facade
+ * layers, security interceptor, transaction manager and database grants. The dispatcher is disabled in the test
+ * profile, so it is created by the test, and drained by calling its dispatch method, as its own thread does.
+ * Messages are delivered to the GreenMail SMTP server.
+ * <p>
+ * Messages of MOP use cases are written with the MOP persistence unit, and delivered with the MOK one, so the test
+ * covers the grants of both database users on the outbox.
+ * <p>
+ * Use cases modify the initial data, so the context (and the database schema) is recreated after each test.
+ */
+@WebAppConfiguration
+@ContextConfiguration(classes = WebConfig.class)
+@ExtendWith(SpringExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class MailOutboxDeliveryIT extends TestcontainersConfig {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP)
+            .withConfiguration(GreenMailConfiguration.aConfig().withDisabledAuthentication());
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        registry.add("jdbc.ssbd03.url", () -> String.format("jdbc:postgresql://localhost:%s/ssbd03", postgres.getFirstMappedPort()));
+        registry.add("mail.smtp.host", () -> "localhost");
+        registry.add("mail.smtp.port", () -> ServerSetupTest.SMTP.getPort());
+        registry.add("mail.smtp.auth", () -> false);
+        registry.add("mail.smtp.starttls.enable", () -> false);
+        registry.add("mail.smtp.ssl.enable", () -> false);
+    }
+
+    @Autowired
+    private ReservationServiceInterface reservationService;
+
+    @Autowired
+    private AccountMOKFacade accountMOKFacade;
+
+    @Autowired
+    private MailOutboxFacade mailOutboxFacade;
+
+    @Autowired
+    private MailOutboxServiceInterface mailOutboxService;
+
+    @Autowired
+    private JavaMailSenderImpl mailSender;
+
+    @Autowired
+    private MailTemplateRegistry mailTemplateRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${mail.sender.email}")
+    private String senderEmail;
+
+    private MailOutboxDispatcher dispatcher;
+
+    private final String clientLogin = "jakubkoza";
+    private final String clientEmail = "jakubkoza@adresik.net";
+    private final UUID sectorId = UUID.fromString("3e6a85db-d751-4549-bbb7-9705f0b2fa6b");
+
+    @BeforeEach
+    void setUp() {
+        // Not started, so that the outbox is drained only by the test
+        dispatcher = new MailOutboxDispatcher(mailSender, mailOutboxService, mailTemplateRegistry, senderEmail,
+                50, 5000, 3, 60);
+    }
+
+    @Test
+    @WithMockUser(roles = {Authorities.RESERVE_PARKING_PLACE, Authorities.GET_ACTIVE_RESERVATIONS, Authorities.GET_SECTOR,
+            Authorities.MODIFY_USER_ACCOUNT})
+    public void messageWrittenByCommittedMopUseCaseIsDeliveredAsSystem() throws Exception {
+        this.makeReservation(false);
+
+        // The dispatcher thread has no authentication of its own
+        SecurityContextHolder.clearContext();
+        assertEquals(1, dispatcher.dispatch());
+
+        MimeMessage[] receivedMessages = greenMail.getReceivedMessages();
+        assertEquals(1, receivedMessages.length);
+        assertEquals(clientEmail, receivedMessages[0].getAllRecipients()[0].toString());
+        assertEquals(senderEmail, receivedMessages[0].getFrom()[0].toString());
+        assertEquals(0L, mailOutboxService.countPendingMessages());
+        assertEquals(0, dispatcher.dispatch());
+    }
+
+    @Test
+    @WithMockUser(roles = {Authorities.RESERVE_PARKING_PLACE, Authorities.GET_ACTIVE_RESERVATIONS, Authorities.GET_SECTOR,
+            Authorities.MODIFY_USER_ACCOUNT})
+    public void messageWrittenByRolledBackMopUseCaseIsDiscarded() throws Exception {
+        this.makeReservation(true);
+
+        SecurityContextHolder.clearContext();
+        assertEquals(0L, mailOutboxService.countPendingMessages());
+        assertEquals(0, dispatcher.dispatch());
+        assertEquals(0, greenMail.getReceivedMessages().length);
+    }
+
+    @Test
+    @WithMockUser(roles = {Authorities.RESERVE_PARKING_PLACE, Authorities.GET_ACTIVE_RESERVATIONS, Authorities.GET_SECTOR,
+            Authorities.MODIFY_USER_ACCOUNT})
+    public void messageLockedByAnotherDispatcherIsSkipped() throws Exception {
+        this.makeReservation(false);
+        SecurityContextHolder.clearContext();
+
+        // Other dispatcher claims the message, and holds the lock until it is released
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Integer> otherDispatcher = CompletableFuture.supplyAsync(() -> {
+            SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("dispatcher", null,
+                    List.of(new SimpleGrantedAuthority("ROLE_" + Authorities.DISPATCH_MAIL_OUTBOX))));
+            try {
+                return new TransactionTemplate(transactionManager).execute(status -> unchecked(() -> {
+                    List<MailOutboxMessage> claimed = mailOutboxFacade.findDueBatch(LocalDateTime.now(), 50);
+                    locked.countDown();
+                    assertTrue(release.await(30, TimeUnit.SECONDS));
+                    return claimed.size();
+                }));
+            } finally {
+                SecurityContextHolder.clearContext();
+            }
+        });
+        assertTrue(locked.await(30, TimeUnit.SECONDS));
+
+        // The claim does not wait for the lock
+        assertEquals(0, CompletableFuture.supplyAsync(dispatcher::dispatch).get(10, TimeUnit.SECONDS));
+        assertEquals(0, greenMail.getReceivedMessages().length);
+
+        release.countDown();
+        assertEquals(1, otherDispatcher.get(30, TimeUnit.SECONDS));
+        assertEquals(1, dispatcher.dispatch());
+        assertEquals(1, greenMail.getReceivedMessages().length);
+    }
+
+    @Test
+    @WithMockUser(roles = {Authorities.RESERVE_PARKING_PLACE, Authorities.GET_ACTIVE_RESERVATIONS, Authorities.GET_SECTOR,
+            Authorities.MODIFY_USER_ACCOUNT})
+    public void messageNotDeliveredToUnavailableServerIsRetried() throws Exception {
+        this.makeReservation(false);
+        SecurityContextHolder.clearContext();
+
+        greenMail.stop();
+        assertEquals(0, dispatcher.dispatch());
+
+        assertEquals(1, dispatcher.getRetriedMessages());
+        assertEquals(1L, mailOutboxService.countPendingMessages());
+        // Next attempt is delayed by the backoff
+        assertEquals(0, dispatcher.dispatch());
+    }
+
+    /**
+     * Makes a reservation for the client, in the transaction started just as by the controller. The reservation
+     * and the notification are both written by the MOP persistence unit, so the transaction is committed without
+     * the two-phase commit, which is disabled in the default PostgreSQL configuration.
+     *
+     * @param rollback True, if the transaction should be rolled back.
+     */
+    private void makeReservation(boolean rollback) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        // Clients of the initial data are suspended
+        transaction.executeWithoutResult(status -> unchecked(() -> {
+            Account client = accountMOKFacade.findByLogin(clientLogin).orElseThrow(NoSuchElementException::new);
+            client.setSuspended(false);
+            accountMOKFacade.edit(client);
+            return null;
+        }));
+
+        LocalDateTime beginTime = LocalDateTime.now().plusDays(3).withNano(0);
+        transaction.executeWithoutResult(status -> unchecked(() -> {
+            reservationService.makeReservation(clientLogin, sectorId, beginTime, beginTime.plusHours(2));
+            if (rollback) status.setRollbackOnly();
+            return null;
+        }));
+    }
+
+    @FunctionalInterface
+    private interface TransactionalCall<T> {
+        T call() throws ApplicationBaseException, InterruptedException;
+    }
+
+    private static <T> T unchecked(TransactionalCall<T> call) {
+        try {
+            return call.call();
+        } catch (ApplicationBaseException | InterruptedException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+}
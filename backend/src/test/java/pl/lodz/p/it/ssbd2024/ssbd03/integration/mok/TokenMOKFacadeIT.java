@@ -11,8 +11,10 @@ import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.context.WebApplicationContext;
 import pl.lodz.p.it.ssbd2024.ssbd03.TestcontainersConfig;
 import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Authorities;
@@ -22,7 +24,9 @@ import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Token;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
 import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.AccountMOKFacade;
 import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.TokenFacade;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.TokenProvider;
 
+import java.time.LocalDateTime;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.UUID;
@@ -60,6 +64,12 @@ public class TokenMOKFacadeIT extends TestcontainersConfig {
     @Autowired
     private AccountMOKFacade accountMOKFacade;
 
+    @Autowired
+    private TokenProvider tokenProvider;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     private final UUID uuidNo1 = UUID.fromString("582c432a-c5d9-4758-863a-4999a7d95de5");
     private final Token.TokenType tokenTypeRegister = Token.TokenType.REGISTER;
     private final Token.TokenType tokenTypeResetPassword = Token.TokenType.RESET_PASSWORD;
@@ -67,6 +77,45 @@ public class TokenMOKFacadeIT extends TestcontainersConfig {
     private final Token.TokenType tokenTypeChangeOverwrittenPassword = Token.TokenType.CHANGE_OVERWRITTEN_PASSWORD;
     private final UUID userUuidNo1 = UUID.fromString("f5afc042-79b0-47fe-87ee-710c14af888c");
     private final String tokenValueNo1 = "TEST_VALUE90";
+    private final UUID accountIdJerzyBem = UUID.fromString("b3b8c2ac-21ff-434b-b490-aa6d717447c0");
+
+    @Test
+    @WithMockUser(roles = {Authorities.ADD_USER_LEVEL, Authorities.CHANGE_USER_PASSWORD, Authorities.RESET_PASSWORD,
+            Authorities.REMOVE_EXPIRED_TOKENS, Authorities.GET_ADMIN_PASSWORD_RESET_STATUS})
+    public void removeExpiredBatchKeepsPasswordChangeForcedByAdministrator() throws Exception {
+        // Each step commits, since expired tokens are removed in a separate transaction
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> unchecked(() -> {
+            Account account = accountMOKFacade.find(accountIdJerzyBem).orElseThrow(NoSuchElementException::new);
+            tokenFacade.create(tokenProvider.generateAdminPasswordResetToken(account));
+            tokenFacade.create(new Token("EXPIRED_RESET_PASSWORD", account, tokenTypeResetPassword, LocalDateTime.now().minusMinutes(1)));
+        }));
+
+        try {
+            // Past the validity of every token generated by the application
+            assertTrue(tokenFacade.removeExpiredBatch(LocalDateTime.now().plusDays(30), 1000) >= 1);
+
+            transaction.executeWithoutResult(status -> unchecked(() -> {
+                assertTrue(tokenFacade.findByTypeAndAccount(tokenTypeChangeOverwrittenPassword, accountIdJerzyBem).isPresent());
+                assertTrue(tokenFacade.findByTypeAndAccount(tokenTypeResetPassword, accountIdJerzyBem).isEmpty());
+            }));
+        } finally {
+            transaction.executeWithoutResult(status -> unchecked(() ->
+                    tokenFacade.removeByTypeAndAccount(tokenTypeChangeOverwrittenPassword, accountIdJerzyBem)));
+        }
+    }
+
+    private interface FacadeCalls {
+        void run() throws ApplicationBaseException;
+    }
+
+    private static void unchecked(FacadeCalls calls) {
+        try {
+            calls.run();
+        } catch (ApplicationBaseException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
 
 //    @Test
 //    @Transactional(propagation = Propagation.REQUIRED)
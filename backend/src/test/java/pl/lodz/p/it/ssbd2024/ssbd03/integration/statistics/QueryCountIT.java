@@ -0,0 +1,396 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.integration.statistics;
+
+import com.atomikos.jdbc.AtomikosDataSourceBean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.web.context.WebApplicationContext;
+import pl.lodz.p.it.ssbd2024.ssbd03.TestcontainersConfig;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.dbconfig.statistics.RequestQueryStatistics;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Roles;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.roles.RolesMapper;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.webconfig.WebConfig;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.controllers.interfaces.AccountControllerInterface;
+import pl.lodz.p.it.ssbd2024.ssbd03.mop.controllers.interfaces.ParkingControllerInterface;
+import pl.lodz.p.it.ssbd2024.ssbd03.mop.controllers.interfaces.ReservationControllerInterface;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Query count regression tests: each endpoint listing or reading accounts, parking, sectors and reservations is
+ * called on a standard dataset (init_query_count_data.sql, loaded on top of the facade test data), and the SQL
+ * statements prepared and the entities loaded in all persistence units are compared with the budget of the endpoint
+ * (query_count_budgets.properties). The work is counted with {@link RequestQueryStatistics}, just like in the
+ * handling of HTTP requests, so the tests catch e.g. a mapper change which makes an endpoint fetch a lazy
+ * association for each element of a page.
+ * <p>
+ * A failure lists the statements of the endpoint by their shape, and when a baseline of the endpoint is available
+ * in query_count_scripts/baselines, the difference between the baseline and the measured statements. When run with
+ * <code>-Dquerycount.record=true</code>, the budgets are not checked, and the measured costs and statements of all
+ * endpoints are written to target/query-count, to be reviewed and copied over the budgets and baselines.
+ */
+@ExtendWith(SpringExtension.class)
+@WebAppConfiguration
+@ContextConfiguration(classes = WebConfig.class)
+public class QueryCountIT extends TestcontainersConfig {
+
+    private static final String DATASET = "query_count_scripts/init_query_count_data.sql";
+    private static final String BUDGETS = "query_count_scripts/query_count_budgets.properties";
+    private static final String BASELINES = "query_count_scripts/baselines/";
+    private static final Path RECORD_DIRECTORY = Path.of("target", "query-count");
+    private static final boolean RECORD = Boolean.getBoolean("querycount.record");
+
+    private static final String ADMIN_LOGIN = "qcadmin";
+    private static final String CLIENT_LOGIN = "qcclient";
+    private static final String CLIENT_ID = "a1000000-0000-4000-8000-000000000002";
+    private static final String PARKING_ID = "b1000000-0000-4000-8000-000000000001";
+    private static final String RESERVATION_ID = "b3000000-0000-4000-8000-000000000001";
+    private static final int PAGE_SIZE = 10;
+
+    private static boolean datasetLoaded = false;
+    private static final Properties budgets = loadBudgets();
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private AccountControllerInterface accountController;
+    @Autowired
+    private ParkingControllerInterface parkingController;
+    @Autowired
+    private ReservationControllerInterface reservationController;
+    @Autowired
+    private RolesMapper rolesMapper;
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        registry.add("jdbc.ssbd03.url", QueryCountIT::jdbcUrl);
+    }
+
+    @BeforeEach
+    void setup() throws SQLException {
+        if (!datasetLoaded) {
+            try (Connection connection = openConnection()) {
+                ScriptUtils.executeSqlScript(connection, new ClassPathResource(DATASET));
+            }
+            datasetLoaded = true;
+        }
+    }
+
+    @AfterEach
+    void teardown() {
+        SecurityContextHolder.clearContext();
+        RequestQueryStatistics.stop();
+        ((AtomikosDataSourceBean) webApplicationContext.getBean("dataSourceAdmin")).close();
+        ((AtomikosDataSourceBean) webApplicationContext.getBean("dataSourceAuth")).close();
+        ((AtomikosDataSourceBean) webApplicationContext.getBean("dataSourceMOP")).close();
+        ((AtomikosDataSourceBean) webApplicationContext.getBean("dataSourceMOK")).close();
+    }
+
+    // Accounts
+
+    @Test
+    public void getAllUsersWithinBudgetTest() throws Exception {
+        assertWithinBudget("account.list", ADMIN_LOGIN,
+                () -> accountController.getAllUsers(0, PAGE_SIZE));
+    }
+
+    @Test
+    public void getAccountsMatchingPhraseWithinBudgetTest() throws Exception {
+        assertWithinBudget("account.search", ADMIN_LOGIN,
+                () -> accountController.getAccountsMatchingPhraseInNameOrLastname("Kwer", "login", true, 0, PAGE_SIZE));
+    }
+
+    @Test
+    public void getSelfWithinBudgetTest() throws Exception {
+        assertWithinBudget("account.self", CLIENT_LOGIN,
+                () -> accountController.getSelf());
+    }
+
+    @Test
+    public void getUserByIdWithinBudgetTest() throws Exception {
+        assertWithinBudget("account.details", ADMIN_LOGIN,
+                () -> accountController.getUserById(CLIENT_ID));
+    }
+
+    @Test
+    public void getAccountHistoryWithinBudgetTest() throws Exception {
+        assertWithinBudget("account.history", ADMIN_LOGIN,
+                () -> accountController.getHistoryDataByAccountId(CLIENT_ID, 0, PAGE_SIZE));
+    }
+
+    // Parking
+
+    @Test
+    public void getAllParkingWithinBudgetTest() throws Exception {
+        assertWithinBudget("parking.list", ADMIN_LOGIN,
+                () -> parkingController.getAllParkingWithPagination(0, PAGE_SIZE));
+    }
+
+    @Test
+    public void getAvailableParkingWithinBudgetTest() throws Exception {
+        assertWithinBudget("parking.available", CLIENT_LOGIN,
+                () -> parkingController.getAvailableParkingWithPagination(0, PAGE_SIZE));
+    }
+
+    @Test
+    public void getParkingByIdWithinBudgetTest() throws Exception {
+        assertWithinBudget("parking.details", CLIENT_LOGIN,
+                () -> parkingController.getParkingById(PARKING_ID));
+    }
+
+    @Test
+    public void getParkingHistoryWithinBudgetTest() throws Exception {
+        assertWithinBudget("parking.history", ADMIN_LOGIN,
+                () -> parkingController.getHistoryDataByParkingId(PARKING_ID, 0, PAGE_SIZE));
+    }
+
+    // Sectors
+
+    @Test
+    public void getSectorsByParkingIdWithinBudgetTest() throws Exception {
+        assertWithinBudget("sector.list", ADMIN_LOGIN,
+                () -> parkingController.getSectorsByParkingId(PARKING_ID, 0, PAGE_SIZE));
+    }
+
+    @Test
+    public void getClientSectorsByParkingIdWithinBudgetTest() throws Exception {
+        assertWithinBudget("sector.client-list", CLIENT_LOGIN,
+                () -> parkingController.getClientSectorByParkingId(PARKING_ID, 0, PAGE_SIZE));
+    }
+
+    @Test
+    public void getSectorByIdWithinBudgetTest() throws Exception {
+        String sectorId = findSectorId("QC-01");
+        assertWithinBudget("sector.details", CLIENT_LOGIN,
+                () -> parkingController.getSectorById(sectorId));
+    }
+
+    // Reservations
+
+    @Test
+    public void getActiveReservationsSelfWithinBudgetTest() throws Exception {
+        assertWithinBudget("reservation.active-self", CLIENT_LOGIN,
+                () -> reservationController.getAllActiveReservationSelf(0, PAGE_SIZE));
+    }
+
+    @Test
+    public void getHistoricalReservationsSelfWithinBudgetTest() throws Exception {
+        assertWithinBudget("reservation.historical-self", CLIENT_LOGIN,
+                () -> reservationController.getAllHistoricalReservationSelf(0, PAGE_SIZE));
+    }
+
+    @Test
+    public void getAllReservationsWithinBudgetTest() throws Exception {
+        assertWithinBudget("reservation.all", ADMIN_LOGIN,
+                () -> reservationController.getAllReservations(0, PAGE_SIZE));
+    }
+
+    @Test
+    public void getOwnReservationDetailsWithinBudgetTest() throws Exception {
+        assertWithinBudget("reservation.own-details", CLIENT_LOGIN,
+                () -> reservationController.getOwnReservationDetails(RESERVATION_ID, 0, PAGE_SIZE));
+    }
+
+    @Test
+    public void getAnyReservationDetailsWithinBudgetTest() throws Exception {
+        assertWithinBudget("reservation.any-details", ADMIN_LOGIN,
+                () -> reservationController.getAnyReservationDetails(RESERVATION_ID, 0, PAGE_SIZE));
+    }
+
+    /**
+     * Calls the endpoint as the given user, with the statistics bound to the current thread, and compares the
+     * measured work with the budget of the endpoint (or records it, in the record mode).
+     */
+    private void assertWithinBudget(String endpoint, String login, Callable<ResponseEntity<?>> call) throws Exception {
+        authenticate(login);
+        RequestQueryStatistics statistics = RequestQueryStatistics.start();
+        ResponseEntity<?> response;
+        try {
+            response = call.call();
+        } finally {
+            RequestQueryStatistics.stop();
+        }
+        assertTrue(response.getStatusCode().is2xxSuccessful(),
+                endpoint + " responded with " + response.getStatusCode());
+
+        if (RECORD) {
+            record(endpoint, statistics);
+            return;
+        }
+
+        int statementBudget = budget(endpoint, "statements");
+        int entityLoadBudget = budget(endpoint, "entity-loads");
+        if (statistics.getStatements() > statementBudget || statistics.getEntityLoads() > entityLoadBudget) {
+            fail(String.format("%s exceeded its budget: %d statements (budget %d), %d entity loads (budget %d), "
+                            + "%d collection fetches%n%s",
+                    endpoint, statistics.getStatements(), statementBudget, statistics.getEntityLoads(),
+                    entityLoadBudget, statistics.getCollectionFetches(), describeStatements(endpoint, statistics)));
+        }
+    }
+
+    /**
+     * Authenticates the user with the authorities of all the user levels of the account, as the JWT filter would.
+     */
+    private void authenticate(String login) throws Exception {
+        List<GrantedAuthority> authorities = new ArrayList<>(rolesMapper.getAuthorities(Roles.AUTHENTICATED));
+        if (ADMIN_LOGIN.equals(login)) {
+            authorities.addAll(rolesMapper.getAuthorities(Roles.ADMIN));
+            authorities.addAll(rolesMapper.getAuthorities(Roles.STAFF));
+        } else {
+            authorities.addAll(rolesMapper.getAuthorities(Roles.CLIENT));
+        }
+        SecurityContextHolder.getContext()
+                .setAuthentication(new UsernamePasswordAuthenticationToken(login, null, authorities));
+    }
+
+    /**
+     * Describes the statements of the endpoint: the difference with the baseline of the endpoint, if there is one,
+     * or all the statements by their shape otherwise. Shapes are listed with the number of their executions,
+     * the repeated ones first.
+     */
+    private String describeStatements(String endpoint, RequestQueryStatistics statistics) {
+        Map<String, Integer> measured = statistics.getStatementShapes();
+        Map<String, Integer> baseline = loadBaseline(endpoint);
+        StringBuilder description = new StringBuilder();
+        if (baseline == null) {
+            description.append("Statements (no baseline in ").append(BASELINES).append("):").append(System.lineSeparator());
+            measured.forEach((shape, count) -> appendShape(description, " ", count, shape));
+            return description.toString();
+        }
+
+        description.append("Statements compared with the baseline (+ added, - removed, ~ count changed):")
+                .append(System.lineSeparator());
+        TreeSet<String> shapes = new TreeSet<>(baseline.keySet());
+        shapes.addAll(measured.keySet());
+        for (String shape : shapes) {
+            Integer before = baseline.get(shape);
+            Integer after = measured.get(shape);
+            if (before == null) {
+                appendShape(description, "+", after, shape);
+            } else if (after == null) {
+                appendShape(description, "-", before, shape);
+            } else if (!before.equals(after)) {
+                description.append(String.format("~ %d -> %d x %s%n", before, after, shape));
+            }
+        }
+        return description.toString();
+    }
+
+    private static void appendShape(StringBuilder description, String marker, int count, String shape) {
+        description.append(String.format("%s %d x %s%n", marker, count, shape));
+    }
+
+    /**
+     * Writes the measured work of the endpoint: its counts to the budgets file and its statements to the baseline
+     * of the endpoint, in the format read by {@link #loadBaseline}.
+     */
+    private void record(String endpoint, RequestQueryStatistics statistics) throws IOException {
+        Path baselines = RECORD_DIRECTORY.resolve("baselines");
+        Files.createDirectories(baselines);
+
+        StringBuilder baseline = new StringBuilder();
+        statistics.getStatementShapes().forEach((shape, count) -> baseline.append(count).append('\t').append(shape)
+                .append(System.lineSeparator()));
+        Files.writeString(baselines.resolve(endpoint + ".txt"), baseline, StandardCharsets.UTF_8);
+
+        Files.writeString(RECORD_DIRECTORY.resolve("query_count_budgets.properties"),
+                String.format("%s.statements=%d%n%s.entity-loads=%d%n",
+                        endpoint, statistics.getStatements(), endpoint, statistics.getEntityLoads()),
+                StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * @return Number of executions of each statement shape of the baseline of the endpoint, or null if the
+     * endpoint has no baseline.
+     */
+    private static Map<String, Integer> loadBaseline(String endpoint) {
+        ClassPathResource resource = new ClassPathResource(BASELINES + endpoint + ".txt");
+        if (!resource.exists()) {
+            return null;
+        }
+        Map<String, Integer> baseline = new LinkedHashMap<>();
+        try (InputStream input = resource.getInputStream()) {
+            for (String line : new String(input.readAllBytes(), StandardCharsets.UTF_8).split("\\R")) {
+                int separator = line.indexOf('\t');
+                if (separator > 0) {
+                    baseline.put(line.substring(separator + 1), Integer.parseInt(line.substring(0, separator)));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return baseline;
+    }
+
+    private static int budget(String endpoint, String counter) {
+        String budget = budgets.getProperty(endpoint + "." + counter);
+        if (budget == null) {
+            fail("No " + counter + " budget of " + endpoint + " in " + BUDGETS);
+        }
+        return Integer.parseInt(budget.trim());
+    }
+
+    private static Properties loadBudgets() {
+        Properties properties = new Properties();
+        try (InputStream input = new ClassPathResource(BUDGETS).getInputStream()) {
+            properties.load(input);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return properties;
+    }
+
+    private String findSectorId(String name) throws SQLException {
+        try (Connection connection = openConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT id FROM public.sector WHERE name = ?")) {
+            statement.setString(1, name);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                assertTrue(resultSet.next(), "No sector " + name + " in the dataset");
+                return resultSet.getString(1);
+            }
+        }
+    }
+
+    private static Connection openConnection() throws SQLException {
+        return DriverManager.getConnection(jdbcUrl(), "ssbd03admin", "admin");
+    }
+
+    private static String jdbcUrl() {
+        return String.format("jdbc:postgresql://localhost:%s/ssbd03", postgres.getFirstMappedPort());
+    }
+}
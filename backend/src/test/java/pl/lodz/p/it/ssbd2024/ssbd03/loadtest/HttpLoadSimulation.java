@@ -0,0 +1,319 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import pl.lodz.p.it.ssbd2024.ssbd03.dataset.DatasetGenerator;
+import pl.lodz.p.it.ssbd2024.ssbd03.dataset.DatasetVolumes;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.I18n;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * HTTP load test of a single node of the application, run by the <code>load-test</code> Maven profile
+ * (<code>mvn -B -P test,load-test verify</code>). It is deliberately not named as a test or an integration test, so
+ * that it is not run by the default builds.
+ * <p>
+ * Scenarios mix the parking gates (entering without a reservation and ending it at the exit), clients making
+ * reservations, and the most frequent lists. After a warm-up, the scenarios run in stages of increasing rates
+ * (multipliers of the base rates), so that the rate of entries at which ParkingService starts to fail with optimistic
+ * lock exceptions can be read from the report. Latency percentiles, throughput and the breakdown of the errors of
+ * each scenario in each stage are written as JSON (see LoadTestReport) and summarized on the standard output.
+ * <p>
+ * All settings are system properties with the <code>loadtest.</code> prefix, with defaults in the profile. The
+ * integration test dataset is used, and with <code>loadtest.dataset.generated</code> also a production-scale one
+ * produced by DatasetGenerator, with volumes given by the <code>dataset.*</code> properties (see DatasetVolumes).
+ */
+public class HttpLoadSimulation {
+
+    private static final String API = "/api/v1";
+    private static final String PAGE = "pageNumber=0&pageSize=10";
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static LoadTestEnvironment environment;
+    private static HttpClient httpClient;
+    private static Duration requestTimeout;
+
+    private final Queue<String> enteredReservations = new ConcurrentLinkedQueue<>();
+
+    private List<String> parkingIds;
+    private List<String> sectorIds;
+    private List<String> clientTokens;
+
+    @BeforeAll
+    static void beforeAll() throws IOException {
+        environment = new LoadTestEnvironment(Boolean.getBoolean("loadtest.quota.enabled"));
+        environment.start();
+        requestTimeout = Duration.ofSeconds(Long.getLong("loadtest.request.timeout.seconds", 30));
+        httpClient = HttpClient.newBuilder()
+                .connectTimeout(requestTimeout)
+                .build();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        if (httpClient != null) {
+            httpClient.close();
+        }
+        if (environment != null) {
+            environment.close();
+        }
+    }
+
+    @Test
+    public void parkingAndReservationFlows() throws Exception {
+        environment.loadDataset();
+        if (Boolean.getBoolean("loadtest.dataset.generated")) {
+            environment.loadGeneratedDataset(DatasetVolumes.fromSystemProperties(DatasetVolumes.productionScale()),
+                    Long.getLong("dataset.seed", DatasetGenerator.DEFAULT_SEED));
+        }
+        Map<String, Long> dataset = loadTestData();
+        assertFalse(parkingIds.isEmpty(), "Dataset contains no parking with sectors");
+        clientTokens = logInClients(Integer.getInteger("loadtest.clients", 50),
+                System.getProperty("loadtest.client.password", "P@ssw0rd!"));
+        assertFalse(clientTokens.isEmpty(), "None of the clients of the dataset could log in");
+
+        List<LoadScenario> scenarios = scenarios();
+        double warmupSeconds = Double.parseDouble(System.getProperty("loadtest.warmup.seconds", "15"));
+        double stageSeconds = Double.parseDouble(System.getProperty("loadtest.stage.seconds", "60"));
+        double[] multipliers = Arrays.stream(System.getProperty("loadtest.stages", "1,2,4").split(","))
+                .map(String::trim)
+                .mapToDouble(Double::parseDouble)
+                .toArray();
+        long seed = Long.getLong("loadtest.seed", 20240601L);
+        OpenModelLoadGenerator generator = new OpenModelLoadGenerator(httpClient,
+                Integer.getInteger("loadtest.max.in.flight", 512));
+
+        String startedAt = Instant.now().toString();
+        if (warmupSeconds > 0) {
+            generator.run(scenarios, multipliers[0], warmupSeconds, seed - 1);
+        }
+
+        List<LoadTestReport.StageResult> stages = new ArrayList<>();
+        for (int i = 0; i < multipliers.length; i++) {
+            List<LoadTestReport.ScenarioResult> results = generator.run(scenarios, multipliers[i], stageSeconds, seed + i)
+                    .stream()
+                    .map(statistics -> statistics.toResult(stageSeconds))
+                    .toList();
+            stages.add(new LoadTestReport.StageResult("x" + multipliers[i], multipliers[i], stageSeconds, results));
+        }
+
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("warmupSeconds", warmupSeconds);
+        settings.put("stageSeconds", stageSeconds);
+        settings.put("rateMultipliers", multipliers);
+        settings.put("baseRates", scenarios.stream()
+                .collect(LinkedHashMap::new, (map, scenario) -> map.put(scenario.name(), scenario.rate()), Map::putAll));
+        settings.put("maxInFlight", Integer.getInteger("loadtest.max.in.flight", 512));
+        settings.put("clients", clientTokens.size());
+        settings.put("generatedDataset", Boolean.getBoolean("loadtest.dataset.generated"));
+        settings.put("seed", seed);
+        LoadTestReport report = new LoadTestReport(startedAt, environment.getBaseUrl(), dataset, settings, stages);
+
+        Path reportFile = Path.of(System.getProperty("loadtest.report", "target/load-test/load-test-report.json"));
+        Files.createDirectories(reportFile.toAbsolutePath().getParent());
+        objectMapper.writer().with(SerializationFeature.INDENT_OUTPUT).writeValue(reportFile.toFile(), report);
+        printSummary(report, reportFile);
+
+        double maxErrorRatio = Double.parseDouble(System.getProperty("loadtest.max.error.ratio", "1.0"));
+        for (LoadTestReport.StageResult stage : stages) {
+            for (LoadTestReport.ScenarioResult scenario : stage.scenarios()) {
+                assertTrue(scenario.errorRatio() <= maxErrorRatio, "Error ratio of %s in stage %s is %.3f, over %.3f"
+                        .formatted(scenario.name(), stage.name(), scenario.errorRatio(), maxErrorRatio));
+            }
+        }
+    }
+
+    private List<LoadScenario> scenarios() {
+        return List.of(
+                new LoadScenario("enter", rate("enter", 10),
+                        () -> post(API + "/parking/" + OpenModelLoadGenerator.randomElement(parkingIds) + "/enter", null, null),
+                        this::rememberEnteredReservation),
+                new LoadScenario("exit", rate("exit", 8), () -> {
+                    String reservationId = enteredReservations.poll();
+                    return reservationId == null ? null
+                            : post(API + "/parking/reservations/" + reservationId + "/exit?end=true", null, null);
+                }),
+                new LoadScenario("make-reservation", rate("make-reservation", 2),
+                        () -> post(API + "/reservations/make-reservation", reservationBody(), randomClientToken())),
+                new LoadScenario("list-active-parking", rate("list-active-parking", 10),
+                        () -> get(API + "/parking/active?" + PAGE, null)),
+                new LoadScenario("list-client-sectors", rate("list-client-sectors", 10),
+                        () -> get(API + "/parking/client/sectors/" + OpenModelLoadGenerator.randomElement(parkingIds)
+                                + "?" + PAGE, null)),
+                new LoadScenario("list-own-reservations", rate("list-own-reservations", 5),
+                        () -> get(API + "/reservations/active/self?" + PAGE, randomClientToken()))
+        );
+    }
+
+    private static double rate(String scenario, double defaultRate) {
+        return Double.parseDouble(System.getProperty("loadtest.rate." + scenario, String.valueOf(defaultRate)));
+    }
+
+    private void rememberEnteredReservation(HttpResponse<String> response) {
+        try {
+            JsonNode id = objectMapper.readTree(response.body()).get("id");
+            if (id != null) {
+                enteredReservations.add(id.asText());
+            }
+        } catch (IOException e) {
+            // Response without the reservation cannot be exited, it stays in the parking.
+        }
+    }
+
+    private String reservationBody() {
+        LocalDateTime beginTime = LocalDateTime.now()
+                .plusHours(1 + ThreadLocalRandom.current().nextInt(24))
+                .truncatedTo(ChronoUnit.SECONDS);
+        ObjectNode body = objectMapper.createObjectNode()
+                .put("sectorId", OpenModelLoadGenerator.randomElement(sectorIds))
+                .put("beginTime", beginTime.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
+                .put("endTime", beginTime.plusHours(2).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        return body.toString();
+    }
+
+    private String randomClientToken() {
+        return OpenModelLoadGenerator.randomElement(clientTokens);
+    }
+
+    private HttpRequest get(String path, String token) {
+        return request(path, token).GET().build();
+    }
+
+    private HttpRequest post(String path, String body, String token) {
+        HttpRequest.Builder builder = request(path, token);
+        if (body == null) {
+            return builder.POST(HttpRequest.BodyPublishers.noBody()).build();
+        }
+        return builder.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(environment.getBaseUrl() + path))
+                .timeout(requestTimeout)
+                .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE);
+        if (token != null) {
+            builder.header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        }
+        return builder;
+    }
+
+    /**
+     * Reads identifiers used by the scenarios from the database, and counts the rows of the main tables.
+     */
+    private Map<String, Long> loadTestData() throws SQLException {
+        Map<String, Long> dataset = new LinkedHashMap<>();
+        try (Connection connection = environment.openConnection()) {
+            parkingIds = queryIds(connection,
+                    "SELECT DISTINCT parking_id FROM sector WHERE weight > 0 AND deactivation_time IS NULL");
+            sectorIds = queryIds(connection,
+                    "SELECT id FROM sector WHERE weight > 0 AND deactivation_time IS NULL");
+            try (Statement statement = connection.createStatement()) {
+                for (String table : List.of("account", "parking", "sector", "reservation", "parking_event", "token")) {
+                    try (ResultSet resultSet = statement.executeQuery("SELECT count(*) FROM " + table)) {
+                        resultSet.next();
+                        dataset.put(table, resultSet.getLong(1));
+                    }
+                }
+            }
+        }
+        return dataset;
+    }
+
+    private static List<String> queryIds(Connection connection, String sql) throws SQLException {
+        List<String> ids = new ArrayList<>();
+        try (Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery(sql)) {
+            while (resultSet.next()) {
+                ids.add(resultSet.getString(1));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Logs in the active clients of the dataset without two-factor authentication.
+     *
+     * @return Access tokens of the logged in clients.
+     */
+    private List<String> logInClients(int limit, String password) throws SQLException, IOException, InterruptedException {
+        List<String> logins = new ArrayList<>();
+        try (Connection connection = environment.openConnection();
+             PreparedStatement statement = connection.prepareStatement("""
+                     SELECT a.login FROM account a JOIN user_level ul ON ul.account_id = a.id
+                     WHERE ul.level = 'CLIENT' AND a.active AND NOT a.blocked AND NOT a.suspended
+                         AND NOT a.two_factor_auth
+                     ORDER BY a.login LIMIT ?""")) {
+            statement.setInt(1, limit);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    logins.add(resultSet.getString(1));
+                }
+            }
+        }
+
+        List<String> tokens = new ArrayList<>();
+        for (String login : logins) {
+            ObjectNode body = objectMapper.createObjectNode()
+                    .put("login", login)
+                    .put("password", password)
+                    .put("language", "pl");
+            HttpResponse<String> response = httpClient.send(
+                    post(API + "/auth/login-credentials", body.toString(), null), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() == 200) {
+                tokens.add(objectMapper.readTree(response.body()).get("accessToken").asText());
+            }
+        }
+        return tokens;
+    }
+
+    private static void printSummary(LoadTestReport report, Path reportFile) {
+        String optimisticLockError = "409 " + I18n.OPTIMISTIC_LOCK_EXCEPTION;
+        System.out.printf("%nLoad test report: %s%n", reportFile.toAbsolutePath());
+        System.out.printf("%-8s %-24s %9s %9s %9s %9s %9s %9s %7s%n",
+                "Stage", "Scenario", "Offered/s", "Done/s", "p50 ms", "p95 ms", "p99 ms", "Errors", "OptLock");
+        for (LoadTestReport.StageResult stage : report.stages()) {
+            for (LoadTestReport.ScenarioResult scenario : stage.scenarios()) {
+                System.out.printf("%-8s %-24s %9.2f %9.2f %9.1f %9.1f %9.1f %9d %7d%n",
+                        stage.name(), scenario.name(), scenario.offeredRate(), scenario.throughput(),
+                        scenario.latencyMillis().p50(), scenario.latencyMillis().p95(), scenario.latencyMillis().p99(),
+                        scenario.failed(), scenario.errors().getOrDefault(optimisticLockError, 0L));
+            }
+        }
+    }
+}
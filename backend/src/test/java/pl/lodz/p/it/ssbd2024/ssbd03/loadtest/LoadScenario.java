@@ -0,0 +1,26 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.loadtest;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Single kind of request sent by the load test, with the mean rate of its arrivals.
+ *
+ * @param name      Name of the scenario, used in the report.
+ * @param rate      Mean number of arrivals per second, at the rate multiplier of 1.
+ * @param requests  Supplier of the next request, returning null when there is no data to build it (e.g. no
+ *                  reservation to end yet). Such arrivals are counted as skipped.
+ * @param onSuccess Callback receiving each successful (2xx) response, e.g. to pass created identifiers to other
+ *                  scenarios. Called on the thread of the request.
+ */
+public record LoadScenario(String name,
+                           double rate,
+                           Supplier<HttpRequest> requests,
+                           Consumer<HttpResponse<String>> onSuccess) {
+
+    public LoadScenario(String name, double rate, Supplier<HttpRequest> requests) {
+        this(name, rate, requests, response -> {});
+    }
+}
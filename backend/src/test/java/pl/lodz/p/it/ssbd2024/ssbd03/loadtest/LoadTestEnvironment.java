@@ -0,0 +1,166 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.loadtest;
+
+import org.springframework.core.io.support.ResourcePropertySource;
+import org.testcontainers.containers.Container;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.Network;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.utility.MountableFile;
+import pl.lodz.p.it.ssbd2024.ssbd03.dataset.DatasetGenerator;
+import pl.lodz.p.it.ssbd2024.ssbd03.dataset.DatasetVolumes;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Containers of a single node of the application used by the load tests: PostgreSQL, a mail stand-in (Mailpit)
+ * accepting all the messages sent by the application, and Tomcat with the built WAR. Contrary to
+ * TestcontainersConfigFull, containers use their own network and random host ports, so that the load tests may
+ * run next to the integration tests.
+ * <p>
+ * SMTP settings of the application are overridden with system properties passed to Tomcat, which take precedence
+ * over the properties files, and the request quotas are disabled unless requested otherwise, as all the requests
+ * come from the same address.
+ */
+public class LoadTestEnvironment implements AutoCloseable {
+
+    private static final String DATABASE = "ssbd03";
+    private static final String ADMIN_USER = "ssbd03admin";
+    private static final String ADMIN_PASSWORD = "admin";
+    private static final int TOMCAT_PORT = 8080;
+
+    private final Network network;
+    private final PostgreSQLContainer<?> postgres;
+    private final GenericContainer<?> mail;
+    private final GenericContainer<?> tomcat;
+
+    /**
+     * Creates the containers, without starting them.
+     *
+     * @param quotaEnabled Whether the request quotas of the application should be enforced.
+     * @throws IOException When the configuration of the containers could not be read.
+     */
+    public LoadTestEnvironment(boolean quotaEnabled) throws IOException {
+        ResourcePropertySource props = new ResourcePropertySource("classpath:testcontainers-config.properties");
+        String postgresVersion  = (String) Objects.requireNonNullElse(props.getProperty("postgres.version"), "latest");
+        String postgresHost     = (String) Objects.requireNonNullElse(props.getProperty("postgres.host"), "db");
+        String tomcatVersion    = (String) Objects.requireNonNullElse(props.getProperty("tomcat.version"), "latest");
+        String mailImage        = (String) Objects.requireNonNullElse(props.getProperty("mail.image"), "axllent/mailpit:latest");
+        String mailHost         = (String) Objects.requireNonNullElse(props.getProperty("mail.host"), "mail");
+        int mailPort            = Integer.parseInt((String) Objects.requireNonNullElse(props.getProperty("mail.port"), "1025"));
+
+        network = Network.newNetwork();
+
+        postgres = new PostgreSQLContainer<>("postgres:" + postgresVersion)
+                .withCopyFileToContainer(MountableFile.forClasspathResource("sql/init_struct_test.sql"),
+                        "/docker-entrypoint-initdb.d/")
+                .withCopyFileToContainer(MountableFile.forClasspathResource("integration_test_scripts/"),
+                        "/scripts/")
+                .withNetwork(network)
+                .withNetworkAliases(postgresHost)
+                .waitingFor(Wait.forListeningPort());
+
+        mail = new GenericContainer<>(mailImage)
+                .withNetwork(network)
+                .withNetworkAliases(mailHost)
+                .withExposedPorts(mailPort)
+                .waitingFor(Wait.forListeningPort());
+
+        String catalinaOpts = String.join(" ",
+                "-Dmail.smtp.host=" + mailHost,
+                "-Dmail.smtp.port=" + mailPort,
+                "-Dmail.smtp.auth=false",
+                "-Dmail.smtp.starttls.enable=false",
+                "-Dmail.smtp.ssl.enable=false",
+                "-Dquota.enabled=" + quotaEnabled);
+
+        tomcat = new GenericContainer<>("tomcat:" + tomcatVersion)
+                .dependsOn(postgres, mail)
+                .withNetwork(network)
+                .withEnv("CATALINA_OPTS", catalinaOpts)
+                .withCopyFileToContainer(MountableFile.forHostPath(Path.of("target/rest_application.war")),
+                        "/usr/local/tomcat/webapps/ROOT.war")
+                .withExposedPorts(TOMCAT_PORT)
+                .waitingFor(Wait.forHttp("/health/ready")
+                        .forPort(TOMCAT_PORT)
+                        .forStatusCode(200)
+                        .withStartupTimeout(Duration.ofMinutes(5)));
+    }
+
+    /**
+     * Starts the containers and waits until the application reports itself ready.
+     */
+    public void start() {
+        postgres.start();
+        mail.start();
+        tomcat.start();
+    }
+
+    /**
+     * @return Base URL of the application, reachable from the host running the tests.
+     */
+    public String getBaseUrl() {
+        return "http://%s:%d".formatted(tomcat.getHost(), tomcat.getMappedPort(TOMCAT_PORT));
+    }
+
+    /**
+     * Replaces the content of the database with the dataset of the integration tests.
+     *
+     * @throws IOException          When the scripts could not be executed.
+     * @throws InterruptedException When interrupted while waiting for psql.
+     */
+    public void loadDataset() throws IOException, InterruptedException {
+        runScript("scripts/reset_db.sql");
+        runScript("scripts/init_users.sql");
+    }
+
+    /**
+     * Adds a synthetic dataset to the database, next to the dataset of the integration tests.
+     *
+     * @param volumes Volumes of the synthetic dataset.
+     * @param seed    Seed of the synthetic dataset.
+     * @return Number of rows loaded into each table.
+     * @throws SQLException When the dataset could not be loaded.
+     */
+    public Map<String, Long> loadGeneratedDataset(DatasetVolumes volumes, long seed) throws SQLException {
+        try (Connection connection = openConnection()) {
+            return new DatasetGenerator(volumes, seed, LocalDateTime.now()).load(connection);
+        }
+    }
+
+    /**
+     * Opens a connection to the database of the application, as its administrative user.
+     *
+     * @return New connection, to be closed by the caller.
+     * @throws SQLException When the connection could not be established.
+     */
+    public Connection openConnection() throws SQLException {
+        String url = "jdbc:postgresql://%s:%d/%s".formatted(postgres.getHost(),
+                postgres.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT), DATABASE);
+        return DriverManager.getConnection(url, ADMIN_USER, ADMIN_PASSWORD);
+    }
+
+    private void runScript(String script) throws IOException, InterruptedException {
+        Container.ExecResult result = postgres.execInContainer("psql", "-U", ADMIN_USER, "-d", DATABASE,
+                "-v", "ON_ERROR_STOP=1", "-q", "-f", script);
+        if (result.getExitCode() != 0) {
+            throw new IllegalStateException("Script %s failed: %s".formatted(script, result.getStderr()));
+        }
+    }
+
+    @Override
+    public void close() {
+        tomcat.stop();
+        mail.stop();
+        postgres.stop();
+        network.close();
+    }
+}
@@ -0,0 +1,70 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.loadtest;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Machine-readable result of a run of the load test, written as JSON.
+ *
+ * @param startedAt Start of the run, in ISO-8601 format.
+ * @param baseUrl   Base URL of the tested application.
+ * @param dataset   Number of rows of the main tables of the dataset, at the start of the run.
+ * @param settings  Settings of the run (durations, rates, limits).
+ * @param stages    Results of the measured stages, in the order of execution.
+ */
+public record LoadTestReport(String startedAt,
+                             String baseUrl,
+                             Map<String, Long> dataset,
+                             Map<String, Object> settings,
+                             List<StageResult> stages) {
+
+    /**
+     * @param name            Name of the stage.
+     * @param rateMultiplier  Multiplier applied to the base rates of all scenarios.
+     * @param durationSeconds Duration of the stage.
+     * @param scenarios       Results of the scenarios.
+     */
+    public record StageResult(String name,
+                              double rateMultiplier,
+                              double durationSeconds,
+                              List<ScenarioResult> scenarios) {
+    }
+
+    /**
+     * @param name              Name of the scenario.
+     * @param offeredRate       Mean number of arrivals per second scheduled in the stage.
+     * @param completed         Number of requests which received a response or failed.
+     * @param succeeded         Number of requests which received a successful (2xx) response.
+     * @param failed            Number of requests which received an error response or failed without a response.
+     * @param skipped           Number of arrivals for which there was no data to build a request.
+     * @param dropped           Number of arrivals not sent, because of the limit of requests in flight.
+     * @param throughput        Completed requests per second.
+     * @param successThroughput Successful requests per second.
+     * @param errorRatio        Ratio of the failed requests to the completed ones.
+     * @param latencyMillis     Latency of the completed requests, measured from their intended arrival.
+     * @param errors            Number of failed requests by the kind of error.
+     */
+    public record ScenarioResult(String name,
+                                 double offeredRate,
+                                 long completed,
+                                 long succeeded,
+                                 long failed,
+                                 long skipped,
+                                 long dropped,
+                                 double throughput,
+                                 double successThroughput,
+                                 double errorRatio,
+                                 Latency latencyMillis,
+                                 Map<String, Long> errors) {
+    }
+
+    /**
+     * @param p50  Median.
+     * @param p95  95th percentile.
+     * @param p99  99th percentile.
+     * @param max  Maximum.
+     * @param mean Arithmetic mean.
+     */
+    public record Latency(double p50, double p95, double p99, double max, double mean) {
+    }
+}
@@ -0,0 +1,151 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator: requests of each scenario arrive as a Poisson process of the given rate, independently
+ * of the responses, just like vehicles arriving at the gates of a parking. Each request is sent from its own virtual
+ * thread, and its latency is measured from its intended arrival, so that a slow server is not hidden by a delayed
+ * sending of the next requests (coordinated omission).
+ * <p>
+ * The number of requests in flight is limited, to keep the generator itself from collapsing when the server stops
+ * responding. Arrivals over the limit are counted as dropped.
+ */
+public class OpenModelLoadGenerator {
+
+    private final HttpClient httpClient;
+    private final int maxInFlight;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * @param httpClient  Client used to send the requests.
+     * @param maxInFlight Maximal number of requests waiting for a response at the same time.
+     */
+    public OpenModelLoadGenerator(HttpClient httpClient, int maxInFlight) {
+        this.httpClient = httpClient;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Runs all the scenarios at the same time, for the given duration, and waits for the responses of the sent
+     * requests.
+     *
+     * @param scenarios       Scenarios to run.
+     * @param rateMultiplier  Multiplier applied to the rates of the scenarios.
+     * @param durationSeconds Duration of the arrivals.
+     * @param seed            Seed of the arrival times.
+     * @return Statistics of the scenarios, in their order.
+     * @throws InterruptedException When interrupted while waiting for the arrivals or the responses.
+     */
+    public List<ScenarioStatistics> run(List<LoadScenario> scenarios, double rateMultiplier, double durationSeconds,
+                                        long seed) throws InterruptedException {
+        List<ScenarioStatistics> statistics = new ArrayList<>();
+        long end = System.nanoTime() + (long) (durationSeconds * 1_000_000_000L);
+        try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor();
+             ExecutorService arrivals = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < scenarios.size(); i++) {
+                LoadScenario scenario = scenarios.get(i);
+                double rate = scenario.rate() * rateMultiplier;
+                ScenarioStatistics scenarioStatistics = new ScenarioStatistics(scenario.name(), rate);
+                statistics.add(scenarioStatistics);
+                if (rate > 0) {
+                    Random random = new Random(seed + i);
+                    arrivals.execute(() -> generateArrivals(scenario, rate, end, random, scenarioStatistics, requests));
+                }
+            }
+            arrivals.shutdown();
+            arrivals.awaitTermination((long) durationSeconds + 60, TimeUnit.SECONDS);
+        }
+        return statistics;
+    }
+
+    private void generateArrivals(LoadScenario scenario, double rate, long end, Random random,
+                                  ScenarioStatistics statistics, ExecutorService requests) {
+        long next = System.nanoTime();
+        while (true) {
+            next += (long) (-Math.log(1.0 - random.nextDouble()) / rate * 1_000_000_000L);
+            if (next >= end) {
+                return;
+            }
+            long delay;
+            while ((delay = next - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(delay);
+            }
+
+            if (inFlight.incrementAndGet() > maxInFlight) {
+                inFlight.decrementAndGet();
+                statistics.recordDropped();
+                continue;
+            }
+            long intendedStart = next;
+            requests.execute(() -> {
+                try {
+                    send(scenario, intendedStart, statistics);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        }
+    }
+
+    private void send(LoadScenario scenario, long intendedStart, ScenarioStatistics statistics) {
+        HttpRequest request = scenario.requests().get();
+        if (request == null) {
+            statistics.recordSkipped();
+            return;
+        }
+        try {
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            long latency = System.nanoTime() - intendedStart;
+            if (response.statusCode() / 100 == 2) {
+                statistics.recordSuccess(latency);
+                scenario.onSuccess().accept(response);
+            } else {
+                statistics.recordError(latency, describeError(response));
+            }
+        } catch (IOException e) {
+            statistics.recordError(System.nanoTime() - intendedStart, e.getClass().getSimpleName());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Describes an error response with its status code and the message key of its body (ExceptionDTO), so that
+     * e.g. optimistic lock failures are told apart from the other conflicts.
+     */
+    private String describeError(HttpResponse<String> response) {
+        try {
+            JsonNode message = objectMapper.readTree(response.body()).get("message");
+            if (message != null && message.isTextual()) {
+                return response.statusCode() + " " + message.asText();
+            }
+        } catch (IOException | RuntimeException e) {
+            // Body is not an ExceptionDTO, the status code alone describes the error.
+        }
+        return String.valueOf(response.statusCode());
+    }
+
+    /**
+     * @return Random element of the list, or null when it is empty.
+     */
+    static <T> T randomElement(List<T> list) {
+        return list.isEmpty() ? null : list.get(ThreadLocalRandom.current().nextInt(list.size()));
+    }
+}
@@ -0,0 +1,126 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe collector of the outcomes of the requests of a single scenario in a single stage of the load test.
+ * Latencies are kept in full (a stage produces at most a few hundred thousand of them), so that percentiles are exact.
+ */
+public class ScenarioStatistics {
+
+    private final String name;
+    private final double offeredRate;
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    private long[] latencies = new long[1024];
+    private int latencyCount;
+
+    /**
+     * @param name        Name of the scenario.
+     * @param offeredRate Mean number of arrivals per second, scheduled in the stage.
+     */
+    public ScenarioStatistics(String name, double offeredRate) {
+        this.name = name;
+        this.offeredRate = offeredRate;
+    }
+
+    /**
+     * Records a request which received a successful response.
+     *
+     * @param latencyNanos Time since the intended arrival of the request.
+     */
+    public void recordSuccess(long latencyNanos) {
+        succeeded.increment();
+        recordLatency(latencyNanos);
+    }
+
+    /**
+     * Records a request which received an error response or failed without a response.
+     *
+     * @param latencyNanos Time since the intended arrival of the request.
+     * @param error        Kind of the error, e.g. the status code with the message key of the response, or the name
+     *                     of the exception.
+     */
+    public void recordError(long latencyNanos, String error) {
+        errors.computeIfAbsent(error, key -> new LongAdder()).increment();
+        recordLatency(latencyNanos);
+    }
+
+    /**
+     * Records an arrival for which no request could be built.
+     */
+    public void recordSkipped() {
+        skipped.increment();
+    }
+
+    /**
+     * Records an arrival which was not sent, because the limit of requests in flight was reached.
+     */
+    public void recordDropped() {
+        dropped.increment();
+    }
+
+    private synchronized void recordLatency(long latencyNanos) {
+        if (latencyCount == latencies.length) {
+            latencies = Arrays.copyOf(latencies, latencies.length * 2);
+        }
+        latencies[latencyCount++] = latencyNanos;
+    }
+
+    /**
+     * Summarizes the recorded outcomes.
+     *
+     * @param durationSeconds Duration of the stage.
+     * @return Summary of the scenario, as written to the report.
+     */
+    public synchronized LoadTestReport.ScenarioResult toResult(double durationSeconds) {
+        long[] sorted = Arrays.copyOf(latencies, latencyCount);
+        Arrays.sort(sorted);
+        long failed = errors.values().stream().mapToLong(LongAdder::sum).sum();
+        Map<String, Long> errorBreakdown = new TreeMap<>();
+        errors.forEach((error, count) -> errorBreakdown.put(error, count.sum()));
+
+        LoadTestReport.Latency latency = new LoadTestReport.Latency(
+                millis(percentile(sorted, 50)),
+                millis(percentile(sorted, 95)),
+                millis(percentile(sorted, 99)),
+                millis(sorted.length == 0 ? 0 : sorted[sorted.length - 1]),
+                millis(sorted.length == 0 ? 0 : (long) Arrays.stream(sorted).average().orElse(0)));
+
+        return new LoadTestReport.ScenarioResult(
+                name,
+                offeredRate,
+                sorted.length,
+                succeeded.sum(),
+                failed,
+                skipped.sum(),
+                dropped.sum(),
+                sorted.length / durationSeconds,
+                succeeded.sum() / durationSeconds,
+                sorted.length == 0 ? 0 : (double) failed / sorted.length,
+                latency,
+                errorBreakdown);
+    }
+
+    /**
+     * Nearest-rank percentile of the sorted values.
+     */
+    static long percentile(long[] sorted, int percent) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+}
@@ -0,0 +1,146 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.unit.async;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.task.DelegatingSecurityContextAsyncTaskExecutor;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.async.BoundedVirtualThreadTaskExecutor;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoundedVirtualThreadTaskExecutorTest {
+
+    private BoundedVirtualThreadTaskExecutor executor;
+
+    @AfterEach
+    public void shutdownExecutor() {
+        SecurityContextHolder.clearContext();
+        if (executor != null) executor.shutdown();
+    }
+
+    @Test
+    public void numberOfRunningTasksDoesNotExceedMaximumConcurrency() throws Exception {
+        executor = new BoundedVirtualThreadTaskExecutor("Test-", 2, 10, BoundedVirtualThreadTaskExecutor.RejectionPolicy.ABORT, 5000);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch finished = new CountDownLatch(8);
+
+        for (int i = 0; i < 8; i++) {
+            executor.execute(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                sleep(20);
+                running.decrementAndGet();
+                finished.countDown();
+            });
+        }
+
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        assertEquals(2, maxRunning.get());
+        assertTrue(executor.shutdown());
+        assertEquals(8, executor.getCompletedTasks());
+        assertTrue(executor.getTotalQueueTimeNanos() > 0);
+    }
+
+    @Test
+    public void tasksExceedingQueueCapacityAreRejected() throws Exception {
+        executor = new BoundedVirtualThreadTaskExecutor("Test-", 1, 1, BoundedVirtualThreadTaskExecutor.RejectionPolicy.ABORT, 5000);
+        CountDownLatch release = new CountDownLatch(1);
+
+        executor.execute(() -> await(release));
+        executor.execute(() -> await(release));
+        assertThrows(TaskRejectedException.class, () -> executor.execute(() -> { }));
+
+        release.countDown();
+        assertTrue(executor.shutdown());
+        assertEquals(1, executor.getRejectedTasks());
+        assertEquals(2, executor.getCompletedTasks());
+    }
+
+    @Test
+    public void tasksExceedingQueueCapacityAreRunByCallerWithCallerRunsPolicy() throws Exception {
+        executor = new BoundedVirtualThreadTaskExecutor("Test-", 1, 0, BoundedVirtualThreadTaskExecutor.RejectionPolicy.CALLER_RUNS, 5000);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<Thread> callerRunThread = new AtomicReference<>();
+
+        executor.execute(() -> await(release));
+        executor.execute(() -> callerRunThread.set(Thread.currentThread()));
+
+        assertSame(Thread.currentThread(), callerRunThread.get());
+        release.countDown();
+        assertTrue(executor.shutdown());
+        assertEquals(1, executor.getRejectedTasks());
+    }
+
+    @Test
+    public void failedTasksAreCountedAndDoNotLeakPermits() throws Exception {
+        executor = new BoundedVirtualThreadTaskExecutor("Test-", 1, 0, BoundedVirtualThreadTaskExecutor.RejectionPolicy.ABORT, 5000);
+
+        for (int i = 0; i < 3; i++) {
+            CountDownLatch finished = new CountDownLatch(1);
+            executor.execute(() -> {
+                finished.countDown();
+                throw new IllegalStateException("Failure");
+            });
+            assertTrue(finished.await(5, TimeUnit.SECONDS));
+            while (executor.getActiveTasks() > 0) Thread.onSpinWait();
+        }
+
+        assertTrue(executor.shutdown());
+        assertEquals(3, executor.getFailedTasks());
+        assertEquals(0, executor.getRejectedTasks());
+    }
+
+    @Test
+    public void securityContextIsPropagatedToVirtualThreads() throws Exception {
+        executor = new BoundedVirtualThreadTaskExecutor("Test-", 1, 1, BoundedVirtualThreadTaskExecutor.RejectionPolicy.ABORT, 5000);
+        DelegatingSecurityContextAsyncTaskExecutor taskExecutor = new DelegatingSecurityContextAsyncTaskExecutor(executor);
+        Authentication authentication = new UsernamePasswordAuthenticationToken("user", null, List.of());
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        AtomicReference<Authentication> propagated = new AtomicReference<>();
+        AtomicReference<Boolean> virtual = new AtomicReference<>();
+        CountDownLatch finished = new CountDownLatch(1);
+
+        taskExecutor.execute(() -> {
+            propagated.set(SecurityContextHolder.getContext().getAuthentication());
+            virtual.set(Thread.currentThread().isVirtual());
+            finished.countDown();
+        });
+
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        assertSame(authentication, propagated.get());
+        assertTrue(virtual.get());
+    }
+
+    @Test
+    public void tasksAreRejectedAfterShutdown() {
+        executor = new BoundedVirtualThreadTaskExecutor("Test-", 1, 1, BoundedVirtualThreadTaskExecutor.RejectionPolicy.CALLER_RUNS, 5000);
+        assertTrue(executor.shutdown());
+
+        assertThrows(TaskRejectedException.class, () -> executor.execute(() -> { }));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
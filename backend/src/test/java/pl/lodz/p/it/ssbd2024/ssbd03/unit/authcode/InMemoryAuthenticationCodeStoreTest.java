@@ -0,0 +1,122 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.unit.authcode;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.AbstractEntity;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Account;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.mok.token.TokenNotValidException;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.mok.token.read.TokenNotFoundException;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.authcode.InMemoryAuthenticationCodeStore;
+
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InMemoryAuthenticationCodeStoreTest {
+
+    private Account account;
+
+    @BeforeEach
+    public void init() throws Exception {
+        account = new Account("exampleLogin", "examplePassword", "exampleName", "exampleLastname", "example@example.com", "123123123");
+        Field id = AbstractEntity.class.getDeclaredField("id");
+        id.setAccessible(true);
+        id.set(account, UUID.randomUUID());
+    }
+
+    @Test
+    public void consumeReturnsTrueOnlyOnceForMatchingDigest() throws Exception {
+        InMemoryAuthenticationCodeStore store = new InMemoryAuthenticationCodeStore(Duration.ofMinutes(5));
+        store.put(account, "ExampleDigest");
+
+        assertTrue(store.consume(account, "ExampleDigest"));
+        assertEquals(0, store.size());
+        assertThrows(TokenNotFoundException.class, () -> store.consume(account, "ExampleDigest"));
+    }
+
+    @Test
+    public void consumeReturnsFalseAndKeepsCodeForDifferentDigest() throws Exception {
+        InMemoryAuthenticationCodeStore store = new InMemoryAuthenticationCodeStore(Duration.ofMinutes(5));
+        store.put(account, "ExampleDigest");
+
+        assertFalse(store.consume(account, "OtherDigest"));
+        assertEquals(1, store.size());
+        assertTrue(store.consume(account, "ExampleDigest"));
+    }
+
+    @Test
+    public void putReplacesPreviousCodeOfTheAccount() throws Exception {
+        InMemoryAuthenticationCodeStore store = new InMemoryAuthenticationCodeStore(Duration.ofMinutes(5));
+        store.put(account, "FirstDigest");
+        store.put(account, "SecondDigest");
+
+        assertFalse(store.consume(account, "FirstDigest"));
+        assertTrue(store.consume(account, "SecondDigest"));
+    }
+
+    @Test
+    public void codeConsumedInRolledBackTransactionIsRestored() throws Exception {
+        InMemoryAuthenticationCodeStore store = new InMemoryAuthenticationCodeStore(Duration.ofMinutes(5));
+        store.put(account, "ExampleDigest");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertTrue(store.consume(account, "ExampleDigest"));
+            assertEquals(0, store.size());
+            completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertTrue(store.consume(account, "ExampleDigest"));
+    }
+
+    @Test
+    public void codeStoredInTransactionIsVisibleOnlyAfterCommit() throws Exception {
+        InMemoryAuthenticationCodeStore store = new InMemoryAuthenticationCodeStore(Duration.ofMinutes(5));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            store.put(account, "ExampleDigest");
+            assertEquals(0, store.size());
+            completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertTrue(store.consume(account, "ExampleDigest"));
+    }
+
+    @Test
+    public void consumeThrowsForMissingCode() {
+        InMemoryAuthenticationCodeStore store = new InMemoryAuthenticationCodeStore(Duration.ofMinutes(5));
+
+        assertThrows(TokenNotFoundException.class, () -> store.consume(account, "ExampleDigest"));
+    }
+
+    @Test
+    public void expiredCodesAreRejectedAndRemoved() throws Exception {
+        InMemoryAuthenticationCodeStore store = new InMemoryAuthenticationCodeStore(Duration.ofMillis(1));
+        store.put(account, "ExampleDigest");
+        Thread.sleep(5);
+
+        assertThrows(TokenNotValidException.class, () -> store.consume(account, "ExampleDigest"));
+        assertEquals(0, store.size());
+
+        store.put(account, "ExampleDigest");
+        Thread.sleep(5);
+        store.removeExpiredCodes();
+        assertEquals(0, store.size());
+    }
+
+    private static void completeTransaction(int status) {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (status == TransactionSynchronization.STATUS_COMMITTED) synchronization.afterCommit();
+            synchronization.afterCompletion(status);
+        }
+    }
+}
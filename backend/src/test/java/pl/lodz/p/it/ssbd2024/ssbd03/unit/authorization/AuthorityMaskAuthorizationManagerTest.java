@@ -0,0 +1,133 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.unit.authorization;
+
+import jakarta.annotation.security.DenyAll;
+import jakarta.annotation.security.PermitAll;
+import jakarta.annotation.security.RolesAllowed;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.authorization.AuthorityIndex;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.authorization.AuthorityMask;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.authorization.AuthorityMaskAuthenticationToken;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.authorization.AuthorityMaskAuthorizationManager;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Authorities;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AuthorityMaskAuthorizationManagerTest {
+
+    private AuthorityIndex authorityIndex;
+    private AuthorityMaskAuthorizationManager authorizationManager;
+    private SecuredComponent securedComponent;
+
+    @BeforeEach
+    public void init() {
+        authorityIndex = new AuthorityIndex();
+        authorizationManager = new AuthorityMaskAuthorizationManager(authorityIndex);
+        ProxyFactory proxyFactory = new ProxyFactory(new SecuredComponent());
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvisor(AuthorizationManagerBeforeMethodInterceptor.jsr250(authorizationManager));
+        securedComponent = (SecuredComponent) proxyFactory.getProxy();
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void methodAnnotationTakesPrecedenceOverClassAnnotation() {
+        authenticate("ROLE_" + Authorities.LOGIN);
+
+        assertEquals("login", securedComponent.login());
+        assertThrows(AccessDeniedException.class, () -> securedComponent.classLevel());
+    }
+
+    @Test
+    public void classAnnotationIsUsedForMethodsWithoutAnnotation() {
+        authenticate("ROLE_" + Authorities.REFRESH_SESSION);
+
+        assertEquals("classLevel", securedComponent.classLevel());
+        assertThrows(AccessDeniedException.class, () -> securedComponent.login());
+    }
+
+    @Test
+    public void permitAllAndDenyAllIgnoreAuthorities() {
+        authenticate("ROLE_" + Authorities.LOGIN, "ROLE_" + Authorities.REFRESH_SESSION);
+
+        assertEquals("permitAll", securedComponent.permitAll());
+        assertThrows(AccessDeniedException.class, () -> securedComponent.denyAll());
+    }
+
+    @Test
+    public void authoritiesNotDeclaredInAuthoritiesAreSupported() {
+        authenticate("ROLE_CUSTOM_AUTHORITY");
+
+        assertEquals("custom", securedComponent.custom());
+        assertThrows(AccessDeniedException.class, () -> securedComponent.login());
+    }
+
+    @Test
+    public void precomputedMaskOfTokenIsUsed() {
+        AuthorityMask mask = authorityIndex.compile(List.of("ROLE_" + Authorities.LOGIN));
+        SecurityContextHolder.getContext().setAuthentication(
+                new AuthorityMaskAuthenticationToken("login", null, List.of(), mask));
+
+        assertEquals("login", securedComponent.login());
+        assertEquals("login", securedComponent.login());
+        assertEquals(1, authorizationManager.getCompiledRulesCount());
+    }
+
+    @Test
+    public void masksIntersectAcrossDifferentLengths() {
+        AuthorityMask low = AuthorityMask.of(1);
+        AuthorityMask high = AuthorityMask.of(1, 130);
+
+        assertTrue(low.intersects(high));
+        assertTrue(high.intersects(low));
+        assertFalse(AuthorityMask.of(130).intersects(low));
+        assertTrue(AuthorityMask.of(130).intersects(low.or(AuthorityMask.of(130))));
+        assertTrue(AuthorityMask.EMPTY.isEmpty());
+    }
+
+    private void authenticate(String... authorities) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("login", null,
+                List.of(authorities).stream().map(SimpleGrantedAuthority::new).toList()));
+    }
+
+    @RolesAllowed({Authorities.REFRESH_SESSION})
+    public static class SecuredComponent {
+
+        @RolesAllowed({Authorities.LOGIN, Authorities.REGISTER_CLIENT})
+        public String login() {
+            return "login";
+        }
+
+        public String classLevel() {
+            return "classLevel";
+        }
+
+        @PermitAll
+        public String permitAll() {
+            return "permitAll";
+        }
+
+        @DenyAll
+        public String denyAll() {
+            return "denyAll";
+        }
+
+        @RolesAllowed({"CUSTOM_AUTHORITY"})
+        public String custom() {
+            return "custom";
+        }
+    }
+}
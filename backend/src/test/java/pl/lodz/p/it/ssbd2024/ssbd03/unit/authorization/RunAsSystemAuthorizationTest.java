@@ -0,0 +1,151 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.unit.authorization;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.exception.facade.GenericFacadeAspect;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.exception.service.GenericServiceAspect;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerAspect;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.util.RunAsImpl;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.SecurityConfig;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.authorization.AuthorityIndex;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.authorization.AuthorityMaskAuthorizationManager;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Authorities;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.roles.RolesMapper;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.AccountHistoryDataFacade;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.AccountMOKFacade;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.TokenFacade;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.services.implementations.ScheduleService;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.MailProvider;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.TokenProvider;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+import static pl.lodz.p.it.ssbd2024.ssbd03.aspects.util.WovenAspectBeanFactoryPostProcessor.isWovenAspect;
+
+/**
+ * Scheduled jobs annotated with both @RunAsSystem and @RolesAllowed, called through the JSR-250 security interceptor
+ * of the application, with RunAsImpl applied by Spring AOP. The same test is run in the default build and in the build
+ * with aspects woven at compile time (aspectj-ctw Maven profile), where RunAsImpl has to remain proxy-based in order to
+ * set the SYSTEM authentication before the security interceptor checks the roles.
+ */
+public class RunAsSystemAuthorizationTest {
+
+    private final TokenFacade tokenFacade = mock(TokenFacade.class);
+
+    private AnnotationConfigApplicationContext context;
+    private ScheduleService scheduleService;
+
+    @BeforeEach
+    public void init() {
+        context = new AnnotationConfigApplicationContext();
+        context.getBeanFactory().registerSingleton("accountMOKFacade", mock(AccountMOKFacade.class));
+        context.getBeanFactory().registerSingleton("historyDataFacade", mock(AccountHistoryDataFacade.class));
+        context.getBeanFactory().registerSingleton("tokenFacade", tokenFacade);
+        context.getBeanFactory().registerSingleton("mailProvider", mock(MailProvider.class));
+        context.getBeanFactory().registerSingleton("tokenProvider", mock(TokenProvider.class));
+        context.register(SecuredSchedulerConfig.class);
+        context.refresh();
+        scheduleService = context.getBean(ScheduleService.class);
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        SecurityContextHolder.clearContext();
+        context.close();
+    }
+
+    @Test
+    public void scheduledJobIsAuthorizedAsSystemWithoutAuthentication() throws Exception {
+        AtomicReference<Authentication> authenticationInJob = new AtomicReference<>();
+        when(tokenFacade.removeExpiredBatch(any(LocalDateTime.class), anyInt())).thenAnswer(invocation -> {
+            authenticationInJob.set(SecurityContextHolder.getContext().getAuthentication());
+            return 0;
+        });
+
+        assertTrue(AopUtils.isAopProxy(scheduleService));
+        assertDoesNotThrow(() -> scheduleService.removeExpiredTokens());
+
+        verify(tokenFacade).removeExpiredBatch(any(LocalDateTime.class), eq(2));
+        assertNotNull(authenticationInJob.get());
+        assertEquals("SYSTEM", authenticationInJob.get().getPrincipal());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    public void scheduledJobIsAuthorizedAsSystemForUserWithoutAuthority() throws Exception {
+        Authentication client = new UsernamePasswordAuthenticationToken("client", null,
+                List.of(new SimpleGrantedAuthority("ROLE_" + Authorities.LOGIN)));
+        SecurityContextHolder.getContext().setAuthentication(client);
+        when(tokenFacade.removeExpiredBatch(any(LocalDateTime.class), anyInt())).thenReturn(0);
+
+        assertDoesNotThrow(() -> scheduleService.removeExpiredTokens());
+
+        verify(tokenFacade).removeExpiredBatch(any(LocalDateTime.class), eq(2));
+        assertSame(client, SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    @Tag("woven")
+    public void aspectsAppliedOutsideOfSecurityInterceptorAreNotWoven() {
+        assertTrue(isWovenAspect(LoggerAspect.class));
+        assertFalse(isWovenAspect(RunAsImpl.class));
+        assertFalse(isWovenAspect(GenericServiceAspect.class));
+        assertFalse(isWovenAspect(GenericFacadeAspect.class));
+    }
+
+    @Configuration
+    @EnableAspectJAutoProxy(proxyTargetClass = true)
+    @Import({RolesMapper.class, AuthorityIndex.class, AuthorityMaskAuthorizationManager.class, RunAsImpl.class})
+    public static class SecuredSchedulerConfig {
+
+        @Bean
+        public static PropertySourcesPlaceholderConfigurer propertySourcesPlaceholderConfigurer() {
+            Properties properties = new Properties();
+            properties.setProperty("scheduler.not_active_account_delete_time", "24");
+            properties.setProperty("scheduler.blocked_account_unblock_time", "2");
+            properties.setProperty("mail.account.creation.confirmation.url", "http://localhost");
+            properties.setProperty("account.resend.creation.confirmation.after.hours", "12");
+            properties.setProperty("scheduler.max_days_without_authentication", "30");
+            properties.setProperty("scheduler.expired_tokens_batch_size", "2");
+
+            PropertySourcesPlaceholderConfigurer configurer = new PropertySourcesPlaceholderConfigurer();
+            configurer.setProperties(properties);
+            return configurer;
+        }
+
+        @Bean
+        public static Advisor jsr250AuthorizationMethodInterceptor(AuthorityMaskAuthorizationManager authorizationManager) {
+            return SecurityConfig.jsr250AuthorizationMethodInterceptor(authorizationManager);
+        }
+
+        @Bean
+        public ScheduleService scheduleService(AccountMOKFacade accountMOKFacade,
+                                               AccountHistoryDataFacade historyDataFacade,
+                                               TokenFacade tokenFacade,
+                                               MailProvider mailProvider,
+                                               TokenProvider tokenProvider) {
+            return new ScheduleService(accountMOKFacade, historyDataFacade, tokenFacade, mailProvider, tokenProvider);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.unit.config;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.annotation.AutowiredAnnotationBeanPostProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.context.annotation.ContextAnnotationAutowireCandidateResolver;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.ResourcePropertySource;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.webconfig.WebConfig;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.async.BoundedVirtualThreadTaskExecutor;
+
+import java.io.IOException;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks, that every <code>@Value</code> placeholder of the application is resolved from the property files
+ * declared with <code>@PropertySource</code>, so that the application context does not fail to start because
+ * of a missing property. Property files containing secrets are not a part of the repository, and are provided
+ * when the application is deployed, so their keys are replaced with example values.
+ */
+public class PropertyPlaceholderTest {
+
+    private static final String BASE_PACKAGE = "pl.lodz.p.it.ssbd2024.ssbd03";
+
+    private static final Map<String, Map<String, Object>> DEPLOYMENT_PROPERTY_FILES = Map.of(
+            "classpath:properties/mail.properties", Map.of(
+                    "mail.account.creation.confirmation.url", "http://localhost:3000",
+                    "mail.sender.email", "eldorado@example.com",
+                    "mail.sender.username", "eldorado",
+                    "mail.sender.password", "password",
+                    "mail.smtp.host", "localhost",
+                    "mail.smtp.port", "25",
+                    "mail.smtp.auth", "true",
+                    "mail.smtp.starttls.enable", "true",
+                    "mail.smtp.ssl.enable", "false",
+                    "mail.smtp.ssl.trust", "localhost"),
+            "classpath:properties/key.properties", Map.of(
+                    "secret.key", "c2VjcmV0")
+    );
+
+    private static final List<Class<?>> applicationClasses = new ArrayList<>();
+
+    private static StandardEnvironment environment;
+
+    @BeforeAll
+    public static void init() throws Exception {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false) {
+            @Override
+            protected boolean isCandidateComponent(AnnotatedBeanDefinition beanDefinition) {
+                return true;
+            }
+        };
+        scanner.addIncludeFilter((metadataReader, metadataReaderFactory) ->
+                metadataReader.getResource().getURL().getPath().contains("/target/classes/"));
+        for (BeanDefinition definition : scanner.findCandidateComponents(BASE_PACKAGE)) {
+            applicationClasses.add(Class.forName(definition.getBeanClassName(), false, PropertyPlaceholderTest.class.getClassLoader()));
+        }
+
+        environment = new StandardEnvironment();
+        for (String location : propertySourceLocations()) {
+            environment.getPropertySources().addLast(load(location));
+        }
+    }
+
+    @Test
+    public void everyValuePlaceholderIsResolvedAndConverted() {
+        DefaultConversionService conversionService = new DefaultConversionService();
+        List<String> failures = new ArrayList<>();
+
+        for (Class<?> type : applicationClasses) {
+            for (Field field : type.getDeclaredFields()) {
+                Value value = field.getAnnotation(Value.class);
+                if (value != null) {
+                    check(value, new TypeDescriptor(field), type.getName() + "." + field.getName(), conversionService, failures);
+                }
+            }
+            Stream.concat(Stream.of(type.getDeclaredConstructors()), Stream.of(type.getDeclaredMethods()))
+                    .forEach(executable -> checkParameters(executable, conversionService, failures));
+        }
+
+        assertFalse(applicationClasses.isEmpty());
+        assertTrue(failures.isEmpty(), String.join("\n", failures));
+    }
+
+    @Test
+    public void asyncExecutorIsCreatedFromConfiguredProperties() {
+        try (GenericApplicationContext context = new GenericApplicationContext()) {
+            context.setEnvironment(environment);
+            context.getDefaultListableBeanFactory().setAutowireCandidateResolver(new ContextAnnotationAutowireCandidateResolver());
+            PropertySourcesPlaceholderConfigurer placeholderConfigurer = new PropertySourcesPlaceholderConfigurer();
+            placeholderConfigurer.setEnvironment(environment);
+            context.addBeanFactoryPostProcessor(placeholderConfigurer);
+            context.registerBeanDefinition("autowiredAnnotationProcessor", new RootBeanDefinition(AutowiredAnnotationBeanPostProcessor.class));
+            context.registerBeanDefinition("webConfig", new RootBeanDefinition(WebConfig.class));
+            context.refresh();
+
+            BoundedVirtualThreadTaskExecutor executor = context.getBean(WebConfig.class).asyncTaskExecutor();
+            try {
+                assertEquals(environment.getRequiredProperty("async.executor.max.concurrency", Integer.class), executor.getMaxConcurrency());
+                assertEquals(environment.getRequiredProperty("async.executor.queue.capacity", Integer.class), executor.getQueueCapacity());
+            } finally {
+                executor.shutdown();
+            }
+        }
+    }
+
+    private static Set<String> propertySourceLocations() {
+        Set<String> locations = new LinkedHashSet<>();
+        for (Class<?> type : applicationClasses) {
+            PropertySource propertySource = type.getAnnotation(PropertySource.class);
+            if (propertySource != null) {
+                locations.addAll(List.of(propertySource.value()));
+            }
+        }
+        return locations;
+    }
+
+    private static org.springframework.core.env.PropertySource<?> load(String location) throws IOException {
+        if (new ClassPathResource(location.substring("classpath:".length())).exists()) {
+            return new ResourcePropertySource(location);
+        }
+        Map<String, Object> deploymentProperties = DEPLOYMENT_PROPERTY_FILES.get(location);
+        assertNotNull(deploymentProperties, "Property file " + location + " does not exist");
+        return new MapPropertySource(location, deploymentProperties);
+    }
+
+    private static void checkParameters(Executable executable, DefaultConversionService conversionService, List<String> failures) {
+        for (int i = 0; i < executable.getParameterCount(); i++) {
+            Value value = executable.getParameters()[i].getAnnotation(Value.class);
+            if (value != null) {
+                MethodParameter parameter = MethodParameter.forExecutable(executable, i);
+                check(value, new TypeDescriptor(parameter), executable.toGenericString() + " parameter " + i,
+                        conversionService, failures);
+            }
+        }
+    }
+
+    private static void check(Value value, TypeDescriptor targetType, String target,
+                              DefaultConversionService conversionService, List<String> failures) {
+        try {
+            String resolved = environment.resolveRequiredPlaceholders(value.value());
+            conversionService.convert(resolved, TypeDescriptor.valueOf(String.class), targetType);
+        } catch (RuntimeException exception) {
+            failures.add(target + ": " + exception.getMessage());
+        }
+    }
+}
@@ -18,6 +18,7 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
@@ -35,12 +36,15 @@ import pl.lodz.p.it.ssbd2024.ssbd03.mok.controllers.implementations.Authenticati
 import pl.lodz.p.it.ssbd2024.ssbd03.mok.services.implementations.AuthenticationService;
 import org.springframework.security.authentication.BadCredentialsException;
 import pl.lodz.p.it.ssbd2024.ssbd03.utils.I18n;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.image.RandomImagePool;
 
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -52,6 +56,8 @@ public class AuthenticationControllerMockTest {
     private AuthenticationService authenticationService;
     @Mock
     private AuthenticationManager authenticationManager;
+    @Mock
+    private RandomImagePool randomImagePool;
     @InjectMocks
     private AuthenticationController authenticationController;
 
@@ -173,6 +179,27 @@ public class AuthenticationControllerMockTest {
         assertEquals(accountLoginDTO.getPassword(), ((Authentication) argCaptor.getValue()).getCredentials());
     }
 
+    @Test
+    public void loginUsingCredentialsFailedHashingOverloaded() throws Exception {
+        when(authenticationManager.authenticate(any(Authentication.class)))
+                .thenThrow(new RejectedExecutionException("Too many password hashing operations are waiting."));
+        AuthenticationLoginDTO accountLoginDTO = new AuthenticationLoginDTO("johann13", "H@selk0!", "pl");
+
+        mockMvc.perform(post("/api/v1/auth/login-credentials")
+                        .contentType(CONTENT_TYPE)
+                        .content(mapper.writeValueAsString(accountLoginDTO)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(result ->
+                        assertEquals(
+                                mapper.writeValueAsString(new ExceptionDTO(I18n.SERVICE_UNAVAILABLE_EXCEPTION)),
+                                result.getResponse().getContentAsString()
+                        )
+                );
+
+        // Verify
+        verify(authenticationService, never()).registerUnsuccessfulLoginAttemptWithIncrement(anyString(), anyString());
+    }
+
     @Test
     public void loginUsingCredentialsFailedDisabledAccount() throws Exception {
         when(authenticationManager.authenticate(any(Authentication.class))).thenThrow(DisabledException.class);
@@ -369,4 +396,24 @@ public class AuthenticationControllerMockTest {
                         result.getResponse().getContentAsString())
                 );
     }
+
+    @Test
+    public void getRandomImageReturnsCachedImageWithCacheControlHeader() throws Exception {
+        ReflectionTestUtils.setField(authenticationController, "imageCacheMaxAge", 300L);
+        when(randomImagePool.getRandomImage()).thenReturn(Optional.of("aW1hZ2U="));
+
+        mockMvc.perform(get("/api/v1/auth/random-image"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("Cache-Control", "max-age=300, private"))
+                .andExpect(MockMvcResultMatchers.content().string("aW1hZ2U="));
+    }
+
+    @Test
+    public void getRandomImageReturnsNoContentWhenImagePoolIsEmpty() throws Exception {
+        when(randomImagePool.getRandomImage()).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/v1/auth/random-image"))
+                .andExpect(status().isNoContent())
+                .andExpect(MockMvcResultMatchers.header().string("Cache-Control", "no-store"));
+    }
 }
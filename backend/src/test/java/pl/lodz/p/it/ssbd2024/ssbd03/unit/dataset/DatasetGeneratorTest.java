@@ -0,0 +1,137 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.unit.dataset;
+
+import org.junit.jupiter.api.Test;
+import pl.lodz.p.it.ssbd2024.ssbd03.dataset.DatasetGenerator;
+import pl.lodz.p.it.ssbd2024.ssbd03.dataset.DatasetGenerator.GeneratedAccount;
+import pl.lodz.p.it.ssbd2024.ssbd03.dataset.DatasetGenerator.GeneratedReservation;
+import pl.lodz.p.it.ssbd2024.ssbd03.dataset.DatasetVolumes;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Client.ClientType;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.Reservation.ReservationStatus;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.Sector.SectorType;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DatasetGeneratorTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 3, 12, 0);
+    private static final DatasetVolumes VOLUMES = new DatasetVolumes(2_000, 2, 3, 10, 6, 2, 20_000L, 365, 14);
+
+    private final DatasetGenerator generator = new DatasetGenerator(VOLUMES, DatasetGenerator.DEFAULT_SEED, NOW);
+
+    @Test
+    public void sameSeedGivesSameRows() {
+        DatasetGenerator other = new DatasetGenerator(VOLUMES, DatasetGenerator.DEFAULT_SEED, NOW);
+        DatasetGenerator differentSeed = new DatasetGenerator(VOLUMES, DatasetGenerator.DEFAULT_SEED + 1, NOW);
+
+        assertEquals(generator.account(17), other.account(17));
+        assertEquals(generator.reservation(4711), other.reservation(4711));
+        assertNotEquals(generator.reservation(4711), differentSeed.reservation(4711));
+    }
+
+    @Test
+    public void identifiersEncodeTableAndIndex() {
+        assertEquals(UUID.fromString("d5000001-0000-4000-8000-000000000011"), DatasetGenerator.id(DatasetGenerator.ACCOUNT, 17));
+        assertEquals(UUID.fromString("d5000007-0000-4000-8000-0000000f4240"), DatasetGenerator.id(DatasetGenerator.RESERVATION, 1_000_000));
+        assertEquals(4, DatasetGenerator.id(DatasetGenerator.SECTOR, 3).version());
+    }
+
+    @Test
+    public void accountsAreConsistentWithTheirState() {
+        int pending = 0;
+        for (int i = 1; i <= VOLUMES.accounts(); i++) {
+            GeneratedAccount account = generator.account(i);
+            assertFalse(account.created().isAfter(NOW));
+            if (!account.active()) {
+                pending++;
+                assertTrue(account.created().isAfter(NOW.minusDays(1)), "Accounts wait for activation for a day at most");
+                assertFalse(account.blocked());
+                assertNull(account.lastLogin());
+                continue;
+            }
+            assertTrue(account.activated().isAfter(account.created()));
+            if (account.lastLogin() != null) {
+                assertFalse(account.lastLogin().isBefore(account.activated()));
+                assertFalse(account.lastLogin().isAfter(NOW));
+            }
+            if (account.blockedTime() != null) {
+                assertTrue(account.blocked());
+            }
+        }
+        assertTrue(pending < VOLUMES.accounts() / 100, "Only a few accounts wait for activation");
+    }
+
+    @Test
+    public void reservationsAreConsistentWithTheirTime() {
+        Map<ReservationStatus, Integer> statuses = new EnumMap<>(ReservationStatus.class);
+        for (long r = 0; r < VOLUMES.reservations(); r++) {
+            GeneratedReservation reservation = generator.reservation(r);
+            statuses.merge(reservation.status(), 1, Integer::sum);
+
+            assertTrue(reservation.end().isAfter(reservation.begin()));
+            assertFalse(reservation.created().isAfter(reservation.begin()));
+            assertFalse(reservation.begin().isBefore(NOW.minusDays(VOLUMES.historyDays() + 1L)));
+            assertFalse(reservation.begin().isAfter(NOW.plusDays(VOLUMES.futureDays() + 1L)));
+            if (reservation.entry() != null) {
+                assertFalse(reservation.entry().isBefore(reservation.begin()));
+                assertFalse(reservation.entry().isAfter(NOW));
+            }
+            if (reservation.exit() != null) {
+                assertTrue(reservation.exit().isAfter(reservation.entry()));
+                assertFalse(reservation.exit().isAfter(reservation.end()));
+            }
+
+            switch (reservation.status()) {
+                case AWAITING -> {
+                    assertNotNull(reservation.clientIndex(), "Walk-in reservations are made when entering");
+                    assertNull(reservation.entry());
+                }
+                case IN_PROGRESS -> {
+                    assertTrue(reservation.end().isAfter(NOW));
+                    assertNotNull(reservation.entry());
+                    assertNull(reservation.exit());
+                }
+                case COMPLETED_MANUALLY -> {
+                    assertFalse(reservation.end().isAfter(NOW));
+                    assertNotNull(reservation.exit());
+                }
+                case COMPLETED_AUTOMATICALLY, CANCELLED -> assertNull(reservation.entry());
+                case TERMINATED -> {
+                    assertNotNull(reservation.entry());
+                    assertNull(reservation.exit());
+                }
+            }
+
+            if (reservation.clientIndex() != null) {
+                GeneratedAccount client = generator.account(reservation.clientIndex());
+                assertTrue(client.activated().isBefore(reservation.begin()));
+                SectorType sectorType = SectorType.values()[reservation.sectorIndex() % VOLUMES.sectorsPerParking() % SectorType.values().length];
+                assertTrue(client.clientType() == ClientType.PREMIUM
+                                || (client.clientType() == ClientType.STANDARD && sectorType != SectorType.UNDERGROUND)
+                                || sectorType == SectorType.UNCOVERED,
+                        "Sector " + sectorType + " is not available to a " + client.clientType() + " client");
+            }
+        }
+
+        assertTrue(statuses.get(ReservationStatus.COMPLETED_MANUALLY) > VOLUMES.reservations() / 2);
+        assertTrue(statuses.get(ReservationStatus.AWAITING) > 0);
+        assertTrue(statuses.get(ReservationStatus.AWAITING) < VOLUMES.reservations() / 20);
+    }
+
+    @Test
+    public void volumesAreReadFromSystemProperties() {
+        System.setProperty("dataset.reservations", "123");
+        try {
+            DatasetVolumes volumes = DatasetVolumes.fromSystemProperties(VOLUMES);
+            assertEquals(123L, volumes.reservations());
+            assertEquals(VOLUMES.accounts(), volumes.accounts());
+        } finally {
+            System.clearProperty("dataset.reservations");
+        }
+        assertThrows(IllegalArgumentException.class, () -> new DatasetVolumes(0, 2, 3, 10, 6, 2, 20_000L, 365, 14));
+    }
+}
@@ -0,0 +1,44 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.unit.exceptions;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationDatabaseException;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationInternalServerErrorException;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.mop.reservation.ReservationNoAvailablePlaceException;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.I18n;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ApplicationBaseExceptionTest {
+
+    @AfterEach
+    public void reset() {
+        ApplicationBaseException.setStacklessExpectedOutcomes(false);
+    }
+
+    @Test
+    public void expectedOutcomesCaptureStackTraceByDefault() {
+        assertFalse(ApplicationBaseException.isStacklessExpectedOutcomes());
+        assertNotEquals(0, new ReservationNoAvailablePlaceException().getStackTrace().length);
+    }
+
+    @Test
+    public void expectedOutcomesAreStacklessWhenEnabled() {
+        ApplicationBaseException.setStacklessExpectedOutcomes(true);
+
+        ReservationNoAvailablePlaceException exception = new ReservationNoAvailablePlaceException();
+
+        assertEquals(0, exception.getStackTrace().length);
+        assertEquals(I18n.RESERVATION_SECTOR_NO_AVAILABLE_PLACES_EXCEPTION, exception.getMessage());
+    }
+
+    @Test
+    public void failuresAlwaysCaptureStackTrace() {
+        ApplicationBaseException.setStacklessExpectedOutcomes(true);
+
+        assertNotEquals(0, new ApplicationInternalServerErrorException().getStackTrace().length);
+        assertNotEquals(0, new ApplicationDatabaseException(new RuntimeException()).getStackTrace().length);
+        assertNotEquals(0, new ApplicationBaseException().getStackTrace().length);
+    }
+}
@@ -0,0 +1,154 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.unit.health;
+
+import com.atomikos.jdbc.AtomikosDataSourceBean;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.metrics.MetricsAspect;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.health.HealthComponent;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.health.HealthMonitor;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.health.HealthProbe;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.health.HealthReport;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.health.HealthStatus;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.async.BoundedVirtualThreadTaskExecutor;
+
+import javax.sql.XAConnection;
+import javax.sql.XADataSource;
+import java.net.ServerSocket;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class HealthMonitorTest {
+
+    private ServerSocket smtpServer;
+    private JavaMailSenderImpl mailSender;
+    private BoundedVirtualThreadTaskExecutor executor;
+    private MetricsAspect metricsAspect;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        smtpServer = new ServerSocket(0);
+        Properties properties = new Properties();
+        properties.put("mail.smtp.host", "localhost");
+        properties.put("mail.smtp.port", smtpServer.getLocalPort());
+        mailSender = new JavaMailSenderImpl();
+        mailSender.setJavaMailProperties(properties);
+        executor = new BoundedVirtualThreadTaskExecutor("Test-", 1, 10, BoundedVirtualThreadTaskExecutor.RejectionPolicy.ABORT, 1000);
+        metricsAspect = mock(MetricsAspect.class);
+        when(metricsAspect.getJobLastCompletionTimes()).thenReturn(Map.of());
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        smtpServer.close();
+        executor.shutdown();
+    }
+
+    @Test
+    public void healthyComponentsMakeApplicationReady() throws Exception {
+        HealthReport report = monitor(dataSource("MOK_ATOMIKOS_CP", 5, 4, 10, true)).check();
+
+        assertTrue(report.ready());
+        assertEquals(HealthStatus.UP, report.status());
+        HealthComponent dataSource = component(report, "datasource.MOK_ATOMIKOS_CP");
+        assertEquals(HealthStatus.UP, dataSource.status());
+        assertEquals(1, dataSource.details().get("active"));
+        assertEquals(0.1, (double) dataSource.details().get("usage"), 1e-9);
+        assertNotNull(dataSource.details().get("latencyMillis"));
+        assertEquals(HealthStatus.UP, component(report, "smtp").status());
+        assertEquals(HealthStatus.UP, component(report, "executor.async").status());
+        assertEquals(HealthStatus.UP, component(report, "jvm").status());
+        assertTrue(new ObjectMapper().writeValueAsString(report).contains("\"checkedAt\":\"" + report.checkedAt() + "\""));
+    }
+
+    @Test
+    public void saturatedOrUnavailableDataSourceMakesApplicationNotReady() throws Exception {
+        HealthReport report = monitor(dataSource("MOK_ATOMIKOS_CP", 10, 0, 10, true),
+                dataSource("MOP_ATOMIKOS_CP", 1, 1, 10, false)).check();
+
+        assertFalse(report.ready());
+        assertEquals(HealthStatus.DOWN, report.status());
+        assertEquals("Connection pool is saturated.", component(report, "datasource.MOK_ATOMIKOS_CP").reason());
+        assertEquals(HealthStatus.DOWN, component(report, "datasource.MOP_ATOMIKOS_CP").status());
+    }
+
+    @Test
+    public void unreachableSmtpServerAndDelayedJobsOnlyDegradeStatus() throws Exception {
+        smtpServer.close();
+        when(metricsAspect.getJobLastCompletionTimes()).thenReturn(Map.of(
+                "ScheduleService.removeExpiredTokens", Instant.now().minus(Duration.ofHours(3)),
+                "ScheduleMOPService.removeExpiredReservations", Instant.now()));
+
+        HealthReport report = monitor(dataSource("MOK_ATOMIKOS_CP", 1, 1, 10, true)).check();
+
+        assertTrue(report.ready());
+        assertEquals(HealthStatus.DEGRADED, report.status());
+        assertEquals(HealthStatus.DEGRADED, component(report, "smtp").status());
+        HealthComponent scheduler = component(report, "scheduler");
+        assertEquals(HealthStatus.DEGRADED, scheduler.status());
+        assertEquals("Scheduled jobs are delayed: ScheduleService.removeExpiredTokens.", scheduler.reason());
+    }
+
+    @Test
+    public void probeContainsOnlyReadinessOfApplication() throws Exception {
+        HealthReport degraded = monitor(dataSource("MOK_ATOMIKOS_CP", 5, 4, 10, true)).check();
+        HealthReport notReady = monitor(dataSource("MOK_ATOMIKOS_CP", 1, 1, 10, false)).check();
+
+        assertEquals("{\"status\":\"UP\"}", new ObjectMapper().writeValueAsString(HealthProbe.of(degraded)));
+        assertEquals("{\"status\":\"DOWN\"}", new ObjectMapper().writeValueAsString(HealthProbe.of(notReady)));
+    }
+
+    @Test
+    public void reportIsNotReadyBeforeFirstCheck() throws Exception {
+        HealthReport report = monitor(dataSource("MOK_ATOMIKOS_CP", 1, 1, 10, true)).getReport();
+
+        assertFalse(report.ready());
+        assertEquals(HealthStatus.DOWN, component(report, "monitor").status());
+    }
+
+    private HealthMonitor monitor(AtomikosDataSourceBean... dataSources) {
+        return new HealthMonitor(List.of(dataSources), mailSender, executor, metricsAspect,
+                10_000, 0.9, 500, 5, 1000, 0.8, 120, 0.99, 0.99);
+    }
+
+    private static AtomikosDataSourceBean dataSource(String name, int total, int available, int max, boolean reachable) throws SQLException {
+        AtomikosDataSourceBean dataSource = mock(AtomikosDataSourceBean.class);
+        when(dataSource.getUniqueResourceName()).thenReturn(name);
+        when(dataSource.poolTotalSize()).thenReturn(total);
+        when(dataSource.poolAvailableSize()).thenReturn(available);
+        when(dataSource.getMaxPoolSize()).thenReturn(max);
+        when(dataSource.getTestQuery()).thenReturn("SELECT 1");
+
+        XADataSource xaDataSource = mock(XADataSource.class);
+        when(dataSource.getXaDataSource()).thenReturn(xaDataSource);
+        if (!reachable) {
+            when(xaDataSource.getXAConnection()).thenThrow(new SQLException("Connection refused"));
+            return dataSource;
+        }
+        XAConnection xaConnection = mock(XAConnection.class);
+        Connection connection = mock(Connection.class);
+        when(xaDataSource.getXAConnection()).thenReturn(xaConnection);
+        when(xaConnection.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(mock(Statement.class));
+        return dataSource;
+    }
+
+    private static HealthComponent component(HealthReport report, String name) {
+        return report.components().stream()
+                .filter(component -> component.name().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+}
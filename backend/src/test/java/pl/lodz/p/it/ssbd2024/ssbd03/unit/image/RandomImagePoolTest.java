@@ -0,0 +1,133 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.unit.image;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.image.RandomImagePool;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RandomImagePoolTest {
+
+    @TempDir
+    private Path directory;
+
+    private RandomImagePool pool;
+
+    private HttpServer server;
+
+    @AfterEach
+    public void stop() {
+        if (pool != null) pool.shutdown();
+        if (server != null) server.stop(0);
+    }
+
+    @Test
+    public void localImagesAreLoadedEncodedAndBounded() throws IOException {
+        Files.write(directory.resolve("a.png"), bytes("first"));
+        Files.write(directory.resolve("b.jpg"), bytes("second"));
+        Files.write(directory.resolve("c.png"), bytes("third"));
+        Files.write(directory.resolve("notes.txt"), bytes("not an image"));
+        Files.write(directory.resolve("d.png"), bytes("too large image"));
+
+        pool = createPool(RandomImagePool.Source.LOCAL, "http://localhost:1/", 2, 10);
+        pool.start();
+
+        assertEquals(2, pool.getSize());
+        Set<String> served = new HashSet<>();
+        for (int i = 0; i < 100; i++) served.add(pool.getRandomImage().orElseThrow());
+        assertEquals(Set.of(encoded("first"), encoded("second")), served);
+    }
+
+    @Test
+    public void emptyPoolReturnsNoImage() {
+        pool = createPool(RandomImagePool.Source.LOCAL, "http://localhost:1/", 2, 10);
+        pool.start();
+
+        assertTrue(pool.getRandomImage().isEmpty());
+    }
+
+    @Test
+    public void remoteImagesReplaceOldestImagesAndFailuresKeepPool() throws IOException {
+        Files.write(directory.resolve("local.png"), bytes("local"));
+        AtomicInteger counter = new AtomicInteger();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/random-image", exchange -> {
+            byte[] body = bytes("remote-" + counter.incrementAndGet());
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        });
+        server.start();
+        String url = "http://localhost:" + server.getAddress().getPort() + "/random-image";
+
+        pool = createPool(RandomImagePool.Source.REMOTE, url, 2, 100);
+        pool.refresh();
+
+        assertEquals(2, pool.getSize());
+        Set<String> served = new HashSet<>();
+        for (int i = 0; i < 100; i++) served.add(pool.getRandomImage().orElseThrow());
+        assertEquals(Set.of(encoded("remote-1"), encoded("remote-2")), served);
+
+        server.stop(0);
+        server = null;
+        pool.refresh();
+        assertEquals(2, pool.getSize());
+    }
+
+    @Test
+    public void remoteImagesExceedingMaximumSizeAreSkipped() throws IOException {
+        AtomicInteger counter = new AtomicInteger();
+        AtomicInteger completedLargeBodies = new AtomicInteger();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/random-image", exchange -> {
+            int request = counter.incrementAndGet();
+            byte[] body = request <= 2 ? new byte[16 * 1024 * 1024] : bytes("remote-" + request);
+            // Second response has no Content-Length (chunked), so its size is known only while reading it
+            exchange.sendResponseHeaders(200, request == 2 ? 0 : body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+                if (request <= 2) completedLargeBodies.incrementAndGet();
+            } catch (IOException ignored) {
+                // Client closes the connection without reading the whole body
+            }
+        });
+        server.start();
+        String url = "http://localhost:" + server.getAddress().getPort() + "/random-image";
+
+        pool = createPool(RandomImagePool.Source.REMOTE, url, 2, 100);
+        pool.refresh();
+        assertEquals(0, pool.getSize());
+        assertEquals(0, completedLargeBodies.get());
+
+        pool.refresh();
+        Set<String> served = new HashSet<>();
+        for (int i = 0; i < 100; i++) served.add(pool.getRandomImage().orElseThrow());
+        assertEquals(Set.of(encoded("remote-3"), encoded("remote-4")), served);
+    }
+
+    private RandomImagePool createPool(RandomImagePool.Source source, String remoteUrl, int maxSize, int maxImageBytes) {
+        return new RandomImagePool(source, directory.toUri() + "*", remoteUrl, 2, maxSize, maxImageBytes, 3600);
+    }
+
+    private static byte[] bytes(String content) {
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String encoded(String content) {
+        return Base64.getEncoder().encodeToString(bytes(content));
+    }
+}
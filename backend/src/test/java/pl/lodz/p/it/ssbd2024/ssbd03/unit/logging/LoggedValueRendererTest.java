@@ -0,0 +1,52 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.unit.logging;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggedValueRenderer;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.AbstractEntity;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Account;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoggedValueRendererTest {
+
+    @Test
+    public void entitiesAreRenderedAsTypeAndIdentifierOnly() throws Exception {
+        Account account = new Account("jdoe", "secretPassword", "John", "Doe", "jdoe@example.com", "123123123");
+        UUID id = UUID.randomUUID();
+        Field idField = AbstractEntity.class.getDeclaredField("id");
+        idField.setAccessible(true);
+        idField.set(account, id);
+
+        String rendered = LoggedValueRenderer.render(Optional.of(account));
+
+        assertEquals("Optional[Account[id=" + id + "]]", rendered);
+        assertFalse(rendered.contains("secretPassword"));
+        assertFalse(rendered.contains("jdoe"));
+    }
+
+    @Test
+    public void stringsAndContainersAreRenderedAsTypeAndLength() {
+        Object[] arguments = {"secretPassword", new ArrayList<>(List.of(1, 2, 3)), new HashMap<>(Map.of("key", "value")), new byte[16], null, 5, HttpStatus.OK};
+        StringBuilder builder = new StringBuilder();
+
+        LoggedValueRenderer.appendValues(builder, arguments);
+
+        assertEquals("[String(length=14), ArrayList(size=3), HashMap(size=1), byte[](length=16), null, 5, HttpStatus.OK]", builder.toString());
+    }
+
+    @Test
+    public void responseEntitiesAreRenderedWithStatusAndBodyType() {
+        assertEquals("ResponseEntity[status=200, body=String(length=5)]", LoggedValueRenderer.render(ResponseEntity.ok("token")));
+        assertEquals("ResponseEntity[status=204, body=null]", LoggedValueRenderer.render(ResponseEntity.noContent().build()));
+    }
+}
@@ -0,0 +1,49 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.unit.logging;
+
+import org.junit.jupiter.api.Test;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.PackageLogSampler;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.AccountMOKFacade;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.services.implementations.AccountService;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PackageLogSamplerTest {
+
+    @Test
+    public void longestMatchingPackagePrefixDecidesSamplingRate() {
+        PackageLogSampler sampler = new PackageLogSampler(0.5,
+                "pl.lodz.p.it.ssbd2024.ssbd03.mok=1.0, pl.lodz.p.it.ssbd2024.ssbd03.mok.facades=0");
+
+        assertEquals(0.0, sampler.getRate(AccountMOKFacade.class));
+        assertEquals(1.0, sampler.getRate(AccountService.class));
+        assertEquals(0.5, sampler.getRate(String.class));
+        assertFalse(sampler.isSampled(AccountMOKFacade.class));
+        assertTrue(sampler.isSampled(AccountService.class));
+    }
+
+    @Test
+    public void packagePrefixMatchesWholeSegmentsOnly() {
+        PackageLogSampler sampler = new PackageLogSampler(1.0, "pl.lodz.p.it.ssbd2024.ssbd03.mo=0");
+
+        assertEquals(1.0, sampler.getRate(AccountMOKFacade.class));
+    }
+
+    @Test
+    public void partialRateSamplesFractionOfCalls() {
+        PackageLogSampler sampler = new PackageLogSampler(0.25, "");
+
+        int sampled = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (sampler.isSampled(String.class)) sampled++;
+        }
+
+        assertTrue(sampled > 2000 && sampled < 3000);
+    }
+
+    @Test
+    public void malformedConfigurationIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new PackageLogSampler(1.5, ""));
+        assertThrows(IllegalArgumentException.class, () -> new PackageLogSampler(1.0, "pl.lodz=abc"));
+        assertThrows(IllegalArgumentException.class, () -> new PackageLogSampler(1.0, "pl.lodz"));
+    }
+}
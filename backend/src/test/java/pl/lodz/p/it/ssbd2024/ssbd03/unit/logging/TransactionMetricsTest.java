@@ -0,0 +1,71 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.unit.logging;
+
+import jakarta.transaction.Status;
+import org.junit.jupiter.api.Test;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.TransactionMetrics;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.TransactionSynchronization;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.TxAspect;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionMetricsTest {
+
+    @Test
+    public void durationsAreRecordedInBucketsOfEachOutcome() {
+        TransactionMetrics metrics = new TransactionMetrics(1000, 10);
+
+        metrics.record("tx-1", "AccountService.getAccount", TransactionMetrics.Outcome.COMMITTED, 0, 1);
+        metrics.record("tx-2", "AccountService.getAccount", TransactionMetrics.Outcome.COMMITTED, 7, 2);
+        metrics.record("tx-3", "ReservationService.makeReservation", TransactionMetrics.Outcome.ROLLED_BACK, 20000, 12);
+
+        long[] committed = metrics.getDurationHistogram(TransactionMetrics.Outcome.COMMITTED);
+        long[] rolledBack = metrics.getDurationHistogram(TransactionMetrics.Outcome.ROLLED_BACK);
+        assertEquals(TransactionMetrics.getDurationBucketsMillis().length + 1, committed.length);
+        assertEquals(1, committed[0]);
+        assertEquals(1, committed[2]);
+        assertEquals(1, rolledBack[rolledBack.length - 1]);
+        assertEquals(2, metrics.getCount(TransactionMetrics.Outcome.COMMITTED));
+        assertEquals(7, metrics.getTotalDurationMillis(TransactionMetrics.Outcome.COMMITTED));
+
+        long[] depths = metrics.getDepthHistogram();
+        assertEquals(1, depths[0]);
+        assertEquals(1, depths[1]);
+        assertEquals(1, depths[depths.length - 1]);
+    }
+
+    @Test
+    public void onlyRolledBackAndSlowTransactionsAreKeptUpToCapacity() {
+        TransactionMetrics metrics = new TransactionMetrics(100, 2);
+
+        metrics.record("tx-1", "A.fast", TransactionMetrics.Outcome.COMMITTED, 5, 1);
+        metrics.record("tx-2", "A.slow", TransactionMetrics.Outcome.COMMITTED, 150, 1);
+        metrics.record("tx-3", "A.failed", TransactionMetrics.Outcome.ROLLED_BACK, 5, 1);
+        metrics.record("tx-4", "A.unknown", TransactionMetrics.Outcome.UNKNOWN, 5, 1);
+
+        List<TransactionMetrics.CompletedTransaction> recent = metrics.getRecentNotableTransactions();
+        assertEquals(List.of("A.failed", "A.unknown"), recent.stream().map(TransactionMetrics.CompletedTransaction::rootMethod).toList());
+    }
+
+    @Test
+    public void completedSynchronizationRecordsOutcomeAndMaximumDepthAndReleasesKey() {
+        TransactionMetrics metrics = new TransactionMetrics(0, 10);
+        TransactionSynchronization synchronization = new TransactionSynchronization("tx-1", "AccountService.getAccount", metrics);
+        TxAspect.getTransactionIds().add("tx-1");
+
+        assertEquals(1, synchronization.enter());
+        assertEquals(2, synchronization.enter());
+        synchronization.exit();
+        assertEquals(2, synchronization.enter());
+        synchronization.exit();
+        synchronization.exit();
+        synchronization.afterCompletion(Status.STATUS_ROLLEDBACK);
+
+        assertFalse(TxAspect.getTransactionIds().contains("tx-1"));
+        assertEquals(1, metrics.getCount(TransactionMetrics.Outcome.ROLLED_BACK));
+        TransactionMetrics.CompletedTransaction completed = metrics.getRecentNotableTransactions().getFirst();
+        assertEquals("AccountService.getAccount", completed.rootMethod());
+        assertEquals(2, completed.maxDepth());
+    }
+}
@@ -0,0 +1,98 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.unit.mail;
+
+import org.junit.jupiter.api.Test;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.mail.CircuitBreaker;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CircuitBreakerTest {
+
+    private final MutableClock clock = new MutableClock();
+
+    @Test
+    public void circuitOpensAfterConsecutiveFailures() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(2, Duration.ofSeconds(30), clock);
+
+        circuitBreaker.recordFailure();
+        circuitBreaker.recordSuccess();
+        circuitBreaker.recordFailure();
+        assertTrue(circuitBreaker.allowsRequest());
+
+        circuitBreaker.recordFailure();
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.allowsRequest());
+    }
+
+    @Test
+    public void halfOpenCircuitAllowsSingleTrial() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(1, Duration.ofSeconds(30), clock);
+        circuitBreaker.recordFailure();
+
+        clock.advance(Duration.ofSeconds(31));
+        assertTrue(circuitBreaker.allowsRequest());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.allowsRequest());
+
+        circuitBreaker.recordSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.allowsRequest());
+    }
+
+    @Test
+    public void failedTrialOpensCircuitAgain() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(3, Duration.ofSeconds(30), clock);
+        circuitBreaker.recordFailure();
+        circuitBreaker.recordFailure();
+        circuitBreaker.recordFailure();
+
+        clock.advance(Duration.ofSeconds(31));
+        assertTrue(circuitBreaker.allowsRequest());
+        circuitBreaker.recordFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.allowsRequest());
+    }
+
+    @Test
+    public void releasedTrialIsGivenToNextCaller() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(1, Duration.ofSeconds(30), clock);
+        circuitBreaker.recordFailure();
+
+        clock.advance(Duration.ofSeconds(31));
+        assertTrue(circuitBreaker.allowsRequest());
+        circuitBreaker.releaseTrial();
+
+        assertTrue(circuitBreaker.allowsRequest());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant instant = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.unit.mail;
+
+import org.junit.jupiter.api.Test;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.AbstractEntity;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.MailOutboxMessage;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.I18n;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.mail.MailDigestAggregator;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.mail.MailDigestCategory;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.mail.MailTemplate;
+
+import java.lang.reflect.Field;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MailDigestAggregatorTest {
+
+    private final MailTemplate template = MailTemplate.compile("$greeting_message $firstname $lastname|$result_message|$action_description|$note_title");
+
+    @Test
+    public void notificationsOfSameCategoryAndRecipientAreMergedIntoLocalizedDigest() throws Exception {
+        MailOutboxMessage first = createNotification("client@example.com", MailDigestCategory.SYSTEM_END_RESERVATION, "Reservation: 1");
+        MailOutboxMessage second = createNotification("client@example.com", MailDigestCategory.SYSTEM_END_RESERVATION, "Reservation: 2");
+
+        List<MailDigestAggregator.Delivery> deliveries = MailDigestAggregator.aggregate(List.of(first, second), template);
+
+        assertEquals(1, deliveries.size());
+        MailDigestAggregator.Delivery digest = deliveries.get(0);
+        assertEquals("client@example.com", digest.recipient());
+        assertEquals(List.of(first.getId(), second.getId()), digest.messageIds());
+        assertEquals(String.format(I18n.getMessage(I18n.SYSTEM_END_RESERVATION_DIGEST_MESSAGE_SUBJECT, "en"), 2), digest.subject());
+        assertTrue(digest.content().startsWith(I18n.getMessage(I18n.SYSTEM_END_RESERVATION_GREETING_MESSAGE, "en") + " John Doe|"));
+        assertTrue(digest.content().contains("|Reservation: 1<br/>Reservation: 2|"));
+        assertTrue(digest.content().contains(I18n.getMessage(I18n.SYSTEM_END_RESERVATION_DIGEST_RESULT_MESSAGE, "en")));
+    }
+
+    @Test
+    public void notificationsOfDifferentCategoriesOrRecipientsAreDeliveredSeparately() throws Exception {
+        MailOutboxMessage ended = createNotification("client@example.com", MailDigestCategory.SYSTEM_END_RESERVATION, "Reservation: 1");
+        MailOutboxMessage clientType = createNotification("client@example.com", MailDigestCategory.CHANGED_CLIENT_TYPE, "Client type: PREMIUM");
+        MailOutboxMessage otherRecipient = createNotification("other@example.com", MailDigestCategory.SYSTEM_END_RESERVATION, "Reservation: 2");
+        MailOutboxMessage plain = createMessage(new MailOutboxMessage("client@example.com", "Subject", "<p>Content</p>"));
+
+        List<MailDigestAggregator.Delivery> deliveries = MailDigestAggregator.aggregate(List.of(ended, clientType, otherRecipient, plain), template);
+
+        assertEquals(4, deliveries.size());
+        assertEquals("Single subject", deliveries.get(0).subject());
+        assertEquals("<p>Single</p>", deliveries.get(0).content());
+        assertEquals(List.of(plain.getId()), deliveries.get(3).messageIds());
+        assertEquals("<p>Content</p>", deliveries.get(3).content());
+    }
+
+    @Test
+    public void notificationsAreNotMergedWithoutTemplate() throws Exception {
+        MailOutboxMessage first = createNotification("client@example.com", MailDigestCategory.SYSTEM_END_RESERVATION, "Reservation: 1");
+        MailOutboxMessage second = createNotification("client@example.com", MailDigestCategory.SYSTEM_END_RESERVATION, "Reservation: 2");
+
+        assertEquals(2, MailDigestAggregator.aggregate(List.of(first, second), null).size());
+    }
+
+    private static MailOutboxMessage createNotification(String recipient, MailDigestCategory category, String item) throws Exception {
+        return createMessage(new MailOutboxMessage(recipient, "Single subject", "<p>Single</p>", category, item,
+                "en", "John", "Doe", LocalDateTime.now()));
+    }
+
+    private static MailOutboxMessage createMessage(MailOutboxMessage message) throws Exception {
+        Field id = AbstractEntity.class.getDeclaredField("id");
+        id.setAccessible(true);
+        id.set(message, UUID.randomUUID());
+        return message;
+    }
+}
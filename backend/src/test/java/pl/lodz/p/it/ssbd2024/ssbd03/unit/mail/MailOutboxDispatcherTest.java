@@ -0,0 +1,122 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.unit.mail;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.AbstractEntity;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.MailOutboxMessage;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.services.interfaces.MailOutboxServiceInterface;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.mail.CircuitBreaker;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.mail.MailOutboxDispatcher;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.mail.MailTemplateRegistry;
+
+import java.lang.reflect.Field;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class MailOutboxDispatcherTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Mock
+    private MailOutboxServiceInterface mailOutboxService;
+
+    private JavaMailSenderImpl mailSender;
+
+    @BeforeEach
+    public void init() {
+        mailSender = new JavaMailSenderImpl();
+        mailSender.setHost(ServerSetupTest.SMTP.getBindAddress());
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void dispatchDeliversBatchOverSmtpAndRemovesDeliveredMessages() throws Exception {
+        MailOutboxMessage first = createMessage("first@example.com", "First", "<p>First <img src=\"cid:eldorado-logo\"/></p>");
+        MailOutboxMessage second = createMessage("second@example.com", "Second", "<p>Second</p>");
+        when(mailOutboxService.claimDueMessages(10)).thenReturn(List.of(first, second));
+        when(mailOutboxService.recordDeliveryResults(anyCollection(), anyMap())).thenReturn(0);
+
+        MailOutboxDispatcher dispatcher = createDispatcher(3);
+        assertEquals(2, dispatcher.dispatch());
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(2, received.length);
+        assertEquals("First", received[0].getSubject());
+        assertEquals("first@example.com", received[0].getAllRecipients()[0].toString());
+        assertTrue(GreenMailUtil.getWholeMessage(received[0]).contains("Content-ID: <eldorado-logo>"));
+
+        ArgumentCaptor<Collection<UUID>> delivered = ArgumentCaptor.forClass(Collection.class);
+        ArgumentCaptor<Map<UUID, String>> failures = ArgumentCaptor.forClass(Map.class);
+        verify(mailOutboxService).recordDeliveryResults(delivered.capture(), failures.capture());
+        assertEquals(List.of(first.getId(), second.getId()), List.copyOf(delivered.getValue()));
+        assertTrue(failures.getValue().isEmpty());
+        assertEquals(2, dispatcher.getDeliveredMessages());
+        assertEquals(CircuitBreaker.State.CLOSED, dispatcher.getCircuitState());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void dispatchRecordsFailuresAndOpensCircuitWhenSmtpServerIsUnavailable() throws Exception {
+        greenMail.stop();
+        MailOutboxMessage message = createMessage("first@example.com", "First", "<p>First</p>");
+        when(mailOutboxService.claimDueMessages(10)).thenReturn(List.of(message));
+        when(mailOutboxService.recordDeliveryResults(anyCollection(), anyMap())).thenReturn(0);
+
+        MailOutboxDispatcher dispatcher = createDispatcher(1);
+        assertEquals(0, dispatcher.dispatch());
+
+        ArgumentCaptor<Collection<UUID>> delivered = ArgumentCaptor.forClass(Collection.class);
+        ArgumentCaptor<Map<UUID, String>> failures = ArgumentCaptor.forClass(Map.class);
+        verify(mailOutboxService).recordDeliveryResults(delivered.capture(), failures.capture());
+        assertTrue(delivered.getValue().isEmpty());
+        assertTrue(failures.getValue().containsKey(message.getId()));
+        assertEquals(1, dispatcher.getRetriedMessages());
+        assertEquals(CircuitBreaker.State.OPEN, dispatcher.getCircuitState());
+
+        assertEquals(0, dispatcher.dispatch());
+        verify(mailOutboxService, times(1)).claimDueMessages(anyInt());
+    }
+
+    @Test
+    public void dispatchStopsWhenOutboxIsEmpty() throws Exception {
+        when(mailOutboxService.claimDueMessages(10)).thenReturn(List.of());
+
+        MailOutboxDispatcher dispatcher = createDispatcher(3);
+        assertEquals(0, dispatcher.dispatch());
+
+        verify(mailOutboxService, never()).recordDeliveryResults(anyCollection(), anyMap());
+        assertEquals(0, greenMail.getReceivedMessages().length);
+    }
+
+    private MailOutboxDispatcher createDispatcher(int failureThreshold) {
+        return new MailOutboxDispatcher(mailSender, mailOutboxService, new MailTemplateRegistry(),
+                "eldorado@example.com", 10, 60_000L, failureThreshold, 60L);
+    }
+
+    private static MailOutboxMessage createMessage(String recipient, String subject, String content) throws Exception {
+        MailOutboxMessage message = new MailOutboxMessage(recipient, subject, content);
+        Field id = AbstractEntity.class.getDeclaredField("id");
+        id.setAccessible(true);
+        id.set(message, UUID.randomUUID());
+        return message;
+    }
+}
@@ -0,0 +1,79 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.unit.mail;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationInternalServerErrorException;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.MailOutboxFacade;
+import pl.lodz.p.it.ssbd2024.ssbd03.mop.facades.MailOutboxMOPFacade;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.mail.MailTemplateRegistry;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.mail.MailTemplateType;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.MailProvider;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class MailProviderTest {
+
+    @Mock
+    private MailOutboxFacade mailOutboxFacade;
+
+    @Mock
+    private MailOutboxMOPFacade mailOutboxMOPFacade;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private MailTemplateRegistry mailTemplateRegistry;
+
+    private MailProvider mailProvider;
+
+    @BeforeEach
+    public void init() {
+        mailProvider = new MailProvider(mailOutboxFacade, mailOutboxMOPFacade, eventPublisher, mailTemplateRegistry, new SimpleMeterRegistry());
+    }
+
+    @Test
+    public void sendEmailWithMissingTemplateIsLoggedWithoutThrowing() throws Exception {
+        when(mailTemplateRegistry.getTemplate(any(MailTemplateType.class))).thenReturn(Optional.empty());
+
+        assertDoesNotThrow(() -> mailProvider.sendRegistrationConfirmEmail("Jan", "Kowalski", "jan@example.com",
+                "http://localhost/confirm", "pl"));
+        assertDoesNotThrow(() -> mailProvider.sendBlockAccountInfoEmail("Jan", "Kowalski", "jan@example.com", "pl", true));
+
+        verify(mailOutboxFacade, never()).create(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    public void sendEmailWithOutboxFailureWithoutCauseIsLoggedWithoutThrowing() throws Exception {
+        doThrow(new ApplicationInternalServerErrorException()).when(mailOutboxFacade).create(any());
+        when(mailTemplateRegistry.getTemplate(MailTemplateType.LINK)).thenReturn(new MailTemplateRegistry().getTemplate(MailTemplateType.LINK));
+
+        assertDoesNotThrow(() -> mailProvider.sendRegistrationConfirmEmail("Jan", "Kowalski", "jan@example.com",
+                "http://localhost/confirm", "pl"));
+
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    public void sendMopEmailIsWrittenWithMopPersistenceUnit() throws Exception {
+        when(mailTemplateRegistry.getTemplate(MailTemplateType.DEFAULT)).thenReturn(new MailTemplateRegistry().getTemplate(MailTemplateType.DEFAULT));
+
+        mailProvider.sendMadeReservationInfoEmail("Jan", "Kowalski", "jan@example.com", "pl",
+                "Parking address", "S1", "timeframe");
+        mailProvider.sendChangedClientTypeInfoEmail("Jan", "Kowalski", "jan@example.com", "pl", "STANDARD");
+
+        verify(mailOutboxMOPFacade, times(2)).create(any());
+        verify(mailOutboxFacade, never()).create(any());
+    }
+}
@@ -0,0 +1,74 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.unit.mail;
+
+import org.junit.jupiter.api.Test;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.mail.MailPlaceholder;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.mail.MailTemplate;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.mail.MailTemplateRegistry;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.mail.MailTemplateType;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MailTemplateTest {
+
+    @Test
+    public void renderReplacesAllOccurrencesOfPlaceholders() {
+        MailTemplate template = MailTemplate.compile("<a href=\"$action_link\">$action_link</a> $firstname $lastname");
+
+        String content = template.values()
+                .set(MailPlaceholder.ACTION_LINK, "http://example.com")
+                .set(MailPlaceholder.FIRSTNAME, "John")
+                .set(MailPlaceholder.LASTNAME, "Doe")
+                .render();
+
+        assertEquals("<a href=\"http://example.com\">http://example.com</a> John Doe", content);
+    }
+
+    @Test
+    public void renderLeavesPlaceholdersWithoutValueAndUnknownPlaceholders() {
+        MailTemplate template = MailTemplate.compile("$code costs 5$ and $unknown");
+
+        assertEquals("$code costs 5$ and $unknown", template.values().render());
+        assertEquals("123456 costs 5$ and $unknown", template.values().set(MailPlaceholder.CODE, "123456").render());
+    }
+
+    @Test
+    public void renderDoesNotReplacePlaceholdersInsideValues() {
+        MailTemplate template = MailTemplate.compile("$firstname $lastname");
+
+        String content = template.values()
+                .set(MailPlaceholder.FIRSTNAME, "$lastname")
+                .set(MailPlaceholder.LASTNAME, "Doe")
+                .render();
+
+        assertEquals("$lastname Doe", content);
+    }
+
+    @Test
+    public void compileInlinesConstants() {
+        MailTemplate template = MailTemplate.compile("<img src=\"$eldorado_logo\"/>$note_title",
+                Map.of(MailPlaceholder.ELDORADO_LOGO, "cid:logo"));
+
+        assertEquals("<img src=\"cid:logo\"/>Note", template.values().set(MailPlaceholder.NOTE_TITLE, "Note").render());
+    }
+
+    @Test
+    public void setThrowsForNullValue() {
+        MailTemplate template = MailTemplate.compile("$firstname");
+
+        assertThrows(NullPointerException.class, () -> template.values().set(MailPlaceholder.FIRSTNAME, null));
+    }
+
+    @Test
+    public void registryLoadsAllTemplatesAndLogo() {
+        MailTemplateRegistry registry = new MailTemplateRegistry();
+
+        for (MailTemplateType type : MailTemplateType.values()) {
+            String content = registry.getTemplate(type).orElseThrow().values().render();
+            assertFalse(content.contains(MailPlaceholder.ELDORADO_LOGO.getToken()));
+            assertTrue(content.contains("cid:" + MailTemplateRegistry.LOGO_CONTENT_ID));
+        }
+        assertTrue(registry.getLogo().orElseThrow().length > 0);
+    }
+}
@@ -0,0 +1,132 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.unit.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.ResponseEntity;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.metrics.MetricsAspect;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.mop.reservation.ReservationNoAvailablePlaceException;
+import pl.lodz.p.it.ssbd2024.ssbd03.mop.controllers.implementations.ParkingController;
+import pl.lodz.p.it.ssbd2024.ssbd03.mop.services.implementations.ParkingService;
+import pl.lodz.p.it.ssbd2024.ssbd03.mop.services.implementations.ReservationService;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.services.implementations.ScheduleService;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MetricsAspectTest {
+
+    private SimpleMeterRegistry registry;
+
+    private MetricsAspect aspect;
+
+    @BeforeEach
+    public void setUp() {
+        registry = new SimpleMeterRegistry();
+        aspect = new MetricsAspect();
+        aspect.setMeterRegistry(registry);
+    }
+
+    @Test
+    public void endpointLatencyIsTaggedWithResponseStatus() throws Throwable {
+        ProceedingJoinPoint point = joinPoint(ParkingController.class, "getParkingById");
+        when(point.proceed()).thenReturn(ResponseEntity.notFound().build());
+
+        aspect.measureEndpoint(point);
+
+        assertEquals(1, registry.get("http.server.requests")
+                .tags("controller", "ParkingController", "method", "getParkingById", "status", "404", "exception", "none")
+                .timer().count());
+    }
+
+    @Test
+    public void rejectedReservationsAreCountedByReasonAndRethrown() throws Throwable {
+        ProceedingJoinPoint point = joinPoint(ReservationService.class, "makeReservation");
+        when(point.proceed()).thenReturn(null).thenThrow(new ReservationNoAvailablePlaceException());
+
+        aspect.countReservations(point);
+        assertThrows(ReservationNoAvailablePlaceException.class, () -> aspect.countReservations(point));
+
+        assertEquals(1.0, registry.get("reservations.created").tag("operation", "makeReservation").counter().count());
+        assertEquals(1.0, registry.get("reservations.rejected")
+                .tags("operation", "makeReservation", "reason", "ReservationNoAvailablePlaceException")
+                .counter().count());
+    }
+
+    @Test
+    public void reservationsCreatedInTransactionAreCountedOnlyWhenCommitted() throws Throwable {
+        TransactionSynchronizationRegistry transactionRegistry = mock(TransactionSynchronizationRegistry.class);
+        when(transactionRegistry.getTransactionStatus()).thenReturn(Status.STATUS_ACTIVE);
+        aspect.setTransactionSynchronizationRegistry(transactionRegistry);
+        ProceedingJoinPoint point = joinPoint(ParkingService.class, "enterParkingWithoutReservation");
+
+        aspect.countReservations(point);
+        aspect.countReservations(point);
+
+        ArgumentCaptor<Synchronization> synchronizations = ArgumentCaptor.forClass(Synchronization.class);
+        verify(transactionRegistry, times(2)).registerInterposedSynchronization(synchronizations.capture());
+        assertEquals(0.0, registry.get("reservations.created").tag("operation", "enterParkingWithoutReservation").counter().count());
+
+        synchronizations.getAllValues().get(0).afterCompletion(Status.STATUS_COMMITTED);
+        synchronizations.getAllValues().get(1).afterCompletion(Status.STATUS_ROLLEDBACK);
+        assertEquals(1.0, registry.get("reservations.created").tag("operation", "enterParkingWithoutReservation").counter().count());
+    }
+
+    @Test
+    public void reservationsCreatedInTransactionMarkedForRollbackAreNotCounted() throws Throwable {
+        TransactionSynchronizationRegistry transactionRegistry = mock(TransactionSynchronizationRegistry.class);
+        when(transactionRegistry.getTransactionStatus()).thenReturn(Status.STATUS_MARKED_ROLLBACK);
+        aspect.setTransactionSynchronizationRegistry(transactionRegistry);
+        ProceedingJoinPoint point = joinPoint(ReservationService.class, "makeReservation");
+
+        aspect.countReservations(point);
+
+        verify(transactionRegistry, never()).registerInterposedSynchronization(any());
+        assertEquals(0.0, registry.get("reservations.created").tag("operation", "makeReservation").counter().count());
+    }
+
+    @Test
+    public void lastCompletionIsRecordedOnlyForSuccessfulJobs() throws Throwable {
+        ProceedingJoinPoint succeeding = joinPoint(ScheduleService.class, "removeExpiredTokens");
+        ProceedingJoinPoint failing = joinPoint(ScheduleService.class, "unblockAccount");
+        when(failing.proceed()).thenThrow(new IllegalStateException());
+
+        aspect.measureScheduledJob(succeeding);
+        assertThrows(IllegalStateException.class, () -> aspect.measureScheduledJob(failing));
+
+        assertEquals(1, aspect.getJobLastCompletionTimes().size());
+        assertTrue(aspect.getJobLastCompletionTimes().containsKey("ScheduleService.removeExpiredTokens"));
+        assertEquals(1, registry.get("scheduler.jobs").tags("job", "ScheduleService.unblockAccount", "exception", "IllegalStateException")
+                .timer().count());
+    }
+
+    @Test
+    public void nothingIsRecordedWhenRegistryIsNotConfigured() throws Throwable {
+        MetricsAspect unconfigured = new MetricsAspect();
+        ProceedingJoinPoint point = joinPoint(ReservationService.class, "makeReservation");
+        when(point.proceed()).thenReturn("result");
+
+        assertEquals("result", unconfigured.countReservations(point));
+        assertTrue(unconfigured.getJobLastCompletionTimes().isEmpty());
+    }
+
+    private static ProceedingJoinPoint joinPoint(Class<?> type, String method) {
+        ProceedingJoinPoint point = mock(ProceedingJoinPoint.class);
+        Signature signature = mock(Signature.class);
+        when(signature.getDeclaringType()).thenReturn(type);
+        when(signature.getName()).thenReturn(method);
+        when(point.getSignature()).thenReturn(signature);
+        return point;
+    }
+}
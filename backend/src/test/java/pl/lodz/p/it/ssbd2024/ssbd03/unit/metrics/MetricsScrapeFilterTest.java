@@ -0,0 +1,77 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.unit.metrics;
+
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.filters.MetricsScrapeFilter;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsScrapeFilterTest {
+
+    private static final String SCRAPE_TOKEN = "ExampleScrapeToken";
+
+    @AfterEach
+    public void cleanUp() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void scrapeTokenAuthenticatesScraperForMetricsOnly() throws Exception {
+        Authentication authentication = filter(new MetricsScrapeFilter(SCRAPE_TOKEN), "GET", "/metrics", "Bearer " + SCRAPE_TOKEN);
+
+        assertNotNull(authentication);
+        assertEquals(MetricsScrapeFilter.SCRAPER_PRINCIPAL, authentication.getPrincipal());
+        assertEquals(1, authentication.getAuthorities().size());
+        assertEquals("ROLE_GET_MONITORING_DATA", authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority).findFirst().orElseThrow());
+    }
+
+    @Test
+    public void scrapeTokenDoesNotAuthenticateOtherEndpoints() throws Exception {
+        MetricsScrapeFilter filter = new MetricsScrapeFilter(SCRAPE_TOKEN);
+
+        assertNull(filter(filter, "GET", "/health", "Bearer " + SCRAPE_TOKEN));
+        assertNull(filter(filter, "GET", "/api/v1/accounts", "Bearer " + SCRAPE_TOKEN));
+        assertNull(filter(filter, "POST", "/metrics", "Bearer " + SCRAPE_TOKEN));
+    }
+
+    @Test
+    public void otherBearerTokenIsLeftForJwtAuthentication() throws Exception {
+        MetricsScrapeFilter filter = new MetricsScrapeFilter(SCRAPE_TOKEN);
+
+        assertNull(filter(filter, "GET", "/metrics", "Bearer OtherToken"));
+        assertNull(filter(filter, "GET", "/metrics", null));
+    }
+
+    @Test
+    public void filterIsDisabledWithoutConfiguredToken() throws Exception {
+        assertNull(filter(new MetricsScrapeFilter(""), "GET", "/metrics", "Bearer "));
+    }
+
+    private Authentication filter(MetricsScrapeFilter filter, String method, String path, String authHeader) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        if (authHeader != null) {
+            request.addHeader("Authorization", authHeader);
+        }
+        AtomicReference<Authentication> authentication = new AtomicReference<>();
+        filter.doFilter(request, new MockHttpServletResponse(),
+                new MockFilterChain() {
+                    @Override
+                    public void doFilter(ServletRequest request, ServletResponse response) {
+                        authentication.set(SecurityContextHolder.getContext().getAuthentication());
+                    }
+                });
+        SecurityContextHolder.clearContext();
+        return authentication.get();
+    }
+}
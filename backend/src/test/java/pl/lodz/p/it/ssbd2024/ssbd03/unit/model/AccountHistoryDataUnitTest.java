@@ -6,8 +6,8 @@ import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.*;
 
 import java.lang.reflect.Method;
 import java.time.LocalDateTime;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -104,10 +104,10 @@ public class AccountHistoryDataUnitTest {
         exampleAccount.blockAccount(false);
         exampleAccount.setAccountLanguage(LANGUAGE_NO1);
 
-        Set<String> pastPasswords = new HashSet<>();
-        pastPasswords.add("ExamplePasswordNo1");
-        pastPasswords.add("ExamplePasswordNo2");
-        pastPasswords.add("ExamplePasswordNo3");
+        List<PastPassword> pastPasswords = new ArrayList<>();
+        pastPasswords.add(new PastPassword("ExamplePasswordNo1"));
+        pastPasswords.add(new PastPassword("ExamplePasswordNo2"));
+        pastPasswords.add(new PastPassword("ExamplePasswordNo3"));
 
         UserLevel client = new Client();
         client.setAccount(exampleAccount);
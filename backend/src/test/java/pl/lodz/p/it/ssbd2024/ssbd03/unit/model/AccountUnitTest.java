@@ -6,8 +6,8 @@ import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.*;
 
 import java.lang.reflect.Field;
 import java.time.LocalDateTime;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -58,10 +58,10 @@ public class AccountUnitTest {
         exampleAccount.blockAccount(false);
         exampleAccount.setAccountLanguage(ACCOUNT_LANGUAGE_NO1);
 
-        Set<String> pastPasswords = new HashSet<>();
-        pastPasswords.add("ExamplePasswordNo1");
-        pastPasswords.add("ExamplePasswordNo2");
-        pastPasswords.add("ExamplePasswordNo3");
+        List<PastPassword> pastPasswords = new ArrayList<>();
+        pastPasswords.add(new PastPassword("ExamplePasswordNo1"));
+        pastPasswords.add(new PastPassword("ExamplePasswordNo2"));
+        pastPasswords.add(new PastPassword("ExamplePasswordNo3"));
 
         Field previousPasswords = Account.class.getDeclaredField("previousPasswords");
         previousPasswords.setAccessible(true);
@@ -232,9 +232,9 @@ public class AccountUnitTest {
 
         assertFalse(exampleAccount.getPreviousPasswords().isEmpty());
         assertEquals(3, exampleAccount.getPreviousPasswords().size());
-        assertTrue(exampleAccount.getPreviousPasswords().contains("ExamplePasswordNo1"));
-        assertTrue(exampleAccount.getPreviousPasswords().contains("ExamplePasswordNo2"));
-        assertTrue(exampleAccount.getPreviousPasswords().contains("ExamplePasswordNo3"));
+        assertTrue(exampleAccount.getRecentPasswordHashes(3).contains("ExamplePasswordNo1"));
+        assertTrue(exampleAccount.getRecentPasswordHashes(3).contains("ExamplePasswordNo2"));
+        assertTrue(exampleAccount.getRecentPasswordHashes(3).contains("ExamplePasswordNo3"));
 
         assertFalse(exampleAccount.getSuspended());
         assertFalse(exampleAccount.getActive());
@@ -255,6 +255,20 @@ public class AccountUnitTest {
         assertEquals(exampleAccount.getActivityLog().getLastUnsuccessfulLoginIp(), LAST_UNSUCCESSFUL_LOGIN_IP);
     }
 
+    @Test
+    public void accountReplacePreviousPasswordTestPositive() {
+        Account account = new Account(LOGIN_NO1, PASSWORD_NO1, FIRST_NAME_NO1, LAST_NAME_NO1, EMAIL_NO1, PHONE_NUMBER_NO1);
+        account.addPreviousPassword("ExamplePasswordNo1");
+        account.addPreviousPassword("ExamplePasswordNo2");
+        List<String> hashesBefore = account.getRecentPasswordHashes(2);
+
+        account.replacePreviousPassword("ExamplePasswordNo1", "RehashedPasswordNo1");
+
+        assertEquals(2, account.getPreviousPasswords().size());
+        assertEquals(hashesBefore.stream().map(hash -> hash.equals("ExamplePasswordNo1") ? "RehashedPasswordNo1" : hash).toList(),
+                account.getRecentPasswordHashes(2));
+    }
+
     @Test
     public void accountSetPasswordTestPositive() {
         String passwordBefore = testAccount.getPassword();
@@ -7,7 +7,7 @@ import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.*;
 
 import java.lang.reflect.Field;
 import java.time.LocalDateTime;
-import java.util.HashSet;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
@@ -135,10 +135,10 @@ public class AttributeRecordUnitTest {
         exampleAccount.blockAccount(false);
         exampleAccount.setAccountLanguage(ACCOUNT_LANGUAGE_NO1);
 
-        Set<String> pastPasswords = new HashSet<>();
-        pastPasswords.add("ExamplePasswordNo1");
-        pastPasswords.add("ExamplePasswordNo2");
-        pastPasswords.add("ExamplePasswordNo3");
+        List<PastPassword> pastPasswords = new ArrayList<>();
+        pastPasswords.add(new PastPassword("ExamplePasswordNo1"));
+        pastPasswords.add(new PastPassword("ExamplePasswordNo2"));
+        pastPasswords.add(new PastPassword("ExamplePasswordNo3"));
 
         Field previousPasswords = Account.class.getDeclaredField("previousPasswords");
         previousPasswords.setAccessible(true);
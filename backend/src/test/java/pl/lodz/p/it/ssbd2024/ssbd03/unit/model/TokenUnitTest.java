@@ -8,8 +8,9 @@ import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.*;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.time.LocalDateTime;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -56,10 +57,10 @@ public class TokenUnitTest {
         exampleAccount.blockAccount(false);
         exampleAccount.setAccountLanguage(ACCOUNT_LANGUAGE_NO1);
 
-        Set<String> pastPasswords = new HashSet<>();
-        pastPasswords.add("ExamplePasswordNo1");
-        pastPasswords.add("ExamplePasswordNo2");
-        pastPasswords.add("ExamplePasswordNo3");
+        List<PastPassword> pastPasswords = new ArrayList<>();
+        pastPasswords.add(new PastPassword("ExamplePasswordNo1"));
+        pastPasswords.add(new PastPassword("ExamplePasswordNo2"));
+        pastPasswords.add(new PastPassword("ExamplePasswordNo3"));
 
         Field previousPasswords = Account.class.getDeclaredField("previousPasswords");
         previousPasswords.setAccessible(true);
@@ -149,6 +150,18 @@ public class TokenUnitTest {
         assertEquals(exapmleToken.getCreatedBy(), exampleAccount.getLogin());
     }
 
+    @Test
+    public void tokenDigestFollowsTokenValueTestPositive() {
+        assertEquals(Token.TOKEN_DIGEST_LENGTH, exapmleToken.getTokenDigest().length);
+        assertArrayEquals(Token.digest(TOKEN_VALUE_NO1), exapmleToken.getTokenDigest());
+        assertFalse(Arrays.equals(exapmleToken.getTokenDigest(), testToken.getTokenDigest()));
+
+        Token token = new Token(TOKEN_VALUE_NO1, exampleAccount, TOKEN_TYPE_NO1);
+        token.setTokenValue(TOKEN_VALUE_NO2);
+        assertEquals(TOKEN_VALUE_NO2, token.getTokenValue());
+        assertArrayEquals(testToken.getTokenDigest(), token.getTokenDigest());
+    }
+
     @WithMockUser(username = "UniqueLogin", roles = {"ADMIN"})
     @Test
     public void tokenBeforePersistingToTheDatabaseTestPositive() throws Exception {
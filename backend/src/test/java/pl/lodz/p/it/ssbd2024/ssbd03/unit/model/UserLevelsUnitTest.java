@@ -8,8 +8,8 @@ import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.*;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.time.LocalDateTime;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -63,10 +63,10 @@ public class UserLevelsUnitTest {
         exampleAccount.blockAccount(false);
         exampleAccount.setAccountLanguage(ACCOUNT_LANGUAGE_NO1);
 
-        Set<String> pastPasswords = new HashSet<>();
-        pastPasswords.add("ExamplePasswordNo1");
-        pastPasswords.add("ExamplePasswordNo2");
-        pastPasswords.add("ExamplePasswordNo3");
+        List<PastPassword> pastPasswords = new ArrayList<>();
+        pastPasswords.add(new PastPassword("ExamplePasswordNo1"));
+        pastPasswords.add(new PastPassword("ExamplePasswordNo2"));
+        pastPasswords.add(new PastPassword("ExamplePasswordNo3"));
 
         Field previousPasswords = Account.class.getDeclaredField("previousPasswords");
         previousPasswords.setAccessible(true);
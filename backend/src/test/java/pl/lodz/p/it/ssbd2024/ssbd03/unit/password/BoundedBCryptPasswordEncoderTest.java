@@ -0,0 +1,74 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.unit.password;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.password.BoundedBCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoundedBCryptPasswordEncoderTest {
+
+    private BoundedBCryptPasswordEncoder encoder;
+
+    @BeforeEach
+    public void init() {
+        encoder = new BoundedBCryptPasswordEncoder(5, 1, 1, Duration.ofMillis(200));
+    }
+
+    @Test
+    public void encodeUsesCurrentStrength() {
+        String hash = encoder.encode("P@ssw0rd!");
+
+        assertTrue(hash.startsWith("$2a$05$"));
+        assertTrue(encoder.matches("P@ssw0rd!", hash));
+        assertFalse(encoder.matches("P@ssw0rd?", hash));
+        assertFalse(encoder.upgradeEncoding(hash));
+    }
+
+    @Test
+    public void matchesAcceptsHashesWithDifferentStrength() {
+        String weakerHash = new BCryptPasswordEncoder(4).encode("P@ssw0rd!");
+        String strongerHash = new BCryptPasswordEncoder(6).encode("P@ssw0rd!");
+
+        assertTrue(encoder.matches("P@ssw0rd!", weakerHash));
+        assertTrue(encoder.matches("P@ssw0rd!", strongerHash));
+        assertTrue(encoder.upgradeEncoding(weakerHash));
+        assertFalse(encoder.upgradeEncoding(strongerHash), "Stronger hashes are not downgraded");
+    }
+
+    @Test
+    public void operationsAreRejectedWhenNoPermitIsAvailable() throws Exception {
+        Semaphore permits = (Semaphore) ReflectionTestUtils.getField(encoder, "permits");
+        permits.acquire();
+        try {
+            assertThrows(RejectedExecutionException.class, () -> encoder.encode("P@ssw0rd!"));
+            assertEquals(0, encoder.getQueuedOperations());
+
+            Thread waitingOperation = Thread.ofVirtual().start(() -> assertThrows(RejectedExecutionException.class,
+                    () -> encoder.encode("P@ssw0rd!")));
+            while (encoder.getQueuedOperations() == 0 && waitingOperation.isAlive()) {
+                Thread.onSpinWait();
+            }
+            assertThrows(RejectedExecutionException.class, () -> encoder.matches("P@ssw0rd!", "hash"),
+                    "Only one operation may wait for a permit");
+            waitingOperation.join();
+        } finally {
+            permits.release();
+        }
+
+        assertEquals(0, encoder.getQueuedOperations());
+        assertTrue(encoder.encode("P@ssw0rd!").startsWith("$2a$05$"));
+    }
+
+    @Test
+    public void upgradeEncodingReturnsFalseForInvalidHash() {
+        assertFalse(encoder.upgradeEncoding(null));
+        assertFalse(encoder.upgradeEncoding("NotABCryptHash"));
+    }
+}
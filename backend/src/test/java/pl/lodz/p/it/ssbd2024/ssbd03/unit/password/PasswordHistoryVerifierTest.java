@@ -0,0 +1,105 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.unit.password;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Account;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.password.PasswordHistoryVerifier;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PasswordHistoryVerifierTest {
+
+    private static final BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(4);
+
+    private PasswordHistoryVerifier verifier;
+
+    @BeforeEach
+    public void init() {
+        verifier = new PasswordHistoryVerifier(encoder, 3, 2, 4);
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        verifier.shutdown();
+    }
+
+    @Test
+    public void matchesAnyReturnsTrueWhenAnyHashMatches() {
+        List<String> hashes = IntStream.range(0, 6).mapToObj(i -> encoder.encode("Password" + i)).toList();
+
+        assertTrue(verifier.matchesAny("Password0", hashes));
+        assertTrue(verifier.matchesAny("Password5", hashes));
+        assertFalse(verifier.matchesAny("Password6", hashes));
+        assertFalse(verifier.matchesAny("Password0", List.of()));
+    }
+
+    @Test
+    public void comparisonsOfConcurrentChecksAreBoundedTogether() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        PasswordEncoder countingEncoder = new BCryptPasswordEncoder(4) {
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(5);
+                    return super.matches(rawPassword, encodedPassword);
+                } catch (InterruptedException exception) {
+                    throw new IllegalStateException(exception);
+                } finally {
+                    running.decrementAndGet();
+                }
+            }
+        };
+        PasswordHistoryVerifier boundedVerifier = new PasswordHistoryVerifier(countingEncoder, 6, 4, 2);
+        List<String> hashes = IntStream.range(0, 6).mapToObj(i -> encoder.encode("Password" + i)).toList();
+        try (ExecutorService callers = Executors.newFixedThreadPool(3)) {
+            List<Future<Boolean>> results = callers.invokeAll(
+                    List.of(() -> boundedVerifier.matchesAny("New", hashes),
+                            () -> boundedVerifier.matchesAny("New", hashes),
+                            () -> boundedVerifier.matchesAny("New", hashes)));
+            for (Future<Boolean> result : results) {
+                assertFalse(result.get());
+            }
+        } finally {
+            boundedVerifier.shutdown();
+        }
+
+        assertTrue(maxRunning.get() <= 2, "At most 2 comparisons may run at the same time, but " + maxRunning.get() + " did");
+    }
+
+    @Test
+    public void addToHistoryKeepsOnlyMostRecentHashes() {
+        Account account = new Account("login", "password", "firstName", "lastName", "test@email.com", "123123123");
+        for (int i = 0; i < 5; i++) {
+            verifier.addToHistory(account, encoder.encode("Password" + i));
+        }
+
+        assertEquals(3, account.getPreviousPasswords().size());
+        assertTrue(verifier.isPreviouslyUsed(account, "Password4"));
+        assertTrue(verifier.isPreviouslyUsed(account, "Password2"));
+        assertFalse(verifier.isPreviouslyUsed(account, "Password1"));
+    }
+
+    @Test
+    public void isPreviouslyUsedChecksOnlyHistoryWindow() {
+        Account account = new Account("login", "password", "firstName", "lastName", "test@email.com", "123123123");
+        for (int i = 0; i < 5; i++) {
+            account.addPreviousPassword(encoder.encode("Password" + i));
+        }
+
+        assertEquals(5, account.getPreviousPasswords().size());
+        assertEquals(3, account.getRecentPasswordHashes(3).size());
+        assertFalse(verifier.isPreviouslyUsed(account, "Password0"));
+    }
+}
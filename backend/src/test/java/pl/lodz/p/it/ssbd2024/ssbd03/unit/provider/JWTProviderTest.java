@@ -38,7 +38,6 @@ public class JWTProviderTest {
 
     private static final String secretTokenKey = "ZG9lc3Rob3V3b3JkbmVydm91c3NlZWRzdHJpcGNsb3RoZXNrZXllc3NlbnRpYWxmaW5hbGF0b21pY25lZWRzZG91YmxlZXZlcnNoZWVwcmFiYml0YXZhaWxhYmxlY29sbGVjdGNvbnZlcnNhdGlvbnNhbGVjYW1lc3RlcGhpZ2hlcnNodXRkaWdjYXN0bG9zc3RyaWJlb2xkbWFuYWdlZGN1cnJlbnRkaXNjdXNzaW9ubGVhdmVlaWdodHN0b3JlcHVsbGJlc2lkZXBhcnRzY2FtZWFnb2hhdmluZ2Jyb2Fkc2hhcGVleGNsYWltZWRhcmVhdm95YWdlbG92ZXRocg==";
     private static final String otherTokenKey = "ZXhjZXB0YWN0ZGFuZ2Vyb3VzaG91c2VzdW5mb3VydGhrbm93c2hhZGVsdW5nc25lZ2F0aXZlZmxvYXRpbmdlc3NlbnRpYWxmcmVlZmxvYXRpbmdjaG9zZW51c3dlbGNvbWVwcmVwYXJlY2hhbmdpbmdhbGxvd2NlbnRlcmVhc2lseXJvc2VtaXhuZWFyZXN0d29tZW5lbnRpcmVseXBlcmlvZGhpc3dyb3RlZG91YnRjb250cm9sbGFuZ3VhZ2VyZWxpZ2lvdXNldmVyeXRoaW5nZmxhZ2ltcHJvdmVjb29raWVzbWlsZXdlaWdodG5lcnZvdXNtYWNoaW5laGlnaA==";
-    private static final int authenticationCodeValidityLengthValue = 5;
     private static final int jwtTokenValidityLengthValue = 15;
     private static Account accountNo1;
     private static Client clientLevelNo1;
@@ -69,11 +68,6 @@ public class JWTProviderTest {
             secretKey.set(jwtProvider, secretTokenKey);
             secretKey.setAccessible(false);
 
-            Field authenticationCodeValidityLength = JWTProvider.class.getDeclaredField("authenticationCodeValidityLength");
-            authenticationCodeValidityLength.setAccessible(true);
-            authenticationCodeValidityLength.set(jwtProvider, authenticationCodeValidityLengthValue);
-            authenticationCodeValidityLength.setAccessible(false);
-
             Field jwtTokenValidityLength = JWTProvider.class.getDeclaredField("accessTokenTTL");
             jwtTokenValidityLength.setAccessible(true);
             jwtTokenValidityLength.set(jwtProvider, jwtTokenValidityLengthValue);
@@ -313,108 +307,6 @@ public class JWTProviderTest {
         assertEquals(256, secretKey.length());
     }
 
-    @Test
-    public void jwtProviderGenerateMultiFactorAuthTokenTestPositive() throws Exception {
-        Field id = AbstractEntity.class.getDeclaredField("id");
-        id.setAccessible(true);
-        id.set(accountNo1, UUID.fromString(exampleUUID));
-        id.setAccessible(false);
-
-        String exampleCode = "exampleCode";
-        String multiFactorAuthToken = jwtProvider.generateMultiFactorAuthToken(exampleCode);
-
-        assertNotNull(multiFactorAuthToken);
-        DecodedJWT decodedJWT = JWT.decode(multiFactorAuthToken);
-        assertEquals(exampleCode, decodedJWT.getClaim(JWTConsts.CODE_VALUE).asString());
-        assertEquals(JWTConsts.TOKEN_ISSUER, decodedJWT.getIssuer());
-        assertTrue(decodedJWT.getExpiresAt().after(new Date()));
-        assertTrue(decodedJWT.getIssuedAt().before(new Date()));
-        assertEquals(Duration.of(authenticationCodeValidityLengthValue, ChronoUnit.MINUTES),
-                Duration.between(decodedJWT.getIssuedAt().toInstant(), decodedJWT.getExpiresAt().toInstant()));
-    }
-
-    @Test
-    public void jwtProviderExtractHashedAuthCodeFromMultiFactorAuthTokenTestPositive() throws Exception {
-        Field id = AbstractEntity.class.getDeclaredField("id");
-        id.setAccessible(true);
-        id.set(accountNo1, UUID.fromString(exampleUUID));
-        id.setAccessible(false);
-
-        String exampleCode = "exampleCode";
-        String multiFactorAuthToken = jwtProvider.generateMultiFactorAuthToken(exampleCode);
-        String hashedAuthCode = jwtProvider.extractHashedCodeValueFromToken(multiFactorAuthToken);
-
-        assertNotNull(hashedAuthCode);
-        assertEquals(exampleCode, hashedAuthCode);
-    }
-
-    @Test
-    public void jwtProviderExtractHashedAuthCodeFromMultiFactorAuthTokenTestNegativeSignatureInvalid() throws Exception {
-        Field id = AbstractEntity.class.getDeclaredField("id");
-        id.setAccessible(true);
-        id.set(accountNo1, UUID.fromString(exampleUUID));
-        id.setAccessible(false);
-
-        String exampleCode = "exampleCode";
-        String multiFactorAuthToken = JWT.create()
-                .withClaim(JWTConsts.CODE_VALUE, exampleCode)
-                .withIssuedAt(Instant.now())
-                .withExpiresAt(Instant.now().plus(authenticationCodeValidityLengthValue, ChronoUnit.MINUTES))
-                .withIssuer(JWTConsts.TOKEN_ISSUER)
-                .sign(Algorithm.HMAC256(otherTokenKey));
-        assertThrows(TokenDataExtractionException.class, () -> jwtProvider.extractHashedCodeValueFromToken(multiFactorAuthToken));
-    }
-
-    @Test
-    public void jwtProviderExtractHashedAuthCodeFromMultiFactorAuthTokenTestNegativeTokenExpired() throws Exception {
-        Field id = AbstractEntity.class.getDeclaredField("id");
-        id.setAccessible(true);
-        id.set(accountNo1, UUID.fromString(exampleUUID));
-        id.setAccessible(false);
-
-        String exampleCode = "exampleCode";
-        String multiFactorAuthToken = JWT.create()
-                .withClaim(JWTConsts.CODE_VALUE, exampleCode)
-                .withIssuedAt(Instant.now().minus(authenticationCodeValidityLengthValue * 2, ChronoUnit.MINUTES))
-                .withExpiresAt(Instant.now().minus(authenticationCodeValidityLengthValue, ChronoUnit.MINUTES))
-                .withIssuer(JWTConsts.TOKEN_ISSUER)
-                .sign(Algorithm.HMAC256(secretTokenKey));
-        assertThrows(TokenDataExtractionException.class, () -> jwtProvider.extractHashedCodeValueFromToken(multiFactorAuthToken));
-    }
-
-    @Test
-    public void jwtProviderIsMultiFactorAuthTokenValidTestPositive() throws Exception {
-        Field id = AbstractEntity.class.getDeclaredField("id");
-        id.setAccessible(true);
-        id.set(accountNo1, UUID.fromString(exampleUUID));
-        id.setAccessible(false);
-
-        String exampleCode = "exampleCode";
-        String multiFactorAuthToken = jwtProvider.generateMultiFactorAuthToken(exampleCode);
-
-        assertNotNull(multiFactorAuthToken);
-        assertTrue(jwtProvider.isMultiFactorAuthTokenValid(multiFactorAuthToken));
-    }
-
-    @Test
-    public void jwtProviderIsMultiFactorAuthTokenValidTestNegative() throws Exception {
-        Field id = AbstractEntity.class.getDeclaredField("id");
-        id.setAccessible(true);
-        id.set(accountNo1, UUID.fromString(exampleUUID));
-        id.setAccessible(false);
-
-        String exampleCode = "exampleCode";
-        String multiFactorAuthToken = JWT.create()
-                .withClaim(JWTConsts.CODE_VALUE, exampleCode)
-                .withIssuedAt(Instant.now().minus(authenticationCodeValidityLengthValue * 2, ChronoUnit.MINUTES))
-                .withExpiresAt(Instant.now().minus(authenticationCodeValidityLengthValue, ChronoUnit.MINUTES))
-                .withIssuer(JWTConsts.TOKEN_ISSUER)
-                .sign(Algorithm.HMAC256(otherTokenKey));
-
-        assertNotNull(multiFactorAuthToken);
-        assertFalse(jwtProvider.isMultiFactorAuthTokenValid(multiFactorAuthToken));
-    }
-
     @SuppressWarnings("InstantiationOfUtilityClass")
     @Test
     public void jwtProviderGenerateObjectSignature() throws Exception {
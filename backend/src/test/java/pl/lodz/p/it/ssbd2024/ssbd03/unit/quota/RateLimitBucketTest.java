@@ -0,0 +1,70 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.unit.quota;
+
+import org.junit.jupiter.api.Test;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.quota.EndpointClass;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.quota.QuotaResult;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.quota.RateLimitBucket;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateLimitBucketTest {
+
+    private static final long CAPACITY = 10L;
+    private static final long PERIOD = TimeUnit.SECONDS.toNanos(60);
+    private static final long START = 1_000_000L;
+
+    @Test
+    void tryAcquireAllowsBurstUpToCapacity() {
+        RateLimitBucket bucket = new RateLimitBucket(CAPACITY, PERIOD, START);
+
+        for (long i = 1; i <= CAPACITY; i++) {
+            QuotaResult result = bucket.tryAcquire(START);
+            assertTrue(result.allowed());
+            assertEquals(CAPACITY, result.limit());
+            assertEquals(CAPACITY - i, result.remaining());
+        }
+
+        QuotaResult rejected = bucket.tryAcquire(START);
+        assertFalse(rejected.allowed());
+        assertEquals(0L, rejected.remaining());
+        assertEquals(6L, rejected.retryAfterSeconds());
+        assertEquals(60L, rejected.resetSeconds());
+    }
+
+    @Test
+    void tryAcquireRegainsTokensOverTime() {
+        RateLimitBucket bucket = new RateLimitBucket(CAPACITY, PERIOD, START);
+        for (long i = 0; i < CAPACITY; i++) {
+            bucket.tryAcquire(START);
+        }
+        assertFalse(bucket.tryAcquire(START).allowed());
+
+        long afterOneToken = START + PERIOD / CAPACITY;
+        assertTrue(bucket.tryAcquire(afterOneToken).allowed());
+        assertFalse(bucket.tryAcquire(afterOneToken).allowed());
+    }
+
+    @Test
+    void isFullReturnsTrueOnlyAfterWholePeriod() {
+        RateLimitBucket bucket = new RateLimitBucket(CAPACITY, PERIOD, START);
+        assertTrue(bucket.isFull(START));
+
+        bucket.tryAcquire(START);
+        assertFalse(bucket.isFull(START));
+        assertTrue(bucket.isFull(START + PERIOD / CAPACITY));
+    }
+
+    @Test
+    void resolveReturnsMatchingEndpointClass() {
+        String uuid = "a0fe1f00-cc87-4dfa-8102-a135bb6c0e31";
+
+        assertEquals(EndpointClass.PARKING_GATE, EndpointClass.resolve("POST", "/api/v1/parking/%s/enter".formatted(uuid)));
+        assertEquals(EndpointClass.PARKING_GATE, EndpointClass.resolve("POST", "/api/v1/parking/reservations/%s/exit".formatted(uuid)));
+        assertEquals(EndpointClass.RESERVATION, EndpointClass.resolve("POST", "/api/v1/reservations/make-reservation"));
+        assertEquals(EndpointClass.SEARCH, EndpointClass.resolve("GET", "/api/v1/accounts"));
+        assertEquals(EndpointClass.DEFAULT, EndpointClass.resolve("POST", "/api/v1/accounts"));
+        assertNull(EndpointClass.resolve("GET", "/swagger-ui/index.html"));
+    }
+}
@@ -0,0 +1,118 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.unit.quota;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.ResourcePropertySource;
+import org.springframework.http.HttpStatus;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.filters.RateLimitFilter;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.quota.EndpointClass;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.quota.QuotaManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateLimitFilterTest {
+
+    private static final long CAPACITY = 2L;
+    private static final String CLIENT = "203.0.113.7";
+    private static final String OTHER_CLIENT = "198.51.100.2";
+    private static final String PROXY = "10.0.0.1";
+
+    private QuotaManager quotaManager;
+
+    @BeforeEach
+    public void setUp() {
+        MockEnvironment environment = new MockEnvironment();
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            environment.setProperty("quota." + endpointClass.getPropertyName() + ".capacity", String.valueOf(CAPACITY));
+            environment.setProperty("quota." + endpointClass.getPropertyName() + ".period.seconds", "60");
+        }
+        quotaManager = new QuotaManager(environment);
+        ReflectionTestUtils.setField(quotaManager, "enabled", true);
+        ReflectionTestUtils.setField(quotaManager, "maxTrackedKeys", 3);
+    }
+
+    @Test
+    public void forwardedForOfUntrustedPeerDoesNotGiveNewQuota() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(quotaManager, "");
+
+        assertEquals(HttpStatus.OK.value(), search(filter, CLIENT, "192.0.2.1").getStatus());
+        assertEquals(HttpStatus.OK.value(), search(filter, CLIENT, "192.0.2.2").getStatus());
+        MockHttpServletResponse rejected = search(filter, CLIENT, "192.0.2.3");
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), rejected.getStatus());
+        assertEquals("0", rejected.getHeader(RateLimitFilter.RATE_LIMIT_REMAINING_HEADER));
+    }
+
+    @Test
+    public void forwardedForOfUntrustedPeerDoesNotPushOtherClientsToOverflowBucket() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(quotaManager, "");
+        for (int i = 0; i < 10; i++) {
+            search(filter, CLIENT, "192.0.2." + i);
+        }
+
+        MockHttpServletResponse response = search(filter, OTHER_CLIENT, null);
+
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+        assertEquals(String.valueOf(CAPACITY - 1), response.getHeader(RateLimitFilter.RATE_LIMIT_REMAINING_HEADER));
+    }
+
+    @Test
+    public void forwardedForOfTrustedProxyIdentifiesClient() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(quotaManager, " 10.0.0.2, " + PROXY);
+
+        assertEquals(HttpStatus.OK.value(), search(filter, PROXY, "192.0.2.1, " + CLIENT).getStatus());
+        assertEquals(HttpStatus.OK.value(), search(filter, PROXY, "192.0.2.2, " + CLIENT + ", 10.0.0.2").getStatus());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), search(filter, PROXY, CLIENT).getStatus());
+
+        MockHttpServletResponse otherClient = search(filter, PROXY, OTHER_CLIENT);
+        assertEquals(HttpStatus.OK.value(), otherClient.getStatus());
+        assertEquals(String.valueOf(CAPACITY - 1), otherClient.getHeader(RateLimitFilter.RATE_LIMIT_REMAINING_HEADER));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "/api/v1/parking/3E6A85DB-D751-4549-BBB7-9705F0B2FA6B/enter",
+            "/api/v1/parking/3e6a85db-d751-4549-bbb7-9705f0b2fa6b/enter",
+            "/api/v1/parking/reservations/3E6A85DB-D751-4549-BBB7-9705F0B2FA6B/enter",
+            "/api/v1/parking/reservations/3e6a85db-d751-4549-bbb7-9705f0b2fa6b/exit"
+    })
+    public void parkingGateRequestIsLimitedByParkingGateQuota(String path) throws Exception {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new ResourcePropertySource(new ClassPathResource("properties/quota.properties")));
+        QuotaManager configuredQuotaManager = new QuotaManager(environment);
+        ReflectionTestUtils.setField(configuredQuotaManager, "enabled", true);
+        ReflectionTestUtils.setField(configuredQuotaManager, "maxTrackedKeys", 3);
+        RateLimitFilter filter = new RateLimitFilter(configuredQuotaManager, "");
+
+        assertEquals(EndpointClass.PARKING_GATE, EndpointClass.resolve("POST", path));
+
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setRemoteAddr(CLIENT);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+        assertEquals("30", response.getHeader(RateLimitFilter.RATE_LIMIT_LIMIT_HEADER));
+        assertEquals(1, configuredQuotaManager.getAllowedCount(EndpointClass.PARKING_GATE));
+    }
+
+    private MockHttpServletResponse search(RateLimitFilter filter, String remoteAddress, String forwardedFor) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/accounts");
+        request.setRemoteAddr(remoteAddress);
+        if (forwardedFor != null) {
+            request.addHeader("X-Forwarded-For", forwardedFor);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
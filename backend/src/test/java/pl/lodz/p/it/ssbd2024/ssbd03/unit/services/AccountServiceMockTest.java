@@ -40,6 +40,7 @@ import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.AccountMOKFacade;
 import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.TokenFacade;
 import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.UserLevelFacade;
 import pl.lodz.p.it.ssbd2024.ssbd03.mok.services.implementations.AccountService;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.password.PasswordHistoryVerifier;
 import pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.JWTProvider;
 import pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.MailProvider;
 import pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.TokenProvider;
@@ -90,6 +91,9 @@ public class AccountServiceMockTest {
     @Mock
     private PasswordEncoder encoder;
 
+    @Mock
+    private PasswordHistoryVerifier passwordHistoryVerifier;
+
     @Mock
     private TokenProvider tokenProvider;
 
@@ -881,18 +885,19 @@ public class AccountServiceMockTest {
         String currentPassword = "CurrentPassword";
         String newPassword = "NewPassword";
         Account account = new Account("login", currentPassword, "firstName", "lastName", "test@email.com", "123123123");
-        account.getPreviousPasswords().add(currentPassword);
+        account.addPreviousPassword(currentPassword);
 
         when(encoder.encode(newPassword)).thenReturn(newPassword);
         when(accountMOKFacade.findByLogin(account.getLogin())).thenReturn(Optional.of(account));
         doNothing().when(accountMOKFacade).edit(account);
         when(encoder.matches(currentPassword, account.getPassword())).thenReturn(true);
-        when(encoder.matches(newPassword, account.getPassword())).thenReturn(false);
+        when(passwordHistoryVerifier.isPreviouslyUsed(account, newPassword)).thenReturn(false);
         doNothing().when(historyDataFacade).create(any(AccountHistoryData.class));
 
         accountService.changePasswordSelf(currentPassword, newPassword, account.getLogin());
 
         assertEquals(newPassword, account.getPassword());
+        verify(passwordHistoryVerifier, times(1)).addToHistory(account, newPassword);
     }
 
     @Test
@@ -900,7 +905,6 @@ public class AccountServiceMockTest {
         String currentPassword = "CurrentPassword";
         String newPassword = "NewPassword";
 
-        when(encoder.encode(newPassword)).thenReturn(newPassword);
         when(accountMOKFacade.findByLogin(anyString())).thenReturn(Optional.empty());
 
         assertThrows(AccountNotFoundException.class, () -> accountService.changePasswordSelf(currentPassword, newPassword, "login"));
@@ -913,7 +917,6 @@ public class AccountServiceMockTest {
         String newPassword = "NewPassword";
         Account account = new Account("login", currentPassword, "firstName", "lastName", "test@email.com", "123123123");
 
-        when(encoder.encode(newPassword)).thenReturn(newPassword);
         when(accountMOKFacade.findByLogin(account.getLogin())).thenReturn(Optional.of(account));
         when(encoder.matches(incorrectPassword, account.getPassword())).thenReturn(false);
 
@@ -926,11 +929,11 @@ public class AccountServiceMockTest {
     void changePasswordSelfTestCurrentPasswordAndNewPasswordAreTheSame() throws Exception {
         String currentPassword = "CurrentPassword";
         Account account = new Account("login", currentPassword, "firstName", "lastName", "test@email.com", "123123123");
-        account.getPreviousPasswords().add(currentPassword);
+        account.addPreviousPassword(currentPassword);
 
-        when(encoder.encode(currentPassword)).thenReturn(currentPassword);
         when(accountMOKFacade.findByLogin(account.getLogin())).thenReturn(Optional.of(account));
         when(encoder.matches(currentPassword, account.getPassword())).thenReturn(true);
+        when(passwordHistoryVerifier.isPreviouslyUsed(account, currentPassword)).thenReturn(true);
 
         assertThrows(PasswordPreviouslyUsedException.class,
                 () -> accountService.changePasswordSelf(currentPassword, currentPassword, account.getLogin()));
@@ -957,6 +960,7 @@ public class AccountServiceMockTest {
 
         accountService.changeAccountPassword(tokenVal, newPassword);
         assertEquals(newPassword, account.getPassword());
+        verify(passwordHistoryVerifier, times(1)).addToHistory(account, newPassword);
     }
 
     @Test
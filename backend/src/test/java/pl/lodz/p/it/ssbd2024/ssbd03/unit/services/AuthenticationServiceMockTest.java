@@ -5,7 +5,6 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.test.context.annotation.SecurityTestExecutionListeners;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
@@ -26,13 +25,12 @@ import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.AccountHistoryDataAuthFacade;
 import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.AuthenticationFacade;
 import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.TokenAuthFacade;
 import pl.lodz.p.it.ssbd2024.ssbd03.mok.services.implementations.AuthenticationService;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.authcode.AuthenticationCodeStore;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.AuthenticationCodeProvider;
 import pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.JWTProvider;
 import pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.MailProvider;
 import pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.TokenProvider;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.security.NoSuchAlgorithmException;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -50,7 +48,10 @@ public class AuthenticationServiceMockTest {
     private JWTProvider jwtProvider;
 
     @Mock
-    private PasswordEncoder passwordEncoder;
+    private AuthenticationCodeProvider authenticationCodeProvider;
+
+    @Mock
+    private AuthenticationCodeStore authenticationCodeStore;
 
     @Mock
     private MailProvider mailProvider;
@@ -107,7 +108,8 @@ public class AuthenticationServiceMockTest {
         account.setActive(true);
         String exampleCode = "ExampleCode";
         when(authenticationFacade.findByLogin(account.getLogin())).thenReturn(Optional.of(account));
-        when(tokenFacade.findByTypeAndAccount(Token.TokenType.MULTI_FACTOR_AUTHENTICATION_CODE, account.getId())).thenReturn(Optional.empty());
+        when(authenticationCodeProvider.digest(account, exampleCode)).thenReturn(exampleCode);
+        when(authenticationCodeStore.consume(account, exampleCode)).thenThrow(TokenNotFoundException.class);
         assertThrows(TokenNotFoundException.class, () -> authenticationService.loginUsingAuthenticationCode(account.getLogin(), exampleCode));
     }
 
@@ -115,11 +117,10 @@ public class AuthenticationServiceMockTest {
     public void loginUsingAuthenticationCodeTestNegativeTokenInvalid() throws Exception {
         Account account = new Account("exampleLogin", "examplePassword", "exampleFirstname", "exampleLastname", "exampleEmail", "examplePhoneNumber");
         String exampleCode = "ExampleCode";
-        Token token = new Token(exampleCode, account, Token.TokenType.MULTI_FACTOR_AUTHENTICATION_CODE);
         account.setActive(true);
         when(authenticationFacade.findByLogin(account.getLogin())).thenReturn(Optional.of(account));
-        when(tokenFacade.findByTypeAndAccount(Token.TokenType.MULTI_FACTOR_AUTHENTICATION_CODE, account.getId())).thenReturn(Optional.of(token));
-        when(jwtProvider.isMultiFactorAuthTokenValid(token.getTokenValue())).thenReturn(false);
+        when(authenticationCodeProvider.digest(account, exampleCode)).thenReturn(exampleCode);
+        when(authenticationCodeStore.consume(account, exampleCode)).thenThrow(TokenNotValidException.class);
         assertThrows(TokenNotValidException.class, () -> authenticationService.loginUsingAuthenticationCode(account.getLogin(), exampleCode));
     }
 
@@ -127,13 +128,10 @@ public class AuthenticationServiceMockTest {
     public void loginUsingAuthenticationCodeTestNegativeGivenAuthCodeDoesNotMatchOriginal() throws ApplicationBaseException {
         Account account = new Account("exampleLogin", "examplePassword", "exampleFirstname", "exampleLastname", "exampleEmail", "examplePhoneNumber");
         String exampleCode = "ExampleCode";
-        Token token = new Token(exampleCode, account, Token.TokenType.MULTI_FACTOR_AUTHENTICATION_CODE);
         account.setActive(true);
         when(authenticationFacade.findByLogin(account.getLogin())).thenReturn(Optional.of(account));
-        when(tokenFacade.findByTypeAndAccount(Token.TokenType.MULTI_FACTOR_AUTHENTICATION_CODE, account.getId())).thenReturn(Optional.of(token));
-        when(jwtProvider.extractHashedCodeValueFromToken(token.getTokenValue())).thenReturn(exampleCode);
-        when(jwtProvider.isMultiFactorAuthTokenValid(token.getTokenValue())).thenReturn(true);
-        when(passwordEncoder.matches(exampleCode, token.getTokenValue())).thenReturn(false);
+        when(authenticationCodeProvider.digest(account, exampleCode)).thenReturn(exampleCode);
+        when(authenticationCodeStore.consume(account, exampleCode)).thenReturn(false);
         assertThrows(TokenNotValidException.class, () -> authenticationService.loginUsingAuthenticationCode(account.getLogin(), exampleCode));
     }
 
@@ -141,17 +139,14 @@ public class AuthenticationServiceMockTest {
     public void loginUsingAuthenticationCodeTestPositive() throws ApplicationBaseException {
         Account account = new Account("exampleLogin", "examplePassword", "exampleFirstname", "exampleLastname", "exampleEmail", "examplePhoneNumber");
         String exampleCode = "ExampleCode";
-        Token token = new Token(exampleCode, account, Token.TokenType.MULTI_FACTOR_AUTHENTICATION_CODE);
         account.setActive(true);
         when(authenticationFacade.findByLogin(account.getLogin())).thenReturn(Optional.of(account));
-        when(tokenFacade.findByTypeAndAccount(Token.TokenType.MULTI_FACTOR_AUTHENTICATION_CODE, account.getId())).thenReturn(Optional.of(token));
-        when(jwtProvider.isMultiFactorAuthTokenValid(token.getTokenValue())).thenReturn(true);
-        when(jwtProvider.extractHashedCodeValueFromToken(token.getTokenValue())).thenReturn(exampleCode);
-        when(passwordEncoder.matches(exampleCode, token.getTokenValue())).thenReturn(true);
-        doNothing().when(tokenFacade).remove(token);
+        when(authenticationCodeProvider.digest(account, exampleCode)).thenReturn(exampleCode);
+        when(authenticationCodeStore.consume(account, exampleCode)).thenReturn(true);
 
         authenticationService.loginUsingAuthenticationCode(account.getLogin(), exampleCode);
-        verify(tokenFacade, times(1)).remove(token);
+        verify(authenticationCodeStore, times(1)).consume(account, exampleCode);
+        verifyNoInteractions(tokenFacade);
     }
 
     @Test
@@ -310,19 +305,19 @@ public class AuthenticationServiceMockTest {
     }
 
     @Test
-    public void registerSuccessfulLoginAttemptFor2FATestPositive() throws ApplicationBaseException, NoSuchAlgorithmException, NoSuchMethodException, InvocationTargetException, IllegalAccessException {
-        Method method = AuthenticationService.class.getDeclaredMethod("generateKey");
-        method.setAccessible(true);
-        method.invoke(authenticationService);
-
+    public void registerSuccessfulLoginAttemptFor2FATestPositive() throws ApplicationBaseException {
         Account account = new Account("exampleLogin", "examplePassword", "exampleFirstname", "exampleLastname", "exampleEmail", "examplePhoneNumber");
         String exampleIpAddress = "ExampleIpAddress";
         String exampleLanguage = "ExampleLanguage";
         account.setAccountLanguage(exampleLanguage);
         when(authenticationFacade.findByLogin(account.getLogin())).thenReturn(Optional.of(account));
+        when(authenticationCodeProvider.generateCode(account)).thenReturn("12345678");
+        when(authenticationCodeProvider.digest(account, "12345678")).thenReturn("ExampleDigest");
 
         AccessAndRefreshTokensDTO accessAndRefreshTokensDTO = authenticationService.registerSuccessfulLoginAttempt(account.getLogin(), false, exampleIpAddress, exampleLanguage);
         assertNull(accessAndRefreshTokensDTO);
+        verify(authenticationCodeStore, times(1)).put(account, "ExampleDigest");
+        verifyNoInteractions(tokenFacade);
     }
 
     @Test
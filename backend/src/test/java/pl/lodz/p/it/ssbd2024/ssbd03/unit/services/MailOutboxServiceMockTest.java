@@ -0,0 +1,126 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.unit.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.AbstractEntity;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.MailOutboxMessage;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.MailOutboxFacade;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.services.implementations.MailOutboxService;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.mail.MailDigestCategory;
+
+import java.lang.reflect.Field;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class MailOutboxServiceMockTest {
+
+    @Mock
+    private MailOutboxFacade mailOutboxFacade;
+
+    @InjectMocks
+    private MailOutboxService mailOutboxService;
+
+    @BeforeEach
+    public void setMailOutboxServiceParameters() throws NoSuchFieldException, IllegalAccessException {
+        setField("leaseSeconds", 300L);
+        setField("maxAttempts", 3);
+        setField("initialBackoffSeconds", 30L);
+        setField("maxBackoffSeconds", 100L);
+    }
+
+    @Test
+    void claimDueMessagesStartsAttemptsAndLeasesMessages() throws Exception {
+        MailOutboxMessage message = createMessage();
+        when(mailOutboxFacade.findDueBatch(any(LocalDateTime.class), eq(10))).thenReturn(List.of(message));
+
+        List<MailOutboxMessage> claimed = mailOutboxService.claimDueMessages(10);
+
+        assertEquals(List.of(message), claimed);
+        assertEquals(1, message.getAttempts());
+        assertTrue(message.getNextAttemptTime().isAfter(LocalDateTime.now().plusSeconds(290)));
+    }
+
+    @Test
+    void claimDueMessagesClaimsHeldNotificationsOfTheSameDigest() throws Exception {
+        MailOutboxMessage due = createNotification(LocalDateTime.now().minusSeconds(1));
+        MailOutboxMessage held = createNotification(LocalDateTime.now().plusSeconds(50));
+        when(mailOutboxFacade.findDueBatch(any(LocalDateTime.class), eq(10))).thenReturn(List.of(due));
+        when(mailOutboxFacade.findHeldDigestItems("example@example.com", MailDigestCategory.SYSTEM_END_RESERVATION, 10))
+                .thenReturn(List.of(due, held));
+
+        List<MailOutboxMessage> claimed = mailOutboxService.claimDueMessages(10);
+
+        assertEquals(List.of(due, held), claimed);
+        assertEquals(1, due.getAttempts());
+        assertEquals(1, held.getAttempts());
+    }
+
+    @Test
+    void recordDeliveryResultsRemovesDeliveredAndRetriesFailedWithBackoff() throws Exception {
+        MailOutboxMessage message = createMessage();
+        message.startAttempt(LocalDateTime.now());
+        message.startAttempt(LocalDateTime.now());
+        UUID deliveredId = UUID.randomUUID();
+        when(mailOutboxFacade.find(message.getId())).thenReturn(Optional.of(message));
+
+        int failed = mailOutboxService.recordDeliveryResults(List.of(deliveredId), Map.of(message.getId(), "Connection refused"));
+
+        assertEquals(0, failed);
+        verify(mailOutboxFacade).removeByIds(List.of(deliveredId));
+        verify(mailOutboxFacade).edit(message);
+        assertEquals(MailOutboxMessage.MailStatus.PENDING, message.getStatus());
+        assertEquals("Connection refused", message.getLastError());
+        LocalDateTime nextAttemptTime = message.getNextAttemptTime();
+        assertTrue(nextAttemptTime.isAfter(LocalDateTime.now().plusSeconds(55)));
+        assertTrue(nextAttemptTime.isBefore(LocalDateTime.now().plusSeconds(65)));
+    }
+
+    @Test
+    void recordDeliveryResultsFailsMessageAfterMaximumNumberOfAttempts() throws Exception {
+        MailOutboxMessage message = createMessage();
+        for (int i = 0; i < 3; i++) message.startAttempt(LocalDateTime.now());
+        when(mailOutboxFacade.find(message.getId())).thenReturn(Optional.of(message));
+
+        int failed = mailOutboxService.recordDeliveryResults(List.of(), Map.of(message.getId(), "Mailbox unavailable"));
+
+        assertEquals(1, failed);
+        assertEquals(MailOutboxMessage.MailStatus.FAILED, message.getStatus());
+        verify(mailOutboxFacade).edit(message);
+    }
+
+    private void setField(String name, Object value) throws NoSuchFieldException, IllegalAccessException {
+        Field field = MailOutboxService.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(mailOutboxService, value);
+    }
+
+    private static MailOutboxMessage createNotification(LocalDateTime nextAttemptTime) throws Exception {
+        MailOutboxMessage message = new MailOutboxMessage("example@example.com", "Subject", "<p>Content</p>",
+                MailDigestCategory.SYSTEM_END_RESERVATION, "Reservation: 1", "en", "John", "Doe", nextAttemptTime);
+        return withId(message);
+    }
+
+    private static MailOutboxMessage createMessage() throws Exception {
+        return withId(new MailOutboxMessage("example@example.com", "Subject", "<p>Content</p>"));
+    }
+
+    private static MailOutboxMessage withId(MailOutboxMessage message) throws Exception {
+        Field id = AbstractEntity.class.getDeclaredField("id");
+        id.setAccessible(true);
+        id.set(message, UUID.randomUUID());
+        return message;
+    }
+}
@@ -13,6 +13,7 @@ import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.AccountHistoryData;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Token;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Account;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationDatabaseException;
 import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.AccountHistoryDataFacade;
 import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.AccountMOKFacade;
 import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.TokenFacade;
@@ -61,6 +62,9 @@ public class ScheduleServiceMockTest {
         Field resendRegistrationConfirmationEmailAfterHoursField = scheduleService.getClass().getDeclaredField("resendRegistrationConfirmationEmailAfterHours");
         resendRegistrationConfirmationEmailAfterHoursField.setAccessible(true);
         resendRegistrationConfirmationEmailAfterHoursField.set(scheduleService, 12);
+        Field expiredTokensBatchSizeField = scheduleService.getClass().getDeclaredField("expiredTokensBatchSize");
+        expiredTokensBatchSizeField.setAccessible(true);
+        expiredTokensBatchSizeField.set(scheduleService, 2);
 
     }
 
@@ -198,4 +202,21 @@ public class ScheduleServiceMockTest {
 
         verify(mailProvider, never()).sendUnblockAccountInfoEmail(any(), any(), any(), any());
     }
+
+    @Test
+    void removeExpiredTokensTestRemovesUntilBatchIsNotFull() throws Exception {
+        when(tokenFacade.removeExpiredBatch(any(LocalDateTime.class), eq(2))).thenReturn(2, 2, 1);
+
+        scheduleService.removeExpiredTokens();
+
+        verify(tokenFacade, times(3)).removeExpiredBatch(any(LocalDateTime.class), eq(2));
+    }
+
+    @Test
+    void removeExpiredTokensTestUnsuccessful() throws Exception {
+        when(tokenFacade.removeExpiredBatch(any(LocalDateTime.class), eq(2))).thenThrow(ApplicationDatabaseException.class);
+
+        assertDoesNotThrow(() -> scheduleService.removeExpiredTokens());
+        verify(tokenFacade, times(1)).removeExpiredBatch(any(LocalDateTime.class), eq(2));
+    }
 }
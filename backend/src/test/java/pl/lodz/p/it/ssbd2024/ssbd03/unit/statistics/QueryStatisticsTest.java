@@ -0,0 +1,87 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.unit.statistics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.dbconfig.statistics.QueryStatisticsFilter;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.dbconfig.statistics.QueryStatisticsStatementInspector;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.dbconfig.statistics.RequestQueryStatistics;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QueryStatisticsTest {
+
+    private static final String SELECT_SECTOR = "select s.id, s.name from sector s where s.parking_id = ?";
+
+    private final QueryStatisticsStatementInspector inspector = new QueryStatisticsStatementInspector();
+
+    @AfterEach
+    public void tearDown() {
+        RequestQueryStatistics.stop();
+    }
+
+    @Test
+    public void shapeOfCollapsesWhitespacesAndParameterLists() {
+        assertEquals("select * from parking p where p.id in (?...)",
+                RequestQueryStatistics.shapeOf("  select *\n  from parking p\twhere p.id in (?, ?,?)  "));
+        assertEquals(RequestQueryStatistics.shapeOf("select * from sector where id in (?, ?)"),
+                RequestQueryStatistics.shapeOf("select * from sector where id in (?, ?, ?, ?)"));
+    }
+
+    @Test
+    public void statementsAreNotRecordedWithoutBoundStatistics() {
+        assertEquals(SELECT_SECTOR, inspector.inspect(SELECT_SECTOR));
+        assertNull(RequestQueryStatistics.current());
+    }
+
+    @Test
+    public void repeatedStatementsAreReportedFromThreshold() {
+        RequestQueryStatistics statistics = RequestQueryStatistics.start();
+        for (int i = 0; i < 3; i++) inspector.inspect(SELECT_SECTOR);
+        inspector.inspect("select * from parking");
+
+        assertEquals(4, statistics.getStatements());
+        assertEquals(Map.of(SELECT_SECTOR, 3), statistics.getRepeatedStatements(3));
+        assertEquals(List.of(SELECT_SECTOR, "select * from parking"), List.copyOf(statistics.getStatementShapes().keySet()));
+        assertTrue(statistics.getRepeatedStatements(4).isEmpty());
+    }
+
+    @Test
+    public void filterReturnsQueryCountHeaderAndKeepsOffendingRequests() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        QueryStatisticsFilter filter = new QueryStatisticsFilter(true, true, 50, 3, 10, registry);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/parking");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> {
+            for (int i = 0; i < 5; i++) inspector.inspect(SELECT_SECTOR);
+            res.getWriter().write("[]");
+        });
+
+        assertEquals("5", response.getHeader(QueryStatisticsFilter.QUERY_COUNT_HEADER));
+        assertEquals("[]", response.getContentAsString());
+        assertNull(RequestQueryStatistics.current());
+        assertEquals(1, registry.get("hibernate.request.statements").summary().count());
+
+        List<QueryStatisticsFilter.OffendingRequest> offending = filter.getRecentOffendingRequests();
+        assertEquals(1, offending.size());
+        assertEquals("/api/v1/parking", offending.get(0).path());
+        assertEquals(Map.of(SELECT_SECTOR, 5), offending.get(0).repeated());
+    }
+
+    @Test
+    public void disabledFilterDoesNotBindStatistics() throws Exception {
+        QueryStatisticsFilter filter = new QueryStatisticsFilter(false, true, 50, 3, 10, new SimpleMeterRegistry());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/parking"), response,
+                (req, res) -> assertNull(RequestQueryStatistics.current()));
+
+        assertNull(response.getHeader(QueryStatisticsFilter.QUERY_COUNT_HEADER));
+    }
+}
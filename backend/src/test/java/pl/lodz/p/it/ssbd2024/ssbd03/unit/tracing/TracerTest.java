@@ -0,0 +1,143 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.unit.tracing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.tracing.JsonLinesSpanExporter;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.tracing.Span;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.tracing.SpanExporter;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.tracing.TraceContext;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.tracing.Tracer;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TracerTest {
+
+    private final List<List<Span>> exported = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        Tracer.setExporter((root, spans) -> exported.add(spans));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        Tracer.setExporter(null);
+    }
+
+    @Test
+    public void childSpansAreExportedWithTheirRoot() {
+        Span root = Tracer.startSpan("GET /api/v1/parking", Span.Kind.SERVER);
+        assertEquals(root.getTraceId(), MDC.get(Tracer.TRACE_ID_MDC_KEY));
+        Span child = Tracer.startSpan("ParkingService.getParkingById", Span.Kind.INTERNAL);
+        Span commit = Tracer.startDetachedSpan("transaction.commit");
+        assertSame(child, Tracer.currentSpan());
+        commit.end();
+        child.end();
+        assertSame(root, Tracer.currentSpan());
+        assertTrue(exported.isEmpty());
+        root.end();
+
+        assertNull(Tracer.currentSpan());
+        assertNull(MDC.get(Tracer.TRACE_ID_MDC_KEY));
+        assertEquals(List.of(List.of(commit, child, root)), exported);
+        assertEquals(32, root.getTraceId().length());
+        assertNull(root.getParentSpanId());
+        assertEquals(root.getSpanId(), child.getParentSpanId());
+        assertEquals(child.getSpanId(), commit.getParentSpanId());
+        assertEquals(root.getTraceId(), commit.getTraceId());
+    }
+
+    @Test
+    public void propagatedTaskContinuesTheTraceOnAnotherThread() throws InterruptedException {
+        Span root = Tracer.startSpan("POST /api/v1/reservations", Span.Kind.SERVER);
+        Runnable task = Tracer.propagate(() -> Tracer.startSpan("MailService.send", Span.Kind.INTERNAL).end());
+        root.end();
+
+        Thread thread = new Thread(task);
+        thread.start();
+        thread.join();
+
+        assertEquals(2, exported.size());
+        List<Span> asyncSpans = exported.get(1);
+        Span asyncRoot = asyncSpans.get(asyncSpans.size() - 1);
+        assertEquals("async.task", asyncRoot.getName());
+        assertEquals(root.getTraceId(), asyncRoot.getTraceId());
+        assertEquals(root.getSpanId(), asyncRoot.getParentSpanId());
+        assertEquals(asyncRoot.getSpanId(), asyncSpans.get(0).getParentSpanId());
+    }
+
+    @Test
+    public void taskIsNotWrappedWithoutCurrentSpan() {
+        Runnable task = () -> {};
+        assertSame(task, Tracer.propagate(task));
+    }
+
+    @Test
+    public void traceparentIsParsedOnlyWhenValid() {
+        TraceContext context = TraceContext.fromTraceparent("00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01");
+        assertEquals(new TraceContext("4bf92f3577b34da6a3ce929d0e0e4736", "00f067aa0ba902b7"), context);
+        assertNull(TraceContext.fromTraceparent("00-00000000000000000000000000000000-00f067aa0ba902b7-01"));
+        assertNull(TraceContext.fromTraceparent("not-a-traceparent"));
+        assertNull(TraceContext.fromTraceparent(null));
+
+        Span span = Tracer.startSpan("GET /api/v1/sectors", Span.Kind.SERVER, context);
+        span.end();
+        assertEquals(context.traceId(), span.getTraceId());
+        assertEquals(context.spanId(), span.getParentSpanId());
+    }
+
+    @Test
+    public void exporterWritesOtlpJsonLines() throws Exception {
+        Path file = Files.createTempDirectory("traces").resolve("traces.jsonl");
+        JsonLinesSpanExporter exporter = new JsonLinesSpanExporter(file, 16, 0, "ssbd03");
+        SpanExporter collecting = (root, spans) -> {
+            exported.add(spans);
+            exporter.export(root, spans);
+        };
+        Tracer.setExporter(collecting);
+
+        Span root = Tracer.startSpan("GET /api/v1/parking", Span.Kind.SERVER);
+        root.setAttribute("http.response.status_code", 500);
+        root.setError("HTTP 500");
+        Tracer.startSpan("ParkingFacade.findById", Span.Kind.INTERNAL).end();
+        root.end();
+        exporter.close();
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(1, lines.size());
+        assertEquals(1, exporter.getExportedTraces());
+        JsonNode resourceSpans = new ObjectMapper().readTree(lines.get(0)).get("resourceSpans").get(0);
+        assertEquals("ssbd03", resourceSpans.at("/resource/attributes/0/value/stringValue").asText());
+        JsonNode spans = resourceSpans.at("/scopeSpans/0/spans");
+        assertEquals(2, spans.size());
+        JsonNode rootNode = spans.get(1);
+        assertEquals(root.getTraceId(), rootNode.get("traceId").asText());
+        assertEquals(2, rootNode.get("kind").asInt());
+        assertEquals(String.valueOf(root.getStartEpochNanos()), rootNode.get("startTimeUnixNano").asText());
+        assertEquals("500", rootNode.at("/attributes/0/value/intValue").asText());
+        assertEquals(2, rootNode.at("/status/code").asInt());
+        assertEquals(root.getSpanId(), spans.get(0).get("parentSpanId").asText());
+    }
+
+    @Test
+    public void exporterSkipsTracesShorterThanMinimalDuration() throws Exception {
+        Path file = Files.createTempDirectory("traces").resolve("traces.jsonl");
+        JsonLinesSpanExporter exporter = new JsonLinesSpanExporter(file, 16, 60_000, "ssbd03");
+        Tracer.setExporter(exporter);
+
+        Tracer.startSpan("GET /api/v1/parking", Span.Kind.SERVER).end();
+        exporter.close();
+
+        assertEquals(0, exporter.getExportedTraces());
+        assertTrue(Files.readAllLines(file).isEmpty());
+    }
+}
@@ -7,6 +7,7 @@ GRANT SELECT, INSERT, DELETE, UPDATE ON TABLE public.client_data    TO ssbd03mok
 GRANT SELECT, INSERT, DELETE, UPDATE ON TABLE public.staff_data     TO ssbd03mok;
 GRANT SELECT, INSERT, DELETE, UPDATE ON TABLE public.admin_data     TO ssbd03mok;
 GRANT SELECT, INSERT, DELETE, UPDATE ON TABLE public.token          TO ssbd03mok;
+GRANT SELECT, INSERT, DELETE, UPDATE ON TABLE public.mail_outbox    TO ssbd03mok;
 
 GRANT SELECT, INSERT, DELETE, UPDATE ON TABLE public.account_attributes     TO ssbd03mok;
 GRANT SELECT, INSERT, DELETE, UPDATE ON TABLE public.attribute_association  TO ssbd03mok;
@@ -24,9 +25,12 @@ GRANT SELECT, INSERT, DELETE, UPDATE ON TABLE public.sector         TO ssbd03mop
 GRANT SELECT, INSERT, DELETE, UPDATE ON TABLE public.parking_event  TO ssbd03mop;
 GRANT SELECT                         ON TABLE public.account        TO ssbd03mop;
 GRANT SELECT                         ON TABLE public.personal_data  TO ssbd03mop;
-GRANT SELECT                         ON TABLE public.user_level     TO ssbd03mop;
+GRANT SELECT                , UPDATE ON TABLE public.user_level     TO ssbd03mop;
 GRANT SELECT                , UPDATE ON TABLE public.client_data    TO ssbd03mop;
+GRANT SELECT                         ON TABLE public.admin_data     TO ssbd03mop;
+GRANT SELECT                         ON TABLE public.staff_data     TO ssbd03mop;
 GRANT SELECT, INSERT                 ON TABLE public.parking_history        TO ssbd03mop;
+GRANT INSERT                         ON TABLE public.mail_outbox    TO ssbd03mop;
 
 GRANT SELECT                         ON TABLE public.account_attributes     TO ssbd03mop;
 GRANT SELECT                         ON TABLE public.account_attributes     TO ssbd03mop;
@@ -111,13 +115,13 @@ INSERT INTO public.reservation (id, creation_timestamp, begin_time, end_time, cl
 INSERT INTO public.reservation (id, creation_timestamp, begin_time, end_time, client_id, sector_id, version, status) VALUES ('a7709a4d-b7bc-40c4-8fd5-5c7cfcb0f146', current_timestamp, TIMESTAMP '2024-03-01 15:00:00', TIMESTAMP '2024-03-01 16:00:00', null, 'c51557aa-284d-44a6-b38d-b6ceb9c23725', 0, 'AWAITING');
 
 -- First token
-INSERT INTO public.token (id, creation_timestamp, account_id, token_value, type, version) VALUES ('4ac79a06-2b75-4519-b430-1abe0e05f04e', current_timestamp, '0ca02f7e-d8e9-45d3-a332-a56015acb822', 'TEST_VALUE', 'CONFIRM_EMAIL', 0);
+INSERT INTO public.token (id, creation_timestamp, account_id, token_value, token_digest, type, version) VALUES ('4ac79a06-2b75-4519-b430-1abe0e05f04e', current_timestamp, '0ca02f7e-d8e9-45d3-a332-a56015acb822', 'TEST_VALUE', sha256(convert_to('TEST_VALUE', 'UTF8')), 'CONFIRM_EMAIL', 0);
 
 -- Second token
-INSERT INTO public.token (id, creation_timestamp, account_id, token_value, type, version) VALUES ('499c0085-c0b8-424e-97f5-84abe66f9bf6', current_timestamp, '902d6e5b-2449-4898-a4f7-a92b0d8a04e1', 'TEST_VALUE2', 'RESET_PASSWORD', 0);
+INSERT INTO public.token (id, creation_timestamp, account_id, token_value, token_digest, type, version) VALUES ('499c0085-c0b8-424e-97f5-84abe66f9bf6', current_timestamp, '902d6e5b-2449-4898-a4f7-a92b0d8a04e1', 'TEST_VALUE2', sha256(convert_to('TEST_VALUE2', 'UTF8')), 'RESET_PASSWORD', 0);
 
 -- Third token
-INSERT INTO public.token (id, creation_timestamp, account_id, token_value, type, version) VALUES ('b269207d-7627-4a91-af86-87d2b975d487', current_timestamp, 'e0bf979b-6b42-432d-8462-544d88b1ab5f', 'TEST_VALUE3', 'CHANGE_OVERWRITTEN_PASSWORD', 0);
+INSERT INTO public.token (id, creation_timestamp, account_id, token_value, token_digest, type, version) VALUES ('b269207d-7627-4a91-af86-87d2b975d487', current_timestamp, 'e0bf979b-6b42-432d-8462-544d88b1ab5f', 'TEST_VALUE3', sha256(convert_to('TEST_VALUE3', 'UTF8')), 'CHANGE_OVERWRITTEN_PASSWORD', 0);
 
 -- Parking event - Reservation 1
 INSERT INTO public.parking_event (id, reservation_id, date, type, version) VALUES ('b922b5c3-08a8-4902-8ca0-e99e65506fa5', '90a0035d-6265-4b53-a547-901b3bbabd1d', TIMESTAMP '2024-04-10 07:00:00', 'ENTRY', 0);
@@ -138,9 +142,9 @@ INSERT INTO public.user_level (id, creation_timestamp, level, account_id, versio
 INSERT INTO public.client_data (id, type, total_reservation_hours) VALUES ('4d1c0c8a-3af5-4ce9-ba95-09d25d289a76', 'BASIC', 0);
 
 -- User 1 - Token 1
-INSERT INTO public.token (id, creation_timestamp, account_id, token_value, type, version) VALUES ('582c432a-c5d9-4758-863a-4999a7d95de5', current_timestamp, 'f5afc042-79b0-47fe-87ee-710c14af888c', 'TEST_VALUE90', 'CONFIRM_EMAIL', 0);
+INSERT INTO public.token (id, creation_timestamp, account_id, token_value, token_digest, type, version) VALUES ('582c432a-c5d9-4758-863a-4999a7d95de5', current_timestamp, 'f5afc042-79b0-47fe-87ee-710c14af888c', 'TEST_VALUE90', sha256(convert_to('TEST_VALUE90', 'UTF8')), 'CONFIRM_EMAIL', 0);
 -- User 1 - Token 2
-INSERT INTO public.token (id, creation_timestamp, account_id, token_value, type, version) VALUES ('e0c86942-aed7-44a4-bda2-a89c3f4bdd37', current_timestamp, 'f5afc042-79b0-47fe-87ee-710c14af888c', 'TEST_VALUE91', 'CONFIRM_EMAIL', 0);
+INSERT INTO public.token (id, creation_timestamp, account_id, token_value, token_digest, type, version) VALUES ('e0c86942-aed7-44a4-bda2-a89c3f4bdd37', current_timestamp, 'f5afc042-79b0-47fe-87ee-710c14af888c', 'TEST_VALUE91', sha256(convert_to('TEST_VALUE91', 'UTF8')), 'CONFIRM_EMAIL', 0);
 
 -- Not suspended User 2 - Staff
 INSERT INTO public.account (id, login, password, suspended, active, two_factor_auth, language, phone_number, creation_timestamp, version, blocked) VALUES ('d20f860d-555a-479e-8783-67aee5b66692', 'adamn', '$2a$12$A1wGVanmSuv.GRqlKI4OuuvtV.AgP8pfb3I3fOyNuvgOHpuCiGzHa', true, true, false, 'PL', '200000000', current_timestamp, 0, false);
@@ -151,7 +155,7 @@ INSERT INTO public.user_level (id, creation_timestamp, level, account_id, versio
 INSERT INTO public.staff_data (id) VALUES ('c09d20a0-69e9-4a50-af00-3973b5d1d85c');
 
 -- User 2 - Token 1
-INSERT INTO public.token (id, creation_timestamp, account_id, token_value, type, version) VALUES ('9847130d-6e60-4b3d-a9c3-b913f50769da', current_timestamp, 'd20f860d-555a-479e-8783-67aee5b66692', 'TEST_VALUE93', 'CONFIRM_EMAIL', 0);
+INSERT INTO public.token (id, creation_timestamp, account_id, token_value, token_digest, type, version) VALUES ('9847130d-6e60-4b3d-a9c3-b913f50769da', current_timestamp, 'd20f860d-555a-479e-8783-67aee5b66692', 'TEST_VALUE93', sha256(convert_to('TEST_VALUE93', 'UTF8')), 'CONFIRM_EMAIL', 0);
 
 
 -- Multi reservations
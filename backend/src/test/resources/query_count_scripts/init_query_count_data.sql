@@ -0,0 +1,75 @@
+-- Standard dataset of the query count tests (QueryCountIT), loaded on top of the facade test data. Every list
+-- endpoint called by the tests has more rows than the requested page, so that a statement executed for each row
+-- of the page shows up as a multiple of the page size.
+
+GRANT SELECT, INSERT                 ON TABLE public.account_history        TO ssbd03mok;
+
+-- Administrator and staff member (qcadmin) and client (qcclient) used as principals of the tests
+
+INSERT INTO public.account (id, login, password, suspended, active, two_factor_auth, language, phone_number, creation_timestamp, version, blocked) VALUES ('a1000000-0000-4000-8000-000000000001', 'qcadmin', '$2a$12$A1wGVanmSuv.GRqlKI4OuuvtV.AgP8pfb3I3fOyNuvgOHpuCiGzHa', false, true, false, 'PL', '300000001', current_timestamp, 0, false);
+INSERT INTO public.personal_data (id, name, lastname, email) VALUES ('a1000000-0000-4000-8000-000000000001', 'Adam', 'Kwerenda', 'qcadmin@example.com');
+INSERT INTO public.past_password (account_id, past_password) VALUES ('a1000000-0000-4000-8000-000000000001', '$2a$12$A1wGVanmSuv.GRqlKI4OuuvtV.AgP8pfb3I3fOyNuvgOHpuCiGzHa');
+INSERT INTO public.user_level (id, creation_timestamp, level, account_id, version) VALUES ('a2000000-0000-4000-8000-000000000001', current_timestamp, 'ADMIN', 'a1000000-0000-4000-8000-000000000001', 0);
+INSERT INTO public.admin_data (id) VALUES ('a2000000-0000-4000-8000-000000000001');
+INSERT INTO public.user_level (id, creation_timestamp, level, account_id, version) VALUES ('a2000000-0000-4000-8000-000000000002', current_timestamp, 'STAFF', 'a1000000-0000-4000-8000-000000000001', 0);
+INSERT INTO public.staff_data (id) VALUES ('a2000000-0000-4000-8000-000000000002');
+
+INSERT INTO public.account (id, login, password, suspended, active, two_factor_auth, language, phone_number, creation_timestamp, version, blocked) VALUES ('a1000000-0000-4000-8000-000000000002', 'qcclient', '$2a$12$A1wGVanmSuv.GRqlKI4OuuvtV.AgP8pfb3I3fOyNuvgOHpuCiGzHa', false, true, false, 'PL', '300000002', current_timestamp, 0, false);
+INSERT INTO public.personal_data (id, name, lastname, email) VALUES ('a1000000-0000-4000-8000-000000000002', 'Celina', 'Kwerenda', 'qcclient@example.com');
+INSERT INTO public.past_password (account_id, past_password) VALUES ('a1000000-0000-4000-8000-000000000002', '$2a$12$A1wGVanmSuv.GRqlKI4OuuvtV.AgP8pfb3I3fOyNuvgOHpuCiGzHa');
+INSERT INTO public.user_level (id, creation_timestamp, level, account_id, version) VALUES ('a2000000-0000-4000-8000-000000000003', current_timestamp, 'CLIENT', 'a1000000-0000-4000-8000-000000000002', 0);
+INSERT INTO public.client_data (id, type, total_reservation_hours) VALUES ('a2000000-0000-4000-8000-000000000003', 'STANDARD', 0);
+
+-- 30 more clients
+
+INSERT INTO public.account (id, login, password, suspended, active, two_factor_auth, language, phone_number, creation_timestamp, version, blocked)
+SELECT md5('qc-account-' || i)::uuid, 'qcuser' || lpad(i::text, 2, '0'), '$2a$12$A1wGVanmSuv.GRqlKI4OuuvtV.AgP8pfb3I3fOyNuvgOHpuCiGzHa', false, true, false, 'PL', '31' || lpad(i::text, 7, '0'), current_timestamp, 0, false
+FROM generate_series(1, 30) AS i;
+INSERT INTO public.personal_data (id, name, lastname, email)
+SELECT md5('qc-account-' || i)::uuid, 'Jan', 'Kwerenda', 'qcuser' || lpad(i::text, 2, '0') || '@example.com'
+FROM generate_series(1, 30) AS i;
+INSERT INTO public.past_password (account_id, past_password)
+SELECT md5('qc-account-' || i)::uuid, '$2a$12$A1wGVanmSuv.GRqlKI4OuuvtV.AgP8pfb3I3fOyNuvgOHpuCiGzHa'
+FROM generate_series(1, 30) AS i;
+INSERT INTO public.user_level (id, creation_timestamp, level, account_id, version)
+SELECT md5('qc-user-level-' || i)::uuid, current_timestamp, 'CLIENT', md5('qc-account-' || i)::uuid, 0
+FROM generate_series(1, 30) AS i;
+INSERT INTO public.client_data (id, type, total_reservation_hours)
+SELECT md5('qc-user-level-' || i)::uuid, 'BASIC', 0
+FROM generate_series(1, 30) AS i;
+
+-- 12 versions of history of the client account
+
+INSERT INTO public.account_history (id, version, login, password, suspended, active, blocked, two_factor_auth, first_name, last_name, email, phone_number, unsuccessful_login_counter, language, operation_type, modification_time, modified_by)
+SELECT 'a1000000-0000-4000-8000-000000000002', i, 'qcclient', '$2a$12$A1wGVanmSuv.GRqlKI4OuuvtV.AgP8pfb3I3fOyNuvgOHpuCiGzHa', false, true, false, false, 'Celina', 'Kwerenda', 'qcclient@example.com', '300000002', 0, 'PL', 'LOGIN', current_timestamp - (i || ' days')::interval, 'a1000000-0000-4000-8000-000000000001'
+FROM generate_series(1, 12) AS i;
+
+-- Parking with 12 sectors and 12 versions of history
+
+INSERT INTO public.parking (id, creation_timestamp, sector_strategy, zip_code, city, street, version) VALUES ('b1000000-0000-4000-8000-000000000001', current_timestamp, 'LEAST_OCCUPIED', '90-924', 'Lodz', 'Wolczanska', 12);
+
+INSERT INTO public.sector (id, creation_timestamp, occupied_places, max_places, weight, name, parking_id, type, version)
+SELECT md5('qc-sector-' || i)::uuid, current_timestamp, i, 50, i, 'QC-' || lpad(i::text, 2, '0'), 'b1000000-0000-4000-8000-000000000001', (ARRAY['COVERED', 'UNCOVERED', 'UNDERGROUND'])[i % 3 + 1], 0
+FROM generate_series(1, 12) AS i;
+
+INSERT INTO public.parking_history (id, version, city, street, zip_code, strategy, modification_time, modified_by)
+SELECT 'b1000000-0000-4000-8000-000000000001', i, 'Lodz', 'Wolczanska', '90-924', 'LEAST_OCCUPIED', current_timestamp - (i || ' days')::interval, 'a1000000-0000-4000-8000-000000000001'
+FROM generate_series(1, 12) AS i;
+
+-- 15 awaiting and 15 completed reservations of the client, in different sectors. Completed ones have entry and exit
+-- events; the first of them (b3000000-...-000000000001) is the one whose details are read by the tests.
+
+INSERT INTO public.reservation (id, creation_timestamp, begin_time, end_time, client_id, sector_id, version, status)
+SELECT ('b3000000-0000-4000-8000-' || lpad(i::text, 12, '0'))::uuid, current_timestamp, current_timestamp - (i || ' days')::interval, current_timestamp - (i || ' days')::interval + interval '2 hours', 'a2000000-0000-4000-8000-000000000003', md5('qc-sector-' || (i % 12 + 1))::uuid, 0, 'COMPLETED_MANUALLY'
+FROM generate_series(1, 15) AS i;
+
+INSERT INTO public.reservation (id, creation_timestamp, begin_time, end_time, client_id, sector_id, version, status)
+SELECT ('b3000000-0000-4000-8000-' || lpad(i::text, 12, '0'))::uuid, current_timestamp, current_timestamp + ((i - 15) || ' days')::interval, current_timestamp + ((i - 15) || ' days')::interval + interval '2 hours', 'a2000000-0000-4000-8000-000000000003', md5('qc-sector-' || (i % 12 + 1))::uuid, 0, 'AWAITING'
+FROM generate_series(16, 30) AS i;
+
+INSERT INTO public.parking_event (id, reservation_id, date, type, version)
+SELECT md5('qc-entry-' || i)::uuid, ('b3000000-0000-4000-8000-' || lpad(i::text, 12, '0'))::uuid, current_timestamp - (i || ' days')::interval, 'ENTRY', 0
+FROM generate_series(1, 15) AS i;
+INSERT INTO public.parking_event (id, reservation_id, date, type, version)
+SELECT md5('qc-exit-' || i)::uuid, ('b3000000-0000-4000-8000-' || lpad(i::text, 12, '0'))::uuid, current_timestamp - (i || ' days')::interval + interval '2 hours', 'EXIT', 0
+FROM generate_series(1, 15) AS i;